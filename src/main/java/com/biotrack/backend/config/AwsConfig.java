@@ -5,9 +5,11 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.AwsCredentials;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 import software.amazon.awssdk.services.sns.SnsClient;
 import software.amazon.awssdk.services.lambda.LambdaClient;
 
@@ -24,12 +26,25 @@ public class AwsConfig {
     private String region;
 
     @Bean
-    public S3Client s3Client() {
+    public AwsCredentialsProvider s3CredentialsProvider() {
         AwsCredentials credentials = AwsBasicCredentials.create(accessKey, secretKey);
-        
+        return StaticCredentialsProvider.create(credentials);
+    }
+
+    @Bean
+    public S3Client s3Client(AwsCredentialsProvider s3CredentialsProvider) {
         return S3Client.builder()
                 .region(Region.of(region))
-                .credentialsProvider(StaticCredentialsProvider.create(credentials))
+                .credentialsProvider(s3CredentialsProvider)
+                .build();
+    }
+
+    // Un solo presigner para toda la app (es thread-safe y costoso de crear)
+    @Bean(destroyMethod = "close")
+    public S3Presigner s3Presigner(AwsCredentialsProvider s3CredentialsProvider) {
+        return S3Presigner.builder()
+                .region(Region.of(region))
+                .credentialsProvider(s3CredentialsProvider)
                 .build();
     }
 
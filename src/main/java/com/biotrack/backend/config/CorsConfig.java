@@ -18,8 +18,10 @@ public class CorsConfig {
                             "http://localhost:4200",
                             "https://d3nv49w8q0y7qp.cloudfront.net"
                         )
-                        .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS", "PATCH")
+                        .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS", "PATCH", "HEAD")
                         .allowedHeaders("*")
+                        .exposedHeaders("Location", "Upload-Offset", "Upload-Length", "Tus-Resumable",
+                                "X-Next-Cursor", "Link")
                         .allowCredentials(true);
             }
         };
@@ -0,0 +1,36 @@
+package com.biotrack.backend.config;
+
+import com.biotrack.backend.services.FastqQcService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Retoma el control de calidad de FASTQ que quedó encolado o a medias cuando la aplicación se detuvo.
+ */
+@Component
+@ConditionalOnProperty(name = "sequencing.qc.resume-on-startup", havingValue = "true", matchIfMissing = true)
+public class FastqQcResumeRunner implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(FastqQcResumeRunner.class);
+
+    private final FastqQcService fastqQcService;
+
+    public FastqQcResumeRunner(FastqQcService fastqQcService) {
+        this.fastqQcService = fastqQcService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Thread.ofVirtual().name("fastq-qc-resume").start(() -> {
+            try {
+                fastqQcService.resumePending();
+            } catch (RuntimeException e) {
+                logger.error("Could not resume pending FASTQ QC runs: {}", e.getMessage());
+            }
+        });
+    }
+}
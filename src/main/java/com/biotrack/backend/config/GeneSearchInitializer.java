@@ -0,0 +1,49 @@
+package com.biotrack.backend.config;
+
+import com.biotrack.backend.services.GeneSearchService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Prepara la búsqueda de genes al arrancar: llena gene_symbol en mutaciones anteriores, crea el índice
+ * de trigramas y carga el diccionario. Corre en segundo plano; mientras tanto las búsquedas que no
+ * resuelven en el diccionario caen a la búsqueda por subcadena.
+ */
+@Component
+public class GeneSearchInitializer implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(GeneSearchInitializer.class);
+
+    private final GeneSearchService geneSearchService;
+    private final boolean backfill;
+    private final boolean trigramIndex;
+
+    public GeneSearchInitializer(GeneSearchService geneSearchService,
+                                 @Value("${genes.search.backfill-on-startup:true}") boolean backfill,
+                                 @Value("${genes.search.trigram-index.create-on-startup:true}") boolean trigramIndex) {
+        this.geneSearchService = geneSearchService;
+        this.backfill = backfill;
+        this.trigramIndex = trigramIndex;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Thread.ofVirtual().name("gene-search-init").start(() -> {
+            try {
+                if (backfill) {
+                    geneSearchService.backfillGeneSymbols();
+                }
+                if (trigramIndex) {
+                    geneSearchService.ensureTrigramIndex();
+                }
+                geneSearchService.reload();
+            } catch (RuntimeException e) {
+                logger.error("Gene search initialization failed: {}", e.getMessage());
+            }
+        });
+    }
+}
@@ -0,0 +1,35 @@
+package com.biotrack.backend.config;
+
+import com.biotrack.backend.services.InlineDocumentMigrationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Pasa a Postgres los reportes y resúmenes pequeños ya subidos al almacenamiento.
+ * Se activa arrancando con --storage.inline.migration.run-on-startup=true
+ * y corre en segundo plano para no retrasar el arranque.
+ */
+@Component
+@ConditionalOnProperty(name = "storage.inline.migration.run-on-startup", havingValue = "true")
+public class InlineDocumentMigrationRunner implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(InlineDocumentMigrationRunner.class);
+
+    private final InlineDocumentMigrationService migrationService;
+
+    public InlineDocumentMigrationRunner(InlineDocumentMigrationService migrationService) {
+        this.migrationService = migrationService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Thread.ofVirtual().name("inline-document-migration").start(() -> {
+            int inlined = migrationService.inlineSmallDocuments();
+            logger.info("Inline document migration finished: {} documents moved to the database", inlined);
+        });
+    }
+}
@@ -0,0 +1,37 @@
+package com.biotrack.backend.config;
+
+import com.biotrack.backend.services.pagination.KeysetTimestampBackfill;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Completa created_at/generated_at en filas antiguas para que entren en los listados paginados.
+ * Las filas nuevas ya lo traen desde @PrePersist; corre en segundo plano para no retrasar el arranque.
+ */
+@Component
+@ConditionalOnProperty(name = "pagination.backfill-on-startup", havingValue = "true", matchIfMissing = true)
+public class KeysetTimestampBackfillRunner implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(KeysetTimestampBackfillRunner.class);
+
+    private final KeysetTimestampBackfill backfill;
+
+    public KeysetTimestampBackfillRunner(KeysetTimestampBackfill backfill) {
+        this.backfill = backfill;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Thread.ofVirtual().name("keyset-timestamp-backfill").start(() -> {
+            try {
+                backfill.backfill();
+            } catch (RuntimeException e) {
+                logger.error("Pagination timestamp backfill failed: {}", e.getMessage());
+            }
+        });
+    }
+}
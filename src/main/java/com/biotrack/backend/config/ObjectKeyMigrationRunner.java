@@ -0,0 +1,36 @@
+package com.biotrack.backend.config;
+
+import com.biotrack.backend.services.ObjectKeyMigrationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Migración de reportes y resúmenes al formato de keys con prefijo de hash.
+ * Se activa arrancando con --storage.key-migration.run-on-startup=true
+ * y corre en segundo plano para no retrasar el arranque.
+ */
+@Component
+@ConditionalOnProperty(name = "storage.key-migration.run-on-startup", havingValue = "true")
+public class ObjectKeyMigrationRunner implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(ObjectKeyMigrationRunner.class);
+
+    private final ObjectKeyMigrationService migrationService;
+
+    public ObjectKeyMigrationRunner(ObjectKeyMigrationService migrationService) {
+        this.migrationService = migrationService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Thread.ofVirtual().name("object-key-migration").start(() -> {
+            int reports = migrationService.migrateReports();
+            int records = migrationService.migrateClinicalHistory();
+            logger.info("Object key migration finished: {} reports and {} clinical history records", reports, records);
+        });
+    }
+}
@@ -0,0 +1,50 @@
+package com.biotrack.backend.config;
+
+import com.biotrack.backend.services.PatientSearchService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Prepara la búsqueda de pacientes al arrancar: llena search_name en pacientes anteriores y crea los
+ * índices de trigramas. Corre en segundo plano; mientras tanto las búsquedas por nombre usan LIKE.
+ */
+@Component
+public class PatientSearchInitializer implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(PatientSearchInitializer.class);
+
+    private final PatientSearchService patientSearchService;
+    private final boolean backfill;
+    private final boolean trigramIndex;
+
+    public PatientSearchInitializer(PatientSearchService patientSearchService,
+                                    @Value("${patients.search.backfill-on-startup:true}") boolean backfill,
+                                    @Value("${patients.search.trigram-index.create-on-startup:true}") boolean trigramIndex) {
+        this.patientSearchService = patientSearchService;
+        this.backfill = backfill;
+        this.trigramIndex = trigramIndex;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Thread.ofVirtual().name("patient-search-init").start(() -> {
+            try {
+                if (backfill) {
+                    patientSearchService.backfillSearchNames();
+                }
+                // Si los índices se crean a mano, basta con saber si pg_trgm está instalado
+                if (trigramIndex) {
+                    patientSearchService.ensureTrigramIndex();
+                } else {
+                    patientSearchService.detectTrigramSupport();
+                }
+            } catch (RuntimeException e) {
+                logger.error("Patient search initialization failed: {}", e.getMessage());
+            }
+        });
+    }
+}
@@ -0,0 +1,39 @@
+package com.biotrack.backend.config;
+
+import com.biotrack.backend.services.ReportCompressionBackfillService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Backfill de compresión para los objetos ya existentes en reports/ y clinical-history/.
+ * Se activa una sola vez arrancando con --storage.compression.backfill-on-startup=true
+ * y corre en segundo plano para no retrasar el arranque.
+ */
+@Component
+@ConditionalOnProperty(name = "storage.compression.backfill-on-startup", havingValue = "true")
+public class ReportCompressionBackfillRunner implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportCompressionBackfillRunner.class);
+    private static final String[] PREFIXES = {"reports/", "clinical-history/"};
+
+    private final ReportCompressionBackfillService backfillService;
+
+    public ReportCompressionBackfillRunner(ReportCompressionBackfillService backfillService) {
+        this.backfillService = backfillService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Thread.ofVirtual().name("report-compression-backfill").start(() -> {
+            int total = 0;
+            for (String prefix : PREFIXES) {
+                total += backfillService.recompress(prefix);
+            }
+            logger.info("Compression backfill finished: {} objects rewritten", total);
+        });
+    }
+}
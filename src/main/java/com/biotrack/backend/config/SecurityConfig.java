@@ -41,8 +41,11 @@ public class SecurityConfig {
             "http://localhost:4200",
             "https://d3nv49w8q0y7qp.cloudfront.net"
         ));
-        configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS", "PATCH"));
+        configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS", "PATCH", "HEAD"));
         configuration.setAllowedHeaders(Arrays.asList("*"));
+        // Headers de la subida reanudable y de la paginación por cursor que el navegador necesita leer
+        configuration.setExposedHeaders(Arrays.asList("Location", "Upload-Offset", "Upload-Length", "Tus-Resumable",
+                "X-Next-Cursor", "Link"));
         configuration.setAllowCredentials(true);
         
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
@@ -0,0 +1,91 @@
+package com.biotrack.backend.config;
+
+import com.biotrack.backend.services.pagination.KeysetPage;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Sparse fieldsets: en cualquier GET exitoso, ?fields=id,status deja solo esos campos en cada objeto de la
+ * respuesta (o en cada elemento si es un arreglo o una página paginada). Los listados ya se consultan con proyecciones, así que
+ * esto solo recorta lo que viaja al cliente; sin el parámetro la respuesta no se toca.
+ */
+@RestControllerAdvice
+public class SparseFieldsetAdvice implements ResponseBodyAdvice<Object> {
+
+    public static final String FIELDS_PARAM = "fields";
+
+    private final ObjectMapper objectMapper;
+
+    public SparseFieldsetAdvice(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return AbstractJackson2HttpMessageConverter.class.isAssignableFrom(converterType);
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (body == null || !HttpMethod.GET.equals(request.getMethod())
+                || !(request instanceof ServletServerHttpRequest servletRequest)) {
+            return body;
+        }
+        // Los errores se devuelven completos
+        if (response instanceof ServletServerHttpResponse servletResponse && servletResponse.getServletResponse().getStatus() >= 300) {
+            return body;
+        }
+        Set<String> fields = parse(servletRequest.getServletRequest().getParameter(FIELDS_PARAM));
+        if (fields.isEmpty()) {
+            return body;
+        }
+        JsonNode tree = objectMapper.valueToTree(body);
+        // En una página se recortan las filas; items, nextCursor y hasMore se conservan
+        if (body instanceof KeysetPage<?>) {
+            retain(tree.get("items"), fields);
+        } else {
+            retain(tree, fields);
+        }
+        return tree;
+    }
+
+    private static void retain(JsonNode tree, Set<String> fields) {
+        if (tree instanceof ObjectNode object) {
+            object.retain(fields);
+        } else if (tree != null && tree.isArray()) {
+            tree.forEach(element -> {
+                if (element instanceof ObjectNode object) {
+                    object.retain(fields);
+                }
+            });
+        }
+    }
+
+    static Set<String> parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return Set.of();
+        }
+        return Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(field -> !field.isEmpty())
+                .collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,39 @@
+package com.biotrack.backend.config;
+
+import com.biotrack.backend.services.VariantFrequencyService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Calcula las tablas de frecuencias de variantes desde mutations si están vacías (primer despliegue).
+ * Corre en segundo plano para no retrasar el arranque.
+ */
+@Component
+@ConditionalOnProperty(name = "variants.frequency.rebuild-if-empty", havingValue = "true", matchIfMissing = true)
+public class VariantFrequencyRebuildRunner implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(VariantFrequencyRebuildRunner.class);
+
+    private final VariantFrequencyService variantFrequencyService;
+
+    public VariantFrequencyRebuildRunner(VariantFrequencyService variantFrequencyService) {
+        this.variantFrequencyService = variantFrequencyService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Thread.ofVirtual().name("variant-frequency-rebuild").start(() -> {
+            try {
+                if (variantFrequencyService.rebuildIfEmpty()) {
+                    logger.info("Variant frequency tables were empty and have been rebuilt from the mutations table");
+                }
+            } catch (RuntimeException e) {
+                logger.error("Variant frequency rebuild failed: {}", e.getMessage());
+            }
+        });
+    }
+}
@@ -0,0 +1,39 @@
+package com.biotrack.backend.config;
+
+import com.biotrack.backend.services.VariantStoreService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Llena el almacén columnar de variantes desde la tabla mutations si arranca vacío
+ * (primer despliegue o directorio perdido). Corre en segundo plano para no retrasar el arranque.
+ */
+@Component
+@ConditionalOnProperty(name = "variants.store.rebuild-if-empty", havingValue = "true", matchIfMissing = true)
+public class VariantStoreRebuildRunner implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(VariantStoreRebuildRunner.class);
+
+    private final VariantStoreService variantStoreService;
+
+    public VariantStoreRebuildRunner(VariantStoreService variantStoreService) {
+        this.variantStoreService = variantStoreService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Thread.ofVirtual().name("variant-store-rebuild").start(() -> {
+            try {
+                if (variantStoreService.rebuildIfEmpty()) {
+                    logger.info("Variant store was empty and has been rebuilt from the mutations table");
+                }
+            } catch (RuntimeException e) {
+                logger.error("Variant store rebuild failed: {}", e.getMessage());
+            }
+        });
+    }
+}
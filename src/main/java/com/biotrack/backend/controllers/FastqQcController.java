@@ -0,0 +1,47 @@
+package com.biotrack.backend.controllers;
+
+import com.biotrack.backend.dto.FastqQcReportDTO;
+import com.biotrack.backend.services.FastqQcService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/samples")
+@Tag(name = "Sequencing QC", description = "Quality-control statistics computed from the FASTQ files of DNA samples")
+public class FastqQcController {
+
+    private final FastqQcService fastqQcService;
+
+    public FastqQcController(FastqQcService fastqQcService) {
+        this.fastqQcService = fastqQcService;
+    }
+
+    @PostMapping("/{sampleId}/fastq-qc")
+    @Operation(summary = "Run FASTQ QC", description = "Queue the QC of the sample's FASTQ files; read count, depth and quality metrics are written back to the DNA sample when it finishes")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "QC queued or already running"),
+        @ApiResponse(responseCode = "400", description = "Sample is not a DNA sample or has no FASTQ files"),
+        @ApiResponse(responseCode = "404", description = "Sample not found")
+    })
+    public ResponseEntity<FastqQcReportDTO> start(@PathVariable UUID sampleId) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(fastqQcService.start(sampleId));
+    }
+
+    @GetMapping("/{sampleId}/fastq-qc")
+    @Operation(summary = "Get FASTQ QC report", description = "Status of the last QC run and, once completed, the full report with per-position quality and length distribution")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "QC status or report"),
+        @ApiResponse(responseCode = "400", description = "Sample is not a DNA sample"),
+        @ApiResponse(responseCode = "404", description = "Sample not found")
+    })
+    public ResponseEntity<FastqQcReportDTO> getReport(@PathVariable UUID sampleId) {
+        return ResponseEntity.ok(fastqQcService.getReport(sampleId));
+    }
+}
@@ -0,0 +1,43 @@
+package com.biotrack.backend.controllers;
+
+import com.biotrack.backend.dto.GeneResolutionDTO;
+import com.biotrack.backend.services.GeneSearchService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/genes")
+@Tag(name = "Genes", description = "Gene symbol resolution for searches and autocomplete")
+public class GeneController {
+
+    private final GeneSearchService geneSearchService;
+
+    public GeneController(GeneSearchService geneSearchService) {
+        this.geneSearchService = geneSearchService;
+    }
+
+    @GetMapping("/resolve")
+    @Operation(summary = "Resolve gene", description = "Resolve a search term to approved gene symbols by exact symbol, alias, prefix or typo tolerance")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Term resolved (matchType NONE if nothing matched)"),
+        @ApiResponse(responseCode = "400", description = "Empty search term")
+    })
+    public ResponseEntity<GeneResolutionDTO> resolve(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        return ResponseEntity.ok(geneSearchService.resolve(q, limit));
+    }
+
+    @PostMapping("/dictionary/reload")
+    @Operation(summary = "Reload gene dictionary", description = "Reload gene symbols from the mutations table and the configured HGNC file")
+    public ResponseEntity<Integer> reload() {
+        return ResponseEntity.ok(geneSearchService.reload());
+    }
+}
@@ -10,8 +10,10 @@ import com.biotrack.backend.services.GeneticSampleService;
 import com.biotrack.backend.services.PatientService;
 import com.biotrack.backend.services.ReportService;
 import com.biotrack.backend.services.UserService;
+import com.biotrack.backend.services.pagination.KeysetPage;
 import com.biotrack.backend.utils.GeneticSampleMapper;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -66,13 +68,14 @@ public class GeneticSampleController {
 
     @PreAuthorize("hasRole('LAB_TECHNICIAN') or hasRole('MEDIC') or hasRole('PATIENT') or hasRole('ADMIN') or hasRole('RECEPTIONIST')")
     @GetMapping
-    @Operation(summary = "Get all genetic samples", description = "Retrieve all genetic samples in the system")
-    public ResponseEntity<List<GeneticSampleDTO>> findAll() {
-        List<GeneticSample> geneticSamples = geneticSampleService.findAll();
-        List<GeneticSampleDTO> dtos = geneticSamples.stream()
-                .map(GeneticSampleMapper::toDTO)
-                .toList();
-        return ResponseEntity.ok(dtos);
+    @Operation(summary = "Get all genetic samples", description = "Retrieve the genetic samples in the system, newest first, one page at a time. The X-Next-Cursor and Link headers carry the cursor of the next page")
+    public ResponseEntity<KeysetPage<GeneticSampleDTO>> findAll(
+            @Parameter(description = "Opaque cursor returned in X-Next-Cursor by the previous page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (default 50, capped at 200)")
+            @RequestParam(required = false) Integer size) {
+        KeysetPage<GeneticSample> page = geneticSampleService.findPage(cursor, size);
+        return KeysetPageResponses.ok(page.map(GeneticSampleMapper::toDTO));
     }
 
     @PreAuthorize("hasRole('LAB_TECHNICIAN') or hasRole('MEDIC') or hasRole('PATIENT')")
@@ -121,18 +124,20 @@ public class GeneticSampleController {
     @GetMapping("/patient/{patientId}")
     @Operation(
         summary = "Get genetic samples by patient ID",
-        description = "Retrieve all genetic samples associated with a specific patient ID"
+        description = "Retrieve the genetic samples associated with a specific patient ID, newest first, one page at a time"
     )
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Genetic samples found"),
         @ApiResponse(responseCode = "404", description = "No genetic samples found for this patient")
     })
-    public ResponseEntity<List<GeneticSampleDTO>> getGeneticSamplesByPatientId(@PathVariable UUID patientId) {
-        List<GeneticSample> geneticSamples = geneticSampleService.findByPatientId(patientId);
-        List<GeneticSampleDTO> dtos = geneticSamples.stream()
-                .map(GeneticSampleMapper::toDTO)
-                .toList();
-        return ResponseEntity.ok(dtos);
+    public ResponseEntity<KeysetPage<GeneticSampleDTO>> getGeneticSamplesByPatientId(
+            @PathVariable UUID patientId,
+            @Parameter(description = "Opaque cursor returned in X-Next-Cursor by the previous page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (default 50, capped at 200)")
+            @RequestParam(required = false) Integer size) {
+        KeysetPage<GeneticSample> page = geneticSampleService.findPageByPatientId(patientId, cursor, size);
+        return KeysetPageResponses.ok(page.map(GeneticSampleMapper::toDTO));
     }
 
     @PreAuthorize("hasRole('LAB_TECHNICIAN') or hasRole('MEDIC') or hasRole('PATIENT') or hasRole('ADMIN') or hasRole('RECEPTIONIST')")
@@ -148,12 +153,14 @@ public class GeneticSampleController {
 
     @PreAuthorize("hasRole('LAB_TECHNICIAN') or hasRole('MEDIC') or hasRole('PATIENT') or hasRole('ADMIN') or hasRole('RECEPTIONIST')")
     @GetMapping("/hospital/{hospitalId}")
-    @Operation(summary = "Get all genetic samples by hospital", description = "Retrieve all genetic samples for a specific hospital")
-    public ResponseEntity<List<GeneticSampleDTO>> getByHospitalId(@PathVariable UUID hospitalId) {
-        List<GeneticSample> geneticSamples = geneticSampleService.findByMedicalEntityId(hospitalId);
-        List<GeneticSampleDTO> dtos = geneticSamples.stream()
-                .map(GeneticSampleMapper::toDTO)
-                .toList();
-        return ResponseEntity.ok(dtos);
+    @Operation(summary = "Get all genetic samples by hospital", description = "Retrieve the genetic samples of a specific hospital, newest first, one page at a time")
+    public ResponseEntity<KeysetPage<GeneticSampleDTO>> getByHospitalId(
+            @PathVariable UUID hospitalId,
+            @Parameter(description = "Opaque cursor returned in X-Next-Cursor by the previous page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (default 50, capped at 200)")
+            @RequestParam(required = false) Integer size) {
+        KeysetPage<GeneticSample> page = geneticSampleService.findPageByMedicalEntityId(hospitalId, cursor, size);
+        return KeysetPageResponses.ok(page.map(GeneticSampleMapper::toDTO));
     }
 }
\ No newline at end of file
@@ -9,12 +9,16 @@ import com.biotrack.backend.models.Hospital;
 import com.biotrack.backend.models.Patient;
 import com.biotrack.backend.models.Sample;
 import com.biotrack.backend.models.User;
+import com.biotrack.backend.models.enums.SampleStatus;
+import com.biotrack.backend.models.enums.SampleType;
 import com.biotrack.backend.services.HospitalService;
 import com.biotrack.backend.services.UserService;
+import com.biotrack.backend.services.pagination.KeysetPage;
 import com.biotrack.backend.utils.PatientMapper;
 import com.biotrack.backend.utils.SampleMapper;
 import com.biotrack.backend.utils.UserMapper;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -126,53 +130,77 @@ public class HospitalController {
     @GetMapping("/{hospitalId}/patients")
     @Operation(
         summary = "List patients linked to a hospital",
-        description = "Retrieve all patients currently linked to the specified hospital"
+        description = "Retrieve the patients currently linked to the specified hospital, newest first, one page at a time. " +
+                      "The X-Next-Cursor and Link headers carry the cursor of the next page"
     )
     @ApiResponses(value = {
         @ApiResponse(
             responseCode = "200",
             description = "List of patients linked to the hospital",
-            content = @Content(array = @ArraySchema(schema = @Schema(implementation = PatientDTO.class)))
+            content = @Content(schema = @Schema(implementation = KeysetPage.class))
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Invalid cursor or page size"
         ),
         @ApiResponse(
             responseCode = "404",
             description = "Hospital not found with the provided ID"
         )
     })
-    public ResponseEntity<List<PatientDTO>> getPatientsByHospital(@PathVariable UUID hospitalId) {
-        List<Patient> patients = service.getActivePatientsByHospitalId(hospitalId);
-        List<PatientDTO> dtos = patients.stream().map(PatientMapper::toDTO).toList();
-        return ResponseEntity.ok(dtos);
+    public ResponseEntity<KeysetPage<PatientDTO>> getPatientsByHospital(
+            @PathVariable UUID hospitalId,
+            @Parameter(description = "Opaque cursor returned in X-Next-Cursor by the previous page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (default 50, capped at 200)")
+            @RequestParam(required = false) Integer size) {
+        KeysetPage<Patient> page = service.findPatientPage(hospitalId, cursor, size);
+        return KeysetPageResponses.ok(page.map(PatientMapper::toDTO));
     }
 
     @PreAuthorize("hasRole('LAB_TECHNICIAN') or hasRole('MEDIC') or hasRole('PATIENT') or hasRole('ADMIN') or hasRole('RECEPTIONIST')")
     @GetMapping("/{hospitalId}/samples")
     @Operation(
         summary = "List all samples linked to patients of a hospital",
-        description = "Retrieve all genetic samples (blood, dna, saliva) linked to patients of the specified hospital"
+        description = "Retrieve the samples (blood, dna, saliva) linked to patients of the specified hospital, newest first, " +
+                      "one page at a time, optionally filtered by status and type. " +
+                      "The X-Next-Cursor and Link headers carry the cursor of the next page"
     )
     @ApiResponses(value = {
         @ApiResponse(
             responseCode = "200",
             description = "List of samples linked to hospital patients",
-            content = @Content(array = @ArraySchema(schema = @Schema(implementation = SampleDTO.class)))
+            content = @Content(schema = @Schema(implementation = KeysetPage.class))
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Invalid cursor or page size"
         ),
         @ApiResponse(
             responseCode = "404",
             description = "Hospital not found with the provided ID"
         )
     })
-    public ResponseEntity<List<SampleDetailDTO>> getSamplesByHospital(@PathVariable UUID hospitalId) {
-        List<Sample> samples = service.getSamplesByHospitalId(hospitalId);
-        List<SampleDetailDTO> dtos = samples.stream().map(SampleMapper::toDetailDTO).toList();
-        return ResponseEntity.ok(dtos);
+    public ResponseEntity<KeysetPage<SampleDetailDTO>> getSamplesByHospital(
+            @PathVariable UUID hospitalId,
+            @Parameter(description = "Only samples in this status")
+            @RequestParam(required = false) SampleStatus status,
+            @Parameter(description = "Only samples of this type")
+            @RequestParam(required = false) SampleType type,
+            @Parameter(description = "Opaque cursor returned in X-Next-Cursor by the previous page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (default 50, capped at 200)")
+            @RequestParam(required = false) Integer size) {
+        KeysetPage<Sample> page = service.findSamplePage(hospitalId, status, type, cursor, size);
+        return KeysetPageResponses.ok(page.map(SampleMapper::toDetailDTO));
     }
 
     @PreAuthorize("hasRole('LAB_TECHNICIAN') or hasRole('MEDIC') or hasRole('PATIENT') or hasRole('ADMIN') or hasRole('RECEPTIONIST')")
     @GetMapping("/{hospitalId}/patients/search")
     @Operation(
         summary = "Search patients in a hospital",
-        description = "Search patients by name, email, or CURP in the specified hospital"
+        description = "Search patients of the specified hospital. CURP, email and phone number are matched exactly; " +
+                      "any other term is matched against the accent-insensitive full name and ranked by similarity"
     )
     @ApiResponses(value = {
         @ApiResponse(
@@ -180,6 +208,10 @@ public class HospitalController {
             description = "List of matching patients",
             content = @Content(array = @ArraySchema(schema = @Schema(implementation = PatientDTO.class)))
         ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Empty search term or invalid limit"
+        ),
         @ApiResponse(
             responseCode = "404",
             description = "Hospital not found with the provided ID"
@@ -187,8 +219,10 @@ public class HospitalController {
     })
     public ResponseEntity<List<PatientDTO>> searchPatients(
             @PathVariable UUID hospitalId,
-            @RequestParam("query") String query) {
-        List<Patient> patients = service.searchPatients(hospitalId, query);
+            @RequestParam("query") String query,
+            @Parameter(description = "Maximum number of results (default 20, capped at 100)")
+            @RequestParam(required = false) Integer limit) {
+        List<Patient> patients = service.searchPatients(hospitalId, query, limit);
         List<PatientDTO> dtos = patients.stream().map(PatientMapper::toDTO).toList();
         return ResponseEntity.ok(dtos);
     }
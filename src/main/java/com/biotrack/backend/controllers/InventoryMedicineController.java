@@ -2,11 +2,11 @@ package com.biotrack.backend.controllers;
 
 import com.biotrack.backend.models.InventoryMedicine;
 import com.biotrack.backend.services.InventoryMedicineService;
+import com.biotrack.backend.services.pagination.KeysetPage;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
 import java.util.UUID;
 
 @RestController
@@ -28,13 +28,11 @@ public class InventoryMedicineController {
     }
 
     @GetMapping
-    public ResponseEntity<List<InventoryMedicine>> findAll(
-            @RequestParam(value = "hospitalId", required = false) UUID hospitalId) {
-        if (hospitalId != null) {
-            return ResponseEntity.ok(service.findByHospitalId(hospitalId));
-        } else {
-            return ResponseEntity.ok(service.findAll());
-        }
+    public ResponseEntity<KeysetPage<InventoryMedicine>> findAll(
+            @RequestParam(value = "hospitalId", required = false) UUID hospitalId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return KeysetPageResponses.ok(service.findPage(hospitalId, cursor, size));
     }
 
     @PreAuthorize("hasRole('LAB_TECHNICIAN') or hasRole('MEDIC') or hasRole('PATIENT') or hasRole('ADMIN') or hasRole('RECEPTIONIST')")
@@ -57,7 +55,10 @@ public class InventoryMedicineController {
 
     @PreAuthorize("hasRole('LAB_TECHNICIAN') or hasRole('MEDIC') or hasRole('PATIENT') or hasRole('ADMIN') or hasRole('RECEPTIONIST')")
     @GetMapping("/by-hospital/{hospitalId}")
-    public ResponseEntity<List<InventoryMedicine>> findByHospitalId(@PathVariable UUID hospitalId) {
-        return ResponseEntity.ok(service.findByHospitalId(hospitalId));
+    public ResponseEntity<KeysetPage<InventoryMedicine>> findByHospitalId(
+            @PathVariable UUID hospitalId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return KeysetPageResponses.ok(service.findPage(hospitalId, cursor, size));
     }
 }
\ No newline at end of file
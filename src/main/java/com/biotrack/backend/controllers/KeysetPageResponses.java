@@ -0,0 +1,33 @@
+package com.biotrack.backend.controllers;
+
+import com.biotrack.backend.services.pagination.KeysetPage;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+/**
+ * Respuesta HTTP de una página por llave. La página va completa en el cuerpo (items, nextCursor, hasMore)
+ * para que un listado recortado no pase por completo; el cursor también viaja en X-Next-Cursor y en
+ * Link (rel="next") con la misma URL de la petición.
+ */
+public final class KeysetPageResponses {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private KeysetPageResponses() {
+    }
+
+    public static <T> ResponseEntity<KeysetPage<T>> ok(KeysetPage<T> page) {
+        if (!page.hasNext()) {
+            return ResponseEntity.ok(page);
+        }
+        String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                .replaceQueryParam("cursor", page.nextCursor())
+                .build()
+                .toUriString();
+        return ResponseEntity.ok()
+                .header(NEXT_CURSOR_HEADER, page.nextCursor())
+                .header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"")
+                .body(page);
+    }
+}
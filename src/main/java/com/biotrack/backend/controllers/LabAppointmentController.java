@@ -3,11 +3,11 @@ package com.biotrack.backend.controllers;
 import com.biotrack.backend.dto.LabAppointmentCreationDTO;
 import com.biotrack.backend.dto.LabAppointmentDTO;
 import com.biotrack.backend.services.LabAppointmentService;
+import com.biotrack.backend.services.pagination.KeysetPage;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
 import java.util.UUID;
 
 @RestController
@@ -27,9 +27,11 @@ public class LabAppointmentController {
 
     @PreAuthorize("hasRole('LAB_TECHNICIAN') or hasRole('MEDIC') or hasRole('PATIENT') or hasRole('ADMIN') or hasRole('RECEPTIONIST')")
     @GetMapping("/patient/{patientId}")
-    public ResponseEntity<List<LabAppointmentDTO>> findByPatient(@PathVariable UUID patientId) {
-        
-        return ResponseEntity.ok(service.findByPatientId(patientId));
+    public ResponseEntity<KeysetPage<LabAppointmentDTO>> findByPatient(
+            @PathVariable UUID patientId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return KeysetPageResponses.ok(service.findPageByPatientId(patientId, cursor, size));
     }
 
     @PatchMapping("/{appointmentId}/status")
@@ -43,7 +45,10 @@ public class LabAppointmentController {
 
     @PreAuthorize("hasRole('LAB_TECHNICIAN') or hasRole('MEDIC') or hasRole('PATIENT') or hasRole('ADMIN') or hasRole('RECEPTIONIST')")
     @GetMapping("/hospital/{hospitalId}/solicited")
-    public ResponseEntity<List<LabAppointmentDTO>> getSolicitedByHospital(@PathVariable UUID hospitalId) {
-        return ResponseEntity.ok(service.findSolicitedByMedicalEntityId(hospitalId));
+    public ResponseEntity<KeysetPage<LabAppointmentDTO>> getSolicitedByHospital(
+            @PathVariable UUID hospitalId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return KeysetPageResponses.ok(service.findSolicitedPageByMedicalEntityId(hospitalId, cursor, size));
     }
 }
\ No newline at end of file
@@ -4,6 +4,7 @@ import com.biotrack.backend.dto.MedicalVisitCreationDTO;
 import com.biotrack.backend.dto.MedicalVisitDTO;
 import com.biotrack.backend.models.MedicalVisit;
 import com.biotrack.backend.services.MedicalVisitService;
+import com.biotrack.backend.services.pagination.KeysetPage;
 import com.biotrack.backend.utils.MedicalVisitMapper;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -108,92 +109,117 @@ public class MedicalVisitController {
     @GetMapping("/patient/{patientId}")
     @Operation(
         summary = "Get all visits for a patient",
-        description = "Retrieve all medical visits for a specific patient"
+        description = "Retrieve the medical visits of a specific patient, newest first, one page at a time. " +
+                      "The X-Next-Cursor and Link headers carry the cursor of the next page"
     )
     @ApiResponses(value = {
         @ApiResponse(
             responseCode = "200",
             description = "List of medical visits for the patient",
-            content = @Content(array = @ArraySchema(schema = @Schema(implementation = MedicalVisitDTO.class)))
+            content = @Content(schema = @Schema(implementation = KeysetPage.class))
         ),
         @ApiResponse(
             responseCode = "404",
             description = "Patient not found with the provided ID"
         )
     })
-    public ResponseEntity<List<MedicalVisitDTO>> getByPatient(
+    public ResponseEntity<KeysetPage<MedicalVisitDTO>> getByPatient(
         @Parameter(description = "Unique identifier of the patient")
-        @PathVariable UUID patientId
+        @PathVariable UUID patientId,
+            @Parameter(description = "Opaque cursor returned in X-Next-Cursor by the previous page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (default 50, capped at 200)")
+            @RequestParam(required = false) Integer size
     ) {
-        List<MedicalVisit> visits = service.findByPatientId(patientId);
-        return ResponseEntity.ok(MedicalVisitMapper.toDTOList(visits));
+        KeysetPage<MedicalVisit> page = service.findPageByPatientId(patientId, false, cursor, size);
+        return KeysetPageResponses.ok(page.map(MedicalVisitMapper::toBasicDTO));
     }
 
     @PreAuthorize("hasRole('LAB_TECHNICIAN') or hasRole('MEDIC') or hasRole('PATIENT') or hasRole('ADMIN') or hasRole('RECEPTIONIST')")
     @GetMapping("/patient/{patientId}/pending")
     @Operation(summary = "Get pending visits for a patient")
-    public ResponseEntity<List<MedicalVisitDTO>> getPendingVisitsByPatient(@PathVariable UUID patientId) {
-        List<MedicalVisit> visits = service.findPendingByPatientId(patientId);
-        return ResponseEntity.ok(MedicalVisitMapper.toDTOList(visits));
+    public ResponseEntity<KeysetPage<MedicalVisitDTO>> getPendingVisitsByPatient(
+            @PathVariable UUID patientId,
+            @Parameter(description = "Opaque cursor returned in X-Next-Cursor by the previous page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (default 50, capped at 200)")
+            @RequestParam(required = false) Integer size) {
+        KeysetPage<MedicalVisit> page = service.findPageByPatientId(patientId, true, cursor, size);
+        return KeysetPageResponses.ok(page.map(MedicalVisitMapper::toBasicDTO));
     }
 
     @PreAuthorize("hasRole('LAB_TECHNICIAN') or hasRole('MEDIC') or hasRole('PATIENT') or hasRole('ADMIN') or hasRole('RECEPTIONIST')")
     @GetMapping("/doctor/{doctorId}")
     @Operation(summary = "Get all visits for a doctor")
-    public ResponseEntity<List<MedicalVisitDTO>> getVisitsByDoctor(@PathVariable UUID doctorId) {
-        List<MedicalVisit> visits = service.findByDoctorId(doctorId);
-        List<MedicalVisitDTO> dtoVisits = MedicalVisitMapper.toDTOList(visits);
-        List<MedicalVisitDTO> processedVisits = service.addPatientVisitCounts(dtoVisits);
-        return ResponseEntity.ok(processedVisits);
+    public ResponseEntity<KeysetPage<MedicalVisitDTO>> getVisitsByDoctor(
+            @PathVariable UUID doctorId,
+            @Parameter(description = "Opaque cursor returned in X-Next-Cursor by the previous page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (default 50, capped at 200)")
+            @RequestParam(required = false) Integer size) {
+        KeysetPage<MedicalVisitDTO> page = service.findPageByDoctorId(doctorId, false, cursor, size).map(MedicalVisitMapper::toBasicDTO);
+        return KeysetPageResponses.ok(new KeysetPage<>(service.addPatientVisitCounts(page.items()), page.nextCursor()));
     }
 
     @PreAuthorize("hasRole('LAB_TECHNICIAN') or hasRole('MEDIC') or hasRole('PATIENT') or hasRole('ADMIN') or hasRole('RECEPTIONIST')")
     @GetMapping("/doctor/{doctorId}/pending")
     @Operation(summary = "Get pending visits for a doctor")
-    public ResponseEntity<List<MedicalVisitDTO>> getPendingVisitsByDoctor(@PathVariable UUID doctorId) {
-        List<MedicalVisit> visits = service.findPendingByDoctorId(doctorId);
-        List<MedicalVisitDTO> dtoVisits = MedicalVisitMapper.toDTOList(visits);
-        List<MedicalVisitDTO> processedVisits = service.addPatientVisitCounts(dtoVisits);
-        return ResponseEntity.ok(processedVisits);
+    public ResponseEntity<KeysetPage<MedicalVisitDTO>> getPendingVisitsByDoctor(
+            @PathVariable UUID doctorId,
+            @Parameter(description = "Opaque cursor returned in X-Next-Cursor by the previous page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (default 50, capped at 200)")
+            @RequestParam(required = false) Integer size) {
+        KeysetPage<MedicalVisitDTO> page = service.findPageByDoctorId(doctorId, true, cursor, size).map(MedicalVisitMapper::toBasicDTO);
+        return KeysetPageResponses.ok(new KeysetPage<>(service.addPatientVisitCounts(page.items()), page.nextCursor()));
     }
 
     @PreAuthorize("hasRole('LAB_TECHNICIAN') or hasRole('MEDIC') or hasRole('PATIENT') or hasRole('ADMIN') or hasRole('RECEPTIONIST')")
     @GetMapping("/hospital/{medicalEntityId}")
     @Operation(
         summary = "Get all medical visits for a hospital",
-        description = "Retrieve all medical visits (completed and not completed) for a specific hospital"
+        description = "Retrieve the medical visits (completed and not completed) of a specific hospital, newest first, one page at a time"
     )
     @ApiResponses(value = {
         @ApiResponse(
             responseCode = "200",
             description = "List of medical visits for the hospital",
-            content = @Content(array = @ArraySchema(schema = @Schema(implementation = MedicalVisitDTO.class)))
+            content = @Content(schema = @Schema(implementation = KeysetPage.class))
         ),
         @ApiResponse(
             responseCode = "404",
             description = "Hospital not found with the provided ID"
         )
     })
-    public ResponseEntity<List<MedicalVisitDTO>> getVisitsByHospital(@PathVariable UUID medicalEntityId) {
-        List<MedicalVisit> visits = service.findByMedicalEntityId(medicalEntityId);
-        return ResponseEntity.ok(MedicalVisitMapper.toDTOList(visits));
+    public ResponseEntity<KeysetPage<MedicalVisitDTO>> getVisitsByHospital(
+            @PathVariable UUID medicalEntityId,
+            @Parameter(description = "Opaque cursor returned in X-Next-Cursor by the previous page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (default 50, capped at 200)")
+            @RequestParam(required = false) Integer size) {
+        KeysetPage<MedicalVisit> page = service.findPageByMedicalEntityId(medicalEntityId, cursor, size);
+        return KeysetPageResponses.ok(page.map(MedicalVisitMapper::toBasicDTO));
     }
 
     @PreAuthorize("hasRole('LAB_TECHNICIAN') or hasRole('MEDIC') or hasRole('PATIENT') or hasRole('ADMIN') or hasRole('RECEPTIONIST')")
     @GetMapping
     @Operation(
         summary = "Get all medical visits",
-        description = "Retrieve all medical visits in the system"
+        description = "Retrieve the medical visits in the system, newest first, one page at a time"
     )
     @ApiResponses(value = {
         @ApiResponse(
             responseCode = "200",
             description = "List of all medical visits",
-            content = @Content(array = @ArraySchema(schema = @Schema(implementation = MedicalVisit.class)))
+            content = @Content(schema = @Schema(implementation = KeysetPage.class))
         )
     })
-    public ResponseEntity<List<MedicalVisit>> getAll() {
-        return ResponseEntity.ok(service.findAll());
+    public ResponseEntity<KeysetPage<MedicalVisit>> getAll(
+            @Parameter(description = "Opaque cursor returned in X-Next-Cursor by the previous page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (default 50, capped at 200)")
+            @RequestParam(required = false) Integer size) {
+        return KeysetPageResponses.ok(service.findPage(cursor, size));
     }
 
     @DeleteMapping("/{id}")
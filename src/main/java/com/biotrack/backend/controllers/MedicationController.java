@@ -3,6 +3,7 @@ package com.biotrack.backend.controllers;
 import com.biotrack.backend.dto.MedicationCompatibilityRequestDTO;
 import com.biotrack.backend.dto.MedicationPatchDTO;
 import com.biotrack.backend.dto.MedicationResponseDTO;
+import com.biotrack.backend.dto.PharmacogenomicAlertDTO;
 import com.biotrack.backend.models.Medication;
 import com.biotrack.backend.services.MedicationService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -157,6 +158,36 @@ public class MedicationController {
         return ResponseEntity.ok(updatedMedications);
     }
 
+    @PreAuthorize("hasRole('MEDIC') or hasRole('ADMIN') or hasRole('LAB_TECHNICIAN')")
+    @GetMapping("/patient/{patientId}/pharmacogenomic-alerts")
+    @Operation(
+        summary = "Get pharmacogenomic alerts for a patient",
+        description = "Match the patient's genetic variants against the local gene-drug guideline table. "
+                + "With 'substance' the check is done before prescribing; without it the patient's current medications are checked. "
+                + "No OpenAI call is made"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Alerts ordered by action (AVOID, ADJUST_DOSE, MONITOR); empty when no guideline applies"
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Blank substance"
+        ),
+        @ApiResponse(
+            responseCode = "404",
+            description = "Patient not found"
+        )
+    })
+    public ResponseEntity<List<PharmacogenomicAlertDTO>> getPharmacogenomicAlerts(
+            @Parameter(description = "Unique identifier of the patient")
+            @PathVariable UUID patientId,
+            @Parameter(description = "Active substance to check before prescribing", example = "clopidogrel")
+            @RequestParam(required = false) String substance) {
+        return ResponseEntity.ok(medicationService.getPharmacogenomicAlerts(patientId, substance));
+    }
+
     @PostMapping("/compatibility-analysis")
     @Operation(
         summary = "Analyze medication compatibility",
@@ -1,10 +1,11 @@
 package com.biotrack.backend.controllers;
 
 import com.biotrack.backend.dto.MutationDTO;
-import com.biotrack.backend.models.Mutation;
+import com.biotrack.backend.dto.MutationIngestionResultDTO;
+import com.biotrack.backend.dto.VcfIngestionResultDTO;
 import com.biotrack.backend.models.enums.Relevance;
 import com.biotrack.backend.services.MutationService;
-import com.biotrack.backend.utils.MutationMapper;
+import com.biotrack.backend.services.pagination.KeysetPage;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
@@ -13,7 +14,6 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
 import java.util.UUID;
 
 @RestController
@@ -29,48 +29,52 @@ public class MutationController {
     }
 
     @GetMapping("/search")
-    @Operation(summary = "Search mutations", description = "Search mutations by sample ID, relevance, and/or gene")
+    @Operation(summary = "Search mutations", description = "Search mutations by sample ID, relevance, and/or gene. The gene is resolved to approved symbols (exact, alias, prefix or typo-tolerant); with contains=true it is matched as a substring. Results are paged by id; the X-Next-Cursor and Link headers carry the cursor of the next page")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Mutations found"),
-        @ApiResponse(responseCode = "400", description = "Invalid search parameters")
+        @ApiResponse(responseCode = "400", description = "Invalid search parameters, cursor or page size")
     })
-    public ResponseEntity<List<MutationDTO>> search(
+    public ResponseEntity<KeysetPage<MutationDTO>> search(
             @RequestParam(required = false) UUID sampleId,
             @RequestParam(required = false) Relevance relevance,
-            @RequestParam(required = false) String gene) {
-        
-        List<Mutation> mutations = mutationService.search(sampleId, relevance, gene);
-        List<MutationDTO> dtos = mutations.stream()
-                .map(MutationMapper::toDTO)
-                .toList();
-        
-        return ResponseEntity.ok(dtos);
+            @RequestParam(required = false) String gene,
+            @RequestParam(defaultValue = "false") boolean contains,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return KeysetPageResponses.ok(mutationService.searchPage(sampleId, relevance, gene, contains, cursor, size));
     }
 
     @PostMapping("/process-result-file/{resultFileId}")
-    @Operation(summary = "Process result file", description = "Process a result file to extract mutations")
+    @Operation(summary = "Process result file", description = "Stream a result file into mutations; invalid lines are rejected and reported without stopping the ingestion")
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Mutations processed successfully"),
+        @ApiResponse(responseCode = "200", description = "File ingested; see rowsRejected and errors for skipped lines"),
         @ApiResponse(responseCode = "404", description = "Result file not found"),
         @ApiResponse(responseCode = "500", description = "Error processing file")
     })
-    public ResponseEntity<List<MutationDTO>> processResultFile(@PathVariable UUID resultFileId) {
-        List<Mutation> mutations = mutationService.processResultFile(resultFileId);
-        List<MutationDTO> dtos = mutations.stream()
-                .map(MutationMapper::toDTO)
-                .toList();
-        
-        return ResponseEntity.ok(dtos);
+    public ResponseEntity<MutationIngestionResultDTO> processResultFile(@PathVariable UUID resultFileId) {
+        return ResponseEntity.ok(mutationService.processResultFile(resultFileId));
+    }
+
+    @PostMapping("/ingest-vcf/{dnaSampleId}")
+    @Operation(summary = "Ingest VCF", description = "Read the VCF of a DNA sample (bgzip or plain) and store its annotated, passing variants as mutations of a genetic sample")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "VCF ingested and sample variant counts updated"),
+        @ApiResponse(responseCode = "400", description = "Sample is not a DNA sample or has no VCF file"),
+        @ApiResponse(responseCode = "404", description = "Sample or genetic sample not found"),
+        @ApiResponse(responseCode = "500", description = "Error reading the VCF file")
+    })
+    public ResponseEntity<VcfIngestionResultDTO> ingestVcf(
+            @PathVariable UUID dnaSampleId,
+            @RequestParam UUID geneticSampleId) {
+        return ResponseEntity.ok(mutationService.ingestVcf(dnaSampleId, geneticSampleId));
     }
 
     @GetMapping("/genetic-sample/{geneticSampleId}")
-    @Operation(summary = "Get mutations by genetic sample", description = "Retrieve all mutations for a specific genetic sample")
-    public ResponseEntity<List<MutationDTO>> getByGeneticSampleId(@PathVariable UUID geneticSampleId) {
-        List<Mutation> mutations = mutationService.search(geneticSampleId, null, null);
-        List<MutationDTO> dtos = mutations.stream()
-                .map(MutationMapper::toDTO)
-                .toList();
-        
-        return ResponseEntity.ok(dtos);
+    @Operation(summary = "Get mutations by genetic sample", description = "Retrieve the mutations of a specific genetic sample, paged by id")
+    public ResponseEntity<KeysetPage<MutationDTO>> getByGeneticSampleId(
+            @PathVariable UUID geneticSampleId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return KeysetPageResponses.ok(mutationService.searchPage(geneticSampleId, null, null, false, cursor, size));
     }
 }
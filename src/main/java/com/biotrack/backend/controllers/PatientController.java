@@ -7,6 +7,7 @@ import com.biotrack.backend.exceptions.ResourceNotFoundException;
 import com.biotrack.backend.models.ClinicalHistoryRecord;
 import com.biotrack.backend.models.Patient;
 import com.biotrack.backend.services.PatientService;
+import com.biotrack.backend.services.pagination.KeysetPage;
 import com.biotrack.backend.utils.ClinicalHistoryRecordMapper;
 import com.biotrack.backend.utils.PatientMapper;
 import io.swagger.v3.oas.annotations.Operation;
@@ -69,16 +70,26 @@ public class PatientController {
     @GetMapping
     @Operation(
         summary = "Get all patients",
-        description = "Retrieve a list of all registered patients in the system"
+        description = "Retrieve registered patients, newest first, one page at a time. When more pages exist the " +
+                      "X-Next-Cursor and Link (rel=\"next\") headers carry the cursor for the next request"
     )
-    @ApiResponse(
-        responseCode = "200",
-        description = "Patient list retrieved successfully"
-    )
-    public ResponseEntity<List<PatientCreationDTO>> getAll(){
-        List<PatientCreationDTO> patients = patientService.findAll().stream()
-                .map(PatientMapper::toDTOCreation).toList();
-        return ResponseEntity.ok(patients);
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Patient page retrieved successfully"
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Invalid cursor or page size"
+        )
+    })
+    public ResponseEntity<KeysetPage<PatientCreationDTO>> getAll(
+            @Parameter(description = "Opaque cursor returned in X-Next-Cursor by the previous page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (default 50, capped at 200)")
+            @RequestParam(required = false) Integer size){
+        KeysetPage<Patient> page = patientService.findPage(cursor, size);
+        return KeysetPageResponses.ok(page.map(PatientMapper::toDTOCreation));
     }
 
     @GetMapping("/{id}")
@@ -105,13 +116,36 @@ public class PatientController {
         return ResponseEntity.ok(PatientMapper.toDTOCreation(patient));
     }
 
+    @GetMapping("/search")
+    @Operation(
+        summary = "Search patients",
+        description = "CURP, email and phone number are matched exactly; any other term is matched against the " +
+                      "accent-insensitive full name and ranked by similarity"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Matching patients, best match first"),
+        @ApiResponse(responseCode = "400", description = "Empty search term or invalid limit")
+    })
+    public ResponseEntity<List<PatientCreationDTO>> search(
+            @Parameter(description = "Name, CURP, email or phone number")
+            @RequestParam String query,
+            @Parameter(description = "Maximum number of results (default 20, capped at 100)")
+            @RequestParam(required = false) Integer limit) {
+        List<Patient> patients = patientService.searchPatients(query, limit);
+        return ResponseEntity.ok(patients.stream().map(PatientMapper::toDTOCreation).toList());
+    }
+
     @GetMapping("/getPatientsByName")
-    @Operation(summary = "Search patients by first name and/or last name", description = "Retrieve patients filtered by first name and/or last name (case insensitive)")
+    @Operation(summary = "Search patients by first name and/or last name", description = "Retrieve patients whose first name contains firstName and whose last name contains lastName " +
+                      "(case and accent insensitive), ordered by name and bounded by limit. Without filters, the newest page of patients. " +
+                      "For ranked, typo-tolerant search use /api/patients/search")
     @ApiResponse(responseCode = "200", description = "Patient list retrieved successfully")
     public ResponseEntity<List<PatientCreationDTO>> searchPatients(
             @RequestParam(required = false) String firstName,
-            @RequestParam(required = false) String lastName) {
-        List<Patient> patients = patientService.searchPatients(firstName, lastName);
+            @RequestParam(required = false) String lastName,
+            @Parameter(description = "Maximum number of results (default 20, capped at 100)")
+            @RequestParam(required = false) Integer limit) {
+        List<Patient> patients = patientService.searchPatients(firstName, lastName, limit);
         List<PatientCreationDTO> dtos = patients.stream().map(PatientMapper::toDTOCreation).toList();
         return ResponseEntity.ok(dtos);
     }
@@ -259,6 +293,11 @@ public class PatientController {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
     }
 
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleIllegalArgumentException(IllegalArgumentException ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
+    }
+
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<String> handleRuntimeException(RuntimeException ex) {
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(ex.getMessage());
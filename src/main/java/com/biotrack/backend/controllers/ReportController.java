@@ -2,12 +2,18 @@ package com.biotrack.backend.controllers;
 
 import com.biotrack.backend.dto.GeneticReportDTO;
 import com.biotrack.backend.dto.PatientReportsDTO;
+import com.biotrack.backend.dto.PresignedUrlDTO;
+import com.biotrack.backend.dto.ReportBatchRequestDTO;
 import com.biotrack.backend.dto.ReportDTO;
 import com.biotrack.backend.models.Report;
 import com.biotrack.backend.models.enums.ReportStatus;
 import com.biotrack.backend.services.OpenAIService;
 import com.biotrack.backend.services.ReportService;
+import com.biotrack.backend.services.pagination.KeysetPage;
+import com.biotrack.backend.services.storage.StoredObjectStream;
+import com.biotrack.backend.utils.CompressionUtils;
 import com.biotrack.backend.utils.ReportMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
@@ -16,13 +22,23 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.UUID;
+import java.util.zip.GZIPInputStream;
 
 @RestController
 @RequestMapping("/api/reports")
@@ -31,10 +47,12 @@ public class ReportController {
 
     private final ReportService reportService;
     private final OpenAIService openAIService;
+    private final ObjectMapper objectMapper;
 
-    public ReportController(ReportService reportService, OpenAIService openAIService) {
+    public ReportController(ReportService reportService, OpenAIService openAIService, ObjectMapper objectMapper) {
         this.reportService = reportService;
         this.openAIService = openAIService;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping("/generate")
@@ -115,35 +133,42 @@ public class ReportController {
     @GetMapping
     @Operation(
         summary = "Get all reports",
-        description = "Retrieve a list of all generated genetic reports"
+        description = "Retrieve the completed genetic reports, newest first, one page at a time. " +
+                      "The X-Next-Cursor and Link headers carry the cursor of the next page"
     )
-    @ApiResponse(
-        responseCode = "200",
-        description = "Report list retrieved successfully"
-    )
-    public ResponseEntity<List<ReportDTO>> getAllReports() {
-        List<ReportDTO> reports = reportService.findByStatus(ReportStatus.COMPLETED).stream()
-                .map(ReportMapper::toDTO)
-                .toList();
-        return ResponseEntity.ok(reports);
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Report page retrieved successfully"
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Invalid cursor or page size"
+        )
+    })
+    public ResponseEntity<KeysetPage<ReportDTO>> getAllReports(
+            @Parameter(description = "Opaque cursor returned in X-Next-Cursor by the previous page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (default 50, capped at 200)")
+            @RequestParam(required = false) Integer size) {
+        return KeysetPageResponses.ok(reportService.findPage(ReportStatus.COMPLETED, cursor, size));
     }
 
     @PreAuthorize("hasRole('LAB_TECHNICIAN') or hasRole('MEDIC') or hasRole('PATIENT') or hasRole('ADMIN') or hasRole('RECEPTIONIST')")
     @GetMapping("/all")
-    public ResponseEntity<List<ReportDTO>> getAllReportsFixed() {
-        List<Report> allReports = reportService.findAll();
-        List<ReportDTO> reports = allReports.stream()
-                .sorted((r1, r2) -> r2.getGeneratedAt().compareTo(r1.getGeneratedAt()))
-                .map(ReportMapper::toDTO)
-                .toList();
-        return ResponseEntity.ok(reports);
+    public ResponseEntity<KeysetPage<ReportDTO>> getAllReportsFixed(
+            @Parameter(description = "Opaque cursor returned in X-Next-Cursor by the previous page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (default 50, capped at 200)")
+            @RequestParam(required = false) Integer size) {
+        return KeysetPageResponses.ok(reportService.findPage(null, cursor, size));
     }
 
     @PreAuthorize("hasRole('LAB_TECHNICIAN') or hasRole('MEDIC') or hasRole('PATIENT') or hasRole('ADMIN') or hasRole('RECEPTIONIST')")
     @GetMapping("/sample/{sampleId}")
     @Operation(
         summary = "Get reports by sample",
-        description = "Retrieve all reports generated for a specific sample"
+        description = "Retrieve the reports generated for a specific sample, newest first, one page at a time"
     )
     @ApiResponses(value = {
         @ApiResponse(
@@ -155,14 +180,15 @@ public class ReportController {
             description = "Sample not found"
         )
     })
-    public ResponseEntity<List<ReportDTO>> getReportsBySample(
+    public ResponseEntity<KeysetPage<ReportDTO>> getReportsBySample(
             @Parameter(description = "Unique identifier of the sample")
-            @PathVariable UUID sampleId
+            @PathVariable UUID sampleId,
+            @Parameter(description = "Opaque cursor returned in X-Next-Cursor by the previous page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (default 50, capped at 200)")
+            @RequestParam(required = false) Integer size
     ) {
-        List<ReportDTO> reports = reportService.findBySampleId(sampleId).stream()
-                .map(ReportMapper::toDTO)
-                .toList();
-        return ResponseEntity.ok(reports);
+        return KeysetPageResponses.ok(reportService.findPageBySampleId(sampleId, cursor, size));
     }
 
     @PreAuthorize("hasRole('LAB_TECHNICIAN') or hasRole('MEDIC') or hasRole('PATIENT') or hasRole('ADMIN') or hasRole('RECEPTIONIST')")    
@@ -190,23 +216,153 @@ public class ReportController {
         return ResponseEntity.ok(ReportMapper.toDTO(report));
     }
 
+    @PreAuthorize("hasRole('LAB_TECHNICIAN') or hasRole('MEDIC') or hasRole('PATIENT') or hasRole('ADMIN') or hasRole('RECEPTIONIST')")
+    @GetMapping("/{reportId}/download-url")
+    @Operation(
+        summary = "Get direct report download URL",
+        description = "Get a short-lived presigned URL so the client downloads the report straight from S3. " +
+                      "With local storage there is nothing to presign and the request is redirected to /content"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Presigned URL created",
+            content = @Content(schema = @Schema(implementation = PresignedUrlDTO.class))
+        ),
+        @ApiResponse(
+            responseCode = "307",
+            description = "Local storage: redirect to the /content endpoint of the report"
+        ),
+        @ApiResponse(
+            responseCode = "404",
+            description = "Report not found"
+        ),
+        @ApiResponse(
+            responseCode = "409",
+            description = "Report is still being uploaded or is stored inline; use /content instead"
+        )
+    })
+    public ResponseEntity<PresignedUrlDTO> getReportDownloadUrl(
+            @Parameter(description = "Unique identifier of the report")
+            @PathVariable UUID reportId,
+            @Parameter(description = "Whether to sign the patient-friendly report")
+            @RequestParam(defaultValue = "false") boolean isPatientFriendly
+    ) {
+        try {
+            return ResponseEntity.ok(reportService.getReportDownloadUrl(reportId, isPatientFriendly));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (UnsupportedOperationException e) {
+            // Almacenamiento local: el mismo documento se sirve desde el backend
+            return ResponseEntity.status(HttpStatus.TEMPORARY_REDIRECT)
+                    .location(ServletUriComponentsBuilder.fromCurrentContextPath()
+                            .path("/api/reports/{reportId}/content")
+                            .queryParam("isPatientFriendly", isPatientFriendly)
+                            .buildAndExpand(reportId)
+                            .toUri())
+                    .build();
+        }
+    }
+
+    @PreAuthorize("hasRole('LAB_TECHNICIAN') or hasRole('MEDIC') or hasRole('PATIENT') or hasRole('ADMIN') or hasRole('RECEPTIONIST')")
+    @GetMapping("/{reportId}/content")
+    @Operation(
+        summary = "Get raw report document",
+        description = "Stream the stored report document; clients that send Accept-Encoding: gzip receive the compressed bytes as stored"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Report document streamed"
+        ),
+        @ApiResponse(
+            responseCode = "404",
+            description = "Report not found"
+        )
+    })
+    public void getReportContent(
+            @Parameter(description = "Unique identifier of the report")
+            @PathVariable UUID reportId,
+            @Parameter(description = "Whether to return the patient-friendly report")
+            @RequestParam(defaultValue = "false") boolean isPatientFriendly,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            HttpServletResponse response
+    ) throws IOException {
+        try (StoredObjectStream document = reportService.openReportDocument(reportId, isPatientFriendly)) {
+            boolean stored = CompressionUtils.isGzipEncoding(document.contentEncoding());
+            boolean clientAcceptsGzip = CompressionUtils.acceptsGzip(acceptEncoding);
+
+            response.setContentType(document.contentType() != null ? document.contentType() : MediaType.TEXT_PLAIN_VALUE);
+            response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+            InputStream body = document.body();
+            if (stored && clientAcceptsGzip) {
+                // Se reenvían los bytes comprimidos tal cual, sin descomprimir en el backend
+                response.setHeader(HttpHeaders.CONTENT_ENCODING, CompressionUtils.GZIP);
+                response.setContentLengthLong(document.contentLength());
+            } else if (stored) {
+                body = new GZIPInputStream(body, 8192);
+            } else {
+                response.setContentLengthLong(document.contentLength());
+            }
+            body.transferTo(response.getOutputStream());
+        }
+    }
+
+    @PreAuthorize("hasRole('LAB_TECHNICIAN') or hasRole('MEDIC') or hasRole('PATIENT') or hasRole('ADMIN') or hasRole('RECEPTIONIST')")
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(
+        summary = "Fetch several reports",
+        description = "Load up to reports.batch.max-size reports in one request; each line of the NDJSON response is one report (or its error), written as soon as it is ready"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Reports streamed, one JSON object per line"
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "No report ids or too many report ids"
+        )
+    })
+    public void getReportsBatch(
+            @RequestBody ReportBatchRequestDTO request,
+            HttpServletResponse response
+    ) {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        reportService.streamReports(request.reportIds(), request.isPatientFriendly(), item -> {
+            try {
+                // Cada reporte se envía apenas llega, sin esperar al resto del lote
+                OutputStream out = response.getOutputStream();
+                out.write(objectMapper.writeValueAsBytes(item));
+                out.write('\n');
+                out.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
     @GetMapping("/status/{status}")
     @Operation(
         summary = "Get reports by status",
-        description = "Retrieve reports filtered by their processing status"
+        description = "Retrieve reports filtered by their processing status, newest first, one page at a time"
     )
     @ApiResponse(
         responseCode = "200",
         description = "Reports retrieved successfully"
     )
-    public ResponseEntity<List<ReportDTO>> getReportsByStatus(
+    public ResponseEntity<KeysetPage<ReportDTO>> getReportsByStatus(
             @Parameter(description = "Report processing status")
-            @PathVariable ReportStatus status
+            @PathVariable ReportStatus status,
+            @Parameter(description = "Opaque cursor returned in X-Next-Cursor by the previous page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (default 50, capped at 200)")
+            @RequestParam(required = false) Integer size
     ) {
-        List<ReportDTO> reports = reportService.findByStatus(status).stream()
-                .map(ReportMapper::toDTO)
-                .toList();
-        return ResponseEntity.ok(reports);
+        return KeysetPageResponses.ok(reportService.findPage(status, cursor, size));
     }
 
     @DeleteMapping("/{reportId}")
@@ -259,6 +415,11 @@ public class ReportController {
     }
 
     // Exception handlers
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleIllegalArgumentException(IllegalArgumentException ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
+    }
+
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<String> handleRuntimeException(RuntimeException ex) {
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(ex.getMessage());
@@ -1,22 +1,36 @@
 package com.biotrack.backend.controllers;
 
+import com.biotrack.backend.dto.IngestionProgressDTO;
+import com.biotrack.backend.dto.PresignedUploadDTO;
+import com.biotrack.backend.dto.PresignedUploadRequestDTO;
+import com.biotrack.backend.dto.PresignedUrlDTO;
 import com.biotrack.backend.dto.ResultFileDTO;
+import com.biotrack.backend.dto.ResultFileUploadCompletionDTO;
+import com.biotrack.backend.exceptions.RangeNotSatisfiableException;
 import com.biotrack.backend.models.ResultFile;
+import com.biotrack.backend.services.IngestionJobService;
 import com.biotrack.backend.services.ResultFileService;
+import com.biotrack.backend.services.storage.ResultFileDownload;
+import com.biotrack.backend.services.storage.StoredObjectStream;
 import com.biotrack.backend.utils.ResultFileMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.UUID;
 
@@ -26,14 +40,16 @@ import java.util.UUID;
 public class ResultFileController {
 
     private final ResultFileService resultFileService;
+    private final IngestionJobService ingestionJobService;
 
     @Autowired
-    public ResultFileController(ResultFileService resultFileService) {
+    public ResultFileController(ResultFileService resultFileService, IngestionJobService ingestionJobService) {
         this.resultFileService = resultFileService;
+        this.ingestionJobService = ingestionJobService;
     }
 
     @PostMapping("/upload")
-    @Operation(summary = "Upload result file", description = "Upload a result file and link it to a genetic sample")
+    @Operation(summary = "Upload result file", description = "Upload a result file and link it to a genetic sample; its mutations are ingested in the background (see /{id}/progress)")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "201", description = "File uploaded successfully"),
         @ApiResponse(responseCode = "400", description = "Invalid file or genetic sample ID"),
@@ -47,6 +63,34 @@ public class ResultFileController {
         return ResponseEntity.status(HttpStatus.CREATED).body(ResultFileMapper.toDTO(resultFile));
     }
 
+    @PostMapping("/upload-url")
+    @Operation(summary = "Request a direct upload target", description = "Get a presigned PUT URL or POST form so the browser uploads the file straight to S3")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Upload target created"),
+        @ApiResponse(responseCode = "400", description = "Invalid request or file too large"),
+        @ApiResponse(responseCode = "404", description = "Genetic sample not found"),
+        @ApiResponse(responseCode = "501", description = "Local storage: upload through /upload or the resumable upload endpoints")
+    })
+    public ResponseEntity<PresignedUploadDTO> createUploadTarget(@Valid @RequestBody PresignedUploadRequestDTO request) {
+        try {
+            return ResponseEntity.ok(resultFileService.createUploadTarget(request));
+        } catch (UnsupportedOperationException e) {
+            return ResponseEntity.status(HttpStatus.NOT_IMPLEMENTED).build();
+        }
+    }
+
+    @PostMapping("/upload-complete")
+    @Operation(summary = "Complete a direct upload", description = "Register the result file once the browser finished uploading it to S3")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "201", description = "Result file registered"),
+        @ApiResponse(responseCode = "400", description = "Object not found in S3 or key does not belong to the sample"),
+        @ApiResponse(responseCode = "404", description = "Genetic sample not found")
+    })
+    public ResponseEntity<ResultFileDTO> completeUpload(@Valid @RequestBody ResultFileUploadCompletionDTO completion) {
+        ResultFile resultFile = resultFileService.completeUpload(completion);
+        return ResponseEntity.status(HttpStatus.CREATED).body(ResultFileMapper.toDTO(resultFile));
+    }
+
     @GetMapping
     @Operation(
         summary = "Get all result files",
@@ -74,6 +118,36 @@ public class ResultFileController {
         return ResponseEntity.ok(ResultFileMapper.toDTO(resultFile));
     }
 
+    @PostMapping("/{id}/ingest")
+    @Operation(summary = "Queue ingestion", description = "Queue the background ingestion of a result file, or queue it again if it finished or failed")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Ingestion queued or already running"),
+        @ApiResponse(responseCode = "404", description = "Result file not found")
+    })
+    public ResponseEntity<IngestionProgressDTO> enqueueIngestion(@PathVariable UUID id) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(ingestionJobService.enqueue(id));
+    }
+
+    @GetMapping("/{id}/progress")
+    @Operation(summary = "Get ingestion progress", description = "Rows processed, errors and throughput of the ingestion of a result file")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Current progress"),
+        @ApiResponse(responseCode = "404", description = "Result file not found")
+    })
+    public ResponseEntity<IngestionProgressDTO> getIngestionProgress(@PathVariable UUID id) {
+        return ResponseEntity.ok(ingestionJobService.getProgress(id));
+    }
+
+    @GetMapping(value = "/{id}/progress/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Subscribe to ingestion progress", description = "Server-sent 'progress' events until the ingestion of the result file completes or fails")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Event stream opened"),
+        @ApiResponse(responseCode = "404", description = "Result file not found")
+    })
+    public SseEmitter streamIngestionProgress(@PathVariable UUID id) {
+        return ingestionJobService.subscribe(id);
+    }
+
     @GetMapping("/genetic-sample/{geneticSampleId}")
     @Operation(summary = "Get result files by genetic sample", description = "Retrieve all result files for a specific genetic sample")
     public ResponseEntity<List<ResultFileDTO>> findByGeneticSampleId(@PathVariable UUID geneticSampleId) {
@@ -85,20 +159,74 @@ public class ResultFileController {
     }
 
     @GetMapping("/{id}/download")
-    @Operation(summary = "Download result file", description = "Download a result file by its ID")
+    @Operation(summary = "Download result file", description = "Stream a result file by its ID; supports Range and If-Range for partial and resumed downloads")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "File downloaded successfully"),
+        @ApiResponse(responseCode = "206", description = "Requested byte range returned"),
+        @ApiResponse(responseCode = "404", description = "Result file not found"),
+        @ApiResponse(responseCode = "416", description = "Requested range not satisfiable")
+    })
+    public void downloadFile(
+            @PathVariable UUID id,
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+            @RequestHeader(value = HttpHeaders.IF_RANGE, required = false) String ifRange,
+            HttpServletResponse response) throws IOException {
+
+        ResultFileDownload download;
+        try {
+            download = resultFileService.openDownload(id, range, ifRange);
+        } catch (RangeNotSatisfiableException e) {
+            response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + e.getObjectLength());
+            return;
+        }
+
+        ResultFile resultFile = download.resultFile();
+        try (StoredObjectStream object = download.object()) {
+            String contentType = resultFile.getContentType() != null ? resultFile.getContentType() : object.contentType();
+
+            response.setStatus(object.isPartial() ? HttpStatus.PARTIAL_CONTENT.value() : HttpStatus.OK.value());
+            response.setContentType(contentType != null ? contentType : MediaType.APPLICATION_OCTET_STREAM_VALUE);
+            response.setContentLengthLong(object.contentLength());
+            response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                    "attachment; filename=\"" + resultFile.getFileName() + "\"");
+            if (object.eTag() != null) {
+                response.setHeader(HttpHeaders.ETAG, object.eTag());
+            }
+            if (object.lastModified() != null) {
+                response.setDateHeader(HttpHeaders.LAST_MODIFIED, object.lastModified().toEpochMilli());
+            }
+            if (object.isPartial()) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, object.contentRange());
+            }
+
+            // Copia directa a la respuesta: el almacenamiento local usa FileChannel.transferTo, S3 un buffer fijo
+            OutputStream out = response.getOutputStream();
+            object.body().transferTo(out);
+            out.flush();
+        }
+    }
+
+    @GetMapping("/{id}/download-url")
+    @Operation(summary = "Get direct download URL", description = "Get a short-lived presigned URL to download the result file straight from S3; with local storage the request is redirected to /download")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Presigned URL created"),
+        @ApiResponse(responseCode = "307", description = "Local storage: redirect to the /download endpoint of the file"),
         @ApiResponse(responseCode = "404", description = "Result file not found")
     })
-    public ResponseEntity<Resource> downloadFile(@PathVariable UUID id) {
-        Resource resource = resultFileService.downloadFile(id);
-        ResultFile resultFile = resultFileService.findById(id);
-        
-        return ResponseEntity.ok()
-                .contentType(MediaType.parseMediaType(resultFile.getContentType()))
-                .header(HttpHeaders.CONTENT_DISPOSITION, 
-                       "attachment; filename=\"" + resultFile.getFileName() + "\"")
-                .body(resource);
+    public ResponseEntity<PresignedUrlDTO> getDownloadUrl(@PathVariable UUID id) {
+        try {
+            return ResponseEntity.ok(resultFileService.getDownloadUrl(id));
+        } catch (UnsupportedOperationException e) {
+            // Almacenamiento local: el mismo archivo se sirve desde el backend
+            return ResponseEntity.status(HttpStatus.TEMPORARY_REDIRECT)
+                    .location(ServletUriComponentsBuilder.fromCurrentContextPath()
+                            .path("/api/result-files/{id}/download")
+                            .buildAndExpand(id)
+                            .toUri())
+                    .build();
+        }
     }
 
     @PutMapping("/{id}/status")
@@ -0,0 +1,134 @@
+package com.biotrack.backend.controllers;
+
+import com.biotrack.backend.dto.ResumableUploadDTO;
+import com.biotrack.backend.services.ResumableUploadService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.UUID;
+
+/**
+ * Protocolo de subida reanudable estilo tus para archivos de secuenciación grandes (FASTQ/VCF).
+ * El cuerpo del PATCH se lee como stream, sin que Tomcat lo bufferice como multipart.
+ */
+@RestController
+@RequestMapping("/api/result-files/uploads")
+@Tag(name = "Result Files", description = "Result file management for genetic analysis")
+public class ResumableUploadController {
+
+    private static final String TUS_VERSION = "1.0.0";
+    private static final String OFFSET_OCTET_STREAM = "application/offset+octet-stream";
+
+    private final ResumableUploadService resumableUploadService;
+
+    @Autowired
+    public ResumableUploadController(ResumableUploadService resumableUploadService) {
+        this.resumableUploadService = resumableUploadService;
+    }
+
+    @PostMapping
+    @Operation(summary = "Create resumable upload", description = "Start a chunked upload of a large result file; send the bytes with PATCH to the returned Location")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "201", description = "Upload created"),
+        @ApiResponse(responseCode = "400", description = "Invalid Upload-Length or file too large"),
+        @ApiResponse(responseCode = "404", description = "Genetic sample not found")
+    })
+    public ResponseEntity<ResumableUploadDTO> create(
+            @RequestHeader("Upload-Length") long uploadLength,
+            @RequestParam("geneticSampleId") UUID geneticSampleId,
+            @RequestParam("fileName") String fileName,
+            @RequestParam(value = "contentType", required = false) String contentType) {
+
+        ResumableUploadDTO upload = resumableUploadService.create(geneticSampleId, fileName, contentType, uploadLength);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .location(URI.create("/api/result-files/uploads/" + upload.uploadId()))
+                .headers(uploadHeaders(upload))
+                .body(upload);
+    }
+
+    @RequestMapping(value = "/{uploadId}", method = RequestMethod.HEAD)
+    @Operation(summary = "Get upload offset", description = "Returns the number of bytes received so far in the Upload-Offset header")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Upload found"),
+        @ApiResponse(responseCode = "404", description = "Upload not found or expired")
+    })
+    public ResponseEntity<Void> getOffset(@PathVariable UUID uploadId) {
+        ResumableUploadDTO upload = resumableUploadService.getStatus(uploadId);
+        return ResponseEntity.ok()
+                .headers(uploadHeaders(upload))
+                .header(HttpHeaders.CACHE_CONTROL, "no-store")
+                .build();
+    }
+
+    @GetMapping("/{uploadId}")
+    @Operation(summary = "Get upload status", description = "Retrieve the state of a resumable upload")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Upload found"),
+        @ApiResponse(responseCode = "404", description = "Upload not found or expired")
+    })
+    public ResponseEntity<ResumableUploadDTO> getStatus(@PathVariable UUID uploadId) {
+        ResumableUploadDTO upload = resumableUploadService.getStatus(uploadId);
+        return ResponseEntity.ok()
+                .headers(uploadHeaders(upload))
+                .header(HttpHeaders.CACHE_CONTROL, "no-store")
+                .body(upload);
+    }
+
+    @PatchMapping(value = "/{uploadId}", consumes = OFFSET_OCTET_STREAM)
+    @Operation(summary = "Upload a chunk", description = "Append the request body at Upload-Offset; the result file is registered when the last byte arrives")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Chunk stored; Upload-Offset holds the new offset"),
+        @ApiResponse(responseCode = "400", description = "Chunk goes past the declared Upload-Length"),
+        @ApiResponse(responseCode = "404", description = "Upload not found or expired"),
+        @ApiResponse(responseCode = "409", description = "Upload-Offset does not match, the upload is busy or already complete")
+    })
+    public ResponseEntity<ResumableUploadDTO> appendChunk(
+            @PathVariable UUID uploadId,
+            @RequestHeader("Upload-Offset") long offset,
+            HttpServletRequest request) throws IOException {
+
+        try {
+            ResumableUploadDTO upload = resumableUploadService.append(uploadId, offset, request.getInputStream());
+            return ResponseEntity.ok()
+                    .headers(uploadHeaders(upload))
+                    .body(upload);
+        } catch (IllegalStateException e) {
+            // El cliente debe consultar HEAD y continuar desde el offset real
+            ResumableUploadDTO current = resumableUploadService.getStatus(uploadId);
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .headers(uploadHeaders(current))
+                    .build();
+        }
+    }
+
+    @DeleteMapping("/{uploadId}")
+    @Operation(summary = "Cancel upload", description = "Abort a resumable upload and discard the bytes received")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "Upload cancelled"),
+        @ApiResponse(responseCode = "404", description = "Upload not found or expired")
+    })
+    public ResponseEntity<Void> cancel(@PathVariable UUID uploadId) {
+        resumableUploadService.abort(uploadId);
+        return ResponseEntity.noContent()
+                .header("Tus-Resumable", TUS_VERSION)
+                .build();
+    }
+
+    private HttpHeaders uploadHeaders(ResumableUploadDTO upload) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Tus-Resumable", TUS_VERSION);
+        headers.set("Upload-Offset", String.valueOf(upload.offset()));
+        headers.set("Upload-Length", String.valueOf(upload.length()));
+        return headers;
+    }
+}
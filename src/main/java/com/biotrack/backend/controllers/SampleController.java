@@ -13,6 +13,7 @@ import com.biotrack.backend.services.PatientService;
 import com.biotrack.backend.services.ReportService;
 import com.biotrack.backend.services.SampleService;
 import com.biotrack.backend.services.UserService;
+import com.biotrack.backend.services.pagination.KeysetPage;
 import com.biotrack.backend.utils.SampleMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -90,17 +91,26 @@ public class SampleController {
     @GetMapping
     @Operation(
         summary = "Get all genetic samples",
-        description = "Retrieve a list of all genetic samples registered in the laboratory"
+        description = "Retrieve the samples registered in the laboratory, newest first, one page at a time. " +
+                      "The X-Next-Cursor and Link headers carry the cursor of the next page"
     )
-    @ApiResponse(
-        responseCode = "200",
-        description = "Sample list retrieved successfully"
-    )
-    public ResponseEntity<List<SampleDTO>> getAll(){
-        List<SampleDTO> samples = sampleService.findAll().stream()
-                .map(SampleMapper::toDTO)
-                .toList();
-        return ResponseEntity.ok(samples);
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Sample page retrieved successfully"
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Invalid cursor or page size"
+        )
+    })
+    public ResponseEntity<KeysetPage<SampleDTO>> getAll(
+            @Parameter(description = "Opaque cursor returned in X-Next-Cursor by the previous page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (default 50, capped at 200)")
+            @RequestParam(required = false) Integer size){
+        KeysetPage<Sample> page = sampleService.findPage(cursor, size);
+        return KeysetPageResponses.ok(page.map(SampleMapper::toDTO));
     }
 
     @PreAuthorize("hasRole('LAB_TECHNICIAN') or hasRole('MEDIC') or hasRole('PATIENT') or hasRole('ADMIN') or hasRole('RECEPTIONIST')")
@@ -192,23 +202,27 @@ public class SampleController {
     @GetMapping("/patient/{patientId}")
     @Operation(
         summary = "List samples by patient",
-        description = "Retrieve all samples linked to a specific patient"
+        description = "Retrieve the samples linked to a specific patient, newest first, one page at a time"
     )
     @ApiResponses(value = {
         @ApiResponse(
             responseCode = "200",
             description = "List of samples for the patient",
-            content = @Content(array = @ArraySchema(schema = @Schema(implementation = SampleDTO.class)))
+            content = @Content(schema = @Schema(implementation = KeysetPage.class))
         ),
         @ApiResponse(
             responseCode = "404",
             description = "Patient not found with the provided ID"
         )
     })
-    public ResponseEntity<List<SampleDetailDTO>> getSamplesByPatient(@PathVariable UUID patientId) {
-        List<Sample> samples = sampleService.findByPatientId(patientId);
-        List<SampleDetailDTO> dtos = samples.stream().map(SampleMapper::toDetailDTO).toList();
-        return ResponseEntity.ok(dtos);
+    public ResponseEntity<KeysetPage<SampleDetailDTO>> getSamplesByPatient(
+            @PathVariable UUID patientId,
+            @Parameter(description = "Opaque cursor returned in X-Next-Cursor by the previous page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (default 50, capped at 200)")
+            @RequestParam(required = false) Integer size) {
+        KeysetPage<Sample> page = sampleService.findPageByPatientId(patientId, cursor, size);
+        return KeysetPageResponses.ok(page.map(SampleMapper::toDetailDTO));
     }
 
     @PreAuthorize("hasRole('LAB_TECHNICIAN') or hasRole('MEDIC') or hasRole('PATIENT') or hasRole('ADMIN') or hasRole('RECEPTIONIST')")
@@ -252,6 +266,11 @@ public class SampleController {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
     }
 
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleIllegalArgumentException(IllegalArgumentException ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
+    }
+
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<String> handleRuntimeException(RuntimeException ex) {
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(ex.getMessage());
@@ -0,0 +1,82 @@
+package com.biotrack.backend.controllers;
+
+import com.biotrack.backend.dto.GeneCarriersDTO;
+import com.biotrack.backend.dto.GeneVariantCountDTO;
+import com.biotrack.backend.dto.VariantStoreStatsDTO;
+import com.biotrack.backend.models.enums.Relevance;
+import com.biotrack.backend.services.VariantStoreService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/variants")
+@Tag(name = "Variants", description = "Cohort-wide variant queries over the columnar variant store")
+public class VariantController {
+
+    private final VariantStoreService variantStoreService;
+
+    public VariantController(VariantStoreService variantStoreService) {
+        this.variantStoreService = variantStoreService;
+    }
+
+    @GetMapping("/carriers")
+    @Operation(summary = "Carriers of a gene", description = "Genetic samples with at least one variant in the gene at or above the given relevance (HIGH = pathogenic)")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Carriers found (empty if the gene has no variants)"),
+        @ApiResponse(responseCode = "503", description = "Variant store unavailable")
+    })
+    public ResponseEntity<GeneCarriersDTO> getCarriers(
+            @RequestParam String gene,
+            @RequestParam(defaultValue = "HIGH") Relevance minRelevance) {
+        try {
+            return ResponseEntity.ok(variantStoreService.findCarriers(gene, minRelevance));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
+    @GetMapping("/gene-counts")
+    @Operation(summary = "Variant counts per gene", description = "Variants and carriers per gene across the cohort, most carriers first")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Counts computed"),
+        @ApiResponse(responseCode = "400", description = "Invalid limit"),
+        @ApiResponse(responseCode = "503", description = "Variant store unavailable")
+    })
+    public ResponseEntity<List<GeneVariantCountDTO>> getGeneCounts(
+            @RequestParam(defaultValue = "LOW") Relevance minRelevance,
+            @RequestParam(required = false) String chromosome,
+            @RequestParam(defaultValue = "100") int limit) {
+        try {
+            return ResponseEntity.ok(variantStoreService.countByGene(minRelevance, chromosome, limit));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
+    @GetMapping("/store/stats")
+    @Operation(summary = "Variant store size", description = "Rows, samples, genes and segments in the columnar variant store")
+    public ResponseEntity<VariantStoreStatsDTO> getStats() {
+        try {
+            return ResponseEntity.ok(variantStoreService.stats());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
+    @PostMapping("/store/rebuild")
+    @Operation(summary = "Rebuild variant store", description = "Reload the columnar variant store from the mutations table")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Store rebuilt"),
+        @ApiResponse(responseCode = "500", description = "Error writing the store")
+    })
+    public ResponseEntity<VariantStoreStatsDTO> rebuild() {
+        return ResponseEntity.ok(variantStoreService.rebuild());
+    }
+}
@@ -0,0 +1,58 @@
+package com.biotrack.backend.controllers;
+
+import com.biotrack.backend.dto.GeneFrequencyDTO;
+import com.biotrack.backend.dto.VariantFrequencyDTO;
+import com.biotrack.backend.services.VariantFrequencyService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/variant-frequencies")
+@Tag(name = "Variant Frequencies", description = "Internal carrier and allele frequencies kept up to date on every mutation change")
+public class VariantFrequencyController {
+
+    private final VariantFrequencyService variantFrequencyService;
+
+    public VariantFrequencyController(VariantFrequencyService variantFrequencyService) {
+        this.variantFrequencyService = variantFrequencyService;
+    }
+
+    @GetMapping
+    @Operation(summary = "Frequency of a variant", description = "Carriers and allele frequency of a gene/chromosome/type signature in the cohort, or in one hospital when hospitalId is given")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Frequency found (zero counts if the variant was never seen)"),
+        @ApiResponse(responseCode = "400", description = "Gene missing")
+    })
+    public ResponseEntity<VariantFrequencyDTO> getFrequency(
+            @RequestParam String gene,
+            @RequestParam String chromosome,
+            @RequestParam String type,
+            @RequestParam(required = false) UUID hospitalId) {
+        return ResponseEntity.ok(variantFrequencyService.findFrequency(gene, chromosome, type, hospitalId));
+    }
+
+    @GetMapping("/top-genes")
+    @Operation(summary = "Most frequent genes", description = "Genes with the most carriers in the cohort, or in one hospital when hospitalId is given")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Genes found"),
+        @ApiResponse(responseCode = "400", description = "Invalid limit")
+    })
+    public ResponseEntity<List<GeneFrequencyDTO>> getTopGenes(
+            @RequestParam(required = false) UUID hospitalId,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(variantFrequencyService.findTopGenes(hospitalId, limit));
+    }
+
+    @PostMapping("/rebuild")
+    @Operation(summary = "Rebuild frequencies", description = "Recompute every aggregate from the mutations table")
+    public ResponseEntity<Long> rebuild() {
+        return ResponseEntity.ok(variantFrequencyService.rebuild());
+    }
+}
@@ -0,0 +1,77 @@
+package com.biotrack.backend.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@Schema(description = "Quality-control statistics computed from the FASTQ files of a DNA sample")
+public record FastqQcReportDTO(
+    @Schema(description = "DNA sample ID")
+    UUID sampleId,
+
+    @Schema(description = "QC status (QUEUED, RUNNING, COMPLETED, FAILED); null if QC never ran", example = "COMPLETED")
+    String status,
+
+    @Schema(description = "FASTQ files analysed (1 single-end, 2 paired-end)")
+    Integer files,
+
+    @Schema(description = "Reads across all files")
+    Long reads,
+
+    @Schema(description = "Bases across all files")
+    Long bases,
+
+    @Schema(description = "Shortest read length")
+    Integer minReadLength,
+
+    @Schema(description = "Longest read length")
+    Integer maxReadLength,
+
+    @Schema(description = "Mean read length", example = "150.0")
+    Double meanReadLength,
+
+    @Schema(description = "G+C over called bases (A, C, G, T), in percent", example = "41.2")
+    Double gcContentPercent,
+
+    @Schema(description = "Uncalled bases (N), in percent")
+    Double nContentPercent,
+
+    @Schema(description = "Mean Phred base quality", example = "35.4")
+    Double meanBaseQuality,
+
+    @Schema(description = "Bases with Phred quality of at least 30, in percent", example = "91.7")
+    Double q30BasesPercent,
+
+    @Schema(description = "Distinct read sequences, estimated with HyperLogLog (about 1% relative error)")
+    Long estimatedDistinctReads,
+
+    @Schema(description = "Reads whose sequence appeared earlier, in percent (estimate)", example = "7.3")
+    Double duplicateReadsPercent,
+
+    @Schema(description = "Raw bases divided by the configured genome size, before alignment", example = "32")
+    Integer estimatedDepth,
+
+    @Schema(description = "Mean Phred quality at each read position (1-based order)")
+    List<Double> meanQualityByPosition,
+
+    @Schema(description = "Reads per length; the key maxTrackedLength + 1 counts every longer read")
+    Map<Integer, Long> readLengthDistribution,
+
+    @Schema(description = "Longest read length with per-position statistics")
+    Integer maxTrackedLength,
+
+    @Schema(description = "Time spent reading the files, in milliseconds")
+    Long elapsedMs,
+
+    @Schema(description = "When the QC run started")
+    LocalDateTime startedAt,
+
+    @Schema(description = "When the QC run finished")
+    LocalDateTime completedAt,
+
+    @Schema(description = "Error of the last failed run")
+    String error
+) {}
@@ -0,0 +1,25 @@
+package com.biotrack.backend.dto;
+
+import com.biotrack.backend.models.enums.Relevance;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+import java.util.UUID;
+
+@Schema(description = "Genetic samples carrying variants in a gene")
+public record GeneCarriersDTO(
+    @Schema(description = "Gene symbol", example = "BRCA1")
+    String gene,
+
+    @Schema(description = "Minimum relevance of the variants counted")
+    Relevance minRelevance,
+
+    @Schema(description = "Matching variants across all carriers")
+    long variants,
+
+    @Schema(description = "Number of carrier genetic samples")
+    int carriers,
+
+    @Schema(description = "Carrier genetic sample identifiers")
+    List<UUID> geneticSampleIds
+) {}
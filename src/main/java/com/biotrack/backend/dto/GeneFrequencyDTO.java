@@ -0,0 +1,26 @@
+package com.biotrack.backend.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.UUID;
+
+@Schema(description = "Internal carrier frequency of a gene in the cohort or a hospital")
+public record GeneFrequencyDTO(
+    @Schema(description = "Gene symbol", example = "TP53")
+    String gene,
+
+    @Schema(description = "Hospital the counts are restricted to; null for the whole cohort")
+    UUID hospitalId,
+
+    @Schema(description = "Distinct genetic samples with at least one variant in the gene")
+    long carriers,
+
+    @Schema(description = "Mutation rows in the gene")
+    long variants,
+
+    @Schema(description = "Genetic samples with at least one mutation in the same scope")
+    long cohortSamples,
+
+    @Schema(description = "carriers / cohortSamples", example = "0.12")
+    double carrierFrequency
+) {}
@@ -0,0 +1,17 @@
+package com.biotrack.backend.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "Gene symbols a search term resolved to")
+public record GeneResolutionDTO(
+    @Schema(description = "Search term as received", example = "brac1")
+    String query,
+
+    @Schema(description = "How the term matched: EXACT, ALIAS, PREFIX, FUZZY or NONE")
+    String matchType,
+
+    @Schema(description = "Approved gene symbols, best matches first", example = "[\"BRCA1\"]")
+    List<String> symbols
+) {}
@@ -0,0 +1,15 @@
+package com.biotrack.backend.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Variant and carrier counts for a gene across the cohort")
+public record GeneVariantCountDTO(
+    @Schema(description = "Gene symbol", example = "TP53")
+    String gene,
+
+    @Schema(description = "Matching variants")
+    long variants,
+
+    @Schema(description = "Distinct genetic samples with at least one matching variant")
+    int carriers
+) {}
@@ -0,0 +1,54 @@
+package com.biotrack.backend.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Schema(description = "Progress of the background ingestion of a result file")
+public record IngestionProgressDTO(
+    @Schema(description = "Result file ID")
+    UUID resultFileId,
+
+    @Schema(description = "Result file status", example = "PROCESSING")
+    String processingStatus,
+
+    @Schema(description = "Ingestion job status (QUEUED, RUNNING, COMPLETED, FAILED); null if the file was never queued")
+    String jobStatus,
+
+    @Schema(description = "Times the job has been started, including retries")
+    int attempts,
+
+    @Schema(description = "Bytes of the file read so far")
+    long bytesProcessed,
+
+    @Schema(description = "File size in bytes, if known")
+    Long fileSize,
+
+    @Schema(description = "Estimated completion from bytes read; null if the size is unknown", example = "42")
+    Integer percent,
+
+    @Schema(description = "Data rows read so far")
+    long rowsRead,
+
+    @Schema(description = "Mutations inserted so far")
+    long rowsInserted,
+
+    @Schema(description = "Rows rejected by validation so far")
+    long rowsRejected,
+
+    @Schema(description = "Rows read per second since processing started", example = "185000.5")
+    double rowsPerSecond,
+
+    @Schema(description = "When the current processing attempt started")
+    LocalDateTime startedAt,
+
+    @Schema(description = "When processing finished")
+    LocalDateTime finishedAt,
+
+    @Schema(description = "Next retry time while the job waits after a failure")
+    LocalDateTime nextAttemptAt,
+
+    @Schema(description = "Last processing error, if any")
+    String error
+) {}
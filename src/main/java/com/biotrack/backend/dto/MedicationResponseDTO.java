@@ -1,6 +1,7 @@
 package com.biotrack.backend.dto;
 
 import java.time.LocalDate;
+import java.util.List;
 import java.util.UUID;
 
 public record MedicationResponseDTO(
@@ -15,5 +16,13 @@ public record MedicationResponseDTO(
         LocalDate endDate,
         UUID prescribedById,
         String prescribedByName, // Nombre del doctor que lo prescribió
-        UUID patientId
-) {}
\ No newline at end of file
+        UUID patientId,
+        List<PharmacogenomicAlertDTO> pharmacogenomicAlerts // Reglas gen–fármaco que aplican por las variantes del paciente
+) {
+    public MedicationResponseDTO(UUID id, String name, String brand, String activeSubstance, String indication,
+                                 String dosage, String frequency, LocalDate startDate, LocalDate endDate,
+                                 UUID prescribedById, String prescribedByName, UUID patientId) {
+        this(id, name, brand, activeSubstance, indication, dosage, frequency, startDate, endDate,
+                prescribedById, prescribedByName, patientId, List.of());
+    }
+}
\ No newline at end of file
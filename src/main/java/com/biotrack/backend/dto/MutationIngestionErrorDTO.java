@@ -0,0 +1,12 @@
+package com.biotrack.backend.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "A result file line that was rejected during ingestion")
+public record MutationIngestionErrorDTO(
+    @Schema(description = "Line of the file where the record starts (1-based)")
+    long line,
+
+    @Schema(description = "Why the line was rejected")
+    String message
+) {}
@@ -0,0 +1,36 @@
+package com.biotrack.backend.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+import java.util.UUID;
+
+@Schema(description = "Summary of a mutation result file ingestion")
+public record MutationIngestionResultDTO(
+    @Schema(description = "Result file identifier")
+    UUID resultFileId,
+
+    @Schema(description = "Final processing status of the result file")
+    String processingStatus,
+
+    @Schema(description = "Data rows read from the file (header excluded)")
+    long rowsRead,
+
+    @Schema(description = "Mutations inserted")
+    long rowsInserted,
+
+    @Schema(description = "Rows rejected by validation")
+    long rowsRejected,
+
+    @Schema(description = "First rejected lines with their reason")
+    List<MutationIngestionErrorDTO> errors,
+
+    @Schema(description = "True when more lines were rejected than the ones listed in errors")
+    boolean errorsTruncated,
+
+    @Schema(description = "Ingestion time in milliseconds")
+    long elapsedMs,
+
+    @Schema(description = "PARSED (file read), REUSED (rows copied from an identical, already processed file) or UNCHANGED (file was already processed)", example = "PARSED")
+    String mode
+) {}
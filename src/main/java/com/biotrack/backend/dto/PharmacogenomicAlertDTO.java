@@ -0,0 +1,39 @@
+package com.biotrack.backend.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.UUID;
+
+@Schema(description = "Gene-drug guideline that applies to a medication because the patient carries variants in the gene")
+public record PharmacogenomicAlertDTO(
+    @Schema(description = "Medication the alert refers to; null when the substance was checked before prescribing")
+    UUID medicationId,
+
+    @Schema(description = "Substance as written on the medication", example = "Clopidogrel bisulfato")
+    String substance,
+
+    @Schema(description = "Guideline substance name", example = "clopidogrel")
+    String guidelineSubstance,
+
+    @Schema(description = "Gene symbol", example = "CYP2C19")
+    String gene,
+
+    @Schema(description = "AVOID, ADJUST_DOSE or MONITOR", example = "AVOID")
+    String action,
+
+    @Schema(description = "Highest relevance among the patient's variants in the gene", example = "HIGH")
+    String variantRelevance,
+
+    @Schema(description = "Patient variants found in the gene")
+    long variantCount,
+
+    @Schema(description = "Phenotypes the recommendation applies to; the metabolizer status itself is not inferred from the variants",
+            example = "Poor or intermediate metabolizer")
+    String affectedPhenotypes,
+
+    @Schema(description = "Guideline recommendation")
+    String recommendation,
+
+    @Schema(description = "Guideline source and evidence level", example = "CPIC A")
+    String evidence
+) {}
@@ -0,0 +1,27 @@
+package com.biotrack.backend.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.Instant;
+import java.util.Map;
+
+@Schema(description = "Presigned upload target so the browser can send the file directly to storage")
+public record PresignedUploadDTO(
+    @Schema(description = "Storage key the file will be written to; send it back when completing the upload")
+    String s3Key,
+
+    @Schema(description = "HTTP method to use: PUT for a raw body upload, POST for a multipart form")
+    String method,
+
+    @Schema(description = "Upload URL")
+    String url,
+
+    @Schema(description = "Headers that must be sent with a PUT upload")
+    Map<String, String> headers,
+
+    @Schema(description = "Form fields that must precede the file field in a POST upload")
+    Map<String, String> formFields,
+
+    @Schema(description = "Instant after which the upload target is no longer valid")
+    Instant expiresAt
+) {}
@@ -0,0 +1,24 @@
+package com.biotrack.backend.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+import java.util.UUID;
+
+public record PresignedUploadRequestDTO(
+        @NotNull(message = "Genetic sample ID is required")
+        UUID geneticSampleId,
+
+        @NotBlank(message = "File name is required")
+        String fileName,
+
+        String contentType,
+
+        @NotNull(message = "File size is required")
+        @Positive(message = "File size must be positive")
+        Long fileSize,
+
+        // true para recibir un formulario POST (con límite de tamaño) en lugar de un PUT
+        boolean form
+) {}
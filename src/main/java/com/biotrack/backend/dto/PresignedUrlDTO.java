@@ -0,0 +1,14 @@
+package com.biotrack.backend.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.Instant;
+
+@Schema(description = "Short-lived presigned URL to read an object directly from storage")
+public record PresignedUrlDTO(
+    @Schema(description = "Presigned GET URL")
+    String url,
+
+    @Schema(description = "Instant after which the URL is no longer valid")
+    Instant expiresAt
+) {}
@@ -0,0 +1,28 @@
+package com.biotrack.backend.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.UUID;
+
+@Schema(description = "One line of the NDJSON batch response: a parsed report or the error that prevented loading it")
+public record ReportBatchItemDTO(
+    @Schema(description = "Report identifier")
+    UUID reportId,
+
+    @Schema(description = "OK when report holds the content, ERROR otherwise", allowableValues = {"OK", "ERROR"})
+    String status,
+
+    @Schema(description = "Parsed report (same shape as the single-report endpoints)")
+    Object report,
+
+    @Schema(description = "Why the report could not be loaded")
+    String error
+) {
+    public static ReportBatchItemDTO ok(UUID reportId, Object report) {
+        return new ReportBatchItemDTO(reportId, "OK", report, null);
+    }
+
+    public static ReportBatchItemDTO error(UUID reportId, String error) {
+        return new ReportBatchItemDTO(reportId, "ERROR", null, error);
+    }
+}
@@ -0,0 +1,15 @@
+package com.biotrack.backend.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+import java.util.UUID;
+
+@Schema(description = "Reports whose parsed content should be fetched in one request")
+public record ReportBatchRequestDTO(
+    @Schema(description = "Report identifiers; duplicates are fetched once")
+    List<UUID> reportIds,
+
+    @Schema(description = "Whether to fetch the patient-friendly version instead of the technical one")
+    boolean isPatientFriendly
+) {}
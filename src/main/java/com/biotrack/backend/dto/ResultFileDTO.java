@@ -10,6 +10,7 @@ public record ResultFileDTO(
         String s3Url,
         Long fileSize,
         String contentType,
+        String contentSha256,
         String processingStatus,
         LocalDateTime uploadedAt,
         UUID geneticSampleId // ✅ CAMBIAR: de sampleId a geneticSampleId
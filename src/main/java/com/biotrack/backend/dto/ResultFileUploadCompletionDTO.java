@@ -0,0 +1,17 @@
+package com.biotrack.backend.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.UUID;
+
+public record ResultFileUploadCompletionDTO(
+        @NotNull(message = "Genetic sample ID is required")
+        UUID geneticSampleId,
+
+        @NotBlank(message = "S3 key is required")
+        String s3Key,
+
+        @NotBlank(message = "File name is required")
+        String fileName
+) {}
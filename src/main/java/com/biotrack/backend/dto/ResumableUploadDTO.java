@@ -0,0 +1,32 @@
+package com.biotrack.backend.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.UUID;
+
+@Schema(description = "State of a resumable (chunked) result-file upload")
+public record ResumableUploadDTO(
+    @Schema(description = "Upload identifier used in the PATCH/HEAD/DELETE URLs")
+    UUID uploadId,
+
+    @Schema(description = "Genetic sample the file will be linked to")
+    UUID geneticSampleId,
+
+    @Schema(description = "Original file name")
+    String fileName,
+
+    @Schema(description = "Bytes received so far; the next chunk must start at this offset")
+    long offset,
+
+    @Schema(description = "Total file size declared when the upload was created")
+    long length,
+
+    @Schema(description = "Whether all bytes were received and the result file was registered")
+    boolean complete,
+
+    @Schema(description = "Registered result file, once the upload is complete")
+    UUID resultFileId,
+
+    @Schema(description = "Hex SHA-256 of the whole file, once the upload is complete")
+    String contentSha256
+) {}
@@ -180,7 +180,10 @@ public record TechnicalGeneticReportDTO(
             String familyScreening,
             
             @JsonProperty("genetic_counseling")
-            String geneticCounseling
+            String geneticCounseling,
+
+            @JsonProperty("pharmacogenomic_recommendations")
+            List<String> pharmacogenomicRecommendations
     ) {}
     
     public record TechnicalDetails(
@@ -0,0 +1,44 @@
+package com.biotrack.backend.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.UUID;
+
+@Schema(description = "Internal frequency of a variant signature (gene, chromosome, type) in the cohort or a hospital")
+public record VariantFrequencyDTO(
+    @Schema(description = "Gene symbol", example = "BRCA1")
+    String gene,
+
+    @Schema(description = "Chromosome without the 'chr' prefix", example = "17")
+    String chromosome,
+
+    @Schema(description = "Variant type", example = "SNV")
+    String type,
+
+    @Schema(description = "Hospital the counts are restricted to; null for the whole cohort")
+    UUID hospitalId,
+
+    @Schema(description = "Distinct genetic samples carrying the variant")
+    long carriers,
+
+    @Schema(description = "Mutation rows with this signature")
+    long variants,
+
+    @Schema(description = "Genetic samples with at least one mutation in the same scope")
+    long cohortSamples,
+
+    @Schema(description = "carriers / cohortSamples", example = "0.035")
+    double carrierFrequency,
+
+    @Schema(description = "variants / (2 * cohortSamples); zygosity is not recorded so every call counts as one allele", example = "0.0175")
+    double estimatedAlleleFrequency,
+
+    @Schema(description = "Variants classified LOW")
+    long lowRelevance,
+
+    @Schema(description = "Variants classified MEDIUM")
+    long mediumRelevance,
+
+    @Schema(description = "Variants classified HIGH")
+    long highRelevance
+) {}
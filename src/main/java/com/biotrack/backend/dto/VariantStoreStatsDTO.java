@@ -0,0 +1,18 @@
+package com.biotrack.backend.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Size of the columnar variant store")
+public record VariantStoreStatsDTO(
+    @Schema(description = "Stored variant rows, including rows of deleted samples not yet compacted")
+    long variants,
+
+    @Schema(description = "Genetic samples with variants in the store")
+    int geneticSamples,
+
+    @Schema(description = "Distinct genes")
+    int genes,
+
+    @Schema(description = "Memory-mapped segments")
+    int segments
+) {}
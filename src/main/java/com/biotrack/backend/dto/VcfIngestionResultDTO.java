@@ -0,0 +1,32 @@
+package com.biotrack.backend.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.UUID;
+
+@Schema(description = "Summary of a VCF ingestion into mutations")
+public record VcfIngestionResultDTO(
+    @Schema(description = "DNA sample whose VCF was read")
+    UUID dnaSampleId,
+
+    @Schema(description = "Genetic sample the mutations were attached to")
+    UUID geneticSampleId,
+
+    @Schema(description = "Data records in the VCF")
+    long recordsRead,
+
+    @Schema(description = "Variants that passed the filters (stored as variantsDetected)")
+    long variantsDetected,
+
+    @Schema(description = "Passing SNVs")
+    long snpsDetected,
+
+    @Schema(description = "Passing insertions and deletions")
+    long indelsDetected,
+
+    @Schema(description = "Mutations inserted (passing variants with a gene annotation)")
+    long mutationsInserted,
+
+    @Schema(description = "Ingestion time in milliseconds")
+    long elapsedMs
+) {}
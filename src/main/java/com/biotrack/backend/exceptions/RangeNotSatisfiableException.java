@@ -0,0 +1,15 @@
+package com.biotrack.backend.exceptions;
+
+public class RangeNotSatisfiableException extends RuntimeException {
+
+    private final long objectLength;
+
+    public RangeNotSatisfiableException(String message, long objectLength) {
+        super(message);
+        this.objectLength = objectLength;
+    }
+
+    public long getObjectLength() {
+        return objectLength;
+    }
+}
@@ -27,6 +27,18 @@ public class ClinicalHistoryRecord {
     @Column(name = "s3_url_patient", nullable = false)
     private String s3UrlPatient;
 
+    // Keys de almacenamiento; las URLs quedan solo para mostrarse. Filas anteriores pueden no tenerlas
+    @Column(name = "s3_key")
+    private String s3Key;
+
+    @Column(name = "s3_key_patient")
+    private String s3KeyPatient;
+
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
+
+    // true mientras los resúmenes siguen en el spool local y no se han subido a S3
+    @Column(name = "upload_pending")
+    @Builder.Default
+    private Boolean uploadPending = false;
 }
\ No newline at end of file
@@ -89,6 +89,41 @@ public class DnaSample extends Sample {
     @Column(name = "indels_detected")
     private Integer indelsDetected;
 
+    // === CONTROL DE CALIDAD FASTQ (calculado por FastqQcService) ===
+    @Column(name = "fastq_qc_status", length = 16)
+    private String fastqQcStatus;
+
+    @Column(name = "fastq_qc_started_at")
+    private LocalDateTime fastqQcStartedAt;
+
+    @Column(name = "fastq_qc_completed_at")
+    private LocalDateTime fastqQcCompletedAt;
+
+    @Column(name = "total_bases")
+    private Long totalBases;
+
+    @Column(name = "mean_read_length", precision = 8, scale = 1)
+    private BigDecimal meanReadLength;
+
+    @Column(name = "mean_base_quality", precision = 4, scale = 1)
+    private BigDecimal meanBaseQuality;
+
+    @Column(name = "q30_bases_percent", precision = 5, scale = 2)
+    private BigDecimal q30BasesPercent;
+
+    @Column(name = "gc_content_percent", precision = 5, scale = 2)
+    private BigDecimal gcContentPercent;
+
+    @Column(name = "duplicate_reads_percent", precision = 5, scale = 2)
+    private BigDecimal duplicateReadsPercent;
+
+    // Reporte completo en JSON (calidad por posición, distribución de longitudes)
+    @Column(name = "fastq_qc_report", columnDefinition = "TEXT")
+    private String fastqQcReport;
+
+    @Column(name = "fastq_qc_error", length = 1000)
+    private String fastqQcError;
+
     // === ARCHIVOS DE SECUENCIACIÓN (S3) ===
     @Column(name = "fastq_r1_url")
     private String fastqR1Url;
@@ -99,6 +134,16 @@ public class DnaSample extends Sample {
     @Column(name = "vcf_file_url")
     private String vcfFileUrl;
 
+    // Keys de los archivos anteriores; se guardan al registrar la URL y son las que se leen
+    @Column(name = "fastq_r1_key")
+    private String fastqR1Key;
+
+    @Column(name = "fastq_r2_key")
+    private String fastqR2Key;
+
+    @Column(name = "vcf_file_key")
+    private String vcfFileKey;
+
     // ✅ AGREGAR CAMPO FALTANTE
     @Column(name = "bam_file_url")
     private String bamFileUrl;
@@ -0,0 +1,40 @@
+package com.biotrack.backend.models;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.util.UUID;
+
+/**
+ * Conteo agregado por gen dentro de un alcance (cohorte u hospital), mantenido junto con VariantFrequency.
+ * Los portadores se cuentan por gen y no como suma de firmas: una muestra con dos variantes del mismo gen cuenta una vez.
+ */
+@Entity
+@Table(name = "gene_frequencies", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_gene_frequencies_gene", columnNames = {"scope_id", "gene_symbol"})
+}, indexes = {
+        @Index(name = "idx_gene_frequencies_scope_carriers", columnList = "scope_id, carriers DESC")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class GeneFrequency {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private UUID id;
+
+    @Column(name = "scope_id", nullable = false)
+    private UUID scopeId;
+
+    @Column(name = "gene_symbol", nullable = false)
+    private String geneSymbol;
+
+    @Column(name = "carriers", nullable = false)
+    private long carriers;
+
+    @Column(name = "variants", nullable = false)
+    private long variants;
+}
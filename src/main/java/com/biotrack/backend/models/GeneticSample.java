@@ -4,6 +4,7 @@ import com.biotrack.backend.models.enums.SampleStatus;
 import com.biotrack.backend.models.enums.SampleType;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -12,7 +13,12 @@ import java.util.List;
 import java.util.UUID;
 
 @Entity
-@Table(name = "genetic_samples")
+@Table(name = "genetic_samples", indexes = {
+        // Listados paginados por llave (created_at, id): global, por paciente y por hospital
+        @Index(name = "idx_genetic_samples_created", columnList = "created_at, id"),
+        @Index(name = "idx_genetic_samples_patient_created", columnList = "patient_id, created_at, id"),
+        @Index(name = "idx_genetic_samples_entity_created", columnList = "medical_entity_id, created_at, id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -52,8 +58,10 @@ public class GeneticSample {
     @Column(name = "created_at")
     private LocalDate createdAt;
 
-    // Campos específicos de análisis genético
+    // Campos específicos de análisis genético.
+    // Al mapear una página las mutaciones de todas sus muestras se cargan en un solo SELECT (hasta el tope de página)
     @OneToMany(mappedBy = "sample", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @BatchSize(size = 200)
     @Builder.Default
     private List<Mutation> mutations = new ArrayList<>();
 
@@ -66,6 +74,14 @@ public class GeneticSample {
     @Column(name = "reference_genome")
     private String referenceGenome;
 
+    // Las filas sin fecha de creación quedarían fuera de la paginación por (created_at, id)
+    @PrePersist
+    void defaultCreatedAt() {
+        if (createdAt == null) {
+            createdAt = LocalDate.now();
+        }
+    }
+
     // Métodos de utilidad
     public void addMutation(Mutation mutation) {
         mutations.add(mutation);
@@ -36,11 +36,13 @@ public class Hospital {
     )
     private List<User> authorizedUsers;
 
+    // Las consultas por hospital resuelven la membresía aquí (hospital_id, patient_id) sin cargar la colección
     @ManyToMany
     @JoinTable(
         name = "hospital_patients",
         joinColumns = @JoinColumn(name = "hospital_id"),
-        inverseJoinColumns = @JoinColumn(name = "patient_id")
+        inverseJoinColumns = @JoinColumn(name = "patient_id"),
+        indexes = @Index(name = "idx_hospital_patients_hospital", columnList = "hospital_id, patient_id")
     )
     private List<Patient> activePatients;
 
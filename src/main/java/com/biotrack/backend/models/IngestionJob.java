@@ -0,0 +1,58 @@
+package com.biotrack.backend.models;
+
+import com.biotrack.backend.models.enums.IngestionJobStatus;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Ingesta pendiente de un archivo de resultados. Se inserta en la misma transacción que registra el
+ * archivo, así la subida regresa de inmediato y ningún archivo queda sin procesar si la aplicación se
+ * reinicia. Un worker la toma marcándola RUNNING con un lease; si el lease vence sin terminar, otro la retoma.
+ */
+@Entity
+@Table(name = "ingestion_jobs", indexes = {
+        @Index(name = "idx_ingestion_jobs_status_next_attempt", columnList = "status, next_attempt_at")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IngestionJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private UUID id;
+
+    // Sin FK: el borrado masivo de muestras no tiene que pasar por esta tabla
+    @Column(name = "result_file_id", nullable = false, unique = true)
+    private UUID resultFileId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 16)
+    @Builder.Default
+    private IngestionJobStatus status = IngestionJobStatus.QUEUED;
+
+    @Column(name = "attempts", nullable = false)
+    @Builder.Default
+    private Integer attempts = 0;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    // Mientras corre, el worker lo renueva; vencido, el job se considera abandonado
+    @Column(name = "locked_until")
+    private LocalDateTime lockedUntil;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,38 @@
+package com.biotrack.backend.models;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Documento pequeño (reporte o resumen) guardado en Postgres en lugar de S3.
+ * Se identifica por la misma key que tendría en S3, así Report y ClinicalHistoryRecord no cambian.
+ */
+@Entity
+@Table(name = "inline_documents")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class InlineDocument {
+
+    @Id
+    @Column(name = "storage_key", length = 1024)
+    private String storageKey;
+
+    // Contenido en gzip; Postgres lo mueve a TOAST cuando la fila pasa de ~2 KB
+    @Column(name = "content", nullable = false, columnDefinition = "bytea")
+    private byte[] content;
+
+    @Column(name = "content_type", nullable = false)
+    private String contentType;
+
+    // Tamaño sin comprimir en bytes
+    @Column(name = "original_size", nullable = false)
+    private Long originalSize;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
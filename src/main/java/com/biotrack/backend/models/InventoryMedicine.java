@@ -6,7 +6,10 @@ import java.time.LocalDate;
 import java.util.UUID;
 
 @Entity
-@Table(name = "inventory_medicines")
+@Table(name = "inventory_medicines", indexes = {
+        // Sin columna de creación: el listado por hospital se pagina por id
+        @Index(name = "idx_inventory_medicines_hospital", columnList = "hospital_id, id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -33,6 +36,6 @@ public class InventoryMedicine {
 
     private String location;
 
-    @Column(nullable = false)
+    @Column(name = "hospital_id", nullable = false)
     private UUID hospitalId; // Nuevo campo
 }
\ No newline at end of file
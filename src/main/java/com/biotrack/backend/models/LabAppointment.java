@@ -8,7 +8,11 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "lab_appointments")
+@Table(name = "lab_appointments", indexes = {
+        // Listados paginados por llave (created_at, id): por paciente y por hospital y estado
+        @Index(name = "idx_lab_appointments_patient_created", columnList = "patient_id, created_at, id"),
+        @Index(name = "idx_lab_appointments_entity_status_created", columnList = "medical_entity_id, status, created_at, id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -20,6 +24,7 @@ public class LabAppointment {
     @GeneratedValue(strategy = GenerationType.AUTO)
     private UUID id;
 
+    @Column(name = "medical_entity_id")
     private UUID medicalEntityId; // ID de la entidad médica que solicita la cita
 
     @ManyToOne(optional = true) // Cambia a true
@@ -30,7 +35,7 @@ public class LabAppointment {
     @JoinColumn(name = "patient_id")
     private Patient patient;
 
-    @Column(nullable = false)
+    @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
 
     @Enumerated(EnumType.STRING)
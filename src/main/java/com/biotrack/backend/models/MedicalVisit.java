@@ -7,7 +7,13 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "medical_visits")
+@Table(name = "medical_visits", indexes = {
+        // Listados paginados por llave (created_at, id): global, por paciente, por doctor y por hospital
+        @Index(name = "idx_medical_visits_created", columnList = "created_at, id"),
+        @Index(name = "idx_medical_visits_patient_created", columnList = "patient_id, created_at, id"),
+        @Index(name = "idx_medical_visits_doctor_created", columnList = "doctor_id, created_at, id"),
+        @Index(name = "idx_medical_visits_entity_created", columnList = "medical_entity_id, created_at, id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
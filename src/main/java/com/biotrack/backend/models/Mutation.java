@@ -4,10 +4,18 @@ import com.biotrack.backend.models.enums.Relevance;
 import jakarta.persistence.*;
 import lombok.*;
 
+import java.util.Locale;
 import java.util.UUID;
 
 @Entity
-@Table(name = "mutations")
+@Table(name = "mutations", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_mutations_sample_variant_key", columnNames = {"genetic_sample_id", "variant_key"})
+}, indexes = {
+        @Index(name = "idx_mutations_gene_symbol_sample", columnList = "gene_symbol, genetic_sample_id"),
+        // Borrados y recálculo de frecuencias por muestra; con id también sirve al listado paginado por muestra
+        @Index(name = "idx_mutations_genetic_sample_id", columnList = "genetic_sample_id, id"),
+        @Index(name = "idx_mutations_result_file", columnList = "result_file_id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -20,6 +28,10 @@ public class Mutation {
     private UUID id;
 
     private String gene;
+
+    // Gen normalizado (trim + mayúsculas) para búsquedas exactas por índice
+    @Column(name = "gene_symbol")
+    private String geneSymbol;
     private String chromosome;
     private String type;
 
@@ -28,7 +40,22 @@ public class Mutation {
 
     private String comment;
 
+    // Llave natural (VariantKey) de las filas ingeridas desde archivos; null en las creadas por la API
+    @Column(name = "variant_key")
+    private UUID variantKey;
+
+    // Archivo de resultados del que salió la fila. Sin llave foránea: borrar el archivo no borra sus mutaciones
+    @Column(name = "result_file_id")
+    private UUID resultFileId;
+
     @ManyToOne
     @JoinColumn(name = "genetic_sample_id")
     private GeneticSample sample;
+
+    // Misma forma que GeneDictionary.normalize y que upper(trim(gene)) en SQL
+    @PrePersist
+    @PreUpdate
+    void normalizeGene() {
+        geneSymbol = gene == null ? null : gene.trim().toUpperCase(Locale.ROOT);
+    }
 }
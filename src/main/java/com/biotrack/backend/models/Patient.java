@@ -1,6 +1,7 @@
 package com.biotrack.backend.models;
 
 import com.biotrack.backend.models.enums.Gender;
+import com.biotrack.backend.utils.SearchText;
 import jakarta.persistence.*;
 import lombok.*;
 import org.springframework.cglib.core.Local;
@@ -11,7 +12,10 @@ import java.util.List;
 import java.util.UUID;
 
 @Entity
-@Table(name = "patients")
+@Table(name = "patients", indexes = {
+        // Listado paginado por llave (created_at, id)
+        @Index(name = "idx_patients_created", columnList = "created_at, id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -43,8 +47,14 @@ public class Patient{
     @Column(unique = true)
     private String curp;
 
+    @Column(name = "created_at")
     private LocalDate createdAt;
 
+    // Nombre completo normalizado (minúsculas, sin acentos) para la búsqueda; se recalcula al guardar.
+    // Sus índices de trigramas y de prefijo los crea PatientSearchInitializer (no se expresan con @Index)
+    @Column(name = "search_name")
+    private String searchName;
+
     
 
     @OneToMany(mappedBy = "patient", cascade = CascadeType.ALL, orphanRemoval = true)
@@ -53,4 +63,18 @@ public class Patient{
     @ManyToMany(mappedBy = "activePatients")
     @Builder.Default
     private List<Hospital> hospitals = new ArrayList<>();
+
+    // Las filas sin fecha de creación quedarían fuera de la paginación por (created_at, id)
+    @PrePersist
+    void defaultCreatedAt() {
+        if (createdAt == null) {
+            createdAt = LocalDate.now();
+        }
+        refreshSearchName();
+    }
+
+    @PreUpdate
+    void refreshSearchName() {
+        searchName = SearchText.normalize(firstName, lastName);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,40 @@
+package com.biotrack.backend.models;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Objeto de almacenamiento que falta borrar. Se inserta en la misma transacción que borra
+ * las filas, así ninguna key se pierde si S3 falla o la aplicación se reinicia.
+ */
+@Entity
+@Table(name = "pending_storage_deletions", indexes = {
+        @Index(name = "idx_pending_storage_deletions_next_attempt", columnList = "next_attempt_at")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PendingStorageDeletion {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private UUID id;
+
+    @Column(name = "s3_key", nullable = false, length = 1024)
+    private String s3Key;
+
+    @Column(name = "attempts", nullable = false)
+    @Builder.Default
+    private Integer attempts = 0;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
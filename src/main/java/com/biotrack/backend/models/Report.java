@@ -8,7 +8,15 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "reports")
+@Table(name = "reports", indexes = {
+        // Listados paginados por llave (generated_at, id): global, por estado y por muestra
+        @Index(name = "idx_reports_generated", columnList = "generated_at, id"),
+        @Index(name = "idx_reports_status_generated", columnList = "status, generated_at, id"),
+        @Index(name = "idx_reports_sample_generated", columnList = "sample_id, generated_at, id"),
+        // Los endpoints que reciben la URL buscan la fila para leer la key guardada
+        @Index(name = "idx_reports_s3url", columnList = "s3url"),
+        @Index(name = "idx_reports_s3url_patient", columnList = "s3url_patient")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -58,4 +66,9 @@ public class Report {
     @Column(name = "status", nullable = false)
     @Builder.Default
     private ReportStatus status = ReportStatus.PENDING;
+
+    // true mientras el contenido sigue en el spool local y no se ha subido a S3
+    @Column(name = "upload_pending")
+    @Builder.Default
+    private Boolean uploadPending = false;
 }
\ No newline at end of file
@@ -32,6 +32,37 @@ public class ResultFile {
     
     @Column(name = "content_type")
     private String contentType;
+
+    // SHA-256 (hex) del contenido, calculado al recibir el archivo por partes
+    @Column(name = "content_sha256", length = 64)
+    private String contentSha256;
+    
+    // Resultado de la ingesta, para responder sin reprocesar y para reutilizar el archivo por hash
+    @Column(name = "rows_read")
+    private Long rowsRead;
+
+    @Column(name = "rows_rejected")
+    private Long rowsRejected;
+
+    // true si todas las filas válidas quedaron con result_file_id de este archivo (se pueden copiar a otra muestra)
+    @Column(name = "variant_set_complete")
+    private Boolean variantSetComplete;
+
+    // Avance de la ingesta en segundo plano; con los tiempos se calcula el throughput
+    @Column(name = "bytes_processed")
+    private Long bytesProcessed;
+
+    @Column(name = "rows_inserted")
+    private Long rowsInserted;
+
+    @Column(name = "processing_started_at")
+    private LocalDateTime processingStartedAt;
+
+    @Column(name = "processing_finished_at")
+    private LocalDateTime processingFinishedAt;
+
+    @Column(name = "processing_error", length = 1000)
+    private String processingError;
     
     @Builder.Default
     @Column(name = "processing_status")
@@ -0,0 +1,75 @@
+package com.biotrack.backend.models;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Estado de una subida reanudable. Se guarda al crearla, al subir cada parte y al final de cada
+ * PATCH, así tras un reinicio la subida continúa desde el último offset guardado y las que
+ * expiran pueden abortar su multipart upload en S3.
+ */
+@Entity
+@Table(name = "resumable_uploads", indexes = {
+        @Index(name = "idx_resumable_uploads_last_activity", columnList = "last_activity_at")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ResumableUpload {
+
+    // Mismo id que recibe el cliente en la URL de la subida
+    @Id
+    private UUID id;
+
+    @Column(name = "genetic_sample_id", nullable = false)
+    private UUID geneticSampleId;
+
+    @Column(name = "file_name", nullable = false)
+    private String fileName;
+
+    @Column(name = "content_type", nullable = false)
+    private String contentType;
+
+    @Column(name = "s3_key", nullable = false, length = 1024)
+    private String s3Key;
+
+    @Column(name = "multipart_upload_id", nullable = false, length = 1024)
+    private String multipartUploadId;
+
+    @Column(name = "upload_length", nullable = false)
+    private Long uploadLength;
+
+    @Column(name = "part_size", nullable = false)
+    private Long partSize;
+
+    // Bytes recibidos; los últimos partBytes están en el archivo de parte local, el resto ya en S3
+    @Column(name = "upload_offset", nullable = false)
+    private Long uploadOffset;
+
+    @Column(name = "part_bytes", nullable = false)
+    private Long partBytes;
+
+    // ETags de las partes ya subidas, en orden, separadas por salto de línea
+    @Column(name = "part_etags", columnDefinition = "TEXT")
+    private String partETags;
+
+    @Column(name = "multipart_completed", nullable = false)
+    private Boolean multipartCompleted;
+
+    @Column(name = "content_sha256", length = 64)
+    private String contentSha256;
+
+    @Column(name = "result_file_id")
+    private UUID resultFileId;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "last_activity_at", nullable = false)
+    private LocalDateTime lastActivityAt;
+}
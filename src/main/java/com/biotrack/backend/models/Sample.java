@@ -14,7 +14,11 @@ import java.time.LocalDate;
 import java.util.UUID;
 
 @Entity
-@Table(name = "sample") 
+@Table(name = "sample", indexes = {
+        // Listados paginados por llave (created_at, id), global y por paciente
+        @Index(name = "idx_sample_created", columnList = "created_at, id"),
+        @Index(name = "idx_sample_patient_created", columnList = "patient_id, created_at, id")
+})
 @Getter
 @Setter
 @SuperBuilder
@@ -45,8 +49,17 @@ public abstract class Sample {
 
     protected LocalDate collectionDate;
     protected String notes;
+    @Column(name = "created_at")
     protected LocalDate createdAt;
 
+    // Las filas sin fecha de creación quedarían fuera de la paginación por (created_at, id)
+    @PrePersist
+    void defaultCreatedAt() {
+        if (createdAt == null) {
+            createdAt = LocalDate.now();
+        }
+    }
+
     // Métodos abstractos si necesitas lógica específica
     public abstract SampleType getSampleType();
     public abstract String getSampleTypeDescription();
@@ -0,0 +1,26 @@
+package com.biotrack.backend.models;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.util.UUID;
+
+/**
+ * Muestras genéticas con al menos una mutación por alcance; es el denominador de las frecuencias
+ */
+@Entity
+@Table(name = "variant_cohort_sizes")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class VariantCohortSize {
+
+    @Id
+    @Column(name = "scope_id")
+    private UUID scopeId;
+
+    @Column(name = "samples", nullable = false)
+    private long samples;
+}
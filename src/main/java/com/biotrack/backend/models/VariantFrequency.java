@@ -0,0 +1,61 @@
+package com.biotrack.backend.models;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.util.UUID;
+
+/**
+ * Conteo agregado de una firma de variante (gen, cromosoma, tipo) dentro de un alcance: toda la cohorte
+ * (scope_id = VariantFrequency.COHORT_SCOPE) o un hospital (scope_id = medical_entity_id de la muestra).
+ * Se mantiene con upserts en la misma transacción que cambia las mutaciones, nunca se escribe por JPA.
+ */
+@Entity
+@Table(name = "variant_frequencies", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_variant_frequencies_signature",
+                columnNames = {"scope_id", "gene_symbol", "chromosome", "type"})
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class VariantFrequency {
+
+    // Alcance de toda la cohorte, sin importar el hospital
+    public static final UUID COHORT_SCOPE = new UUID(0L, 0L);
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private UUID id;
+
+    @Column(name = "scope_id", nullable = false)
+    private UUID scopeId;
+
+    @Column(name = "gene_symbol", nullable = false)
+    private String geneSymbol;
+
+    // Sin prefijo "chr" y en mayúsculas, para que CSV y VCF caigan en la misma firma
+    @Column(name = "chromosome", nullable = false)
+    private String chromosome;
+
+    @Column(name = "type", nullable = false)
+    private String type;
+
+    // Muestras genéticas distintas con la variante
+    @Column(name = "carriers", nullable = false)
+    private long carriers;
+
+    // Filas de mutations con la variante
+    @Column(name = "variants", nullable = false)
+    private long variants;
+
+    @Column(name = "low_count", nullable = false)
+    private long lowCount;
+
+    @Column(name = "medium_count", nullable = false)
+    private long mediumCount;
+
+    @Column(name = "high_count", nullable = false)
+    private long highCount;
+}
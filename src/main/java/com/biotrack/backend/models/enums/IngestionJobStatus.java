@@ -0,0 +1,8 @@
+package com.biotrack.backend.models.enums;
+
+public enum IngestionJobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
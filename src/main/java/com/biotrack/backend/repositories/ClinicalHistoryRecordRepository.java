@@ -1,7 +1,11 @@
 package com.biotrack.backend.repositories;
 
 import com.biotrack.backend.models.ClinicalHistoryRecord;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.UUID;
@@ -9,4 +13,25 @@ import java.util.UUID;
 public interface ClinicalHistoryRecordRepository extends JpaRepository<ClinicalHistoryRecord, UUID> {
     List<ClinicalHistoryRecord> findByPatientIdOrderByCreatedAtDesc(UUID patientId);
     ClinicalHistoryRecord findTopByPatientIdOrderByCreatedAtDesc(UUID patientId);
+    List<ClinicalHistoryRecord> findByUploadPendingTrue();
+
+    // Keys y URLs (técnico y paciente); la URL solo se usa en filas que aún no tienen key
+    @Query("SELECT c.s3Key, c.s3Url, c.s3KeyPatient, c.s3UrlPatient FROM ClinicalHistoryRecord c WHERE c.patient.id = :patientId")
+    List<Object[]> findStorageKeysByPatientId(@Param("patientId") UUID patientId);
+
+    @Modifying
+    @Query("DELETE FROM ClinicalHistoryRecord c WHERE c.patient.id = :patientId")
+    int deleteAllByPatientId(@Param("patientId") UUID patientId);
+
+    // Registros con URL pero sin key guardada o con keys del formato anterior, paginados por id.
+    // Un documento sin key ni URL no existe y no hace volver a elegir el registro
+    @Query("""
+        SELECT c FROM ClinicalHistoryRecord c
+        WHERE c.id > :afterId
+        AND (c.uploadPending IS NULL OR c.uploadPending = false)
+        AND ((c.s3Key IS NULL AND c.s3Url IS NOT NULL) OR c.s3Key NOT LIKE '%/__/__/%'
+            OR (c.s3KeyPatient IS NULL AND c.s3UrlPatient IS NOT NULL) OR c.s3KeyPatient NOT LIKE '%/__/__/%')
+        ORDER BY c.id
+    """)
+    List<ClinicalHistoryRecord> findWithLegacyKeysAfter(@Param("afterId") UUID afterId, Pageable pageable);
 }
\ No newline at end of file
@@ -0,0 +1,17 @@
+package com.biotrack.backend.repositories;
+
+import com.biotrack.backend.models.GeneFrequency;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface GeneFrequencyRepository extends JpaRepository<GeneFrequency, UUID> {
+
+    // Recorre idx_gene_frequencies_scope_carriers y se detiene en el límite de la página
+    @Query("SELECT g FROM GeneFrequency g WHERE g.scopeId = :scopeId AND g.carriers > 0 ORDER BY g.carriers DESC, g.geneSymbol")
+    List<GeneFrequency> findTopByScopeId(@Param("scopeId") UUID scopeId, Pageable pageable);
+}
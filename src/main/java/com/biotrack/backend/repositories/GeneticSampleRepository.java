@@ -1,10 +1,13 @@
 package com.biotrack.backend.repositories;
 
 import com.biotrack.backend.models.GeneticSample;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
 
@@ -16,9 +19,46 @@ public interface GeneticSampleRepository extends JpaRepository<GeneticSample, UU
     @Query("SELECT gs FROM GeneticSample gs WHERE gs.patient.id IN :patientIds")
     List<GeneticSample> findByPatientIdIn(@Param("patientIds") List<UUID> patientIds);
 
+    // Con @Query el "Top10" del nombre no limita nada: el límite lo pone el Pageable
     @Query("SELECT gs FROM GeneticSample gs WHERE gs.medicalEntityId = :medicalEntityId ORDER BY gs.collectionDate DESC")
-    List<GeneticSample> findTop10ByMedicalEntityIdOrderByCollectionDateDesc(@Param("medicalEntityId") UUID medicalEntityId);
+    List<GeneticSample> findLatestByMedicalEntityId(@Param("medicalEntityId") UUID medicalEntityId, Pageable limit);
 
     @Query("SELECT gs FROM GeneticSample gs WHERE gs.medicalEntityId = :medicalEntityId")
     List<GeneticSample> findByMedicalEntityId(@Param("medicalEntityId") UUID medicalEntityId);
+
+    // Páginas por (createdAt, id), más recientes primero: global, por paciente y por hospital,
+    // con idx_genetic_samples_created, idx_genetic_samples_patient_created e idx_genetic_samples_entity_created
+    @Query("""
+        SELECT gs FROM GeneticSample gs
+        WHERE (gs.createdAt, gs.id) < (:createdAt, :id)
+        ORDER BY gs.createdAt DESC, gs.id DESC
+    """)
+    List<GeneticSample> findPageBefore(@Param("createdAt") LocalDate createdAt, @Param("id") UUID id, Pageable limit);
+
+    @Query("""
+        SELECT gs FROM GeneticSample gs
+        WHERE gs.patient.id = :patientId AND (gs.createdAt, gs.id) < (:createdAt, :id)
+        ORDER BY gs.createdAt DESC, gs.id DESC
+    """)
+    List<GeneticSample> findPageByPatientIdBefore(@Param("patientId") UUID patientId, @Param("createdAt") LocalDate createdAt,
+                                                  @Param("id") UUID id, Pageable limit);
+
+    @Query("""
+        SELECT gs FROM GeneticSample gs
+        WHERE gs.medicalEntityId = :medicalEntityId AND (gs.createdAt, gs.id) < (:createdAt, :id)
+        ORDER BY gs.createdAt DESC, gs.id DESC
+    """)
+    List<GeneticSample> findPageByMedicalEntityIdBefore(@Param("medicalEntityId") UUID medicalEntityId, @Param("createdAt") LocalDate createdAt,
+                                                        @Param("id") UUID id, Pageable limit);
+
+    @Query("SELECT gs.id FROM GeneticSample gs WHERE gs.patient.id = :patientId")
+    List<UUID> findIdsByPatientId(@Param("patientId") UUID patientId);
+
+    @Modifying
+    @Query("DELETE FROM GeneticSample gs WHERE gs.id = :id")
+    int deleteInBulkById(@Param("id") UUID id);
+
+    @Modifying
+    @Query("DELETE FROM GeneticSample gs WHERE gs.patient.id = :patientId")
+    int deleteAllByPatientId(@Param("patientId") UUID patientId);
 }
\ No newline at end of file
@@ -0,0 +1,12 @@
+package com.biotrack.backend.repositories;
+
+import com.biotrack.backend.models.IngestionJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+public interface IngestionJobRepository extends JpaRepository<IngestionJob, UUID> {
+
+    Optional<IngestionJob> findByResultFileId(UUID resultFileId);
+}
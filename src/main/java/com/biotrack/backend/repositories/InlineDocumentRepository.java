@@ -0,0 +1,15 @@
+package com.biotrack.backend.repositories;
+
+import com.biotrack.backend.models.InlineDocument;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface InlineDocumentRepository extends JpaRepository<InlineDocument, String> {
+
+    @Query("SELECT d.storageKey FROM InlineDocument d WHERE d.storageKey IN :keys")
+    List<String> findExistingKeys(@Param("keys") Collection<String> keys);
+}
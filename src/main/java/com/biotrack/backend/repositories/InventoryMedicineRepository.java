@@ -1,11 +1,21 @@
 package com.biotrack.backend.repositories;
 
 import com.biotrack.backend.models.InventoryMedicine;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.UUID;
 
 public interface InventoryMedicineRepository extends JpaRepository<InventoryMedicine, UUID> {
     List<InventoryMedicine> findByHospitalId(UUID hospitalId);
+
+    // Sin columna de creación: páginas por id ascendente (llave primaria o idx_inventory_medicines_hospital)
+    @Query("SELECT m FROM InventoryMedicine m WHERE m.id > :afterId ORDER BY m.id")
+    List<InventoryMedicine> findPageAfter(@Param("afterId") UUID afterId, Pageable limit);
+
+    @Query("SELECT m FROM InventoryMedicine m WHERE m.hospitalId = :hospitalId AND m.id > :afterId ORDER BY m.id")
+    List<InventoryMedicine> findPageByHospitalIdAfter(@Param("hospitalId") UUID hospitalId, @Param("afterId") UUID afterId, Pageable limit);
 }
\ No newline at end of file
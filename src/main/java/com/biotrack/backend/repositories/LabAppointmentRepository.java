@@ -2,8 +2,12 @@ package com.biotrack.backend.repositories;
 
 import com.biotrack.backend.models.LabAppointment;
 import com.biotrack.backend.models.enums.LabAppointmentStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -11,4 +15,28 @@ public interface LabAppointmentRepository extends JpaRepository<LabAppointment,
     List<LabAppointment> findByPatientId(UUID patientId);
 
     List<LabAppointment> findByMedicalEntityIdAndStatus(UUID medicalEntityId, LabAppointmentStatus status);
+
+    // Páginas por (createdAt, id), más recientes primero; usan idx_lab_appointments_patient_created
+    // e idx_lab_appointments_entity_status_created. Paciente y doctor (EAGER) vienen en el mismo SELECT
+    @Query("""
+        SELECT a FROM LabAppointment a
+        JOIN FETCH a.patient
+        LEFT JOIN FETCH a.doctor
+        WHERE a.patient.id = :patientId AND (a.createdAt, a.id) < (:createdAt, :id)
+        ORDER BY a.createdAt DESC, a.id DESC
+    """)
+    List<LabAppointment> findPageByPatientIdBefore(@Param("patientId") UUID patientId, @Param("createdAt") LocalDateTime createdAt,
+                                                   @Param("id") UUID id, Pageable limit);
+
+    @Query("""
+        SELECT a FROM LabAppointment a
+        JOIN FETCH a.patient
+        LEFT JOIN FETCH a.doctor
+        WHERE a.medicalEntityId = :medicalEntityId AND a.status = :status AND (a.createdAt, a.id) < (:createdAt, :id)
+        ORDER BY a.createdAt DESC, a.id DESC
+    """)
+    List<LabAppointment> findPageByMedicalEntityIdAndStatusBefore(@Param("medicalEntityId") UUID medicalEntityId,
+                                                                  @Param("status") LabAppointmentStatus status,
+                                                                  @Param("createdAt") LocalDateTime createdAt,
+                                                                  @Param("id") UUID id, Pageable limit);
 }
\ No newline at end of file
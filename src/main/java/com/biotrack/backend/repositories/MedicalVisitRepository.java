@@ -1,9 +1,13 @@
 package com.biotrack.backend.repositories;
 
 import com.biotrack.backend.models.MedicalVisit;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -26,6 +30,61 @@ public interface MedicalVisitRepository extends JpaRepository<MedicalVisit, UUID
     // Todas las citas de una entidad médica
     List<MedicalVisit> findByMedicalEntityId(UUID medicalEntityId);
 
+    long countByPatientId(UUID patientId);
+
+    long countByPatientIdAndVisitCompletedFalse(UUID patientId);
+
+    // Visitas por paciente de varios pacientes a la vez: [patientId, count]
+    @Query("SELECT v.patient.id, COUNT(v) FROM MedicalVisit v WHERE v.patient.id IN :patientIds GROUP BY v.patient.id")
+    List<Object[]> countByPatientIdIn(@Param("patientIds") Collection<UUID> patientIds);
+
     List<MedicalVisit> findByDoctorIdAndVisitDateBetween(UUID doctorId, LocalDateTime start, LocalDateTime end);
 
+    // Páginas por (createdAt, id), más recientes primero; cada filtro tiene su índice con created_at, id al final.
+    // pendingOnly deja solo las no completadas. Paciente y doctor van en el mismo SELECT (son EAGER y si no
+    // se cargarían con una consulta por fila)
+    @Query("""
+        SELECT v FROM MedicalVisit v
+        JOIN FETCH v.patient
+        JOIN FETCH v.doctor
+        WHERE (v.createdAt, v.id) < (:createdAt, :id)
+        ORDER BY v.createdAt DESC, v.id DESC
+    """)
+    List<MedicalVisit> findPageBefore(@Param("createdAt") LocalDateTime createdAt, @Param("id") UUID id, Pageable limit);
+
+    @Query("""
+        SELECT v FROM MedicalVisit v
+        JOIN FETCH v.patient
+        JOIN FETCH v.doctor
+        WHERE v.patient.id = :patientId
+        AND (:pendingOnly = false OR v.visitCompleted = false)
+        AND (v.createdAt, v.id) < (:createdAt, :id)
+        ORDER BY v.createdAt DESC, v.id DESC
+    """)
+    List<MedicalVisit> findPageByPatientIdBefore(@Param("patientId") UUID patientId, @Param("pendingOnly") boolean pendingOnly,
+                                                 @Param("createdAt") LocalDateTime createdAt, @Param("id") UUID id, Pageable limit);
+
+    @Query("""
+        SELECT v FROM MedicalVisit v
+        JOIN FETCH v.patient
+        JOIN FETCH v.doctor
+        WHERE v.doctor.id = :doctorId
+        AND (:pendingOnly = false OR v.visitCompleted = false)
+        AND (v.createdAt, v.id) < (:createdAt, :id)
+        ORDER BY v.createdAt DESC, v.id DESC
+    """)
+    List<MedicalVisit> findPageByDoctorIdBefore(@Param("doctorId") UUID doctorId, @Param("pendingOnly") boolean pendingOnly,
+                                                @Param("createdAt") LocalDateTime createdAt, @Param("id") UUID id, Pageable limit);
+
+    @Query("""
+        SELECT v FROM MedicalVisit v
+        JOIN FETCH v.patient
+        JOIN FETCH v.doctor
+        WHERE v.medicalEntityId = :medicalEntityId
+        AND (v.createdAt, v.id) < (:createdAt, :id)
+        ORDER BY v.createdAt DESC, v.id DESC
+    """)
+    List<MedicalVisit> findPageByMedicalEntityIdBefore(@Param("medicalEntityId") UUID medicalEntityId,
+                                                       @Param("createdAt") LocalDateTime createdAt, @Param("id") UUID id, Pageable limit);
+
 }
\ No newline at end of file
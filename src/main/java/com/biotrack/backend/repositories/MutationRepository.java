@@ -3,9 +3,11 @@ package com.biotrack.backend.repositories;
 import com.biotrack.backend.models.Mutation;
 import com.biotrack.backend.models.enums.Relevance;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -17,18 +19,48 @@ public interface MutationRepository extends JpaRepository<Mutation, UUID> {
     
     List<Mutation> findByRelevance(Relevance relevance);
     
-    List<Mutation> findByGeneContainingIgnoreCase(String gene);
-    
     @Query("SELECT m FROM Mutation m WHERE m.sample.id = :sampleId AND m.relevance = :relevance")
     List<Mutation> findBySampleIdAndRelevance(@Param("sampleId") UUID sampleId, @Param("relevance") Relevance relevance);
-    
-    @Query("SELECT m FROM Mutation m WHERE m.sample.id = :sampleId AND LOWER(m.gene) LIKE LOWER(CONCAT('%', :gene, '%'))")
-    List<Mutation> findBySampleIdAndGeneContainingIgnoreCase(@Param("sampleId") UUID sampleId, @Param("gene") String gene);
-    
-    @Query("SELECT m FROM Mutation m WHERE m.sample.id = :sampleId AND m.relevance = :relevance AND LOWER(m.gene) LIKE LOWER(CONCAT('%', :gene, '%'))")
-    List<Mutation> findBySampleIdAndRelevanceAndGeneContainingIgnoreCase(
-        @Param("sampleId") UUID sampleId, 
-        @Param("relevance") Relevance relevance, 
-        @Param("gene") String gene
+
+    // Búsqueda por gen contra gene_symbol normalizado (índice idx_mutations_gene_symbol_sample)
+    @Query("SELECT m FROM Mutation m WHERE m.geneSymbol IN :symbols")
+    List<Mutation> findByGeneSymbolIn(@Param("symbols") Collection<String> symbols);
+
+    @Query("SELECT m FROM Mutation m WHERE m.sample.id = :sampleId AND m.geneSymbol IN :symbols")
+    List<Mutation> findBySampleIdAndGeneSymbolIn(@Param("sampleId") UUID sampleId, @Param("symbols") Collection<String> symbols);
+
+    @Query("SELECT m FROM Mutation m WHERE m.sample.id = :sampleId AND m.relevance = :relevance AND m.geneSymbol IN :symbols")
+    List<Mutation> findBySampleIdAndRelevanceAndGeneSymbolIn(
+        @Param("sampleId") UUID sampleId,
+        @Param("relevance") Relevance relevance,
+        @Param("symbols") Collection<String> symbols
     );
+
+    // Genes del paciente dentro de un conjunto (p. ej. los farmacogenes), agrupados por relevancia: [geneSymbol, relevance, count]
+    @Query("SELECT m.geneSymbol, m.relevance, COUNT(m) FROM Mutation m "
+            + "WHERE m.sample.patient.id = :patientId AND m.geneSymbol IN :symbols GROUP BY m.geneSymbol, m.relevance")
+    List<Object[]> countByPatientIdAndGeneSymbolIn(@Param("patientId") UUID patientId, @Param("symbols") Collection<String> symbols);
+
+    // Subcadena sobre gene_symbol; en Postgres la resuelve el índice GIN de trigramas (pg_trgm)
+    @Query("SELECT m FROM Mutation m WHERE m.geneSymbol LIKE :pattern ESCAPE '\\'")
+    List<Mutation> findByGeneSymbolLike(@Param("pattern") String pattern);
+
+    @Query("SELECT m FROM Mutation m WHERE m.sample.id = :sampleId AND m.geneSymbol LIKE :pattern ESCAPE '\\'")
+    List<Mutation> findBySampleIdAndGeneSymbolLike(@Param("sampleId") UUID sampleId, @Param("pattern") String pattern);
+
+    @Query("SELECT m FROM Mutation m WHERE m.sample.id = :sampleId AND m.relevance = :relevance AND m.geneSymbol LIKE :pattern ESCAPE '\\'")
+    List<Mutation> findBySampleIdAndRelevanceAndGeneSymbolLike(
+        @Param("sampleId") UUID sampleId,
+        @Param("relevance") Relevance relevance,
+        @Param("pattern") String pattern
+    );
+
+    // Borrados en bloque: una sentencia en vez de cargar y borrar cada mutación
+    @Modifying
+    @Query("DELETE FROM Mutation m WHERE m.sample.id = :geneticSampleId")
+    int deleteAllByGeneticSampleId(@Param("geneticSampleId") UUID geneticSampleId);
+
+    @Modifying
+    @Query("DELETE FROM Mutation m WHERE m.sample.id IN (SELECT gs.id FROM GeneticSample gs WHERE gs.patient.id = :patientId)")
+    int deleteAllByPatientId(@Param("patientId") UUID patientId);
 }
\ No newline at end of file
@@ -1,10 +1,13 @@
 package com.biotrack.backend.repositories;
 
 import com.biotrack.backend.models.Patient;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -13,18 +16,31 @@ public interface PatientRepository extends JpaRepository<Patient, UUID> {
     Optional<Patient> findByEmail(String email);
     Optional<Patient> findByPhoneNumber(String phoneNumber);
 
-    List<Patient> findByFirstNameContainingIgnoreCaseAndLastNameContainingIgnoreCase(String firstName, String lastName);
+    // Página siguiente a (createdAt, id), más recientes primero; usa idx_patients_created
+    @Query("""
+        SELECT p FROM Patient p
+        WHERE (p.createdAt, p.id) < (:createdAt, :id)
+        ORDER BY p.createdAt DESC, p.id DESC
+    """)
+    List<Patient> findPageBefore(@Param("createdAt") LocalDate createdAt, @Param("id") UUID id, Pageable limit);
 
+    // Pacientes de un hospital por (createdAt, id): la membresía se resuelve en SQL contra hospital_patients
+    // en lugar de hidratar Hospital.activePatients, así el costo depende de la página y no del hospital
     @Query("""
         SELECT p FROM Patient p
-        JOIN p.hospitals h
-        WHERE h.id = :hospitalId
-        AND (
-            LOWER(p.firstName) LIKE LOWER(CONCAT('%', :query, '%')) OR
-            LOWER(p.lastName) LIKE LOWER(CONCAT('%', :query, '%')) OR
-            LOWER(p.email) LIKE LOWER(CONCAT('%', :query, '%')) OR
-            LOWER(p.curp) LIKE LOWER(CONCAT('%', :query, '%'))
-        )
+        WHERE p.id IN (SELECT member.id FROM Hospital h JOIN h.activePatients member WHERE h.id = :hospitalId)
+        AND (p.createdAt, p.id) < (:createdAt, :id)
+        ORDER BY p.createdAt DESC, p.id DESC
     """)
-    List<Patient> searchPatientsByHospitalAndQuery(@Param("hospitalId") UUID hospitalId, @Param("query") String query);
+    List<Patient> findPageByHospitalIdBefore(@Param("hospitalId") UUID hospitalId, @Param("createdAt") LocalDate createdAt,
+                                             @Param("id") UUID id, Pageable limit);
+
+    // La tabla de unión la maneja Hospital; se limpia directo para no cargar cada hospital
+    @Modifying
+    @Query(value = "DELETE FROM hospital_patients WHERE patient_id = :patientId", nativeQuery = true)
+    int deleteHospitalLinks(@Param("patientId") UUID patientId);
+
+    @Modifying
+    @Query("DELETE FROM Patient p WHERE p.id = :id")
+    int deleteInBulkById(@Param("id") UUID id);
 }
@@ -0,0 +1,17 @@
+package com.biotrack.backend.repositories;
+
+import com.biotrack.backend.models.PendingStorageDeletion;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public interface PendingStorageDeletionRepository extends JpaRepository<PendingStorageDeletion, UUID> {
+
+    @Query("SELECT p FROM PendingStorageDeletion p WHERE p.nextAttemptAt <= :now ORDER BY p.nextAttemptAt")
+    List<PendingStorageDeletion> findDue(@Param("now") LocalDateTime now, Pageable pageable);
+}
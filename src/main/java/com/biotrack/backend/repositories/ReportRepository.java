@@ -1,11 +1,16 @@
 package com.biotrack.backend.repositories;
 
+import com.biotrack.backend.dto.ReportDTO;
 import com.biotrack.backend.models.Report;
 import com.biotrack.backend.models.enums.ReportStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -18,6 +23,39 @@ public interface ReportRepository extends JpaRepository<Report, UUID> {
     @Query("SELECT r FROM Report r WHERE r.status = :status ORDER BY r.generatedAt DESC")
     List<Report> findByStatusOrderByGeneratedAtDesc(@Param("status") ReportStatus status);
     
+    // Páginas por (generatedAt, id), más recientes primero: global, por estado y por muestra,
+    // con idx_reports_generated, idx_reports_status_generated e idx_reports_sample_generated.
+    // Proyectan directo a ReportDTO: solo las columnas del listado, sin hidratar entidades ni tocar la muestra
+    // (r.sample.id se lee de la llave foránea, sin JOIN)
+    @Query("""
+        SELECT new com.biotrack.backend.dto.ReportDTO(
+            r.id, r.sample.id, r.s3Url, r.s3UrlPatient, r.generatedAt, r.openaiModel, r.status, r.processingTimeMs)
+        FROM Report r
+        WHERE (r.generatedAt, r.id) < (:generatedAt, :id)
+        ORDER BY r.generatedAt DESC, r.id DESC
+    """)
+    List<ReportDTO> findPageBefore(@Param("generatedAt") LocalDateTime generatedAt, @Param("id") UUID id, Pageable limit);
+
+    @Query("""
+        SELECT new com.biotrack.backend.dto.ReportDTO(
+            r.id, r.sample.id, r.s3Url, r.s3UrlPatient, r.generatedAt, r.openaiModel, r.status, r.processingTimeMs)
+        FROM Report r
+        WHERE r.status = :status AND (r.generatedAt, r.id) < (:generatedAt, :id)
+        ORDER BY r.generatedAt DESC, r.id DESC
+    """)
+    List<ReportDTO> findPageByStatusBefore(@Param("status") ReportStatus status, @Param("generatedAt") LocalDateTime generatedAt,
+                                        @Param("id") UUID id, Pageable limit);
+
+    @Query("""
+        SELECT new com.biotrack.backend.dto.ReportDTO(
+            r.id, r.sample.id, r.s3Url, r.s3UrlPatient, r.generatedAt, r.openaiModel, r.status, r.processingTimeMs)
+        FROM Report r
+        WHERE r.sample.id = :sampleId AND (r.generatedAt, r.id) < (:generatedAt, :id)
+        ORDER BY r.generatedAt DESC, r.id DESC
+    """)
+    List<ReportDTO> findPageBySampleIdBefore(@Param("sampleId") UUID sampleId, @Param("generatedAt") LocalDateTime generatedAt,
+                                          @Param("id") UUID id, Pageable limit);
+
     @Query("SELECT r FROM Report r WHERE r.sample.id = :sampleId AND r.status = 'COMPLETED' ORDER BY r.generatedAt DESC LIMIT 1")
     Optional<Report> findLatestCompletedBySampleId(@Param("sampleId") UUID sampleId);
     
@@ -26,7 +64,65 @@ public interface ReportRepository extends JpaRepository<Report, UUID> {
     
     boolean existsBySampleIdAndStatus(UUID sampleId, ReportStatus status);
 
-    void deleteAllBySampleId(UUID id);
+    List<Report> findByUploadPendingTrue();
+
+
+    // Keys de almacenamiento (técnica y paciente) de los reportes que se van a borrar en bloque
+    @Query("SELECT r.s3Key, r.s3KeyPatient FROM Report r WHERE r.sample.id = :sampleId")
+    List<Object[]> findStorageKeysBySampleId(@Param("sampleId") UUID sampleId);
+
+    @Query("SELECT r.s3Key, r.s3KeyPatient FROM Report r WHERE r.geneticSample.id = :geneticSampleId")
+    List<Object[]> findStorageKeysByGeneticSampleId(@Param("geneticSampleId") UUID geneticSampleId);
+
+    @Query("""
+        SELECT r.s3Key, r.s3KeyPatient FROM Report r
+        LEFT JOIN r.sample s
+        LEFT JOIN r.geneticSample gs
+        WHERE s.patient.id = :patientId OR gs.patient.id = :patientId
+    """)
+    List<Object[]> findStorageKeysByPatientId(@Param("patientId") UUID patientId);
+
+    @Modifying
+    @Query("DELETE FROM Report r WHERE r.sample.id = :sampleId")
+    int deleteAllBySampleId(@Param("sampleId") UUID sampleId);
+
+    @Modifying
+    @Query("DELETE FROM Report r WHERE r.geneticSample.id = :geneticSampleId")
+    int deleteAllByGeneticSampleId(@Param("geneticSampleId") UUID geneticSampleId);
+
+    @Modifying
+    @Query("""
+        DELETE FROM Report r
+        WHERE r.sample.id IN (SELECT s.id FROM Sample s WHERE s.patient.id = :patientId)
+        OR r.geneticSample.id IN (SELECT gs.id FROM GeneticSample gs WHERE gs.patient.id = :patientId)
+    """)
+    int deleteAllByPatientId(@Param("patientId") UUID patientId);
+
+    // Key guardada del documento (técnico o para paciente) que se publicó con esta URL
+    @Query("""
+        SELECT CASE WHEN r.s3Url = :url THEN r.s3Key ELSE r.s3KeyPatient END FROM Report r
+        WHERE r.s3Url = :url OR r.s3UrlPatient = :url
+    """)
+    List<String> findStorageKeysByUrl(@Param("url") String url);
+
+    // Id, keys y muestra genética (null en estudios médicos) de varios reportes en una sola consulta
+    @Query("""
+        SELECT r.id, r.s3Key, r.s3KeyPatient, gs.id FROM Report r
+        LEFT JOIN r.geneticSample gs
+        WHERE r.id IN :ids
+    """)
+    List<Object[]> findStorageKeysByIdIn(@Param("ids") Collection<UUID> ids);
+
+    // Reportes con keys del formato anterior (sin prefijo de hash), paginados por id
+    @Query("""
+        SELECT r FROM Report r
+        WHERE r.id > :afterId
+        AND (r.uploadPending IS NULL OR r.uploadPending = false)
+        AND ((r.s3Key IS NOT NULL AND r.s3Key NOT LIKE '%/__/__/%')
+            OR (r.s3KeyPatient IS NOT NULL AND r.s3KeyPatient NOT LIKE '%/__/__/%'))
+        ORDER BY r.id
+    """)
+    List<Report> findWithLegacyKeysAfter(@Param("afterId") UUID afterId, Pageable pageable);
 
     @Query("""
         SELECT r FROM Report r
@@ -2,10 +2,15 @@ package com.biotrack.backend.repositories;
 
 import com.biotrack.backend.models.ResultFile;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 public interface ResultFileRepository extends JpaRepository<ResultFile, UUID> {
@@ -13,9 +18,74 @@ public interface ResultFileRepository extends JpaRepository<ResultFile, UUID> {
     @Query("SELECT rf FROM ResultFile rf WHERE rf.geneticSample.id = :geneticSampleId")
     List<ResultFile> findByGeneticSampleId(@Param("geneticSampleId") UUID geneticSampleId);
     
+    Optional<ResultFile> findByS3Key(String s3Key);
+
     @Query("SELECT rf FROM ResultFile rf WHERE rf.processingStatus = :status")
     List<ResultFile> findByProcessingStatus(@Param("status") String status);
     
     @Query("SELECT rf FROM ResultFile rf WHERE rf.geneticSample.id = :geneticSampleId AND rf.processingStatus = 'PENDING'")
     List<ResultFile> findPendingByGeneticSampleId(@Param("geneticSampleId") UUID geneticSampleId);
-}
\ No newline at end of file
+
+    @Query("SELECT rf.s3Key FROM ResultFile rf WHERE rf.geneticSample.id = :geneticSampleId")
+    List<String> findS3KeysByGeneticSampleId(@Param("geneticSampleId") UUID geneticSampleId);
+
+    @Query("SELECT rf.s3Key FROM ResultFile rf WHERE rf.geneticSample.patient.id = :patientId")
+    List<String> findS3KeysByPatientId(@Param("patientId") UUID patientId);
+
+    @Modifying
+    @Query("DELETE FROM ResultFile rf WHERE rf.geneticSample.id = :geneticSampleId")
+    int deleteAllByGeneticSampleId(@Param("geneticSampleId") UUID geneticSampleId);
+
+    @Modifying
+    @Query("DELETE FROM ResultFile rf WHERE rf.geneticSample.id IN (SELECT gs.id FROM GeneticSample gs WHERE gs.patient.id = :patientId)")
+    int deleteAllByPatientId(@Param("patientId") UUID patientId);
+
+    // Otro archivo con el mismo contenido cuyas mutaciones se pueden copiar en lugar de volver a leerlo
+    Optional<ResultFile> findFirstByContentSha256AndVariantSetCompleteTrueAndIdNot(String contentSha256, UUID id);
+
+    // En la transacción de la ingesta: si se revierte, el archivo queda como no procesado
+    @Modifying
+    @Query("UPDATE ResultFile rf SET rf.contentSha256 = COALESCE(rf.contentSha256, :contentSha256), "
+            + "rf.rowsRead = :rowsRead, rf.rowsRejected = :rowsRejected, rf.rowsInserted = :rowsInserted, "
+            + "rf.variantSetComplete = :variantSetComplete WHERE rf.id = :id")
+    int recordIngestion(@Param("id") UUID id,
+                        @Param("contentSha256") String contentSha256,
+                        @Param("rowsRead") long rowsRead,
+                        @Param("rowsRejected") long rowsRejected,
+                        @Param("rowsInserted") long rowsInserted,
+                        @Param("variantSetComplete") boolean variantSetComplete);
+
+    // Progreso de la ingesta; en su propia transacción para que se vea mientras se procesa el archivo
+    @Modifying
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Query("UPDATE ResultFile rf SET rf.processingStatus = :status WHERE rf.id = :id")
+    int updateProcessingStatus(@Param("id") UUID id, @Param("status") String status);
+
+    @Modifying
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Query("UPDATE ResultFile rf SET rf.processingStatus = :status, rf.processingStartedAt = :startedAt, "
+            + "rf.processingFinishedAt = NULL, rf.processingError = NULL, rf.bytesProcessed = 0, "
+            + "rf.rowsRead = 0, rf.rowsRejected = 0, rf.rowsInserted = 0 WHERE rf.id = :id")
+    int markProcessingStarted(@Param("id") UUID id,
+                              @Param("status") String status,
+                              @Param("startedAt") LocalDateTime startedAt);
+
+    @Modifying
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Query("UPDATE ResultFile rf SET rf.bytesProcessed = :bytesProcessed, rf.rowsRead = :rowsRead, "
+            + "rf.rowsRejected = :rowsRejected, rf.rowsInserted = :rowsInserted WHERE rf.id = :id")
+    int updateProgress(@Param("id") UUID id,
+                       @Param("bytesProcessed") long bytesProcessed,
+                       @Param("rowsRead") long rowsRead,
+                       @Param("rowsRejected") long rowsRejected,
+                       @Param("rowsInserted") long rowsInserted);
+
+    @Modifying
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Query("UPDATE ResultFile rf SET rf.processingStatus = :status, rf.processingFinishedAt = :finishedAt, "
+            + "rf.processingError = :error WHERE rf.id = :id")
+    int markProcessingFinished(@Param("id") UUID id,
+                               @Param("status") String status,
+                               @Param("finishedAt") LocalDateTime finishedAt,
+                               @Param("error") String error);
+}
@@ -0,0 +1,14 @@
+package com.biotrack.backend.repositories;
+
+import com.biotrack.backend.models.ResumableUpload;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public interface ResumableUploadRepository extends JpaRepository<ResumableUpload, UUID> {
+
+    // Subidas sin actividad desde el corte (índice idx_resumable_uploads_last_activity)
+    List<ResumableUpload> findByLastActivityAtBefore(LocalDateTime cutoff);
+}
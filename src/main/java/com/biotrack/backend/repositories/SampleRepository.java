@@ -1,10 +1,16 @@
 package com.biotrack.backend.repositories;
 
 import com.biotrack.backend.models.Sample;
+import com.biotrack.backend.models.enums.SampleStatus;
+import com.biotrack.backend.models.enums.SampleType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
 
@@ -14,11 +20,49 @@ public interface SampleRepository extends JpaRepository<Sample, UUID> {
     @Query("SELECT s FROM Sample s WHERE s.patient.id = :patientId")
     List<Sample> findByPatientId(@Param("patientId") UUID patientId);
 
-    // ✅ ahora también con JPQL, sin nativeQuery
-    @Query("SELECT s FROM Sample s WHERE s.patient.id IN :patientIds")
-    List<Sample> findByPatientIdIn(@Param("patientIds") List<UUID> patientIds);
+    // Páginas por (createdAt, id), más recientes primero; usan idx_sample_created e idx_sample_patient_created.
+    // Paciente y quien registró son EAGER: sin el JOIN FETCH Hibernate los cargaría con un SELECT por fila
+    @Query("""
+        SELECT s FROM Sample s
+        LEFT JOIN FETCH s.patient
+        LEFT JOIN FETCH s.registeredBy
+        WHERE (s.createdAt, s.id) < (:createdAt, :id)
+        ORDER BY s.createdAt DESC, s.id DESC
+    """)
+    List<Sample> findPageBefore(@Param("createdAt") LocalDate createdAt, @Param("id") UUID id, Pageable limit);
 
+    @Query("""
+        SELECT s FROM Sample s
+        JOIN FETCH s.patient p
+        LEFT JOIN FETCH s.registeredBy
+        WHERE p.id = :patientId AND (s.createdAt, s.id) < (:createdAt, :id)
+        ORDER BY s.createdAt DESC, s.id DESC
+    """)
+    List<Sample> findPageByPatientIdBefore(@Param("patientId") UUID patientId, @Param("createdAt") LocalDate createdAt,
+                                           @Param("id") UUID id, Pageable limit);
+
+    // Muestras de los pacientes de un hospital, con filtros opcionales (null = todos). La membresía es un
+    // semi-join contra hospital_patients: no hay lista de ids como parámetro ni límite de binds
+    @Query("""
+        SELECT s FROM Sample s
+        JOIN FETCH s.patient p
+        LEFT JOIN FETCH s.registeredBy
+        WHERE p.id IN (SELECT member.id FROM Hospital h JOIN h.activePatients member WHERE h.id = :hospitalId)
+        AND (:status IS NULL OR s.status = :status)
+        AND (:type IS NULL OR s.type = :type)
+        AND (s.createdAt, s.id) < (:createdAt, :id)
+        ORDER BY s.createdAt DESC, s.id DESC
+    """)
+    List<Sample> findPageByHospitalIdBefore(@Param("hospitalId") UUID hospitalId, @Param("status") SampleStatus status,
+                                            @Param("type") SampleType type, @Param("createdAt") LocalDate createdAt,
+                                            @Param("id") UUID id, Pageable limit);
+
+    @EntityGraph(attributePaths = {"patient", "registeredBy"})
     List<Sample> findTop10ByMedicalEntityIdOrderByCollectionDateDesc(@Param("medicalEntityId") UUID medicalEntityId);
 
+    @Modifying
+    @Query("DELETE FROM Sample s WHERE s.patient.id = :patientId")
+    int deleteAllByPatientId(@Param("patientId") UUID patientId);
+
     // Los métodos futuros que devuelvan entidades con herencia JOINED, usa siempre JPQL.
 }
@@ -0,0 +1,9 @@
+package com.biotrack.backend.repositories;
+
+import com.biotrack.backend.models.VariantCohortSize;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.UUID;
+
+public interface VariantCohortSizeRepository extends JpaRepository<VariantCohortSize, UUID> {
+}
@@ -0,0 +1,18 @@
+package com.biotrack.backend.repositories;
+
+import com.biotrack.backend.models.VariantFrequency;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface VariantFrequencyRepository extends JpaRepository<VariantFrequency, UUID> {
+
+    // Ambas consultas usan el índice de uk_variant_frequencies_signature
+    Optional<VariantFrequency> findByScopeIdAndGeneSymbolAndChromosomeAndType(
+            UUID scopeId, String geneSymbol, String chromosome, String type);
+
+    List<VariantFrequency> findByScopeIdAndGeneSymbolIn(UUID scopeId, Collection<String> geneSymbols);
+}
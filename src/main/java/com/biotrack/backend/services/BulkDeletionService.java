@@ -0,0 +1,18 @@
+package com.biotrack.backend.services;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.UUID;
+
+public interface BulkDeletionService {
+    // Borran las filas hijas con sentencias en bloque y encolan los objetos de almacenamiento
+    void deleteSample(UUID sampleId);
+    void deleteGeneticSample(UUID geneticSampleId);
+    void deleteReport(UUID reportId);
+    void deletePatient(UUID patientId);
+
+    void enqueueStorageDeletion(Collection<String> keyNames);
+    // Para objetos que aún pueden leerse por un tiempo (p. ej. URLs viejas en clientes)
+    void enqueueStorageDeletion(Collection<String> keyNames, Duration delay);
+    void processPendingDeletions();
+}
@@ -0,0 +1,16 @@
+package com.biotrack.backend.services;
+
+import com.biotrack.backend.dto.FastqQcReportDTO;
+
+import java.util.UUID;
+
+public interface FastqQcService {
+
+    // Encola el control de calidad de los FASTQ de una muestra de DNA; si ya está en curso no hace nada
+    FastqQcReportDTO start(UUID sampleId);
+
+    FastqQcReportDTO getReport(UUID sampleId);
+
+    // Vuelve a encolar las corridas que quedaron pendientes o interrumpidas por un reinicio
+    int resumePending();
+}
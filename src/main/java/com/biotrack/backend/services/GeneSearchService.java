@@ -0,0 +1,18 @@
+package com.biotrack.backend.services;
+
+import com.biotrack.backend.dto.GeneResolutionDTO;
+
+import java.util.Collection;
+
+public interface GeneSearchService {
+    // Símbolo exacto, alias, prefijo o con errores de tipeo → símbolos aprobados
+    GeneResolutionDTO resolve(String query, int limit);
+    // Patrón LIKE escapado para buscar el término como subcadena de gene_symbol
+    String containsPattern(String query);
+    void registerSymbols(Collection<String> genes);
+    int reload();
+
+    // Llena gene_symbol en filas anteriores y crea el índice de trigramas si la base lo permite
+    long backfillGeneSymbols();
+    boolean ensureTrigramIndex();
+}
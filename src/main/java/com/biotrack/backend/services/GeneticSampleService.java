@@ -1,6 +1,7 @@
 package com.biotrack.backend.services;
 
 import com.biotrack.backend.models.GeneticSample;
+import com.biotrack.backend.services.pagination.KeysetPage;
 
 import java.util.List;
 import java.util.UUID;
@@ -8,10 +9,13 @@ import java.util.UUID;
 public interface GeneticSampleService {
     GeneticSample create(GeneticSample geneticSample);
     List<GeneticSample> findAll();
+    KeysetPage<GeneticSample> findPage(String cursor, Integer size);
     GeneticSample findById(UUID id);
     void deleteById(UUID id);
     GeneticSample update(UUID id, GeneticSample geneticSample);
     List<GeneticSample> findByPatientId(UUID patientId);
+    KeysetPage<GeneticSample> findPageByPatientId(UUID patientId, String cursor, Integer size);
     List<GeneticSample> findLatest10ByMedicalEntityId(UUID medicalEntityId);
     List<GeneticSample> findByMedicalEntityId(UUID medicalEntityId);
+    KeysetPage<GeneticSample> findPageByMedicalEntityId(UUID medicalEntityId, String cursor, Integer size);
 }
\ No newline at end of file
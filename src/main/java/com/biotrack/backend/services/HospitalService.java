@@ -4,6 +4,9 @@ import com.biotrack.backend.models.Hospital;
 import com.biotrack.backend.models.Patient;
 import com.biotrack.backend.models.User;
 import com.biotrack.backend.models.Sample;
+import com.biotrack.backend.models.enums.SampleStatus;
+import com.biotrack.backend.models.enums.SampleType;
+import com.biotrack.backend.services.pagination.KeysetPage;
 
 import java.util.List;
 import java.util.UUID;
@@ -15,8 +18,8 @@ public interface HospitalService {
     void deleteById(UUID id);
     User registerUser(UUID hospitalId, User user);
     Patient registerPatient(UUID hospitalId, Patient patient);
-    List<Patient> getActivePatientsByHospitalId(UUID hospitalId);
-    List<Sample> getSamplesByHospitalId(UUID hospitalId);
-    List<Patient> searchPatients(UUID hospitalId, String query);
+    KeysetPage<Patient> findPatientPage(UUID hospitalId, String cursor, Integer size);
+    KeysetPage<Sample> findSamplePage(UUID hospitalId, SampleStatus status, SampleType type, String cursor, Integer size);
+    List<Patient> searchPatients(UUID hospitalId, String query, Integer limit);
     // Agrega métodos para las funciones avanzadas
 }
\ No newline at end of file
@@ -0,0 +1,23 @@
+package com.biotrack.backend.services;
+
+import com.biotrack.backend.dto.IngestionProgressDTO;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.UUID;
+
+public interface IngestionJobService {
+
+    // Encola (o vuelve a encolar si terminó o falló) la ingesta de un archivo ya registrado
+    IngestionProgressDTO enqueue(UUID resultFileId);
+
+    IngestionProgressDTO getProgress(UUID resultFileId);
+
+    // Eventos "progress" periódicos hasta que la ingesta termina
+    SseEmitter subscribe(UUID resultFileId);
+
+    // Toma jobs pendientes mientras haya workers libres
+    void dispatch();
+
+    // Envía el avance a los suscriptores de subscribe
+    void publishProgress();
+}
@@ -0,0 +1,7 @@
+package com.biotrack.backend.services;
+
+public interface InlineDocumentMigrationService {
+
+    // Pasa a Postgres los reportes y resúmenes pequeños que siguen en el almacenamiento; regresa cuántos movió
+    int inlineSmallDocuments();
+}
@@ -1,6 +1,8 @@
 package com.biotrack.backend.services;
 
 import com.biotrack.backend.models.InventoryMedicine;
+import com.biotrack.backend.services.pagination.KeysetPage;
+
 import java.util.List;
 import java.util.UUID;
 
@@ -11,4 +13,6 @@ public interface InventoryMedicineService {
     void deleteById(UUID id);
     InventoryMedicine update(UUID id, InventoryMedicine updatedMedicine);
     List<InventoryMedicine> findByHospitalId(UUID hospitalId);
+    // hospitalId null: todo el inventario
+    KeysetPage<InventoryMedicine> findPage(UUID hospitalId, String cursor, Integer size);
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package com.biotrack.backend.services;
 
 import com.biotrack.backend.dto.LabAppointmentCreationDTO;
 import com.biotrack.backend.dto.LabAppointmentDTO;
+import com.biotrack.backend.services.pagination.KeysetPage;
 
 import java.util.List;
 import java.util.UUID;
@@ -11,4 +12,6 @@ public interface LabAppointmentService {
     List<LabAppointmentDTO> findByPatientId(UUID patientId);
     LabAppointmentDTO updateStatus(UUID appointmentId, String status);
     List<LabAppointmentDTO> findSolicitedByMedicalEntityId(UUID medicalEntityId);
+    KeysetPage<LabAppointmentDTO> findPageByPatientId(UUID patientId, String cursor, Integer size);
+    KeysetPage<LabAppointmentDTO> findSolicitedPageByMedicalEntityId(UUID medicalEntityId, String cursor, Integer size);
 }
\ No newline at end of file
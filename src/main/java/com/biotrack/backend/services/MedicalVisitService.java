@@ -3,6 +3,7 @@ package com.biotrack.backend.services;
 import com.biotrack.backend.dto.DoctorStatsDTO;
 import com.biotrack.backend.dto.MedicalVisitDTO;
 import com.biotrack.backend.models.MedicalVisit;
+import com.biotrack.backend.services.pagination.KeysetPage;
 
 import java.util.List;
 import java.util.UUID;
@@ -19,5 +20,9 @@ public interface MedicalVisitService {
     void deleteById(UUID id);
     List<MedicalVisit> findByMedicalEntityId(UUID medicalEntityId);
     DoctorStatsDTO getDoctorStats(UUID doctorId);
+    KeysetPage<MedicalVisit> findPage(String cursor, Integer size);
+    KeysetPage<MedicalVisit> findPageByPatientId(UUID patientId, boolean pendingOnly, String cursor, Integer size);
+    KeysetPage<MedicalVisit> findPageByDoctorId(UUID doctorId, boolean pendingOnly, String cursor, Integer size);
+    KeysetPage<MedicalVisit> findPageByMedicalEntityId(UUID medicalEntityId, String cursor, Integer size);
     List<MedicalVisitDTO> addPatientVisitCounts(List<MedicalVisitDTO> visits);
 }
\ No newline at end of file
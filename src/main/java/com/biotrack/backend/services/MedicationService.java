@@ -4,6 +4,7 @@ import com.biotrack.backend.dto.MedicationAnalysisDTO;
 import com.biotrack.backend.dto.MedicationOperationDTO;
 import com.biotrack.backend.dto.MedicationPatchDTO;
 import com.biotrack.backend.dto.MedicationResponseDTO;
+import com.biotrack.backend.dto.PharmacogenomicAlertDTO;
 import com.biotrack.backend.models.Medication;
 
 import java.util.List;
@@ -20,6 +21,12 @@ public interface MedicationService {
     List<MedicationResponseDTO> patchPatientMedications(UUID patientId, MedicationPatchDTO patchDTO);
     
     List<MedicationResponseDTO> getPatientMedicationsAsDTO(UUID patientId);
+
+    /**
+     * Alertas gen–fármaco del paciente sin llamar a OpenAI
+     * @param substance sustancia a revisar antes de prescribirla; null revisa los medicamentos actuales
+     */
+    List<PharmacogenomicAlertDTO> getPharmacogenomicAlerts(UUID patientId, String substance);
     
     /**
      * Genera un reporte de compatibilidad de medicamentos para un paciente
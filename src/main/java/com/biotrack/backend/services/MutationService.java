@@ -1,12 +1,21 @@
 package com.biotrack.backend.services;
 
+import com.biotrack.backend.dto.MutationDTO;
+import com.biotrack.backend.dto.MutationIngestionResultDTO;
+import com.biotrack.backend.dto.VcfIngestionResultDTO;
 import com.biotrack.backend.models.Mutation;
 import com.biotrack.backend.models.enums.Relevance;
+import com.biotrack.backend.services.pagination.KeysetPage;
 
 import java.util.List;
 import java.util.UUID;
 
 public interface MutationService {
-    List<Mutation> processResultFile(UUID resultFileId);
-    List<Mutation> search(UUID sampleId, Relevance relevance, String gene);
+    MutationIngestionResultDTO processResultFile(UUID resultFileId);
+    // Lee el VCF (bgzip o texto) de la muestra de DNA y guarda las variantes anotadas como mutaciones
+    VcfIngestionResultDTO ingestVcf(UUID dnaSampleId, UUID geneticSampleId);
+    // contains=false resuelve el gen en el diccionario (exacto, alias, prefijo, tipeo); true busca subcadena
+    List<Mutation> search(UUID sampleId, Relevance relevance, String gene, boolean contains);
+    // Mismos filtros que search, en páginas por id
+    KeysetPage<MutationDTO> searchPage(UUID sampleId, Relevance relevance, String gene, boolean contains, String cursor, Integer size);
 }
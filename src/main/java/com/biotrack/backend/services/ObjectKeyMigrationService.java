@@ -0,0 +1,8 @@
+package com.biotrack.backend.services;
+
+public interface ObjectKeyMigrationService {
+
+    // Copian los objetos a keys con prefijo de hash y reescriben las filas; regresan cuántas filas se migraron
+    int migrateReports();
+    int migrateClinicalHistory();
+}
@@ -1,18 +1,34 @@
 package com.biotrack.backend.services;
 
 import com.biotrack.backend.dto.MedicationAnalysisDTO;
+import com.biotrack.backend.dto.PharmacogenomicAlertDTO;
+import com.biotrack.backend.dto.VariantFrequencyDTO;
 import com.biotrack.backend.models.Mutation;
 
 import java.util.List;
 
 public interface OpenAIService {
-    String generateGeneticReport(List<Mutation> mutations, String patientInfo);
+    default String generateGeneticReport(List<Mutation> mutations, String patientInfo) {
+        return generateGeneticReport(mutations, patientInfo, List.of());
+    }
+    // cohortFrequencies: frecuencias internas (cohorte y hospital) de las variantes, ya agregadas
+    default String generateGeneticReport(List<Mutation> mutations, String patientInfo, List<VariantFrequencyDTO> cohortFrequencies) {
+        return generateGeneticReport(mutations, patientInfo, cohortFrequencies, List.of());
+    }
+    // pharmacogenomicFindings: reglas gen–fármaco ya resueltas contra los genes de las mutaciones
+    String generateGeneticReport(List<Mutation> mutations, String patientInfo, List<VariantFrequencyDTO> cohortFrequencies,
+                                 List<PharmacogenomicAlertDTO> pharmacogenomicFindings);
     String generateClinicalReport(String patientInfo);
     String generatePatientFriendlyClinicalReport(String patientInfo);
     String generateClinicalHistorySummary(String prompt);
     String generatePatientFriendlyGeneticReport(List<Mutation> mutations, String clinicalContext, String technicalReport);
 
-    String generateMedicationCompatibilityReport(List<MedicationAnalysisDTO> medications, String clinicalContext);
+    default String generateMedicationCompatibilityReport(List<MedicationAnalysisDTO> medications, String clinicalContext) {
+        return generateMedicationCompatibilityReport(medications, clinicalContext, List.of());
+    }
+    // pharmacogenomicAlerts: alertas del índice gen–fármaco para estos medicamentos; el modelo no las deduce
+    String generateMedicationCompatibilityReport(List<MedicationAnalysisDTO> medications, String clinicalContext,
+                                                 List<PharmacogenomicAlertDTO> pharmacogenomicAlerts);
     
     boolean isConfigured();
     String getModelUsed();
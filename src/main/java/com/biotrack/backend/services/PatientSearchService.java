@@ -0,0 +1,20 @@
+package com.biotrack.backend.services;
+
+import com.biotrack.backend.models.Patient;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface PatientSearchService {
+    // CURP, correo o teléfono exactos; si no, nombre por similitud (trigramas). hospitalId null = todos
+    List<Patient> search(UUID hospitalId, String query, Integer limit);
+
+    // Nombre y apellido como filtros separados: cada uno contenido en su campo (sin acentos ni mayúsculas).
+    // Acotado igual que search
+    List<Patient> searchByName(String firstName, String lastName, Integer limit);
+
+    // Llena search_name en pacientes anteriores y crea los índices de trigramas si la base lo permite
+    long backfillSearchNames();
+    boolean ensureTrigramIndex();
+    boolean detectTrigramSupport();
+}
@@ -3,6 +3,7 @@ package com.biotrack.backend.services;
 import com.biotrack.backend.dto.PrimaryHospitalDTO;
 import com.biotrack.backend.models.ClinicalHistoryRecord;
 import com.biotrack.backend.models.Patient;
+import com.biotrack.backend.services.pagination.KeysetPage;
 
 import java.util.List;
 import java.util.Optional;
@@ -11,6 +12,7 @@ import java.util.UUID;
 public interface PatientService {
     Patient create(Patient patient);
     List<Patient> findAll();
+    KeysetPage<Patient> findPage(String cursor, Integer size);
     Patient findById(UUID id);
     Patient update(UUID id, Patient updatedPatient);
     void deleteById(UUID id);
@@ -18,7 +20,8 @@ public interface PatientService {
     ClinicalHistoryRecord getLatestRecord(UUID patientId);
     String getLatestSummaryText(UUID patientId);
     String getLatestSummaryTextPatientFriendly(UUID patientId);
-    List<Patient> searchPatients(String firstName, String lastName);
+    List<Patient> searchPatients(String firstName, String lastName, Integer limit);
+    List<Patient> searchPatients(String query, Integer limit);
     Optional<PrimaryHospitalDTO> getPrimaryHospital(UUID patientId);
     int medicalVisitsCount(UUID patientId);
     int pendingMedicalVisitsCount(UUID patientId);
@@ -0,0 +1,20 @@
+package com.biotrack.backend.services;
+
+import com.biotrack.backend.dto.PharmacogenomicAlertDTO;
+import com.biotrack.backend.models.Medication;
+import com.biotrack.backend.models.Mutation;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface PharmacogenomicService {
+    // Alertas de una sustancia antes de prescribirla (medicationId null en las alertas)
+    List<PharmacogenomicAlertDTO> checkSubstance(UUID patientId, String activeSubstance);
+    // Alertas de varios medicamentos con una sola consulta de genes del paciente
+    List<PharmacogenomicAlertDTO> checkMedications(UUID patientId, Collection<Medication> medications);
+    // Reglas que aplican a los genes de estas mutaciones, marcando las que coinciden con los medicamentos actuales
+    List<PharmacogenomicAlertDTO> findingsForMutations(Collection<Mutation> mutations, Collection<Medication> currentMedications);
+
+    int guidelineCount();
+}
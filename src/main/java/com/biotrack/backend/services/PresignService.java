@@ -0,0 +1,10 @@
+package com.biotrack.backend.services;
+
+import com.biotrack.backend.dto.PresignedUploadDTO;
+import com.biotrack.backend.dto.PresignedUrlDTO;
+
+public interface PresignService {
+    PresignedUrlDTO presignDownload(String keyName);
+    PresignedUploadDTO presignUpload(String keyName, String contentType, long contentLength);
+    PresignedUploadDTO presignUploadForm(String keyName, String contentType, long maxContentLength);
+}
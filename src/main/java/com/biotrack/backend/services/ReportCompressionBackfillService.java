@@ -0,0 +1,7 @@
+package com.biotrack.backend.services;
+
+public interface ReportCompressionBackfillService {
+
+    // Recomprime con gzip los objetos bajo el prefijo que siguen sin comprimir; regresa cuántos se reescribieron
+    int recompress(String prefix);
+}
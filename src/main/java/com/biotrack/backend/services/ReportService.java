@@ -1,6 +1,8 @@
 package com.biotrack.backend.services;
 
 import com.biotrack.backend.dto.PatientReportsDTO;
+import com.biotrack.backend.dto.PresignedUrlDTO;
+import com.biotrack.backend.dto.ReportDTO;
 import com.biotrack.backend.dto.PatientFriendlyReportResponseDTO;
 import com.biotrack.backend.dto.MedicalStudyReportResponseDTO;
 import com.biotrack.backend.models.Report;
@@ -8,9 +10,13 @@ import com.biotrack.backend.models.enums.ReportStatus;
 
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 import com.biotrack.backend.dto.GeneticReportDTO;
+import com.biotrack.backend.dto.ReportBatchItemDTO;
 import com.biotrack.backend.dto.PatientFriendlyGeneticReportDTO;
 import com.biotrack.backend.dto.TechnicalGeneticReportDTO;
+import com.biotrack.backend.services.pagination.KeysetPage;
+import com.biotrack.backend.services.storage.StoredObjectStream;
 
 public interface ReportService {
     Report generateReport(UUID sampleId);
@@ -19,12 +25,20 @@ public interface ReportService {
     List<Report> findByStatus(ReportStatus status);
     Report findById(UUID reportId);
     void deleteReport(UUID reportId);
+    // Reportes parseados en el orden en que terminan de descargarse; un error por reporte no detiene el resto
+    void streamReports(List<UUID> reportIds, boolean isPatientFriendly, Consumer<ReportBatchItemDTO> sink);
     boolean hasCompletedReport(UUID sampleId);
     Report getLatestCompletedReport(UUID sampleId);
     List<Report> findAll();
+    // status null: todos los estados
+    KeysetPage<ReportDTO> findPage(ReportStatus status, String cursor, Integer size);
+    KeysetPage<ReportDTO> findPageBySampleId(UUID sampleId, String cursor, Integer size);
     Report generateClinicalReport(UUID sampleId);
     List<PatientReportsDTO> getPatientReports(UUID patientId);
     Object getReportFromS3(String s3Url, boolean isPatientFriendly);
     List<GeneticReportDTO> getGeneticReportsByPatient(UUID patientId);
     Object getGeneticReportFromUrl(String s3Url, boolean isPatientFriendly);
+    PresignedUrlDTO getReportDownloadUrl(UUID reportId, boolean isPatientFriendly);
+    // Documento tal como está guardado (puede venir comprimido, ver contentEncoding)
+    StoredObjectStream openReportDocument(UUID reportId, boolean isPatientFriendly);
 }
\ No newline at end of file
@@ -0,0 +1,11 @@
+package com.biotrack.backend.services;
+
+import java.util.Optional;
+
+public interface ReportSpoolService {
+    String write(String keyName, String content);
+    Optional<String> read(String keyName);
+    boolean isPending(String keyName);
+    int pendingCount();
+    void drain();
+}
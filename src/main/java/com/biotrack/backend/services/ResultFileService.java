@@ -1,7 +1,11 @@
 package com.biotrack.backend.services;
 
+import com.biotrack.backend.dto.PresignedUploadDTO;
+import com.biotrack.backend.dto.PresignedUploadRequestDTO;
+import com.biotrack.backend.dto.PresignedUrlDTO;
+import com.biotrack.backend.dto.ResultFileUploadCompletionDTO;
 import com.biotrack.backend.models.ResultFile;
-import org.springframework.core.io.Resource;
+import com.biotrack.backend.services.storage.ResultFileDownload;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
@@ -19,9 +23,23 @@ public interface ResultFileService {
     // ✅ CAMBIAR: nombre del método
     List<ResultFile> findByGeneticSampleId(UUID geneticSampleId);
     
-    Resource downloadFile(UUID fileId);
+    // range/ifRange: headers HTTP Range e If-Range tal como llegaron (pueden ser null)
+    ResultFileDownload openDownload(UUID fileId, String range, String ifRange);
     
     void deleteFile(UUID fileId);
     
     ResultFile updateStatus(UUID fileId, String status);
+
+    // Subida/descarga directa entre navegador y S3 con URLs prefirmadas
+    PresignedUploadDTO createUploadTarget(PresignedUploadRequestDTO request);
+
+    ResultFile completeUpload(ResultFileUploadCompletionDTO completion);
+
+    PresignedUrlDTO getDownloadUrl(UUID fileId);
+
+    // Para subidas que llegan por otra vía (p. ej. reanudables por partes)
+    String generateResultFileKey(String fileName, UUID geneticSampleId);
+
+    ResultFile registerUploadedFile(UUID geneticSampleId, String keyName, String fileName,
+                                    String contentType, long fileSize, String contentSha256);
 }
\ No newline at end of file
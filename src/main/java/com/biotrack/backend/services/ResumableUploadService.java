@@ -0,0 +1,20 @@
+package com.biotrack.backend.services;
+
+import com.biotrack.backend.dto.ResumableUploadDTO;
+
+import java.io.InputStream;
+import java.util.UUID;
+
+public interface ResumableUploadService {
+
+    ResumableUploadDTO create(UUID geneticSampleId, String fileName, String contentType, long uploadLength);
+
+    // El chunk debe empezar exactamente en el offset actual de la subida
+    ResumableUploadDTO append(UUID uploadId, long offset, InputStream chunk);
+
+    ResumableUploadDTO getStatus(UUID uploadId);
+
+    void abort(UUID uploadId);
+
+    void expireIdleUploads();
+}
@@ -1,17 +1,37 @@
 package com.biotrack.backend.services;
 
+import com.biotrack.backend.services.storage.StoredObjectInfo;
+import com.biotrack.backend.services.storage.StoredObjectStream;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.List;
 
 public interface S3Service {
     String uploadFile(MultipartFile file, String keyName);
     InputStream downloadFile(String keyName);
     void deleteFile(String keyName);
+    // Borrado por lotes (DeleteObjects, hasta 1000 keys por petición); devuelve las keys que no se pudieron borrar
+    List<String> deleteFiles(List<String> keyNames);
     String generatePresignedUrl(String keyName, int expirationMinutes);
     String uploadTextContent(String content, String keyName);
     String uploadStreamContent(InputStream inputStream, String keyName, String contentType, long contentLength);
     String downloadTextContent(String keyName);
     String downloadFileAsString(String s3Url);
     String downloadFileAsStringNotFormated(String s3Url);
+    StoredObjectInfo headObject(String keyName);
+    // range/ifRange son los valores de los headers HTTP Range e If-Range (pueden ser null)
+    StoredObjectStream openObject(String keyName, String range, String ifRange);
+    String getObjectUrl(String keyName);
+    String extractKeyFromUrl(String s3Url);
+    List<String> listKeys(String prefix);
+    // Copia del lado del almacenamiento (conserva tipo y encoding); devuelve la URL de la copia
+    String copyObject(String sourceKey, String targetKey);
+
+    // Multipart upload para archivos grandes subidos por partes
+    String createMultipartUpload(String keyName, String contentType);
+    String uploadPart(String keyName, String uploadId, int partNumber, Path partFile);
+    String completeMultipartUpload(String keyName, String uploadId, List<String> partETags);
+    void abortMultipartUpload(String keyName, String uploadId);
 }
\ No newline at end of file
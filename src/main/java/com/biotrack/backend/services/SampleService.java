@@ -1,6 +1,7 @@
 package com.biotrack.backend.services;
 
 import com.biotrack.backend.models.Sample;
+import com.biotrack.backend.services.pagination.KeysetPage;
 
 import java.util.List;
 import java.util.UUID;
@@ -8,9 +9,11 @@ import java.util.UUID;
 public interface SampleService {
     Sample create(Sample sample);
     List<Sample> findAll();
+    KeysetPage<Sample> findPage(String cursor, Integer size);
     Sample findById(UUID id);
     void deleteById(UUID id);
     Sample update(UUID id, Sample sample);
     List<Sample> findByPatientId(UUID patientId);
+    KeysetPage<Sample> findPageByPatientId(UUID patientId, String cursor, Integer size);
     List<Sample> findLatest10ByMedicalEntityId(UUID medicalEntityId);
 }
@@ -0,0 +1,26 @@
+package com.biotrack.backend.services;
+
+import com.biotrack.backend.dto.GeneFrequencyDTO;
+import com.biotrack.backend.dto.VariantFrequencyDTO;
+import com.biotrack.backend.models.Mutation;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface VariantFrequencyService {
+    // Quita el aporte actual de las muestras; se llama antes de cambiar o borrar sus mutaciones, en la misma transacción
+    void subtractSamples(Collection<UUID> geneticSampleIds);
+    // Suma el aporte actual de las muestras; se llama después de insertar sus mutaciones, en la misma transacción
+    void addSamples(Collection<UUID> geneticSampleIds);
+
+    // hospitalId null = toda la cohorte
+    VariantFrequencyDTO findFrequency(String gene, String chromosome, String type, UUID hospitalId);
+    List<GeneFrequencyDTO> findTopGenes(UUID hospitalId, int limit);
+    // Frecuencias de las firmas de las mutaciones en la cohorte y, si se indica, en el hospital
+    List<VariantFrequencyDTO> findFrequencies(Collection<Mutation> mutations, UUID hospitalId);
+
+    // Recalcula los agregados desde la tabla mutations
+    long rebuild();
+    boolean rebuildIfEmpty();
+}
@@ -0,0 +1,28 @@
+package com.biotrack.backend.services;
+
+import com.biotrack.backend.dto.GeneCarriersDTO;
+import com.biotrack.backend.dto.GeneVariantCountDTO;
+import com.biotrack.backend.dto.VariantStoreStatsDTO;
+import com.biotrack.backend.models.Mutation;
+import com.biotrack.backend.models.enums.Relevance;
+import com.biotrack.backend.services.genomics.VariantStaging;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface VariantStoreService {
+    // Archivo temporal para las filas de una ingesta; se publica con append después del commit
+    VariantStaging newStaging();
+    void append(VariantStaging staging);
+    // Para mutaciones guardadas por JPA: se agregan cuando la transacción actual hace commit
+    void recordMutations(UUID geneticSampleId, Collection<Mutation> mutations);
+    void removeGeneticSamples(Collection<UUID> geneticSampleIds);
+
+    GeneCarriersDTO findCarriers(String gene, Relevance minRelevance);
+    List<GeneVariantCountDTO> countByGene(Relevance minRelevance, String chromosome, int limit);
+    VariantStoreStatsDTO stats();
+    // Reconstruye el almacén desde la tabla mutations
+    VariantStoreStatsDTO rebuild();
+    boolean rebuildIfEmpty();
+}
@@ -0,0 +1,196 @@
+package com.biotrack.backend.services.aws;
+
+import com.biotrack.backend.dto.PresignedUploadDTO;
+import com.biotrack.backend.dto.PresignedUrlDTO;
+import com.biotrack.backend.services.PresignService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.auth.credentials.AwsCredentials;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.AwsSessionCredentials;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
+import software.amazon.awssdk.services.s3.presigner.model.PresignedPutObjectRequest;
+import software.amazon.awssdk.services.s3.presigner.model.PutObjectPresignRequest;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * URLs prefirmadas para que el navegador lea y suba archivos directamente a S3
+ * sin pasar los bytes por el backend.
+ *
+ * Las URLs GET se cachean por key y se reutilizan mientras les quede al menos
+ * la mitad de su vigencia.
+ *
+ * Con el perfil local-storage no hay bucket que firmar: este bean no existe y los endpoints de
+ * URL directa responden con los del backend (/content, /download).
+ */
+@Service
+@Profile("!local-storage")
+public class S3PresignServiceImpl implements PresignService {
+
+    private static final DateTimeFormatter AMZ_DATE = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+    private static final DateTimeFormatter AMZ_DAY = DateTimeFormatter.ofPattern("yyyyMMdd").withZone(ZoneOffset.UTC);
+    private static final String ALGORITHM = "AWS4-HMAC-SHA256";
+
+    private final S3Presigner s3Presigner;
+    private final AwsCredentialsProvider credentialsProvider;
+    private final ObjectMapper objectMapper;
+    private final Map<String, PresignedUrlDTO> downloadUrlCache = new ConcurrentHashMap<>();
+
+    @Value("${aws.s3.bucket-name}")
+    private String bucketName;
+
+    @Value("${aws.region}")
+    private String region;
+
+    @Value("${storage.presign.download-ttl-minutes:10}")
+    private long downloadTtlMinutes;
+
+    @Value("${storage.presign.upload-ttl-minutes:15}")
+    private long uploadTtlMinutes;
+
+    @Value("${storage.presign.cache-max-entries:10000}")
+    private int cacheMaxEntries;
+
+    public S3PresignServiceImpl(S3Presigner s3Presigner,
+                                AwsCredentialsProvider s3CredentialsProvider,
+                                ObjectMapper objectMapper) {
+        this.s3Presigner = s3Presigner;
+        this.credentialsProvider = s3CredentialsProvider;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public PresignedUrlDTO presignDownload(String keyName) {
+        Duration ttl = Duration.ofMinutes(downloadTtlMinutes);
+        Instant refreshAfter = Instant.now().plus(ttl.dividedBy(2));
+
+        PresignedUrlDTO cached = downloadUrlCache.get(keyName);
+        if (cached != null && cached.expiresAt().isAfter(refreshAfter)) {
+            return cached;
+        }
+
+        GetObjectPresignRequest presignRequest = GetObjectPresignRequest.builder()
+                .signatureDuration(ttl)
+                .getObjectRequest(GetObjectRequest.builder()
+                        .bucket(bucketName)
+                        .key(keyName)
+                        .build())
+                .build();
+
+        var presigned = s3Presigner.presignGetObject(presignRequest);
+        PresignedUrlDTO result = new PresignedUrlDTO(presigned.url().toString(), presigned.expiration());
+
+        if (downloadUrlCache.size() >= cacheMaxEntries) {
+            evictExpiring(refreshAfter);
+        }
+        downloadUrlCache.put(keyName, result);
+        return result;
+    }
+
+    @Override
+    public PresignedUploadDTO presignUpload(String keyName, String contentType, long contentLength) {
+        PutObjectPresignRequest presignRequest = PutObjectPresignRequest.builder()
+                .signatureDuration(Duration.ofMinutes(uploadTtlMinutes))
+                .putObjectRequest(PutObjectRequest.builder()
+                        .bucket(bucketName)
+                        .key(keyName)
+                        .contentType(contentType)
+                        .contentLength(contentLength)
+                        .build())
+                .build();
+
+        PresignedPutObjectRequest presigned = s3Presigner.presignPutObject(presignRequest);
+
+        // El navegador pone el header Host por su cuenta
+        Map<String, String> headers = new LinkedHashMap<>();
+        presigned.signedHeaders().forEach((name, values) -> {
+            if (!"host".equalsIgnoreCase(name)) {
+                headers.put(name, String.join(",", values));
+            }
+        });
+
+        return new PresignedUploadDTO(keyName, "PUT", presigned.url().toString(), headers, null, presigned.expiration());
+    }
+
+    /**
+     * Formulario POST firmado (SigV4). A diferencia del PUT, la política limita el
+     * tamaño máximo del archivo que S3 aceptará.
+     */
+    @Override
+    public PresignedUploadDTO presignUploadForm(String keyName, String contentType, long maxContentLength) {
+        Instant now = Instant.now();
+        Instant expiresAt = now.plus(Duration.ofMinutes(uploadTtlMinutes));
+        AwsCredentials credentials = credentialsProvider.resolveCredentials();
+
+        String amzDate = AMZ_DATE.format(now);
+        String day = AMZ_DAY.format(now);
+        String credential = String.format("%s/%s/%s/s3/aws4_request", credentials.accessKeyId(), day, region);
+
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put("key", keyName);
+        fields.put("Content-Type", contentType);
+        fields.put("x-amz-algorithm", ALGORITHM);
+        fields.put("x-amz-credential", credential);
+        fields.put("x-amz-date", amzDate);
+        if (credentials instanceof AwsSessionCredentials session) {
+            fields.put("x-amz-security-token", session.sessionToken());
+        }
+
+        List<Object> conditions = new ArrayList<>();
+        conditions.add(Map.of("bucket", bucketName));
+        fields.forEach((name, value) -> conditions.add(Map.of(name, value)));
+        conditions.add(List.of("content-length-range", 1, maxContentLength));
+
+        Map<String, Object> policy = new LinkedHashMap<>();
+        policy.put("expiration", DateTimeFormatter.ISO_INSTANT.format(expiresAt));
+        policy.put("conditions", conditions);
+
+        try {
+            String encodedPolicy = Base64.getEncoder().encodeToString(objectMapper.writeValueAsBytes(policy));
+            byte[] signingKey = hmac(("AWS4" + credentials.secretAccessKey()).getBytes(StandardCharsets.UTF_8), day);
+            signingKey = hmac(signingKey, region);
+            signingKey = hmac(signingKey, "s3");
+            signingKey = hmac(signingKey, "aws4_request");
+
+            fields.put("policy", encodedPolicy);
+            fields.put("x-amz-signature", HexFormat.of().formatHex(hmac(signingKey, encodedPolicy)));
+        } catch (Exception e) {
+            throw new RuntimeException("Error signing upload form for key: " + keyName, e);
+        }
+
+        String url = String.format("https://%s.s3.%s.amazonaws.com/", bucketName, region);
+        return new PresignedUploadDTO(keyName, "POST", url, Map.of(), fields, expiresAt);
+    }
+
+    private void evictExpiring(Instant refreshAfter) {
+        downloadUrlCache.values().removeIf(entry -> !entry.expiresAt().isAfter(refreshAfter));
+        if (downloadUrlCache.size() >= cacheMaxEntries) {
+            downloadUrlCache.clear();
+        }
+    }
+
+    private static byte[] hmac(byte[] key, String data) throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(key, "HmacSHA256"));
+        return mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
+    }
+}
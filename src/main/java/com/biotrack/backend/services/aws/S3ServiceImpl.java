@@ -1,7 +1,13 @@
 package com.biotrack.backend.services.aws;
 
+import com.biotrack.backend.exceptions.RangeNotSatisfiableException;
 import com.biotrack.backend.services.S3Service;
+import com.biotrack.backend.services.storage.StoredObjectInfo;
+import com.biotrack.backend.services.storage.StoredObjectStream;
+import com.biotrack.backend.utils.CompressionUtils;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -12,24 +18,37 @@ import software.amazon.awssdk.services.s3.model.*;
 import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.time.Duration;
-import java.util.stream.Collectors;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
 
 @Service
+@Qualifier("storageBackend")
+@Profile("!local-storage")
 public class S3ServiceImpl implements S3Service {
 
+    private static final int DELETE_BATCH_SIZE = 1000;
+    private static final String VIRTUAL_HOST_SUFFIX = ".s3.amazonaws.com/";
+    private static final String PATH_STYLE_HOST = "s3.amazonaws.com/";
+
     private final S3Client s3Client;
+    private final S3Presigner s3Presigner;
 
     @Value("${aws.s3.bucket-name}")
     private String bucketName;
 
-    public S3ServiceImpl(S3Client s3Client) {
+    public S3ServiceImpl(S3Client s3Client, S3Presigner s3Presigner) {
         this.s3Client = s3Client;
+        this.s3Presigner = s3Presigner;
     }
 
     @Override
@@ -59,7 +78,11 @@ public class S3ServiceImpl implements S3Service {
                     .key(keyName)
                     .build();
 
-            return s3Client.getObject(getObjectRequest);
+            ResponseInputStream<GetObjectResponse> object = s3Client.getObject(getObjectRequest);
+            if (CompressionUtils.isGzipEncoding(object.response().contentEncoding())) {
+                return new GZIPInputStream(object, 8192);
+            }
+            return object;
         } catch (Exception e) {
             throw new RuntimeException("Error downloading file from S3: " + keyName, e);
         }
@@ -79,33 +102,56 @@ public class S3ServiceImpl implements S3Service {
         }
     }
 
+    @Override
+    public List<String> deleteFiles(List<String> keyNames) {
+        List<String> failed = new ArrayList<>();
+        for (int from = 0; from < keyNames.size(); from += DELETE_BATCH_SIZE) {
+            List<String> batch = keyNames.subList(from, Math.min(from + DELETE_BATCH_SIZE, keyNames.size()));
+            List<ObjectIdentifier> objects = batch.stream()
+                    .map(key -> ObjectIdentifier.builder().key(key).build())
+                    .toList();
+            try {
+                DeleteObjectsResponse response = s3Client.deleteObjects(DeleteObjectsRequest.builder()
+                        .bucket(bucketName)
+                        // quiet: S3 solo devuelve los errores
+                        .delete(Delete.builder().objects(objects).quiet(true).build())
+                        .build());
+                // Una key inexistente no es error en S3, así que solo quedan fallos reales
+                response.errors().forEach(error -> failed.add(error.key()));
+            } catch (Exception e) {
+                failed.addAll(batch);
+            }
+        }
+        return failed;
+    }
+
     @Override
     public String generatePresignedUrl(String keyName, int expirationMinutes) {
-        try (S3Presigner presigner = S3Presigner.create()) {
-            GetObjectRequest getObjectRequest = GetObjectRequest.builder()
-                    .bucket(bucketName)
-                    .key(keyName)
-                    .build();
+        GetObjectRequest getObjectRequest = GetObjectRequest.builder()
+                .bucket(bucketName)
+                .key(keyName)
+                .build();
 
-            GetObjectPresignRequest getObjectPresignRequest = GetObjectPresignRequest.builder()
-                    .signatureDuration(Duration.ofMinutes(expirationMinutes))
-                    .getObjectRequest(getObjectRequest)
-                    .build();
+        GetObjectPresignRequest getObjectPresignRequest = GetObjectPresignRequest.builder()
+                .signatureDuration(Duration.ofMinutes(expirationMinutes))
+                .getObjectRequest(getObjectRequest)
+                .build();
 
-            return presigner.presignGetObject(getObjectPresignRequest).url().toString();
-        }
+        return s3Presigner.presignGetObject(getObjectPresignRequest).url().toString();
     }
 
     // ✅ Nuevos métodos para contenido generado dinámicamente
     @Override
     public String uploadTextContent(String content, String keyName) {
         try {
-            byte[] contentBytes = content.getBytes(StandardCharsets.UTF_8);
+            // Los reportes JSON se comprimen 5-10x; S3 y los navegadores respetan Content-Encoding
+            byte[] contentBytes = CompressionUtils.gzip(content.getBytes(StandardCharsets.UTF_8));
 
             PutObjectRequest putObjectRequest = PutObjectRequest.builder()
                     .bucket(bucketName)
                     .key(keyName)
                     .contentType("text/plain")
+                    .contentEncoding(CompressionUtils.GZIP)
                     .contentLength((long) contentBytes.length)
                     .build();
 
@@ -139,23 +185,12 @@ public class S3ServiceImpl implements S3Service {
     public String downloadFileAsString(String s3Url) {
         try {
             // Extraer bucket y key de la URL
-            String[] urlParts = extractBucketAndKeyFromUrl(s3Url);
+            String[] urlParts = parseS3Url(s3Url);
             String bucketName = urlParts[0];
             String key = urlParts[1];
             
-            GetObjectRequest getObjectRequest = GetObjectRequest.builder()
-                    .bucket(bucketName)
-                    .key(key)
-                    .build();
-            
-            ResponseInputStream<GetObjectResponse> s3Object = s3Client.getObject(getObjectRequest);
-            
-            // Leer el contenido como String
-            try (BufferedReader reader = new BufferedReader(
-                    new InputStreamReader(s3Object, StandardCharsets.UTF_8))) {
-                return reader.lines().collect(Collectors.joining("\n"));
-            }
-            
+            return readText(bucketName, key);
+
         } catch (Exception e) {
             throw new RuntimeException("Error downloading file from S3: " + e.getMessage(), e);
         }
@@ -165,112 +200,241 @@ public class S3ServiceImpl implements S3Service {
     public String downloadFileAsStringNotFormated(String s3Url) {
         try {
             // Extraer bucket y key de la URL
-            String[] urlParts = extractBucketAndKeyFromUrlNotFormated(s3Url);
+            String[] urlParts = parseS3Url(s3Url);
             String bucketName = urlParts[0];
             String key = urlParts[1];
             
-            GetObjectRequest getObjectRequest = GetObjectRequest.builder()
-                    .bucket(bucketName)
-                    .key(key)
-                    .build();
-            
-            ResponseInputStream<GetObjectResponse> s3Object = s3Client.getObject(getObjectRequest);
-            
-            // Leer el contenido como String
-            try (BufferedReader reader = new BufferedReader(
-                    new InputStreamReader(s3Object, StandardCharsets.UTF_8))) {
-                return reader.lines().collect(Collectors.joining("\n"));
-            }
-            
+            return readText(bucketName, key);
+
         } catch (Exception e) {
             throw new RuntimeException("Error downloading file from S3: " + e.getMessage(), e);
         }
     }
 
-    private String[] extractBucketAndKeyFromUrlNotFormated(String s3Url) {
-    try {
-        // Formato esperado: https://biotrack-results-files.s3.amazonaws.com/reports/1754883001169_402b89a1-b97c-4002-abfc-d8540a7db178_genetic_report.txt
-        
-        if (s3Url.contains(".s3.amazonaws.com/")) {
-            // Formato: https://bucket-name.s3.amazonaws.com/path/to/file
-            String[] urlParts = s3Url.split("://", 2); // Separar protocolo
-            if (urlParts.length != 2) {
-                throw new IllegalArgumentException("Invalid URL protocol format");
+    /**
+     * Bucket y key de una URL de S3, en estilo virtual-host (https://bucket.s3.amazonaws.com/key)
+     * o de ruta (https://s3.amazonaws.com/bucket/key). Es el único lugar donde se interpreta una URL;
+     * el resto del código guarda y usa keys.
+     */
+    private String[] parseS3Url(String s3Url) {
+        int virtualHost = s3Url.indexOf(VIRTUAL_HOST_SUFFIX);
+        if (virtualHost >= 0) {
+            int protocol = s3Url.indexOf("://");
+            int hostStart = protocol < 0 ? 0 : protocol + 3;
+            String key = s3Url.substring(virtualHost + VIRTUAL_HOST_SUFFIX.length());
+            return new String[]{s3Url.substring(hostStart, virtualHost), key};
+        }
+        int pathStyle = s3Url.indexOf(PATH_STYLE_HOST);
+        if (pathStyle >= 0) {
+            String[] pathParts = s3Url.substring(pathStyle + PATH_STYLE_HOST.length()).split("/", 2);
+            return new String[]{pathParts[0], pathParts.length > 1 ? pathParts[1] : ""};
+        }
+        throw new IllegalArgumentException("Could not parse S3 URL: " + s3Url
+                + ". Expected format: https://bucket-name.s3.amazonaws.com/path/to/file");
+    }
+
+    @Override
+    public StoredObjectInfo headObject(String keyName) {
+        try {
+            HeadObjectResponse response = s3Client.headObject(HeadObjectRequest.builder()
+                    .bucket(bucketName)
+                    .key(keyName)
+                    .build());
+            return new StoredObjectInfo(keyName, response.contentLength(), response.contentType(),
+                    response.contentEncoding(), response.eTag());
+        } catch (S3Exception e) {
+            if (e.statusCode() == 404) {
+                return null;
             }
-            
-            String withoutProtocol = urlParts[1]; // biotrack-results-files.s3.amazonaws.com/reports/file.txt
-            String[] domainAndPath = withoutProtocol.split("\\.s3\\.amazonaws\\.com/", 2);
-            
-            if (domainAndPath.length != 2) {
-                throw new IllegalArgumentException("Invalid S3 domain format");
+            throw new RuntimeException("Error reading object metadata from S3: " + keyName, e);
+        }
+    }
+
+    @Override
+    public StoredObjectStream openObject(String keyName, String range, String ifRange) {
+        GetObjectRequest.Builder request = GetObjectRequest.builder()
+                .bucket(bucketName)
+                .key(keyName);
+
+        if (range != null && !range.isBlank()) {
+            if (ifRange == null || ifRange.isBlank()) {
+                request.range(range);
+            } else if (ifRange.startsWith("\"")) {
+                // If-Range con ETag: S3 responde 412 si el objeto cambió
+                request.range(range).ifMatch(ifRange);
+            } else if (!ifRange.startsWith("W/")) {
+                Instant validator = parseHttpDate(ifRange);
+                if (validator != null) {
+                    request.range(range).ifUnmodifiedSince(validator);
+                }
             }
-            
-            String bucketName = domainAndPath[0]; // biotrack-results-files
-            String key = domainAndPath[1]; // reports/1754883001169_402b89a1-b97c-4002-abfc-d8540a7db178_genetic_report.txt
-            
-            return new String[]{bucketName, key};
-            
-        } else if (s3Url.contains("s3.amazonaws.com/")) {
-            // Formato alternativo: https://s3.amazonaws.com/bucket-name/path/to/file
-            String[] parts = s3Url.split("s3\\.amazonaws\\.com/", 2);
-            if (parts.length != 2) {
-                throw new IllegalArgumentException("Invalid S3 path format");
+            // ETag débil o fecha inválida: If-Range no coincide y se manda el objeto completo
+        }
+
+        try {
+            ResponseInputStream<GetObjectResponse> object = s3Client.getObject(request.build());
+            GetObjectResponse response = object.response();
+            return new StoredObjectStream(object, response.contentLength(), response.contentType(),
+                    response.contentEncoding(), response.eTag(), response.contentRange(), response.lastModified());
+        } catch (S3Exception e) {
+            if (e.statusCode() == 412) {
+                // El validador de If-Range ya no coincide: se sirve el objeto completo
+                return openObject(keyName, null, null);
             }
-            
-            String pathPart = parts[1]; // bucket-name/path/to/file
-            String[] pathParts = pathPart.split("/", 2);
-            
-            if (pathParts.length < 1) {
-                throw new IllegalArgumentException("Invalid bucket/key format");
+            if (e.statusCode() == 416) {
+                StoredObjectInfo info = headObject(keyName);
+                throw new RangeNotSatisfiableException("Requested range not satisfiable for key: " + keyName,
+                        info == null ? 0 : info.contentLength());
             }
-            
-            String bucketName = pathParts[0];
-            String key = pathParts.length > 1 ? pathParts[1] : "";
-            
-            return new String[]{bucketName, key};
-            
-        } else {
-            throw new IllegalArgumentException("Unsupported S3 URL format. Expected format: https://bucket-name.s3.amazonaws.com/path/to/file");
+            if (e.statusCode() == 404) {
+                throw new RuntimeException("Stored object not found: " + keyName, e);
+            }
+            throw new RuntimeException("Error downloading file from S3: " + keyName, e);
         }
-        
-    } catch (Exception e) {
-        throw new IllegalArgumentException("Could not parse S3 URL: " + s3Url + ". Error: " + e.getMessage(), e);
     }
-}
-    
-    // ✅ NUEVO: Método helper para extraer bucket y key de URL
-    private String[] extractBucketAndKeyFromUrl(String s3Url) {
+
+    private Instant parseHttpDate(String value) {
         try {
-            // Formato esperado: https://bucket-name.s3.amazonaws.com/path/to/file
-            // o https://s3.amazonaws.com/bucket-name/path/to/file
-            
-            if (s3Url.contains(".s3.amazonaws.com/")) {
-                // Formato: https://bucket-name.s3.amazonaws.com/path/to/file
-                String[] parts = s3Url.split("\\.s3\\.amazonaws\\.com/", 2);
-                String bucketName = parts[0].substring(parts[0].lastIndexOf("/") + 1);
-                String key = parts[1];
-                return new String[]{bucketName, key};
-            } else if (s3Url.contains("s3.amazonaws.com/")) {
-                // Formato: https://s3.amazonaws.com/bucket-name/path/to/file
-                String[] parts = s3Url.split("s3\\.amazonaws\\.com/", 2);
-                String[] pathParts = parts[1].split("/", 2);
-                String bucketName = pathParts[0];
-                String key = pathParts.length > 1 ? pathParts[1] : "";
-                return new String[]{bucketName, key};
-            } else {
-                throw new IllegalArgumentException("Invalid S3 URL format: " + s3Url);
+            return ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public String getObjectUrl(String keyName) {
+        return String.format("https://%s.s3.amazonaws.com/%s", bucketName, keyName);
+    }
+
+    @Override
+    public String extractKeyFromUrl(String s3Url) {
+        return parseS3Url(s3Url)[1];
+    }
+
+    @Override
+    public String createMultipartUpload(String keyName, String contentType) {
+        try {
+            CreateMultipartUploadResponse response = s3Client.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                    .bucket(bucketName)
+                    .key(keyName)
+                    .contentType(contentType)
+                    .build());
+            return response.uploadId();
+        } catch (Exception e) {
+            throw new RuntimeException("Error starting multipart upload to S3: " + keyName, e);
+        }
+    }
+
+    @Override
+    public String uploadPart(String keyName, String uploadId, int partNumber, Path partFile) {
+        try {
+            UploadPartResponse response = s3Client.uploadPart(UploadPartRequest.builder()
+                            .bucket(bucketName)
+                            .key(keyName)
+                            .uploadId(uploadId)
+                            .partNumber(partNumber)
+                            .build(),
+                    RequestBody.fromFile(partFile));
+            return response.eTag();
+        } catch (Exception e) {
+            throw new RuntimeException("Error uploading part " + partNumber + " to S3: " + keyName, e);
+        }
+    }
+
+    @Override
+    public String completeMultipartUpload(String keyName, String uploadId, List<String> partETags) {
+        try {
+            List<CompletedPart> parts = new ArrayList<>(partETags.size());
+            for (int i = 0; i < partETags.size(); i++) {
+                parts.add(CompletedPart.builder()
+                        .partNumber(i + 1)
+                        .eTag(partETags.get(i))
+                        .build());
             }
+
+            s3Client.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                    .bucket(bucketName)
+                    .key(keyName)
+                    .uploadId(uploadId)
+                    .multipartUpload(CompletedMultipartUpload.builder().parts(parts).build())
+                    .build());
+
+            return String.format("https://%s.s3.amazonaws.com/%s", bucketName, keyName);
         } catch (Exception e) {
-            throw new IllegalArgumentException("Could not parse S3 URL: " + s3Url, e);
+            throw new RuntimeException("Error completing multipart upload to S3: " + keyName, e);
+        }
+    }
+
+    @Override
+    public void abortMultipartUpload(String keyName, String uploadId) {
+        try {
+            s3Client.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                    .bucket(bucketName)
+                    .key(keyName)
+                    .uploadId(uploadId)
+                    .build());
+        } catch (Exception e) {
+            throw new RuntimeException("Error aborting multipart upload to S3: " + keyName, e);
         }
     }
 
     @Override
     public String downloadTextContent(String keyName) {
-        try (InputStream inputStream = downloadFile(keyName)) {
-            return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+        try {
+            return readText(bucketName, keyName);
         } catch (Exception e) {
             throw new RuntimeException("Error downloading text content from S3: " + keyName, e);
         }
     }
-}
\ No newline at end of file
+
+    @Override
+    public List<String> listKeys(String prefix) {
+        try {
+            List<String> keys = new ArrayList<>();
+            s3Client.listObjectsV2Paginator(ListObjectsV2Request.builder()
+                            .bucket(bucketName)
+                            .prefix(prefix)
+                            .build())
+                    .contents()
+                    .forEach(object -> keys.add(object.key()));
+            return keys;
+        } catch (Exception e) {
+            throw new RuntimeException("Error listing S3 objects under: " + prefix, e);
+        }
+    }
+
+    @Override
+    public String copyObject(String sourceKey, String targetKey) {
+        try {
+            // Sin MetadataDirective S3 copia Content-Type y Content-Encoding del origen
+            s3Client.copyObject(CopyObjectRequest.builder()
+                    .sourceBucket(bucketName)
+                    .sourceKey(sourceKey)
+                    .destinationBucket(bucketName)
+                    .destinationKey(targetKey)
+                    .build());
+            return getObjectUrl(targetKey);
+        } catch (Exception e) {
+            throw new RuntimeException("Error copying S3 object " + sourceKey + " to " + targetKey, e);
+        }
+    }
+
+    /**
+     * Lee el objeto completo como texto UTF-8, descomprimiendo si viene en gzip
+     * (por Content-Encoding o, en objetos sin metadata, por la firma del archivo).
+     */
+    private String readText(String bucket, String key) throws IOException {
+        GetObjectRequest getObjectRequest = GetObjectRequest.builder()
+                .bucket(bucket)
+                .key(key)
+                .build();
+
+        try (ResponseInputStream<GetObjectResponse> object = s3Client.getObject(getObjectRequest)) {
+            byte[] bytes = object.readAllBytes();
+            if (CompressionUtils.isGzipEncoding(object.response().contentEncoding()) || CompressionUtils.isGzip(bytes)) {
+                bytes = CompressionUtils.gunzip(bytes);
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.biotrack.backend.services.genomics;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+
+/**
+ * Descompresión paralela de archivos BGZF (bgzip), el formato de los VCF comprimidos.
+ *
+ * BGZF es una concatenación de miembros gzip independientes de hasta 64 KB, cada uno con su tamaño
+ * en el campo extra "BC". Los bloques comprimidos se leen en orden desde el stream y se inflan en
+ * un pool de hilos; se entregan en el mismo orden, con un máximo de bloques en vuelo para que el
+ * heap no crezca con el tamaño del archivo.
+ */
+public class BgzfInputStream extends InputStream {
+
+    private static final int HEADER_LENGTH = 18;
+    private static final int FOOTER_LENGTH = 8;
+    private static final byte[] EMPTY = new byte[0];
+
+    private final InputStream source;
+    private final ExecutorService executor;
+    private final int maxInFlight;
+    private final ArrayDeque<Future<byte[]>> inFlight = new ArrayDeque<>();
+    private final byte[] header = new byte[HEADER_LENGTH];
+
+    private byte[] current = EMPTY;
+    private int position;
+    private boolean sourceExhausted;
+    private boolean closed;
+
+    public BgzfInputStream(InputStream source, int threads) {
+        this.source = source;
+        int workers = Math.max(1, threads);
+        this.executor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "bgzf-inflate");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.maxInFlight = workers * 4;
+    }
+
+    /**
+     * Stream descomprimido según el formato detectado: BGZF en paralelo, gzip normal en un hilo o texto plano
+     */
+    public static InputStream decompress(InputStream input, int threads) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(input, 1 << 16);
+        buffered.mark(HEADER_LENGTH);
+        byte[] head = buffered.readNBytes(HEADER_LENGTH);
+        buffered.reset();
+
+        if (isBgzfHeader(head, head.length)) {
+            return new BgzfInputStream(buffered, threads);
+        }
+        if (head.length >= 2 && (head[0] & 0xff) == 0x1f && (head[1] & 0xff) == 0x8b) {
+            return new GZIPInputStream(buffered, 1 << 16);
+        }
+        return buffered;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!fill()) {
+            return -1;
+        }
+        return current[position++] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        if (!fill()) {
+            return -1;
+        }
+        int count = Math.min(length, current.length - position);
+        System.arraycopy(current, position, buffer, offset, count);
+        position += count;
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        executor.shutdownNow();
+        source.close();
+    }
+
+    private boolean fill() throws IOException {
+        while (position == current.length) {
+            while (!sourceExhausted && inFlight.size() < maxInFlight) {
+                byte[] block = readBlock();
+                if (block == null) {
+                    sourceExhausted = true;
+                } else {
+                    inFlight.add(executor.submit(() -> inflate(block)));
+                }
+            }
+            Future<byte[]> next = inFlight.poll();
+            if (next == null) {
+                return false;
+            }
+            current = await(next);
+            position = 0;
+        }
+        return true;
+    }
+
+    /**
+     * Bloque comprimido completo (cabecera incluida), o null al terminar el stream
+     */
+    private byte[] readBlock() throws IOException {
+        int read = source.readNBytes(header, 0, HEADER_LENGTH);
+        if (read == 0) {
+            return null;
+        }
+        if (read < HEADER_LENGTH || !isBgzfHeader(header, read)) {
+            throw new IOException("Corrupt BGZF block header");
+        }
+        int blockSize = (header[16] & 0xff | (header[17] & 0xff) << 8) + 1;
+        byte[] block = new byte[blockSize];
+        System.arraycopy(header, 0, block, 0, HEADER_LENGTH);
+        if (source.readNBytes(block, HEADER_LENGTH, blockSize - HEADER_LENGTH) < blockSize - HEADER_LENGTH) {
+            throw new EOFException("Truncated BGZF block");
+        }
+        return block;
+    }
+
+    private static byte[] inflate(byte[] block) throws IOException {
+        int footer = block.length - FOOTER_LENGTH;
+        int expectedCrc = readInt(block, footer);
+        int uncompressedSize = readInt(block, footer + 4);
+        byte[] output = new byte[uncompressedSize];
+        if (uncompressedSize == 0) {
+            return output;
+        }
+
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(block, HEADER_LENGTH, footer - HEADER_LENGTH);
+            int inflated = inflater.inflate(output);
+            if (inflated != uncompressedSize) {
+                throw new IOException("BGZF block inflated to " + inflated + " bytes, expected " + uncompressedSize);
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt BGZF block: " + e.getMessage(), e);
+        } finally {
+            inflater.end();
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(output);
+        if ((int) crc.getValue() != expectedCrc) {
+            throw new IOException("BGZF block CRC mismatch");
+        }
+        return output;
+    }
+
+    private static byte[] await(Future<byte[]> block) throws IOException {
+        try {
+            return block.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while inflating BGZF block", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new IOException("Error inflating BGZF block", e.getCause());
+        }
+    }
+
+    /**
+     * gzip con FEXTRA cuyo primer subcampo es BC de 2 bytes (así lo escriben bgzip y htslib)
+     */
+    private static boolean isBgzfHeader(byte[] head, int length) {
+        return length >= HEADER_LENGTH
+                && (head[0] & 0xff) == 0x1f && (head[1] & 0xff) == 0x8b
+                && head[2] == 8 && (head[3] & 4) != 0
+                && (head[10] & 0xff | (head[11] & 0xff) << 8) == 6
+                && head[12] == 'B' && head[13] == 'C'
+                && (head[14] & 0xff | (head[15] & 0xff) << 8) == 2;
+    }
+
+    private static int readInt(byte[] data, int offset) {
+        return data[offset] & 0xff
+                | (data[offset + 1] & 0xff) << 8
+                | (data[offset + 2] & 0xff) << 16
+                | (data[offset + 3] & 0xff) << 24;
+    }
+}
@@ -0,0 +1,513 @@
+package com.biotrack.backend.services.genomics;
+
+import com.biotrack.backend.models.enums.Relevance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UTFDataFormatException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Copia columnar de las mutaciones para consultas sobre toda la cohorte.
+ *
+ * Cada fila ocupa 13 bytes repartidos en columnas: muestra y gen (int), cromosoma y tipo (short) y
+ * relevancia (byte). Los textos se guardan una sola vez en diccionarios append-only y las columnas
+ * llevan su código. Las filas van en segmentos de tamaño fijo mapeados en memoria, fuera del heap:
+ *
+ * [magic int][capacidad int][filas publicadas int][reservado int][muestras][genes][cromosomas][tipos][relevancias]
+ *
+ * Solo se agregan filas. Un append escribe primero las filas, luego fuerza los diccionarios a disco y
+ * al final publica el nuevo total en el encabezado, así una escritura cortada no deja filas a medias
+ * visibles. Las consultas toman una foto de los totales y recorren cada columna con un ciclo primitivo
+ * sin bloquear a los escritores. Las muestras borradas se marcan en un archivo aparte y se saltan.
+ */
+public class ColumnarVariantStore implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ColumnarVariantStore.class);
+
+    private static final int MAGIC = 0x42545643; // "BTVC"
+    private static final int HEADER_BYTES = 16;
+    private static final int ROWS_OFFSET = 8;
+    private static final int BYTES_PER_ROW = 4 + 4 + 2 + 2 + 1;
+    private static final int MAX_SHORT_CODES = Short.MAX_VALUE;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".col";
+    private static final String REMOVED_FILE = "removed-samples.dat";
+
+    public record GeneCount(String gene, long variants, int carriers) {}
+
+    public record Carriers(long variants, List<UUID> sampleIds) {}
+
+    private final Path directory;
+    private final int segmentRows;
+    private final Dictionary samples;
+    private final Dictionary genes;
+    private final Dictionary chromosomes;
+    private final Dictionary types;
+    private final List<Segment> segments = new ArrayList<>();
+    private final BitSet removed = new BitSet();
+    private final FileChannel removedFile;
+
+    private ColumnarVariantStore(Path directory, int segmentRows) throws IOException {
+        this.directory = directory;
+        this.segmentRows = segmentRows;
+        Files.createDirectories(directory);
+        this.samples = new Dictionary(directory.resolve("dict-samples.dat"));
+        this.genes = new Dictionary(directory.resolve("dict-genes.dat"));
+        this.chromosomes = new Dictionary(directory.resolve("dict-chromosomes.dat"));
+        this.types = new Dictionary(directory.resolve("dict-types.dat"));
+        this.removedFile = openRemoved(directory.resolve(REMOVED_FILE));
+        loadSegments();
+    }
+
+    public static ColumnarVariantStore open(Path directory, int segmentRows) throws IOException {
+        if (segmentRows <= 0) {
+            throw new IllegalArgumentException("segmentRows must be positive");
+        }
+        return new ColumnarVariantStore(directory, segmentRows);
+    }
+
+    /**
+     * Agrega las filas de una ingesta ya confirmada en Postgres; regresa cuántas se agregaron
+     */
+    public synchronized long append(VariantStaging staging) throws IOException {
+        if (staging.rows() == 0) {
+            return 0;
+        }
+        Segment active = activeSegment();
+        int[] position = {active.published};
+        Segment[] current = {active};
+        try {
+            staging.forEach((sampleId, gene, chromosome, type, relevance) -> {
+                if (position[0] == current[0].capacity) {
+                    publish(current[0], position[0]);
+                    current[0] = newSegment();
+                    position[0] = 0;
+                }
+                current[0].write(position[0]++,
+                        samples.encode(sampleId.toString()),
+                        genes.encode(gene),
+                        shortCode(chromosomes.encode(chromosome), "chromosome"),
+                        shortCode(types.encode(type), "type"),
+                        relevance == null ? -1 : (byte) relevance.ordinal());
+            });
+            publish(current[0], position[0]);
+        } catch (IOException | RuntimeException e) {
+            // Lo escrito después del último total publicado se ignora y se sobrescribe en el siguiente append
+            logger.error("Variant store append failed; unpublished rows discarded: {}", e.getMessage());
+            throw e;
+        }
+        return staging.rows();
+    }
+
+    /**
+     * Marca las muestras como borradas; sus filas dejan de aparecer en las consultas
+     */
+    public synchronized void removeSamples(Collection<UUID> sampleIds) throws IOException {
+        ByteBuffer codes = ByteBuffer.allocate(sampleIds.size() * 4);
+        for (UUID sampleId : sampleIds) {
+            int code = samples.find(sampleId.toString());
+            if (code >= 0 && !removed.get(code)) {
+                removed.set(code);
+                codes.putInt(code);
+            }
+        }
+        codes.flip();
+        if (!codes.hasRemaining()) {
+            return;
+        }
+        while (codes.hasRemaining()) {
+            removedFile.write(codes);
+        }
+        removedFile.force(false);
+    }
+
+    /**
+     * Muestras con al menos una variante en el gen con relevancia mínima minRelevance
+     */
+    public Carriers carriers(String gene, Relevance minRelevance) {
+        int geneCode = genes.find(gene);
+        if (geneCode < 0) {
+            return new Carriers(0, List.of());
+        }
+        Snapshot snapshot = snapshot();
+        byte min = (byte) minRelevance.ordinal();
+        BitSet carriers = new BitSet();
+        long variants = 0;
+
+        for (int s = 0; s < snapshot.segments.length; s++) {
+            Segment segment = snapshot.segments[s];
+            int rows = snapshot.rows[s];
+            IntBuffer geneColumn = segment.genes;
+            ByteBuffer relevanceColumn = segment.relevances;
+            IntBuffer sampleColumn = segment.samples;
+            for (int i = 0; i < rows; i++) {
+                if (geneColumn.get(i) == geneCode && relevanceColumn.get(i) >= min) {
+                    int sample = sampleColumn.get(i);
+                    if (!snapshot.removed.get(sample)) {
+                        carriers.set(sample);
+                        variants++;
+                    }
+                }
+            }
+        }
+
+        List<UUID> sampleIds = new ArrayList<>(carriers.cardinality());
+        for (int code = carriers.nextSetBit(0); code >= 0; code = carriers.nextSetBit(code + 1)) {
+            sampleIds.add(UUID.fromString(samples.decode(code)));
+        }
+        return new Carriers(variants, sampleIds);
+    }
+
+    /**
+     * Variantes y portadores por gen con relevancia mínima, opcionalmente en un solo cromosoma;
+     * ordenado por portadores y luego variantes, de mayor a menor
+     */
+    public List<GeneCount> countByGene(Relevance minRelevance, String chromosome, int limit) {
+        int chromosomeCode = -1;
+        if (chromosome != null) {
+            chromosomeCode = chromosomes.find(chromosome);
+            if (chromosomeCode < 0) {
+                return List.of();
+            }
+        }
+        Snapshot snapshot = snapshot();
+        byte min = (byte) minRelevance.ordinal();
+        long[] variants = new long[snapshot.genes];
+        BitSet[] carriers = new BitSet[snapshot.genes];
+
+        for (int s = 0; s < snapshot.segments.length; s++) {
+            Segment segment = snapshot.segments[s];
+            int rows = snapshot.rows[s];
+            IntBuffer geneColumn = segment.genes;
+            IntBuffer sampleColumn = segment.samples;
+            ShortBuffer chromosomeColumn = segment.chromosomes;
+            ByteBuffer relevanceColumn = segment.relevances;
+            for (int i = 0; i < rows; i++) {
+                if (relevanceColumn.get(i) < min || (chromosomeCode >= 0 && chromosomeColumn.get(i) != chromosomeCode)) {
+                    continue;
+                }
+                int sample = sampleColumn.get(i);
+                if (snapshot.removed.get(sample)) {
+                    continue;
+                }
+                int gene = geneColumn.get(i);
+                variants[gene]++;
+                BitSet geneCarriers = carriers[gene];
+                if (geneCarriers == null) {
+                    geneCarriers = carriers[gene] = new BitSet();
+                }
+                geneCarriers.set(sample);
+            }
+        }
+
+        List<GeneCount> counts = new ArrayList<>();
+        for (int gene = 0; gene < variants.length; gene++) {
+            if (variants[gene] > 0) {
+                counts.add(new GeneCount(genes.decode(gene), variants[gene], carriers[gene].cardinality()));
+            }
+        }
+        counts.sort(Comparator.comparingInt(GeneCount::carriers)
+                .thenComparingLong(GeneCount::variants)
+                .reversed()
+                .thenComparing(GeneCount::gene));
+        return counts.size() > limit ? new ArrayList<>(counts.subList(0, limit)) : counts;
+    }
+
+    /**
+     * Filas publicadas, incluidas las de muestras borradas
+     */
+    public synchronized long rowCount() {
+        long rows = 0;
+        for (Segment segment : segments) {
+            rows += segment.published;
+        }
+        return rows;
+    }
+
+    public synchronized int sampleCount() {
+        return samples.size() - removed.cardinality();
+    }
+
+    public synchronized int geneCount() {
+        return genes.size();
+    }
+
+    public synchronized int segmentCount() {
+        return segments.size();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        samples.close();
+        genes.close();
+        chromosomes.close();
+        types.close();
+        removedFile.close();
+    }
+
+    private synchronized Snapshot snapshot() {
+        Segment[] current = segments.toArray(new Segment[0]);
+        int[] rows = new int[current.length];
+        for (int i = 0; i < current.length; i++) {
+            rows[i] = current[i].published;
+        }
+        return new Snapshot(current, rows, (BitSet) removed.clone(), genes.size());
+    }
+
+    private Segment activeSegment() throws IOException {
+        if (segments.isEmpty()) {
+            return newSegment();
+        }
+        Segment last = segments.get(segments.size() - 1);
+        return last.published < last.capacity ? last : newSegment();
+    }
+
+    private Segment newSegment() throws IOException {
+        Segment segment = Segment.create(directory.resolve(segmentName(segments.size())), segmentRows);
+        segments.add(segment);
+        return segment;
+    }
+
+    /**
+     * Los códigos nuevos tienen que estar en disco antes de que una fila publicada los use
+     */
+    private void publish(Segment segment, int rows) throws IOException {
+        samples.flush();
+        genes.flush();
+        chromosomes.flush();
+        types.flush();
+        segment.publish(rows);
+    }
+
+    private void loadSegments() throws IOException {
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing
+                    .filter(path -> path.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                    .sorted()
+                    .toList();
+        }
+        for (int i = 0; i < files.size(); i++) {
+            if (!files.get(i).equals(directory.resolve(segmentName(i)))) {
+                throw new IOException("Variant store segment missing before " + files.get(i));
+            }
+            segments.add(Segment.open(files.get(i)));
+        }
+        if (!files.isEmpty()) {
+            logger.info("Variant store opened at {}: {} rows in {} segments, {} genes, {} samples",
+                    directory, rowCount(), segments.size(), genes.size(), samples.size());
+        }
+    }
+
+    private FileChannel openRemoved(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        long complete = channel.size() / 4 * 4;
+        ByteBuffer codes = ByteBuffer.allocate((int) complete);
+        while (codes.hasRemaining() && channel.read(codes, codes.position()) > 0) {
+            // lee todo el archivo
+        }
+        codes.flip();
+        while (codes.remaining() >= 4) {
+            removed.set(codes.getInt());
+        }
+        // Un int cortado al final es de una escritura incompleta
+        channel.truncate(complete);
+        channel.position(complete);
+        return channel;
+    }
+
+    private static short shortCode(int code, String column) {
+        if (code > MAX_SHORT_CODES) {
+            throw new IllegalStateException("Too many distinct " + column + " values in variant store");
+        }
+        return (short) code;
+    }
+
+    private static String segmentName(int index) {
+        return SEGMENT_PREFIX + String.format("%06d", index) + SEGMENT_SUFFIX;
+    }
+
+    private record Snapshot(Segment[] segments, int[] rows, BitSet removed, int genes) {}
+
+    /**
+     * Un segmento mapeado con sus columnas como vistas sobre el mismo buffer
+     */
+    private static final class Segment {
+        private final MappedByteBuffer buffer;
+        private final int capacity;
+        private final IntBuffer samples;
+        private final IntBuffer genes;
+        private final ShortBuffer chromosomes;
+        private final ShortBuffer types;
+        private final ByteBuffer relevances;
+        private volatile int published;
+
+        // Columnas en little-endian, el orden nativo de x86 y ARM: las lecturas no invierten bytes
+        private Segment(MappedByteBuffer buffer, int capacity, int published) {
+            this.buffer = buffer;
+            this.capacity = capacity;
+            this.published = published;
+            int offset = HEADER_BYTES;
+            this.samples = buffer.slice(offset, capacity * 4).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+            offset += capacity * 4;
+            this.genes = buffer.slice(offset, capacity * 4).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+            offset += capacity * 4;
+            this.chromosomes = buffer.slice(offset, capacity * 2).order(ByteOrder.LITTLE_ENDIAN).asShortBuffer();
+            offset += capacity * 2;
+            this.types = buffer.slice(offset, capacity * 2).order(ByteOrder.LITTLE_ENDIAN).asShortBuffer();
+            offset += capacity * 2;
+            this.relevances = buffer.slice(offset, capacity);
+        }
+
+        private static Segment create(Path file, int capacity) throws IOException {
+            MappedByteBuffer buffer = map(file, HEADER_BYTES + (long) capacity * BYTES_PER_ROW);
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, capacity);
+            buffer.putInt(ROWS_OFFSET, 0);
+            buffer.force();
+            return new Segment(buffer, capacity, 0);
+        }
+
+        private static Segment open(Path file) throws IOException {
+            long size = Files.size(file);
+            if (size < HEADER_BYTES) {
+                throw new IOException("Corrupt variant store segment " + file);
+            }
+            MappedByteBuffer buffer = map(file, size);
+            int capacity = buffer.getInt(4);
+            int published = buffer.getInt(ROWS_OFFSET);
+            if (buffer.getInt(0) != MAGIC || size != HEADER_BYTES + (long) capacity * BYTES_PER_ROW
+                    || published < 0 || published > capacity) {
+                throw new IOException("Corrupt variant store segment " + file);
+            }
+            return new Segment(buffer, capacity, published);
+        }
+
+        private static MappedByteBuffer map(Path file, long size) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE)) {
+                // El mapeo sigue válido después de cerrar el canal
+                return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            }
+        }
+
+        private void write(int row, int sample, int gene, short chromosome, short type, byte relevance) {
+            samples.put(row, sample);
+            genes.put(row, gene);
+            chromosomes.put(row, chromosome);
+            types.put(row, type);
+            relevances.put(row, relevance);
+        }
+
+        private void publish(int rows) {
+            buffer.force();
+            buffer.putInt(ROWS_OFFSET, rows);
+            buffer.force(ROWS_OFFSET, 4);
+            published = rows;
+        }
+    }
+
+    /**
+     * Diccionario texto → código denso, persistido como una lista append-only de writeUTF
+     */
+    private static final class Dictionary implements Closeable {
+        private final List<String> values = new ArrayList<>();
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final FileOutputStream file;
+        private final DataOutputStream output;
+        private boolean dirty;
+
+        private Dictionary(Path path) throws IOException {
+            long valid = 0;
+            if (Files.exists(path)) {
+                byte[] content = Files.readAllBytes(path);
+                DataInputStream input = new DataInputStream(new ByteArrayInputStream(content));
+                try {
+                    while (input.available() > 0) {
+                        String value = input.readUTF();
+                        codes.put(value, values.size());
+                        values.add(value);
+                        valid = content.length - input.available();
+                    }
+                } catch (EOFException | UTFDataFormatException e) {
+                    // Cola de una escritura cortada: esos códigos nunca se publicaron en un segmento
+                    logger.warn("Truncating incomplete variant store dictionary {}", path);
+                }
+            }
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                channel.truncate(valid);
+            }
+            this.file = new FileOutputStream(path.toFile(), true);
+            this.output = new DataOutputStream(new BufferedOutputStream(file));
+        }
+
+        private synchronized int encode(String value) throws IOException {
+            Integer code = codes.get(value);
+            if (code != null) {
+                return code;
+            }
+            int next = values.size();
+            values.add(value);
+            codes.put(value, next);
+            output.writeUTF(value);
+            dirty = true;
+            return next;
+        }
+
+        /**
+         * Código del valor, o -1 si nunca se guardó
+         */
+        private synchronized int find(String value) {
+            Integer code = codes.get(value);
+            return code == null ? -1 : code;
+        }
+
+        private synchronized String decode(int code) {
+            return values.get(code);
+        }
+
+        private synchronized int size() {
+            return values.size();
+        }
+
+        private void flush() throws IOException {
+            if (dirty) {
+                output.flush();
+                file.getFD().sync();
+                dirty = false;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            output.close();
+        }
+    }
+}
@@ -0,0 +1,356 @@
+package com.biotrack.backend.services.genomics;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Estadísticas de control de calidad de un FASTQ calculadas en una sola pasada.
+ *
+ * Los registros se recorren sobre un buffer de bytes reutilizable, igual que VcfReader: ninguna línea
+ * se convierte en String. Todo se acumula en arreglos primitivos de tamaño fijo (bases por letra,
+ * calidad por posición, histograma de calidades y de longitudes), así la memoria no depende del
+ * tamaño del archivo. Las lecturas duplicadas se estiman con un HyperLogLog de 2^14 registros
+ * (~0.8% de error relativo) sobre un hash de la secuencia completa.
+ */
+public class FastqQcCollector {
+
+    // Codificación Phred+33 (Sanger / Illumina 1.8+)
+    public static final int PHRED_OFFSET = 33;
+    private static final int MAX_QUALITY = 126 - PHRED_OFFSET;
+
+    private static final int HLL_BITS = 14;
+    private static final int HLL_REGISTERS = 1 << HLL_BITS;
+    private static final VarHandle LONG_VIEW = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final int maxTrackedLength;
+    // Suma de calidades por posición; las posiciones más allá de maxTrackedLength no se guardan
+    private final long[] qualitySumByPosition;
+    // lengthHistogram[maxTrackedLength + 1] junta las lecturas más largas
+    private final long[] lengthHistogram;
+    private final long[] baseCounts = new long[256];
+    private final long[] qualityHistogram = new long[MAX_QUALITY + 1];
+    private final byte[] registers = new byte[HLL_REGISTERS];
+
+    private long reads;
+    private long bases;
+    private int minLength = Integer.MAX_VALUE;
+    private int maxLength;
+
+    // Estado del lector
+    private byte[] buffer;
+    private int lineStart;
+    private int lineEnd;
+    private int nextStart;
+    private int dataEnd;
+    private boolean eof;
+    private long lineNumber;
+    private InputStream input;
+
+    public FastqQcCollector(int maxTrackedLength) {
+        this.maxTrackedLength = Math.max(1, maxTrackedLength);
+        this.qualitySumByPosition = new long[this.maxTrackedLength];
+        this.lengthHistogram = new long[this.maxTrackedLength + 2];
+    }
+
+    /**
+     * Recorre todo el stream (ya descomprimido). Se puede llamar varias veces para sumar archivos
+     */
+    public void consume(InputStream in) throws IOException {
+        consume(in, 1 << 20);
+    }
+
+    public void consume(InputStream in, int bufferSize) throws IOException {
+        input = in;
+        buffer = new byte[bufferSize];
+        lineStart = 0;
+        lineEnd = 0;
+        nextStart = 0;
+        dataEnd = 0;
+        eof = false;
+        lineNumber = 0;
+        try {
+            while (nextLine()) {
+                if (lineEnd == lineStart) {
+                    // Líneas vacías al final del archivo
+                    continue;
+                }
+                if (buffer[lineStart] != '@') {
+                    throw malformed("expected '@' at the start of the record header");
+                }
+                if (!nextLine()) {
+                    throw malformed("missing sequence line");
+                }
+                int length = sequence(lineStart, lineEnd);
+                if (!nextLine() || lineEnd == lineStart || buffer[lineStart] != '+') {
+                    throw malformed("expected '+' separator line");
+                }
+                if (!nextLine()) {
+                    throw malformed("missing quality line");
+                }
+                if (lineEnd - lineStart != length) {
+                    throw malformed("quality length " + (lineEnd - lineStart) + " does not match sequence length " + length);
+                }
+                quality(lineStart, lineEnd);
+            }
+        } finally {
+            buffer = null;
+            input = null;
+        }
+    }
+
+    /**
+     * Suma las estadísticas de otro colector (p. ej. R2 de una corrida pareada leída en otro hilo)
+     */
+    public void merge(FastqQcCollector other) {
+        if (other.maxTrackedLength != maxTrackedLength) {
+            throw new IllegalArgumentException("Collectors track different read lengths");
+        }
+        reads += other.reads;
+        bases += other.bases;
+        minLength = Math.min(minLength, other.minLength);
+        maxLength = Math.max(maxLength, other.maxLength);
+        add(qualitySumByPosition, other.qualitySumByPosition);
+        add(lengthHistogram, other.lengthHistogram);
+        add(baseCounts, other.baseCounts);
+        add(qualityHistogram, other.qualityHistogram);
+        for (int i = 0; i < HLL_REGISTERS; i++) {
+            registers[i] = (byte) Math.max(registers[i], other.registers[i]);
+        }
+    }
+
+    public long reads() {
+        return reads;
+    }
+
+    public long bases() {
+        return bases;
+    }
+
+    public int minLength() {
+        return reads == 0 ? 0 : minLength;
+    }
+
+    public int maxLength() {
+        return maxLength;
+    }
+
+    public double meanLength() {
+        return reads == 0 ? 0 : (double) bases / reads;
+    }
+
+    /**
+     * Fracción de G+C sobre las bases definidas (sin contar N)
+     */
+    public double gcFraction() {
+        long gc = count('G') + count('C');
+        long called = gc + count('A') + count('T');
+        return called == 0 ? 0 : (double) gc / called;
+    }
+
+    public double nFraction() {
+        return bases == 0 ? 0 : (double) count('N') / bases;
+    }
+
+    public double meanQuality() {
+        long sum = 0;
+        for (int q = 0; q < qualityHistogram.length; q++) {
+            sum += q * qualityHistogram[q];
+        }
+        return bases == 0 ? 0 : (double) sum / bases;
+    }
+
+    /**
+     * Fracción de bases con calidad mayor o igual a minQuality (Q30 = 30)
+     */
+    public double fractionAtLeast(int minQuality) {
+        long atLeast = 0;
+        for (int q = Math.max(0, minQuality); q < qualityHistogram.length; q++) {
+            atLeast += qualityHistogram[q];
+        }
+        return bases == 0 ? 0 : (double) atLeast / bases;
+    }
+
+    /**
+     * Calidad media en cada posición de la lectura, hasta la lectura más larga (o maxTrackedLength)
+     */
+    public double[] meanQualityByPosition() {
+        int positions = Math.min(maxLength, maxTrackedLength);
+        double[] means = new double[positions];
+        // Lecturas que llegan a la posición i: las de longitud > i
+        long covering = reads;
+        for (int i = 0; i < positions; i++) {
+            covering -= lengthHistogram[i];
+            means[i] = covering == 0 ? 0 : (double) qualitySumByPosition[i] / covering;
+        }
+        return means;
+    }
+
+    /**
+     * Lecturas por longitud; el último índice (maxTrackedLength + 1) junta las más largas
+     */
+    public long[] lengthHistogram() {
+        return Arrays.copyOf(lengthHistogram, lengthHistogram.length);
+    }
+
+    public int maxTrackedLength() {
+        return maxTrackedLength;
+    }
+
+    /**
+     * Secuencias distintas estimadas por HyperLogLog
+     */
+    public long estimatedDistinctReads() {
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double m = HLL_REGISTERS;
+        double estimate = 0.7213 / (1 + 1.079 / m) * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            // Rango bajo: conteo lineal
+            estimate = m * Math.log(m / zeros);
+        }
+        return Math.min(reads, Math.round(estimate));
+    }
+
+    /**
+     * Fracción de lecturas cuya secuencia ya apareció antes en el archivo
+     */
+    public double duplicateFraction() {
+        return reads == 0 ? 0 : Math.max(0, 1 - (double) estimatedDistinctReads() / reads);
+    }
+
+    private long count(char base) {
+        return baseCounts[base] + baseCounts[Character.toLowerCase(base)];
+    }
+
+    private int sequence(int start, int end) {
+        int length = end - start;
+        long[] counts = baseCounts;
+        byte[] data = buffer;
+        for (int i = start; i < end; i++) {
+            counts[data[i] & 0xff]++;
+        }
+        reads++;
+        bases += length;
+        minLength = Math.min(minLength, length);
+        maxLength = Math.max(maxLength, length);
+        lengthHistogram[Math.min(length, maxTrackedLength + 1)]++;
+
+        long hash = hash(data, start, end);
+        int index = (int) (hash >>> (64 - HLL_BITS));
+        // El bit centinela limita el rango a 64 - HLL_BITS + 1
+        int rank = Long.numberOfLeadingZeros((hash << HLL_BITS) | (1L << (HLL_BITS - 1))) + 1;
+        if (rank > registers[index]) {
+            registers[index] = (byte) rank;
+        }
+        return length;
+    }
+
+    private void quality(int start, int end) throws IOException {
+        long[] histogram = qualityHistogram;
+        long[] byPosition = qualitySumByPosition;
+        byte[] data = buffer;
+        int tracked = Math.min(end, start + maxTrackedLength);
+        for (int i = start; i < end; i++) {
+            int q = data[i] - PHRED_OFFSET;
+            if (q < 0 || q > MAX_QUALITY) {
+                throw malformed("invalid quality character");
+            }
+            histogram[q]++;
+            if (i < tracked) {
+                byPosition[i - start] += q;
+            }
+        }
+    }
+
+    /**
+     * Hash de 64 bits leyendo 8 bytes a la vez sobre el buffer, con la mezcla final de MurmurHash3
+     */
+    private static long hash(byte[] data, int start, int end) {
+        long h = 0x9E3779B97F4A7C15L ^ (end - start);
+        int i = start;
+        for (; i + 8 <= end; i += 8) {
+            h = (h ^ (long) LONG_VIEW.get(data, i)) * 0xC2B2AE3D27D4EB4FL;
+            h = Long.rotateLeft(h, 31);
+        }
+        long tail = 0;
+        for (int shift = 0; i < end; i++, shift += 8) {
+            tail |= (data[i] & 0xffL) << shift;
+        }
+        h = (h ^ tail) * 0x165667B19E3779F9L;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private IOException malformed(String reason) {
+        return new IOException("Malformed FASTQ record at line " + lineNumber + ": " + reason);
+    }
+
+    private boolean nextLine() throws IOException {
+        lineStart = nextStart;
+        int scan = nextStart;
+        while (true) {
+            for (int i = scan; i < dataEnd; i++) {
+                if (buffer[i] == '\n') {
+                    lineEnd = i > lineStart && buffer[i - 1] == '\r' ? i - 1 : i;
+                    nextStart = i + 1;
+                    lineNumber++;
+                    return true;
+                }
+            }
+            if (eof) {
+                // Última línea sin salto de línea final
+                if (lineStart < dataEnd) {
+                    lineEnd = dataEnd;
+                    nextStart = dataEnd;
+                    lineNumber++;
+                    return true;
+                }
+                return false;
+            }
+            scan = refill();
+        }
+    }
+
+    /**
+     * Mueve la línea incompleta al inicio del buffer (o lo agranda) y lee más; regresa dónde seguir buscando
+     */
+    private int refill() throws IOException {
+        int pending = dataEnd - lineStart;
+        if (lineStart > 0) {
+            System.arraycopy(buffer, lineStart, buffer, 0, pending);
+        } else if (pending == buffer.length) {
+            // Lectura larga (nanopore) que no cabe en el buffer
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+        lineStart = 0;
+        nextStart = 0;
+        dataEnd = pending;
+        int read = input.read(buffer, dataEnd, buffer.length - dataEnd);
+        if (read < 0) {
+            eof = true;
+        } else {
+            dataEnd += read;
+        }
+        return pending;
+    }
+
+    private static void add(long[] target, long[] source) {
+        for (int i = 0; i < target.length; i++) {
+            target[i] += source[i];
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package com.biotrack.backend.services.genomics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Diccionario inmutable de símbolos de genes y sus alias (estilo HGNC) para resolver búsquedas.
+ *
+ * Las entradas (símbolo o alias → símbolo aprobado) van en un arreglo ordenado que se recorre como
+ * un trie: los prefijos son un rango por búsqueda binaria y la búsqueda tolerante a errores calcula
+ * la distancia de edición fila por fila sobre el prefijo común con la entrada anterior, saltando
+ * todo el rango de un prefijo en cuanto ninguna continuación puede quedar dentro del máximo.
+ */
+public class GeneDictionary {
+
+    public record Match(String symbol, int distance) {}
+
+    private static final GeneDictionary EMPTY = new GeneDictionary(new String[0], new String[0]);
+
+    // keys[i] → targets[i]; ordenado por key y, para una misma key, el símbolo aprobado igual a la key primero
+    private final String[] keys;
+    private final String[] targets;
+    private final int maxKeyLength;
+
+    private GeneDictionary(String[] keys, String[] targets) {
+        this.keys = keys;
+        this.targets = targets;
+        int max = 0;
+        for (String key : keys) {
+            max = Math.max(max, key.length());
+        }
+        this.maxKeyLength = max;
+    }
+
+    public static GeneDictionary empty() {
+        return EMPTY;
+    }
+
+    /**
+     * @param symbols símbolos aprobados
+     * @param aliases alias o símbolo anterior → símbolos aprobados a los que puede referirse
+     */
+    public static GeneDictionary build(Collection<String> symbols, Map<String, ? extends Collection<String>> aliases) {
+        List<String[]> entries = new ArrayList<>(symbols.size() + aliases.size());
+        Set<String> seen = new LinkedHashSet<>();
+        for (String symbol : symbols) {
+            String key = normalize(symbol);
+            if (!key.isEmpty() && seen.add(key + '\t' + key)) {
+                entries.add(new String[]{key, key});
+            }
+        }
+        aliases.forEach((alias, targets) -> {
+            String key = normalize(alias);
+            for (String target : targets) {
+                String symbol = normalize(target);
+                if (!key.isEmpty() && !symbol.isEmpty() && seen.add(key + '\t' + symbol)) {
+                    entries.add(new String[]{key, symbol});
+                }
+            }
+        });
+        entries.sort(Comparator.<String[], String>comparing(entry -> entry[0])
+                .thenComparing(entry -> !entry[0].equals(entry[1]))
+                .thenComparing(entry -> entry[1]));
+
+        String[] keys = new String[entries.size()];
+        String[] targets = new String[entries.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = entries.get(i)[0];
+            targets[i] = entries.get(i)[1];
+        }
+        return new GeneDictionary(keys, targets);
+    }
+
+    /**
+     * Forma con la que se guardan y comparan los símbolos: sin espacios alrededor y en mayúsculas
+     */
+    public static String normalize(String gene) {
+        return gene == null ? "" : gene.trim().toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Copia con los símbolos que falten, o este mismo diccionario si ya estaban todos
+     */
+    public GeneDictionary withSymbols(Collection<String> symbols) {
+        List<String> missing = new ArrayList<>();
+        for (String symbol : symbols) {
+            String key = normalize(symbol);
+            if (!key.isEmpty() && !isSymbol(key)) {
+                missing.add(key);
+            }
+        }
+        if (missing.isEmpty()) {
+            return this;
+        }
+        Set<String> allSymbols = new LinkedHashSet<>(missing);
+        Map<String, List<String>> aliases = new HashMap<>();
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i].equals(targets[i])) {
+                allSymbols.add(keys[i]);
+            } else {
+                aliases.computeIfAbsent(keys[i], key -> new ArrayList<>()).add(targets[i]);
+            }
+        }
+        return build(allSymbols, aliases);
+    }
+
+    public int size() {
+        return keys.length;
+    }
+
+    public boolean isSymbol(String normalized) {
+        int index = lowerBound(normalized);
+        return index < keys.length && keys[index].equals(normalized) && targets[index].equals(normalized);
+    }
+
+    /**
+     * Símbolos aprobados para un símbolo o alias exacto (un alias puede ser ambiguo)
+     */
+    public List<String> exact(String normalized) {
+        Set<String> symbols = new LinkedHashSet<>();
+        for (int i = lowerBound(normalized); i < keys.length && keys[i].equals(normalized); i++) {
+            symbols.add(targets[i]);
+        }
+        return List.copyOf(symbols);
+    }
+
+    /**
+     * Símbolos cuyo símbolo o alias empieza con el prefijo, en orden alfabético de la entrada
+     */
+    public List<String> withPrefix(String normalized, int limit) {
+        Set<String> symbols = new LinkedHashSet<>();
+        int end = upperBound(normalized);
+        for (int i = lowerBound(normalized); i < end && symbols.size() < limit; i++) {
+            symbols.add(targets[i]);
+        }
+        return List.copyOf(symbols);
+    }
+
+    /**
+     * Símbolos a distancia de edición ≤ maxEdits (Damerau restringida: inserción, borrado, sustitución
+     * o transposición de dos letras contiguas), los más cercanos primero
+     */
+    public List<Match> similar(String normalized, int maxEdits, int limit) {
+        int n = normalized.length();
+        if (n == 0 || keys.length == 0) {
+            return List.of();
+        }
+        int maxDepth = Math.min(maxKeyLength, n + maxEdits);
+        int[][] rows = new int[maxDepth + 1][n + 1];
+        for (int j = 0; j <= n; j++) {
+            rows[0][j] = Math.min(j, maxEdits + 1);
+        }
+
+        List<Match> matches = new ArrayList<>();
+        // Las filas 0..previousLength son válidas para el prefijo previousKey[0, previousLength)
+        String previousKey = "";
+        int previousLength = 0;
+        int i = 0;
+        while (i < keys.length) {
+            String key = keys[i];
+            int depth = commonPrefix(previousKey, previousLength, key);
+            int limitDepth = Math.min(key.length(), maxDepth);
+            int pruneAt = -1;
+            for (int d = depth + 1; d <= limitDepth; d++) {
+                if (fillRow(rows, d, key, normalized, maxEdits) > maxEdits) {
+                    pruneAt = d;
+                    break;
+                }
+            }
+            if (pruneAt > 0) {
+                // Ninguna entrada con este prefijo puede quedar dentro del máximo
+                i = endOfPrefix(i, key, pruneAt);
+                previousKey = key;
+                previousLength = pruneAt - 1;
+                continue;
+            }
+            if (key.length() > maxDepth) {
+                // Las entradas que siguen con este prefijo son todas más largas de lo permitido
+                i = endOfPrefix(i, key, maxDepth);
+                previousKey = key;
+                previousLength = maxDepth;
+                continue;
+            }
+            if (rows[key.length()][n] <= maxEdits) {
+                matches.add(new Match(targets[i], rows[key.length()][n]));
+            }
+            previousKey = key;
+            previousLength = key.length();
+            i++;
+        }
+
+        matches.sort(Comparator.comparingInt(Match::distance).thenComparing(Match::symbol));
+        List<Match> unique = new ArrayList<>();
+        Set<String> seen = new LinkedHashSet<>();
+        for (Match match : matches) {
+            if (seen.add(match.symbol())) {
+                unique.add(match);
+                if (unique.size() == limit) {
+                    break;
+                }
+            }
+        }
+        return unique;
+    }
+
+    /**
+     * Calcula la fila de la profundidad d y regresa su mínimo. Solo se calcula la banda |d - j| ≤ maxEdits;
+     * fuera de ella la distancia ya es mayor al máximo y se guarda maxEdits + 1
+     */
+    private static int fillRow(int[][] rows, int d, String key, String query, int maxEdits) {
+        int[] row = rows[d];
+        int[] above = rows[d - 1];
+        char c = key.charAt(d - 1);
+        int outside = maxEdits + 1;
+        int low = Math.max(1, d - maxEdits);
+        int high = Math.min(row.length - 1, d + maxEdits);
+        row[0] = Math.min(d, outside);
+        for (int j = 1; j < low; j++) {
+            row[j] = outside;
+        }
+        for (int j = high + 1; j < row.length; j++) {
+            row[j] = outside;
+        }
+        int min = row[0];
+        for (int j = low; j <= high; j++) {
+            int cost = query.charAt(j - 1) == c ? 0 : 1;
+            int value = Math.min(Math.min(row[j - 1] + 1, above[j] + 1), above[j - 1] + cost);
+            if (d > 1 && j > 1 && c == query.charAt(j - 2) && key.charAt(d - 2) == query.charAt(j - 1)) {
+                value = Math.min(value, rows[d - 2][j - 2] + 1);
+            }
+            row[j] = Math.min(value, outside);
+            min = Math.min(min, row[j]);
+        }
+        return min;
+    }
+
+    private static int commonPrefix(String previous, int previousLength, String key) {
+        int length = Math.min(previousLength, key.length());
+        int i = 0;
+        while (i < length && previous.charAt(i) == key.charAt(i)) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Primera posición después de from cuya key ya no comparte los primeros length caracteres de key
+     */
+    private int endOfPrefix(int from, String key, int length) {
+        int low = from + 1;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].length() >= length && keys[mid].regionMatches(0, key, 0, length)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int lowerBound(String value) {
+        int index = Arrays.binarySearch(keys, value);
+        if (index < 0) {
+            return -index - 1;
+        }
+        // Con keys repetidas binarySearch no garantiza la primera
+        while (index > 0 && keys[index - 1].equals(value)) {
+            index--;
+        }
+        return index;
+    }
+
+    /**
+     * Primera posición cuya key ya no empieza con el prefijo
+     */
+    private int upperBound(String prefix) {
+        int low = lowerBound(prefix);
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].startsWith(prefix)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
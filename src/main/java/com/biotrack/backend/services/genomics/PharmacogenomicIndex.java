@@ -0,0 +1,162 @@
+package com.biotrack.backend.services.genomics;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Tabla gen–fármaco (estilo CPIC) compilada en dos mapas hash: por símbolo de gen y por sustancia.
+ *
+ * Revisar un medicamento contra las variantes de un paciente es una búsqueda por sustancia seguida de
+ * una búsqueda por gen en el conjunto del paciente, sin recorrer la tabla ni llamar al modelo de lenguaje.
+ * Las sustancias se comparan sin acentos y en minúsculas; cada regla puede traer sinónimos (p. ej. el
+ * nombre en español) que apuntan a la misma regla.
+ */
+public class PharmacogenomicIndex {
+
+    public static final String ACTION_AVOID = "AVOID";
+    public static final String ACTION_ADJUST_DOSE = "ADJUST_DOSE";
+    public static final String ACTION_MONITOR = "MONITOR";
+
+    public record Guideline(String gene, String substance, String action, String affectedPhenotypes,
+                            String recommendation, String evidence) {}
+
+    private static final PharmacogenomicIndex EMPTY = new PharmacogenomicIndex(Map.of(), Map.of(), 0);
+    private static final Set<String> ACTIONS = Set.of(ACTION_AVOID, ACTION_ADJUST_DOSE, ACTION_MONITOR);
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    // Combinaciones ("paracetamol + codeína", "amlodipino/valsartán") y listas
+    private static final Pattern COMPONENT_SEPARATORS = Pattern.compile("[+,;/]");
+    private static final Pattern WORD_SEPARATORS = Pattern.compile("[\\s()]+");
+
+    private final Map<String, List<Guideline>> byGene;
+    // Nombre normalizado (canónico o sinónimo) → reglas
+    private final Map<String, List<Guideline>> bySubstance;
+    private final int size;
+
+    private PharmacogenomicIndex(Map<String, List<Guideline>> byGene, Map<String, List<Guideline>> bySubstance, int size) {
+        this.byGene = byGene;
+        this.bySubstance = bySubstance;
+        this.size = size;
+    }
+
+    public static PharmacogenomicIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Lee la tabla separada por tabuladores: gene, substances (canónico|sinónimos), action,
+     * affected_phenotypes, recommendation, evidence. Ignora líneas vacías, comentarios (#) y el encabezado
+     */
+    public static PharmacogenomicIndex parse(Reader source) throws IOException {
+        Map<String, List<Guideline>> byGene = new HashMap<>();
+        Map<String, List<Guideline>> bySubstance = new HashMap<>();
+        int size = 0;
+        BufferedReader reader = source instanceof BufferedReader buffered ? buffered : new BufferedReader(source);
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank() || line.startsWith("#") || line.startsWith("gene\t")) {
+                continue;
+            }
+            String[] columns = line.split("\t", -1);
+            if (columns.length < 6) {
+                throw new IOException("Line " + lineNumber + ": expected 6 tab-separated columns, found " + columns.length);
+            }
+            String gene = GeneDictionary.normalize(columns[0]);
+            String action = columns[2].trim().toUpperCase(Locale.ROOT);
+            if (gene.isEmpty() || !ACTIONS.contains(action)) {
+                throw new IOException("Line " + lineNumber + ": missing gene or unknown action '" + columns[2] + "'");
+            }
+            String[] names = columns[1].split("\\|");
+            String canonical = names[0].trim().toLowerCase(Locale.ROOT);
+            if (canonical.isEmpty()) {
+                throw new IOException("Line " + lineNumber + ": missing substance");
+            }
+            Guideline guideline = new Guideline(gene, canonical, action, columns[3].trim(), columns[4].trim(), columns[5].trim());
+            byGene.computeIfAbsent(gene, key -> new ArrayList<>()).add(guideline);
+            Set<String> keys = new LinkedHashSet<>();
+            for (String name : names) {
+                String key = normalizeSubstance(name);
+                if (!key.isEmpty()) {
+                    keys.add(key);
+                }
+            }
+            for (String key : keys) {
+                bySubstance.computeIfAbsent(key, k -> new ArrayList<>()).add(guideline);
+            }
+            size++;
+        }
+        return new PharmacogenomicIndex(freeze(byGene), freeze(bySubstance), size);
+    }
+
+    /**
+     * Forma con la que se comparan las sustancias: sin acentos, en minúsculas y sin espacios repetidos
+     */
+    public static String normalizeSubstance(String substance) {
+        if (substance == null) {
+            return "";
+        }
+        String stripped = DIACRITICS.matcher(Normalizer.normalize(substance, Normalizer.Form.NFD)).replaceAll("");
+        return WORD_SEPARATORS.matcher(stripped.trim().toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    public List<Guideline> forGene(String gene) {
+        return byGene.getOrDefault(GeneDictionary.normalize(gene), List.of());
+    }
+
+    /**
+     * Reglas que aplican a un texto de sustancia activa. Cada componente de una combinación se busca
+     * completo y, si no está, palabra por palabra (para "clopidogrel bisulfato" o "warfarina sódica")
+     */
+    public List<Guideline> forSubstance(String activeSubstance) {
+        String normalized = normalizeSubstance(activeSubstance);
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+        List<Guideline> exact = bySubstance.get(normalized);
+        if (exact != null) {
+            return exact;
+        }
+        Set<Guideline> found = new LinkedHashSet<>();
+        for (String component : COMPONENT_SEPARATORS.split(normalized)) {
+            String trimmed = component.trim();
+            List<Guideline> matches = bySubstance.get(trimmed);
+            if (matches != null) {
+                found.addAll(matches);
+                continue;
+            }
+            for (String word : trimmed.split(" ")) {
+                matches = bySubstance.get(word);
+                if (matches != null) {
+                    found.addAll(matches);
+                }
+            }
+        }
+        return found.isEmpty() ? List.of() : List.copyOf(found);
+    }
+
+    public Set<String> genes() {
+        return byGene.keySet();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private static Map<String, List<Guideline>> freeze(Map<String, List<Guideline>> map) {
+        Map<String, List<Guideline>> frozen = new HashMap<>(map.size() * 2);
+        map.forEach((key, guidelines) -> frozen.put(key, List.copyOf(guidelines)));
+        return Collections.unmodifiableMap(frozen);
+    }
+}
@@ -0,0 +1,31 @@
+package com.biotrack.backend.services.genomics;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Llave natural de una mutación dentro de su muestra: UUID de nombre (v3) sobre gen, cromosoma, tipo,
+ * relevancia y comentario normalizados. Dos filas iguales de un archivo, o el mismo archivo procesado
+ * dos veces, producen la misma llave y el índice único (genetic_sample_id, variant_key) las descarta.
+ */
+public final class VariantKey {
+
+    private static final char SEPARATOR = '\u001f';
+
+    private VariantKey() {
+    }
+
+    public static UUID of(String gene, String chromosome, String type, String relevance, String comment) {
+        String normalized = GeneDictionary.normalize(gene) + SEPARATOR
+                + upper(chromosome) + SEPARATOR
+                + upper(type) + SEPARATOR
+                + upper(relevance) + SEPARATOR
+                + (comment == null ? "" : comment.trim());
+        return UUID.nameUUIDFromBytes(normalized.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String upper(String value) {
+        return value == null ? "" : value.trim().toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,93 @@
+package com.biotrack.backend.services.genomics;
+
+import com.biotrack.backend.models.enums.Relevance;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+
+/**
+ * Variantes de una ingesta que todavía no se publican en el almacén columnar.
+ *
+ * Las filas se escriben a un archivo temporal mientras avanza la transacción de Postgres, así el heap
+ * no crece con el tamaño del archivo; el almacén las lee solo si la transacción hizo commit.
+ * close() borra el temporal.
+ */
+public class VariantStaging implements Closeable {
+
+    private static final Relevance[] RELEVANCES = Relevance.values();
+
+    @FunctionalInterface
+    public interface RowConsumer {
+        void accept(UUID sampleId, String gene, String chromosome, String type, Relevance relevance) throws IOException;
+    }
+
+    private final Path file;
+    private final DataOutputStream output;
+    private long rows;
+    private boolean finished;
+
+    private VariantStaging(Path file) throws IOException {
+        this.file = file;
+        this.output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16));
+    }
+
+    public static VariantStaging create(Path directory) throws IOException {
+        return new VariantStaging(Files.createTempFile(directory, "variants-", ".staging"));
+    }
+
+    public void add(UUID sampleId, String gene, String chromosome, String type, Relevance relevance) throws IOException {
+        if (finished) {
+            throw new IllegalStateException("Staging already read");
+        }
+        output.writeLong(sampleId.getMostSignificantBits());
+        output.writeLong(sampleId.getLeastSignificantBits());
+        output.writeUTF(gene == null ? "" : gene);
+        output.writeUTF(chromosome == null ? "" : chromosome);
+        output.writeUTF(type == null ? "" : type);
+        output.writeByte(relevance == null ? -1 : relevance.ordinal());
+        rows++;
+    }
+
+    public long rows() {
+        return rows;
+    }
+
+    /**
+     * Recorre las filas en el orden en que se agregaron; después ya no se pueden agregar más
+     */
+    public void forEach(RowConsumer consumer) throws IOException {
+        if (!finished) {
+            output.close();
+            finished = true;
+        }
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            for (long i = 0; i < rows; i++) {
+                UUID sampleId = new UUID(input.readLong(), input.readLong());
+                String gene = input.readUTF();
+                String chromosome = input.readUTF();
+                String type = input.readUTF();
+                byte relevance = input.readByte();
+                consumer.accept(sampleId, gene, chromosome, type, relevance < 0 ? null : RELEVANCES[relevance]);
+            }
+        } catch (EOFException e) {
+            throw new IOException("Truncated variant staging file " + file, e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!finished) {
+            output.close();
+            finished = true;
+        }
+        Files.deleteIfExists(file);
+    }
+}
@@ -0,0 +1,405 @@
+package com.biotrack.backend.services.genomics;
+
+import com.biotrack.backend.models.enums.Relevance;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Lector de VCF que recorre las líneas sobre un buffer de bytes reutilizable.
+ *
+ * Solo se ubican las 8 columnas fijas (CHROM..INFO) por offsets, sin crear Strings ni arreglos por
+ * línea; los valores repetidos (cromosoma, gen, tipo) salen de caches pequeñas. Las columnas de
+ * genotipos por muestra se saltan sin recorrerlas campo por campo.
+ */
+public class VcfReader implements Closeable {
+
+    public static final String SNV = "SNV";
+    public static final String MNV = "MNV";
+    public static final String INSERTION = "INSERTION";
+    public static final String DELETION = "DELETION";
+    public static final String COMPLEX = "COMPLEX";
+    public static final String STRUCTURAL = "STRUCTURAL";
+
+    private static final int CHROM = 0;
+    private static final int POS = 1;
+    private static final int REF = 3;
+    private static final int ALT = 4;
+    private static final int FILTER = 6;
+    private static final int INFO = 7;
+    private static final int FIXED_COLUMNS = 8;
+
+    private static final byte[] ANN = "ANN=".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] GENEINFO = "GENEINFO=".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] GENE = "GENE=".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] PASS = "PASS".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] HIGH = "HIGH".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] MODERATE = "MODERATE".getBytes(StandardCharsets.US_ASCII);
+
+    private final InputStream input;
+    private byte[] buffer;
+    private int lineStart;
+    private int lineEnd;
+    private int nextStart;
+    private int dataEnd;
+    private boolean eof;
+    private long lineNumber;
+
+    private final int[] fieldStart = new int[FIXED_COLUMNS];
+    private final int[] fieldEnd = new int[FIXED_COLUMNS];
+    private final ByteStringCache chromosomes = new ByteStringCache(1024);
+    private final ByteStringCache genes = new ByteStringCache(1 << 16);
+
+    private final int[] scratch = new int[2];
+
+    // Subcampos del gen y del impacto dentro de INFO (-1 si no hay)
+    private int geneStart;
+    private int geneEnd;
+    private int impactStart;
+    private int impactEnd;
+
+    public VcfReader(InputStream input) {
+        this(input, 1 << 20);
+    }
+
+    public VcfReader(InputStream input, int bufferSize) {
+        this.input = input;
+        this.buffer = new byte[bufferSize];
+    }
+
+    /**
+     * Avanza al siguiente registro de datos, saltando las líneas de encabezado (#)
+     */
+    public boolean next() throws IOException {
+        while (nextLine()) {
+            if (lineEnd == lineStart || buffer[lineStart] == '#') {
+                continue;
+            }
+            if (!tokenize()) {
+                throw new IOException("Malformed VCF record at line " + lineNumber + ": expected at least 8 columns");
+            }
+            locateGene();
+            return true;
+        }
+        return false;
+    }
+
+    public long lineNumber() {
+        return lineNumber;
+    }
+
+    public String chromosome() {
+        return chromosomes.get(buffer, fieldStart[CHROM], fieldEnd[CHROM]);
+    }
+
+    public long position() throws IOException {
+        long value = 0;
+        int start = fieldStart[POS];
+        int end = fieldEnd[POS];
+        if (start == end) {
+            throw new IOException("Empty POS at line " + lineNumber);
+        }
+        for (int i = start; i < end; i++) {
+            int digit = buffer[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw new IOException("Invalid POS at line " + lineNumber);
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    public String ref() {
+        return new String(buffer, fieldStart[REF], fieldEnd[REF] - fieldStart[REF], StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Primer alelo alternativo; en registros multialélicos el resto se ignora
+     */
+    public String alt() {
+        int end = firstAltEnd();
+        return new String(buffer, fieldStart[ALT], end - fieldStart[ALT], StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * false para registros sin variante (ALT "." o "*")
+     */
+    public boolean isVariant() {
+        int length = firstAltEnd() - fieldStart[ALT];
+        byte first = buffer[fieldStart[ALT]];
+        return length > 0 && !(length == 1 && (first == '.' || first == '*'));
+    }
+
+    public boolean passedFilters() {
+        int length = fieldEnd[FILTER] - fieldStart[FILTER];
+        return (length == 1 && buffer[fieldStart[FILTER]] == '.')
+                || equalsBytes(fieldStart[FILTER], fieldEnd[FILTER], PASS);
+    }
+
+    public String variantType() {
+        int altStart = fieldStart[ALT];
+        int altEnd = firstAltEnd();
+        for (int i = altStart; i < altEnd; i++) {
+            byte b = buffer[i];
+            if (b == '<' || b == '[' || b == ']') {
+                return STRUCTURAL;
+            }
+        }
+        int refLength = fieldEnd[REF] - fieldStart[REF];
+        int altLength = altEnd - altStart;
+        if (refLength == altLength) {
+            return refLength == 1 ? SNV : MNV;
+        }
+        // Inserción/deleción normalizada: comparten la base de anclaje
+        if (buffer[fieldStart[REF]] == buffer[altStart]) {
+            return refLength < altLength ? INSERTION : DELETION;
+        }
+        return COMPLEX;
+    }
+
+    /**
+     * Gen de la anotación (ANN de SnpEff/VEP, GENEINFO de dbSNP o GENE), o null si el registro no tiene
+     */
+    public String gene() {
+        return geneStart < 0 ? null : genes.get(buffer, geneStart, geneEnd);
+    }
+
+    /**
+     * Relevancia a partir del impacto de ANN: HIGH → HIGH, MODERATE → MEDIUM, el resto → LOW
+     */
+    public Relevance relevance() {
+        if (impactStart < 0) {
+            return Relevance.LOW;
+        }
+        if (equalsBytes(impactStart, impactEnd, HIGH)) {
+            return Relevance.HIGH;
+        }
+        if (equalsBytes(impactStart, impactEnd, MODERATE)) {
+            return Relevance.MEDIUM;
+        }
+        return Relevance.LOW;
+    }
+
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+
+    private boolean nextLine() throws IOException {
+        lineStart = nextStart;
+        int scan = nextStart;
+        while (true) {
+            for (int i = scan; i < dataEnd; i++) {
+                if (buffer[i] == '\n') {
+                    lineEnd = i > lineStart && buffer[i - 1] == '\r' ? i - 1 : i;
+                    nextStart = i + 1;
+                    lineNumber++;
+                    return true;
+                }
+            }
+            if (eof) {
+                // Última línea sin salto de línea final
+                if (lineStart < dataEnd) {
+                    lineEnd = dataEnd;
+                    nextStart = dataEnd;
+                    lineNumber++;
+                    return true;
+                }
+                return false;
+            }
+            scan = refill();
+        }
+    }
+
+    /**
+     * Mueve la línea incompleta al inicio del buffer (o lo agranda) y lee más; regresa dónde seguir buscando
+     */
+    private int refill() throws IOException {
+        int pending = dataEnd - lineStart;
+        if (lineStart > 0) {
+            System.arraycopy(buffer, lineStart, buffer, 0, pending);
+        } else if (pending == buffer.length) {
+            // Línea más larga que el buffer (VCF con muchas muestras)
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+        lineStart = 0;
+        nextStart = 0;
+        dataEnd = pending;
+        int read = input.read(buffer, dataEnd, buffer.length - dataEnd);
+        if (read < 0) {
+            eof = true;
+        } else {
+            dataEnd += read;
+        }
+        return pending;
+    }
+
+    private boolean tokenize() {
+        int column = 0;
+        int start = lineStart;
+        for (int i = lineStart; i < lineEnd && column < FIXED_COLUMNS; i++) {
+            if (buffer[i] == '\t') {
+                fieldStart[column] = start;
+                fieldEnd[column] = i;
+                column++;
+                start = i + 1;
+            }
+        }
+        if (column == FIXED_COLUMNS - 1) {
+            // INFO es la última columna (VCF sin genotipos)
+            fieldStart[column] = start;
+            fieldEnd[column] = lineEnd;
+            column++;
+        }
+        return column == FIXED_COLUMNS;
+    }
+
+    private void locateGene() {
+        geneStart = -1;
+        impactStart = -1;
+        int start = fieldStart[INFO];
+        int end = fieldEnd[INFO];
+
+        int ann = findKey(start, end, ANN);
+        if (ann >= 0) {
+            // ANN=Allele|Annotation|Impact|Gene_Name|...; se usa la primera anotación
+            int[] bounds = pipeField(ann, end, 2);
+            if (bounds != null) {
+                impactStart = bounds[0];
+                impactEnd = bounds[1];
+                int[] gene = pipeField(impactEnd + 1, end, 0);
+                if (gene != null && gene[1] > gene[0]) {
+                    geneStart = gene[0];
+                    geneEnd = gene[1];
+                    return;
+                }
+            }
+        }
+        int geneInfo = findKey(start, end, GENEINFO);
+        if (geneInfo >= 0) {
+            // GENEINFO=GEN:ID|GEN2:ID
+            geneStart = geneInfo;
+            geneEnd = scanUntil(geneInfo, end, (byte) ':');
+            return;
+        }
+        int gene = findKey(start, end, GENE);
+        if (gene >= 0) {
+            geneStart = gene;
+            geneEnd = scanUntil(gene, end, (byte) ';');
+        }
+    }
+
+    /**
+     * Offsets del campo número index (desde 0) separado por '|' a partir de from, dentro de la primera anotación
+     */
+    private int[] pipeField(int from, int end, int index) {
+        int start = from;
+        int field = 0;
+        for (int i = from; i <= end; i++) {
+            byte b = i < end ? buffer[i] : (byte) ';';
+            if (b == '|' || b == ',' || b == ';') {
+                if (field == index) {
+                    scratch[0] = start;
+                    scratch[1] = i;
+                    return scratch;
+                }
+                if (b != '|') {
+                    return null;
+                }
+                field++;
+                start = i + 1;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Posición del valor de key= dentro de INFO (al inicio o después de ';'), o -1
+     */
+    private int findKey(int start, int end, byte[] key) {
+        int i = start;
+        while (i < end) {
+            if (startsWith(i, end, key)) {
+                return i + key.length;
+            }
+            i = scanUntil(i, end, (byte) ';') + 1;
+        }
+        return -1;
+    }
+
+    private int scanUntil(int from, int end, byte stop) {
+        int i = from;
+        while (i < end && buffer[i] != stop && buffer[i] != ';') {
+            i++;
+        }
+        return i;
+    }
+
+    private int firstAltEnd() {
+        int i = fieldStart[ALT];
+        while (i < fieldEnd[ALT] && buffer[i] != ',') {
+            i++;
+        }
+        return i;
+    }
+
+    private boolean equalsBytes(int start, int end, byte[] expected) {
+        return end - start == expected.length && startsWith(start, end, expected);
+    }
+
+    private boolean startsWith(int start, int end, byte[] prefix) {
+        if (end - start < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (buffer[start + i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Cache de mapeo directo de rangos de bytes a String; en un acierto no se asigna memoria
+     */
+    private static final class ByteStringCache {
+        private final byte[][] keys;
+        private final String[] values;
+        private final int mask;
+
+        private ByteStringCache(int size) {
+            this.keys = new byte[size][];
+            this.values = new String[size];
+            this.mask = size - 1;
+        }
+
+        private String get(byte[] data, int start, int end) {
+            int hash = 0x811c9dc5;
+            for (int i = start; i < end; i++) {
+                hash = (hash ^ data[i]) * 0x01000193;
+            }
+            int slot = hash & mask;
+            byte[] key = keys[slot];
+            if (key != null && key.length == end - start) {
+                boolean equal = true;
+                for (int i = 0; i < key.length; i++) {
+                    if (key[i] != data[start + i]) {
+                        equal = false;
+                        break;
+                    }
+                }
+                if (equal) {
+                    return values[slot];
+                }
+            }
+            byte[] copy = Arrays.copyOfRange(data, start, end);
+            String value = new String(copy, StandardCharsets.UTF_8);
+            keys[slot] = copy;
+            values[slot] = value;
+            return value;
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package com.biotrack.backend.services.impl;
+
+import com.biotrack.backend.models.PendingStorageDeletion;
+import com.biotrack.backend.models.Report;
+import com.biotrack.backend.repositories.ClinicalHistoryRecordRepository;
+import com.biotrack.backend.repositories.GeneticSampleRepository;
+import com.biotrack.backend.repositories.MutationRepository;
+import com.biotrack.backend.repositories.PatientRepository;
+import com.biotrack.backend.repositories.PendingStorageDeletionRepository;
+import com.biotrack.backend.repositories.ReportRepository;
+import com.biotrack.backend.repositories.ResultFileRepository;
+import com.biotrack.backend.repositories.SampleRepository;
+import com.biotrack.backend.services.BulkDeletionService;
+import com.biotrack.backend.services.ReportSpoolService;
+import com.biotrack.backend.services.S3Service;
+import com.biotrack.backend.services.VariantFrequencyService;
+import com.biotrack.backend.services.VariantStoreService;
+import com.biotrack.backend.services.storage.ParsedReportCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Borrado en cascada de muestras, reportes y pacientes.
+ *
+ * Las filas hijas se borran con DELETE en bloque dentro de una sola transacción, sin cargar
+ * entidades. Las keys de S3 afectadas se guardan en pending_storage_deletions en esa misma
+ * transacción y un proceso en segundo plano las borra con DeleteObjects (hasta 1000 por petición),
+ * reintentando con backoff exponencial si S3 falla.
+ */
+@Service
+public class BulkDeletionServiceImpl implements BulkDeletionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkDeletionServiceImpl.class);
+    private static final int BATCH_SIZE = 1000;
+
+    private final SampleRepository sampleRepository;
+    private final GeneticSampleRepository geneticSampleRepository;
+    private final MutationRepository mutationRepository;
+    private final ResultFileRepository resultFileRepository;
+    private final ReportRepository reportRepository;
+    private final ClinicalHistoryRecordRepository clinicalHistoryRecordRepository;
+    private final PatientRepository patientRepository;
+    private final PendingStorageDeletionRepository pendingStorageDeletionRepository;
+    private final S3Service s3Service;
+    private final ReportSpoolService reportSpoolService;
+    private final ParsedReportCache parsedReportCache;
+    private final VariantStoreService variantStoreService;
+    private final VariantFrequencyService variantFrequencyService;
+
+    @Value("${storage.deletion.base-backoff-ms:5000}")
+    private long baseBackoffMs;
+
+    @Value("${storage.deletion.max-backoff-ms:3600000}")
+    private long maxBackoffMs;
+
+    public BulkDeletionServiceImpl(SampleRepository sampleRepository,
+                                   GeneticSampleRepository geneticSampleRepository,
+                                   MutationRepository mutationRepository,
+                                   ResultFileRepository resultFileRepository,
+                                   ReportRepository reportRepository,
+                                   ClinicalHistoryRecordRepository clinicalHistoryRecordRepository,
+                                   PatientRepository patientRepository,
+                                   PendingStorageDeletionRepository pendingStorageDeletionRepository,
+                                   S3Service s3Service,
+                                   ReportSpoolService reportSpoolService,
+                                   ParsedReportCache parsedReportCache,
+                                   VariantStoreService variantStoreService,
+                                   VariantFrequencyService variantFrequencyService) {
+        this.sampleRepository = sampleRepository;
+        this.geneticSampleRepository = geneticSampleRepository;
+        this.mutationRepository = mutationRepository;
+        this.resultFileRepository = resultFileRepository;
+        this.reportRepository = reportRepository;
+        this.clinicalHistoryRecordRepository = clinicalHistoryRecordRepository;
+        this.patientRepository = patientRepository;
+        this.pendingStorageDeletionRepository = pendingStorageDeletionRepository;
+        this.s3Service = s3Service;
+        this.reportSpoolService = reportSpoolService;
+        this.parsedReportCache = parsedReportCache;
+        this.variantStoreService = variantStoreService;
+        this.variantFrequencyService = variantFrequencyService;
+    }
+
+    @Override
+    @Transactional
+    public void deleteSample(UUID sampleId) {
+        if (!sampleRepository.existsById(sampleId)) {
+            throw new RuntimeException("Sample not found");
+        }
+        Set<String> keys = new LinkedHashSet<>();
+        addReportKeys(keys, reportRepository.findStorageKeysBySampleId(sampleId));
+
+        reportRepository.deleteAllBySampleId(sampleId);
+        sampleRepository.deleteById(sampleId);
+        enqueueStorageDeletion(keys);
+    }
+
+    @Override
+    @Transactional
+    public void deleteGeneticSample(UUID geneticSampleId) {
+        if (!geneticSampleRepository.existsById(geneticSampleId)) {
+            throw new RuntimeException("GeneticSample not found with id: " + geneticSampleId);
+        }
+        Set<String> keys = new LinkedHashSet<>();
+        addReportKeys(keys, reportRepository.findStorageKeysByGeneticSampleId(geneticSampleId));
+        keys.addAll(resultFileRepository.findS3KeysByGeneticSampleId(geneticSampleId));
+
+        // Antes del borrado: la resta se calcula sobre las mutaciones que todavía existen
+        variantFrequencyService.subtractSamples(List.of(geneticSampleId));
+        int mutations = mutationRepository.deleteAllByGeneticSampleId(geneticSampleId);
+        resultFileRepository.deleteAllByGeneticSampleId(geneticSampleId);
+        reportRepository.deleteAllByGeneticSampleId(geneticSampleId);
+        geneticSampleRepository.deleteInBulkById(geneticSampleId);
+        enqueueStorageDeletion(keys);
+        variantStoreService.removeGeneticSamples(List.of(geneticSampleId));
+
+        logger.info("Deleted genetic sample {} with {} mutations and {} stored objects", geneticSampleId, mutations, keys.size());
+    }
+
+    @Override
+    @Transactional
+    public void deleteReport(UUID reportId) {
+        Report report = reportRepository.findById(reportId)
+                .orElseThrow(() -> new RuntimeException("Report not found with id: " + reportId));
+        List<String> keys = new ArrayList<>();
+        addKey(keys, report.getS3Key());
+        addKey(keys, report.getS3KeyPatient());
+
+        reportRepository.delete(report);
+        enqueueStorageDeletion(keys);
+    }
+
+    @Override
+    @Transactional
+    public void deletePatient(UUID patientId) {
+        if (!patientRepository.existsById(patientId)) {
+            throw new RuntimeException("Patient not found");
+        }
+        Set<String> keys = new LinkedHashSet<>();
+        addReportKeys(keys, reportRepository.findStorageKeysByPatientId(patientId));
+        keys.addAll(resultFileRepository.findS3KeysByPatientId(patientId));
+        for (Object[] row : clinicalHistoryRecordRepository.findStorageKeysByPatientId(patientId)) {
+            addKey(keys, storedKey((String) row[0], (String) row[1]));
+            addKey(keys, storedKey((String) row[2], (String) row[3]));
+        }
+
+        List<UUID> geneticSampleIds = geneticSampleRepository.findIdsByPatientId(patientId);
+        variantFrequencyService.subtractSamples(geneticSampleIds);
+
+        // Primero los hijos más profundos para no violar llaves foráneas
+        reportRepository.deleteAllByPatientId(patientId);
+        mutationRepository.deleteAllByPatientId(patientId);
+        resultFileRepository.deleteAllByPatientId(patientId);
+        geneticSampleRepository.deleteAllByPatientId(patientId);
+        sampleRepository.deleteAllByPatientId(patientId);
+        clinicalHistoryRecordRepository.deleteAllByPatientId(patientId);
+        patientRepository.deleteHospitalLinks(patientId);
+        patientRepository.deleteInBulkById(patientId);
+        enqueueStorageDeletion(keys);
+        variantStoreService.removeGeneticSamples(geneticSampleIds);
+
+        logger.info("Deleted patient {} with {} stored objects queued for removal", patientId, keys.size());
+    }
+
+    @Override
+    @Transactional
+    public void enqueueStorageDeletion(Collection<String> keyNames) {
+        enqueueStorageDeletion(keyNames, Duration.ZERO);
+    }
+
+    @Override
+    @Transactional
+    public void enqueueStorageDeletion(Collection<String> keyNames, Duration delay) {
+        if (keyNames.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<PendingStorageDeletion> pending = keyNames.stream()
+                .map(key -> PendingStorageDeletion.builder()
+                        .s3Key(key)
+                        .nextAttemptAt(now.plus(delay))
+                        .createdAt(now)
+                        .build())
+                .toList();
+        pendingStorageDeletionRepository.saveAll(pending);
+
+        // Las lecturas ya no deben servir el documento aunque S3 tarde en borrarlo
+        keyNames.forEach(parsedReportCache::invalidate);
+    }
+
+    /**
+     * Borra de S3 las keys pendientes en lotes de 1000. Las que fallan se reintentan con backoff;
+     * las que siguen en el spool esperan a que se suban para no dejar un documento huérfano.
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${storage.deletion.interval-ms:10000}")
+    public void processPendingDeletions() {
+        List<PendingStorageDeletion> due;
+        do {
+            due = pendingStorageDeletionRepository.findDue(LocalDateTime.now(), PageRequest.of(0, BATCH_SIZE));
+            if (due.isEmpty()) {
+                return;
+            }
+            try {
+                processBatch(due);
+            } catch (Exception e) {
+                logger.warn("Could not process pending storage deletions: {}", e.getMessage());
+                return;
+            }
+        } while (due.size() == BATCH_SIZE);
+    }
+
+    private void processBatch(List<PendingStorageDeletion> due) {
+        List<PendingStorageDeletion> deferred = new ArrayList<>();
+        List<PendingStorageDeletion> ready = new ArrayList<>();
+        for (PendingStorageDeletion pending : due) {
+            if (reportSpoolService.isPending(pending.getS3Key())) {
+                deferred.add(pending);
+            } else {
+                ready.add(pending);
+            }
+        }
+
+        Set<String> failed = ready.isEmpty()
+                ? Set.of()
+                : new HashSet<>(s3Service.deleteFiles(ready.stream().map(PendingStorageDeletion::getS3Key).toList()));
+
+        List<UUID> done = new ArrayList<>();
+        List<PendingStorageDeletion> retry = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (PendingStorageDeletion pending : ready) {
+            if (!failed.contains(pending.getS3Key())) {
+                done.add(pending.getId());
+                continue;
+            }
+            int attempts = pending.getAttempts() + 1;
+            long backoff = Math.min(maxBackoffMs, baseBackoffMs << Math.min(attempts - 1, 20));
+            pending.setAttempts(attempts);
+            pending.setNextAttemptAt(now.plusNanos(backoff * 1_000_000));
+            retry.add(pending);
+        }
+        for (PendingStorageDeletion pending : deferred) {
+            // No cuenta como intento: el spool lo sube en unos segundos
+            pending.setNextAttemptAt(now.plusNanos(baseBackoffMs * 1_000_000));
+            retry.add(pending);
+        }
+
+        if (!done.isEmpty()) {
+            pendingStorageDeletionRepository.deleteAllByIdInBatch(done);
+        }
+        if (!retry.isEmpty()) {
+            pendingStorageDeletionRepository.saveAll(retry);
+        }
+        if (!failed.isEmpty()) {
+            logger.warn("{} storage deletions failed, retrying with backoff", failed.size());
+        }
+    }
+
+    /**
+     * Registros de historial previos a la migración de keys solo guardan la URL
+     */
+    private String storedKey(String s3Key, String s3Url) {
+        if (s3Key != null) {
+            return s3Key;
+        }
+        return s3Url == null ? null : s3Service.extractKeyFromUrl(s3Url);
+    }
+
+    private static void addReportKeys(Collection<String> keys, List<Object[]> rows) {
+        for (Object[] row : rows) {
+            for (Object key : row) {
+                addKey(keys, (String) key);
+            }
+        }
+    }
+
+    private static void addKey(Collection<String> keys, String key) {
+        if (key != null && !key.isBlank()) {
+            keys.add(key);
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package com.biotrack.backend.services.impl;
+
+import com.biotrack.backend.dto.FastqQcReportDTO;
+import com.biotrack.backend.models.DnaSample;
+import com.biotrack.backend.models.Sample;
+import com.biotrack.backend.repositories.SampleRepository;
+import com.biotrack.backend.services.FastqQcService;
+import com.biotrack.backend.services.S3Service;
+import com.biotrack.backend.services.genomics.BgzfInputStream;
+import com.biotrack.backend.services.genomics.FastqQcCollector;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Control de calidad de los FASTQ de una muestra de DNA en segundo plano.
+ *
+ * Cada archivo (R1 y R2 en paralelo) se lee directo del almacenamiento, se descomprime con
+ * BgzfInputStream (en paralelo si viene en BGZF) y se recorre con FastqQcCollector en memoria
+ * constante. Un semáforo limita cuántas muestras se analizan a la vez. El estado vive en
+ * dna_samples, así que las corridas interrumpidas por un reinicio se retoman al arrancar.
+ */
+@Service
+public class FastqQcServiceImpl implements FastqQcService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FastqQcServiceImpl.class);
+
+    private static final String STATUS_COMPLETED = "COMPLETED";
+
+    private static final int Q30 = 30;
+    // Tamaño de la columna fastq_qc_error
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private static final String MARK_QUEUED_SQL = "UPDATE dna_samples SET fastq_qc_status = 'QUEUED', fastq_qc_error = NULL "
+            + "WHERE id = ? AND (fastq_qc_status IS NULL OR fastq_qc_status NOT IN ('QUEUED', 'RUNNING'))";
+    private static final String MARK_RUNNING_SQL = "UPDATE dna_samples SET fastq_qc_status = 'RUNNING', "
+            + "fastq_qc_started_at = ? WHERE id = ? AND fastq_qc_status = 'QUEUED'";
+    private static final String COMPLETE_SQL = "UPDATE dna_samples SET fastq_qc_status = 'COMPLETED', "
+            + "fastq_qc_completed_at = ?, total_reads = ?, total_bases = ?, sequencing_depth = COALESCE(?, sequencing_depth), "
+            + "mean_read_length = ?, mean_base_quality = ?, q30_bases_percent = ?, gc_content_percent = ?, "
+            + "duplicate_reads_percent = ?, fastq_qc_report = ?, fastq_qc_error = NULL WHERE id = ?";
+    private static final String FAIL_SQL = "UPDATE dna_samples SET fastq_qc_status = 'FAILED', "
+            + "fastq_qc_completed_at = ?, fastq_qc_error = ? WHERE id = ?";
+    private static final String REQUEUE_RUNNING_SQL =
+            "UPDATE dna_samples SET fastq_qc_status = 'QUEUED' WHERE fastq_qc_status = 'RUNNING'";
+    private static final String QUEUED_IDS_SQL = "SELECT id FROM dna_samples WHERE fastq_qc_status = 'QUEUED'";
+
+    private final SampleRepository sampleRepository;
+    private final S3Service s3Service;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final int inflateThreads;
+    private final int maxTrackedLength;
+    private final long genomeSizeBases;
+
+    private final Semaphore permits;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private volatile boolean stopping;
+
+    public FastqQcServiceImpl(SampleRepository sampleRepository,
+                              S3Service s3Service,
+                              JdbcTemplate jdbcTemplate,
+                              ObjectMapper objectMapper,
+                              @Value("${sequencing.qc.workers:1}") int workers,
+                              @Value("${sequencing.qc.inflate-threads:0}") int inflateThreads,
+                              @Value("${sequencing.qc.max-tracked-length:1000}") int maxTrackedLength,
+                              @Value("${sequencing.qc.genome-size-bases:3100000000}") long genomeSizeBases) {
+        this.sampleRepository = sampleRepository;
+        this.s3Service = s3Service;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.permits = new Semaphore(Math.max(1, workers));
+        // 0 = un hilo por núcleo
+        this.inflateThreads = inflateThreads > 0 ? inflateThreads : Runtime.getRuntime().availableProcessors();
+        this.maxTrackedLength = maxTrackedLength;
+        this.genomeSizeBases = genomeSizeBases;
+    }
+
+    @Override
+    public FastqQcReportDTO start(UUID sampleId) {
+        DnaSample sample = findDnaSample(sampleId);
+        if (fastqKeys(sample).isEmpty()) {
+            throw new IllegalArgumentException("DNA sample " + sampleId + " has no FASTQ files");
+        }
+        if (jdbcTemplate.update(MARK_QUEUED_SQL, sampleId) > 0) {
+            submit(sampleId);
+        }
+        return getReport(sampleId);
+    }
+
+    @Override
+    public FastqQcReportDTO getReport(UUID sampleId) {
+        DnaSample sample = findDnaSample(sampleId);
+        if (STATUS_COMPLETED.equals(sample.getFastqQcStatus()) && sample.getFastqQcReport() != null) {
+            try {
+                return objectMapper.readValue(sample.getFastqQcReport(), FastqQcReportDTO.class);
+            } catch (JsonProcessingException e) {
+                logger.warn("Stored FASTQ QC report of sample {} could not be read: {}", sampleId, e.getOriginalMessage());
+            }
+        }
+        return new FastqQcReportDTO(sampleId, sample.getFastqQcStatus(), null, sample.getTotalReads(),
+                sample.getTotalBases(), null, null, null, null, null, null, null, null, null, null, null, null, null,
+                null, sample.getFastqQcStartedAt(), sample.getFastqQcCompletedAt(), sample.getFastqQcError());
+    }
+
+    @Override
+    public int resumePending() {
+        jdbcTemplate.update(REQUEUE_RUNNING_SQL);
+        List<UUID> queued = jdbcTemplate.queryForList(QUEUED_IDS_SQL, UUID.class);
+        queued.forEach(this::submit);
+        if (!queued.isEmpty()) {
+            logger.info("Resumed FASTQ QC for {} DNA samples", queued.size());
+        }
+        return queued.size();
+    }
+
+    private void submit(UUID sampleId) {
+        executor.execute(() -> run(sampleId));
+    }
+
+    private void run(UUID sampleId) {
+        permits.acquireUninterruptibly();
+        try {
+            LocalDateTime startedAt = LocalDateTime.now();
+            if (jdbcTemplate.update(MARK_RUNNING_SQL, startedAt, sampleId) == 0) {
+                return;
+            }
+            FastqQcReportDTO report = analyze(findDnaSample(sampleId), startedAt);
+            jdbcTemplate.update(COMPLETE_SQL,
+                    report.completedAt(),
+                    report.reads(),
+                    report.bases(),
+                    report.estimatedDepth(),
+                    decimal(report.meanReadLength(), 1),
+                    decimal(report.meanBaseQuality(), 1),
+                    decimal(report.q30BasesPercent(), 2),
+                    decimal(report.gcContentPercent(), 2),
+                    decimal(report.duplicateReadsPercent(), 2),
+                    objectMapper.writeValueAsString(report),
+                    sampleId);
+            logger.info("FASTQ QC of sample {}: {} reads, {} bases, Q30 {}%, GC {}%, duplicates {}% in {} ms",
+                    sampleId, report.reads(), report.bases(), report.q30BasesPercent(), report.gcContentPercent(),
+                    report.duplicateReadsPercent(), report.elapsedMs());
+        } catch (Exception e) {
+            if (stopping) {
+                // Queda RUNNING y se retoma en el próximo arranque
+                return;
+            }
+            String error = e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage();
+            logger.error("FASTQ QC of sample {} failed: {}", sampleId, error);
+            try {
+                jdbcTemplate.update(FAIL_SQL, LocalDateTime.now(),
+                        error.length() <= MAX_ERROR_LENGTH ? error : error.substring(0, MAX_ERROR_LENGTH), sampleId);
+            } catch (RuntimeException updateFailure) {
+                logger.warn("Could not record FASTQ QC failure of sample {}: {}", sampleId, updateFailure.getMessage());
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    private FastqQcReportDTO analyze(DnaSample sample, LocalDateTime startedAt) throws IOException, InterruptedException {
+        List<String> keys = fastqKeys(sample);
+        long start = System.currentTimeMillis();
+
+        // R1 y R2 se leen a la vez; cada uno tiene además sus hilos de descompresión
+        List<Future<FastqQcCollector>> scans = new ArrayList<>();
+        for (String key : keys) {
+            scans.add(executor.submit(() -> scan(key)));
+        }
+        FastqQcCollector total = new FastqQcCollector(maxTrackedLength);
+        for (Future<FastqQcCollector> scan : scans) {
+            try {
+                total.merge(scan.get());
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException io) {
+                    throw io;
+                }
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+        return toReport(sample.getId(), keys.size(), total, System.currentTimeMillis() - start, startedAt);
+    }
+
+    private FastqQcCollector scan(String key) {
+        FastqQcCollector collector = new FastqQcCollector(maxTrackedLength);
+        try (InputStream input = BgzfInputStream.decompress(
+                s3Service.downloadFile(key), inflateThreads)) {
+            collector.consume(input);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error reading FASTQ file " + key + ": " + e.getMessage(), e);
+        }
+        return collector;
+    }
+
+    private FastqQcReportDTO toReport(UUID sampleId, int files, FastqQcCollector qc, long elapsedMs,
+                                      LocalDateTime startedAt) {
+        List<Double> byPosition = new ArrayList<>();
+        for (double mean : qc.meanQualityByPosition()) {
+            byPosition.add(round(mean, 2));
+        }
+        Map<Integer, Long> lengths = new LinkedHashMap<>();
+        long[] histogram = qc.lengthHistogram();
+        for (int length = 0; length < histogram.length; length++) {
+            if (histogram[length] > 0) {
+                lengths.put(length, histogram[length]);
+            }
+        }
+        Integer depth = genomeSizeBases > 0 ? Math.toIntExact(Math.round((double) qc.bases() / genomeSizeBases)) : null;
+
+        return new FastqQcReportDTO(
+                sampleId,
+                STATUS_COMPLETED,
+                files,
+                qc.reads(),
+                qc.bases(),
+                qc.minLength(),
+                qc.maxLength(),
+                round(qc.meanLength(), 1),
+                round(qc.gcFraction() * 100, 2),
+                round(qc.nFraction() * 100, 2),
+                round(qc.meanQuality(), 1),
+                round(qc.fractionAtLeast(Q30) * 100, 2),
+                qc.estimatedDistinctReads(),
+                round(qc.duplicateFraction() * 100, 2),
+                depth,
+                byPosition,
+                lengths,
+                qc.maxTrackedLength(),
+                elapsedMs,
+                startedAt,
+                LocalDateTime.now(),
+                null);
+    }
+
+    private DnaSample findDnaSample(UUID sampleId) {
+        Sample sample = sampleRepository.findById(sampleId)
+                .orElseThrow(() -> new RuntimeException("Sample not found with id: " + sampleId));
+        if (!(sample instanceof DnaSample dnaSample)) {
+            throw new IllegalArgumentException("Sample " + sampleId + " is not a DNA sample");
+        }
+        return dnaSample;
+    }
+
+    /**
+     * Keys guardadas de R1 y R2; solo las muestras registradas antes de guardar keys se resuelven por URL
+     */
+    private List<String> fastqKeys(DnaSample sample) {
+        List<String> keys = new ArrayList<>(2);
+        addKey(keys, sample.getFastqR1Key(), sample.getFastqR1Url());
+        addKey(keys, sample.getFastqR2Key(), sample.getFastqR2Url());
+        return keys;
+    }
+
+    private void addKey(List<String> keys, String s3Key, String s3Url) {
+        if (s3Key != null) {
+            keys.add(s3Key);
+        } else if (s3Url != null && !s3Url.isBlank()) {
+            keys.add(s3Service.extractKeyFromUrl(s3Url));
+        }
+    }
+
+    private static double round(double value, int scale) {
+        return BigDecimal.valueOf(value).setScale(scale, RoundingMode.HALF_UP).doubleValue();
+    }
+
+    private static BigDecimal decimal(Double value, int scale) {
+        return value == null ? null : BigDecimal.valueOf(value).setScale(scale, RoundingMode.HALF_UP);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        stopping = true;
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,613 @@
+package com.biotrack.backend.services.impl;
+
+import com.biotrack.backend.exceptions.RangeNotSatisfiableException;
+import com.biotrack.backend.services.S3Service;
+import com.biotrack.backend.services.storage.StoredObjectInfo;
+import com.biotrack.backend.services.storage.StoredObjectStream;
+import com.biotrack.backend.utils.CompressionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Almacenamiento de objetos en el sistema de archivos local, para desarrollo, pruebas de carga
+ * sin AWS y despliegues en clínicas donde leer de S3 cuesta latencia de WAN.
+ *
+ * Cada objeto vive en objects/ab/cd/{sha256 de la key} con un archivo .meta al lado (key, tipo,
+ * encoding y ETag), así ningún directorio crece sin límite. Las escrituras van a tmp/ y se
+ * mueven atómicamente, por lo que un lector nunca ve un archivo a medias. Las URLs son
+ * file:// + raíz + key y se traducen de vuelta a la key igual que las de S3.
+ */
+@Service
+@Qualifier("storageBackend")
+@Profile("local-storage")
+public class FileSystemStorageServiceImpl implements S3Service {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileSystemStorageServiceImpl.class);
+    private static final String META_SUFFIX = ".meta";
+    private static final String DEFAULT_CONTENT_TYPE = "application/octet-stream";
+
+    private final Path objectsDir;
+    private final Path tmpDir;
+    private final Path multipartDir;
+    private final String urlPrefix;
+
+    public FileSystemStorageServiceImpl(@Value("${storage.local.root:./data/object-store}") String root) {
+        Path rootDir = Paths.get(root).toAbsolutePath().normalize();
+        this.objectsDir = rootDir.resolve("objects");
+        this.tmpDir = rootDir.resolve("tmp");
+        this.multipartDir = rootDir.resolve("multipart");
+        this.urlPrefix = rootDir.toUri().toString();
+
+        try {
+            Files.createDirectories(objectsDir);
+            Files.createDirectories(multipartDir);
+            // Los temporales que quedaron de un arranque anterior nunca llegaron a moverse
+            deleteRecursively(tmpDir);
+            Files.createDirectories(tmpDir);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not initialize local storage at " + rootDir, e);
+        }
+        logger.info("Using local filesystem storage at {}", rootDir);
+    }
+
+    @Override
+    public String uploadFile(MultipartFile file, String keyName) {
+        try (InputStream in = file.getInputStream()) {
+            writeObject(keyName, in, file.getContentType(), null);
+            return getObjectUrl(keyName);
+        } catch (IOException e) {
+            throw new RuntimeException("Error uploading file to local storage", e);
+        }
+    }
+
+    @Override
+    public InputStream downloadFile(String keyName) {
+        try {
+            Properties meta = readMeta(keyName);
+            InputStream in = Files.newInputStream(dataPath(keyName));
+            if (CompressionUtils.isGzipEncoding(meta.getProperty("contentEncoding"))) {
+                return new GZIPInputStream(in, 8192);
+            }
+            return in;
+        } catch (IOException e) {
+            throw new RuntimeException("Error downloading file from local storage: " + keyName, e);
+        }
+    }
+
+    @Override
+    public void deleteFile(String keyName) {
+        try {
+            deleteObject(keyName);
+        } catch (IOException e) {
+            throw new RuntimeException("Error deleting file from local storage: " + keyName, e);
+        }
+    }
+
+    @Override
+    public List<String> deleteFiles(List<String> keyNames) {
+        List<String> failed = new ArrayList<>();
+        for (String keyName : keyNames) {
+            try {
+                deleteObject(keyName);
+            } catch (IOException e) {
+                failed.add(keyName);
+            }
+        }
+        return failed;
+    }
+
+    @Override
+    public String generatePresignedUrl(String keyName, int expirationMinutes) {
+        // Sin firma: solo el propio backend puede leer la ruta local
+        return getObjectUrl(keyName);
+    }
+
+    @Override
+    public String uploadTextContent(String content, String keyName) {
+        try {
+            // Mismo formato que en S3 para que el resto del código no distinga el almacenamiento
+            byte[] contentBytes = CompressionUtils.gzip(content.getBytes(StandardCharsets.UTF_8));
+            writeObject(keyName, new ByteArrayInputStream(contentBytes), "text/plain", CompressionUtils.GZIP);
+            return getObjectUrl(keyName);
+        } catch (IOException e) {
+            throw new RuntimeException("Error uploading text content to local storage: " + keyName, e);
+        }
+    }
+
+    @Override
+    public String uploadStreamContent(InputStream inputStream, String keyName, String contentType, long contentLength) {
+        try {
+            writeObject(keyName, inputStream, contentType, null);
+            return getObjectUrl(keyName);
+        } catch (IOException e) {
+            throw new RuntimeException("Error uploading stream content to local storage: " + keyName, e);
+        }
+    }
+
+    @Override
+    public String downloadTextContent(String keyName) {
+        try {
+            return readText(keyName);
+        } catch (IOException e) {
+            throw new RuntimeException("Error downloading text content from local storage: " + keyName, e);
+        }
+    }
+
+    @Override
+    public String downloadFileAsString(String s3Url) {
+        return downloadTextContent(extractKeyFromUrl(s3Url));
+    }
+
+    @Override
+    public String downloadFileAsStringNotFormated(String s3Url) {
+        return downloadTextContent(extractKeyFromUrl(s3Url));
+    }
+
+    @Override
+    public StoredObjectInfo headObject(String keyName) {
+        try {
+            Properties meta = readMeta(keyName);
+            long size = Files.size(dataPath(keyName));
+            return new StoredObjectInfo(keyName, size, meta.getProperty("contentType", DEFAULT_CONTENT_TYPE),
+                    meta.getProperty("contentEncoding"), meta.getProperty("eTag"));
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            throw new RuntimeException("Error reading object metadata from local storage: " + keyName, e);
+        }
+    }
+
+    @Override
+    public StoredObjectStream openObject(String keyName, String range, String ifRange) {
+        Properties meta;
+        FileChannel channel;
+        try {
+            meta = readMeta(keyName);
+            channel = FileChannel.open(dataPath(keyName), StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            throw new RuntimeException("Stored object not found: " + keyName, e);
+        } catch (IOException e) {
+            throw new RuntimeException("Error downloading file from local storage: " + keyName, e);
+        }
+
+        try {
+            long size = channel.size();
+            String eTag = meta.getProperty("eTag");
+            Instant lastModified = Files.getLastModifiedTime(dataPath(keyName)).toInstant();
+            String contentType = meta.getProperty("contentType", DEFAULT_CONTENT_TYPE);
+            String contentEncoding = meta.getProperty("contentEncoding");
+
+            long[] bounds = range != null && !range.isBlank() && ifRangeMatches(ifRange, eTag, lastModified)
+                    ? parseRange(range, size, keyName)
+                    : null;
+            if (bounds == null) {
+                return new StoredObjectStream(new BoundedChannelInputStream(channel, 0, size), size, contentType,
+                        contentEncoding, eTag, null, lastModified);
+            }
+
+            long length = bounds[1] - bounds[0] + 1;
+            InputStream body = new BoundedChannelInputStream(channel, bounds[0], length);
+            String contentRange = "bytes " + bounds[0] + "-" + bounds[1] + "/" + size;
+            return new StoredObjectStream(body, length, contentType, contentEncoding, eTag, contentRange, lastModified);
+        } catch (RangeNotSatisfiableException e) {
+            closeQuietly(channel);
+            throw e;
+        } catch (IOException e) {
+            closeQuietly(channel);
+            throw new RuntimeException("Error downloading file from local storage: " + keyName, e);
+        }
+    }
+
+    @Override
+    public String getObjectUrl(String keyName) {
+        return urlPrefix + keyName;
+    }
+
+    @Override
+    public String extractKeyFromUrl(String s3Url) {
+        if (s3Url.startsWith(urlPrefix)) {
+            return s3Url.substring(urlPrefix.length());
+        }
+        // Registros creados antes de migrar desde S3
+        int s3Host = s3Url.indexOf(".amazonaws.com/");
+        if (s3Host >= 0) {
+            return s3Url.substring(s3Host + ".amazonaws.com/".length());
+        }
+        throw new IllegalArgumentException("Could not parse storage URL: " + s3Url);
+    }
+
+    @Override
+    public List<String> listKeys(String prefix) {
+        List<String> keys = new ArrayList<>();
+        try (Stream<Path> paths = Files.walk(objectsDir)) {
+            for (Path metaFile : paths.filter(path -> path.toString().endsWith(META_SUFFIX)).toList()) {
+                Properties meta = loadProperties(metaFile);
+                String key = meta.getProperty("key");
+                if (key != null && key.startsWith(prefix) && Files.exists(dataPathForMeta(metaFile))) {
+                    keys.add(key);
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error listing local objects under: " + prefix, e);
+        }
+        keys.sort(Comparator.naturalOrder());
+        return keys;
+    }
+
+    @Override
+    public String copyObject(String sourceKey, String targetKey) {
+        try {
+            Properties meta = readMeta(sourceKey);
+            Path tmp = Files.createTempFile(tmpDir, "object", ".tmp");
+            try {
+                Files.copy(dataPath(sourceKey), tmp, StandardCopyOption.REPLACE_EXISTING);
+                commit(targetKey, tmp, meta.getProperty("contentType"), meta.getProperty("contentEncoding"),
+                        meta.getProperty("eTag"));
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+            return getObjectUrl(targetKey);
+        } catch (IOException e) {
+            throw new RuntimeException("Error copying local object " + sourceKey + " to " + targetKey, e);
+        }
+    }
+
+    @Override
+    public String createMultipartUpload(String keyName, String contentType) {
+        String uploadId = UUID.randomUUID().toString();
+        try {
+            Path uploadDir = multipartDir.resolve(uploadId);
+            Files.createDirectories(uploadDir);
+            Properties meta = new Properties();
+            meta.setProperty("key", keyName);
+            meta.setProperty("contentType", contentType == null ? DEFAULT_CONTENT_TYPE : contentType);
+            storeProperties(meta, uploadDir.resolve("upload" + META_SUFFIX));
+            return uploadId;
+        } catch (IOException e) {
+            throw new RuntimeException("Error starting multipart upload to local storage: " + keyName, e);
+        }
+    }
+
+    @Override
+    public String uploadPart(String keyName, String uploadId, int partNumber, Path partFile) {
+        Path uploadDir = multipartUploadDir(keyName, uploadId);
+        try (DigestInputStream in = new DigestInputStream(Files.newInputStream(partFile), md5())) {
+            Path tmp = Files.createTempFile(tmpDir, "part", ".tmp");
+            Files.copy(in, tmp, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(tmp, uploadDir.resolve(partName(partNumber)), StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+            return quote(in.getMessageDigest().digest());
+        } catch (IOException e) {
+            throw new RuntimeException("Error uploading part " + partNumber + " to local storage: " + keyName, e);
+        }
+    }
+
+    @Override
+    public String completeMultipartUpload(String keyName, String uploadId, List<String> partETags) {
+        Path uploadDir = multipartUploadDir(keyName, uploadId);
+        try {
+            Properties uploadMeta = loadProperties(uploadDir.resolve("upload" + META_SUFFIX));
+            Path tmp = Files.createTempFile(tmpDir, "object", ".tmp");
+            MessageDigest digest = md5();
+            try (FileChannel target = FileChannel.open(tmp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                for (int part = 1; part <= partETags.size(); part++) {
+                    Path partFile = uploadDir.resolve(partName(part));
+                    try (FileChannel source = FileChannel.open(partFile, StandardOpenOption.READ)) {
+                        // Copia directa entre archivos, sin pasar los bytes por el heap
+                        long position = 0;
+                        long size = source.size();
+                        while (position < size) {
+                            position += source.transferTo(position, size - position, target);
+                        }
+                    }
+                    digest.update(partETags.get(part - 1).getBytes(StandardCharsets.UTF_8));
+                }
+                target.force(true);
+            }
+            // Igual que S3: el ETag multipart no es el MD5 del contenido sino de los ETags de las partes
+            String eTag = "\"" + HexFormat.of().formatHex(digest.digest()) + "-" + partETags.size() + "\"";
+            commit(keyName, tmp, uploadMeta.getProperty("contentType"), null, eTag);
+            deleteRecursively(uploadDir);
+            return getObjectUrl(keyName);
+        } catch (IOException e) {
+            throw new RuntimeException("Error completing multipart upload to local storage: " + keyName, e);
+        }
+    }
+
+    @Override
+    public void abortMultipartUpload(String keyName, String uploadId) {
+        try {
+            deleteRecursively(multipartUploadDir(keyName, uploadId));
+        } catch (IOException e) {
+            throw new RuntimeException("Error aborting multipart upload to local storage: " + keyName, e);
+        }
+    }
+
+    private void writeObject(String keyName, InputStream content, String contentType, String contentEncoding) throws IOException {
+        Path tmp = Files.createTempFile(tmpDir, "object", ".tmp");
+        try {
+            MessageDigest digest = md5();
+            try (InputStream in = new DigestInputStream(content, digest);
+                 OutputStream out = Files.newOutputStream(tmp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                in.transferTo(out);
+            }
+            commit(keyName, tmp, contentType, contentEncoding, quote(digest.digest()));
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * Publica el archivo temporal como el objeto de la key. El .meta se mueve primero:
+     * si el archivo de datos existe, sus metadatos también.
+     */
+    private void commit(String keyName, Path tmp, String contentType, String contentEncoding, String eTag) throws IOException {
+        Path data = dataPath(keyName);
+        Files.createDirectories(data.getParent());
+
+        Properties meta = new Properties();
+        meta.setProperty("key", keyName);
+        meta.setProperty("contentType", contentType == null ? DEFAULT_CONTENT_TYPE : contentType);
+        meta.setProperty("eTag", eTag);
+        if (contentEncoding != null) {
+            meta.setProperty("contentEncoding", contentEncoding);
+        }
+        Path metaTmp = Files.createTempFile(tmpDir, "meta", ".tmp");
+        storeProperties(meta, metaTmp);
+        Files.move(metaTmp, metaPath(keyName), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        Files.move(tmp, data, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private void deleteObject(String keyName) throws IOException {
+        // Primero los datos: sin ellos el objeto ya no existe aunque quede el .meta
+        Files.deleteIfExists(dataPath(keyName));
+        Files.deleteIfExists(metaPath(keyName));
+    }
+
+    private String readText(String keyName) throws IOException {
+        byte[] bytes = Files.readAllBytes(dataPath(keyName));
+        if (CompressionUtils.isGzip(bytes)) {
+            bytes = CompressionUtils.gunzip(bytes);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private Properties readMeta(String keyName) throws IOException {
+        return loadProperties(metaPath(keyName));
+    }
+
+    private Path multipartUploadDir(String keyName, String uploadId) {
+        Path uploadDir = multipartDir.resolve(uploadId).normalize();
+        if (!uploadDir.getParent().equals(multipartDir) || !Files.isDirectory(uploadDir)) {
+            throw new RuntimeException("Multipart upload not found: " + uploadId + " for key " + keyName);
+        }
+        return uploadDir;
+    }
+
+    private Path dataPath(String keyName) {
+        String hash = sha256Hex(keyName);
+        return objectsDir.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+
+    private Path metaPath(String keyName) {
+        Path data = dataPath(keyName);
+        return data.resolveSibling(data.getFileName() + META_SUFFIX);
+    }
+
+    private static Path dataPathForMeta(Path metaFile) {
+        String name = metaFile.getFileName().toString();
+        return metaFile.resolveSibling(name.substring(0, name.length() - META_SUFFIX.length()));
+    }
+
+    /**
+     * If-Range se cumple si el ETag fuerte o la fecha coinciden; si no, se manda el objeto completo.
+     */
+    private static boolean ifRangeMatches(String ifRange, String eTag, Instant lastModified) {
+        if (ifRange == null || ifRange.isBlank()) {
+            return true;
+        }
+        if (ifRange.startsWith("W/")) {
+            return false;
+        }
+        if (ifRange.startsWith("\"")) {
+            return ifRange.equals(eTag);
+        }
+        try {
+            Instant validator = ZonedDateTime.parse(ifRange, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+            // Las fechas HTTP no llevan fracciones de segundo
+            return !lastModified.truncatedTo(ChronoUnit.SECONDS).isAfter(validator);
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Devuelve {inicio, fin} inclusivos, o null si el header no es un rango simple (se sirve completo).
+     */
+    private static long[] parseRange(String range, long size, String keyName) {
+        if (!range.startsWith("bytes=") || range.contains(",")) {
+            return null;
+        }
+        String spec = range.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+        try {
+            long start;
+            long end;
+            if (dash == 0) {
+                // Sufijo: los últimos N bytes
+                long suffix = Long.parseLong(spec.substring(1));
+                if (suffix <= 0) {
+                    throw new RangeNotSatisfiableException("Requested range not satisfiable for key: " + keyName, size);
+                }
+                start = Math.max(0, size - suffix);
+                end = size - 1;
+            } else {
+                start = Long.parseLong(spec.substring(0, dash));
+                end = dash == spec.length() - 1 ? size - 1 : Math.min(Long.parseLong(spec.substring(dash + 1)), size - 1);
+            }
+            if (start >= size || start > end) {
+                throw new RangeNotSatisfiableException("Requested range not satisfiable for key: " + keyName, size);
+            }
+            return new long[]{start, end};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Properties loadProperties(Path file) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        return properties;
+    }
+
+    private static void storeProperties(Properties properties, Path file) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            properties.store(writer, null);
+        }
+    }
+
+    private static String partName(int partNumber) {
+        return String.format("part-%05d", partNumber);
+    }
+
+    private static String quote(byte[] digest) {
+        return "\"" + HexFormat.of().formatHex(digest) + "\"";
+    }
+
+    private static MessageDigest md5() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 not available", e);
+        }
+    }
+
+    private static String sha256Hex(String value) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // Nada que hacer: el canal ya no se usa
+        }
+    }
+
+    /**
+     * Lee a lo más {@code remaining} bytes del canal a partir de {@code position}. transferTo no pasa por
+     * un byte[] en el heap: copia con FileChannel.transferTo hacia el canal de la salida.
+     */
+    private static final class BoundedChannelInputStream extends InputStream {
+
+        private final FileChannel channel;
+        private long position;
+        private long remaining;
+
+        private BoundedChannelInputStream(FileChannel channel, long position, long remaining) {
+            this.channel = channel;
+            this.position = position;
+            this.remaining = remaining;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) < 0 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int read = channel.read(ByteBuffer.wrap(buffer, offset, (int) Math.min(length, remaining)), position);
+            if (read > 0) {
+                position += read;
+                remaining -= read;
+            }
+            return read;
+        }
+
+        @Override
+        public long transferTo(OutputStream out) throws IOException {
+            WritableByteChannel target = Channels.newChannel(out);
+            long transferred = 0;
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, target);
+                // 0 sin haber llegado al final: el archivo se acortó mientras se servía
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+                remaining -= sent;
+                transferred += sent;
+            }
+            return transferred;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
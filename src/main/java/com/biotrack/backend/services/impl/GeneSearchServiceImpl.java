@@ -0,0 +1,247 @@
+package com.biotrack.backend.services.impl;
+
+import com.biotrack.backend.dto.GeneResolutionDTO;
+import com.biotrack.backend.services.GeneSearchService;
+import com.biotrack.backend.services.genomics.GeneDictionary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Resuelve términos de búsqueda de genes contra un diccionario en memoria antes de ir a la base.
+ *
+ * El diccionario se arma con los símbolos que ya existen en mutations y, si se configura, con el
+ * archivo de HGNC (hgnc_complete_set.txt) para alias y símbolos anteriores. Las búsquedas por gen
+ * pasan a ser IN sobre gene_symbol (índice B-tree); la búsqueda por subcadena usa un índice GIN de
+ * trigramas cuando la base es Postgres con pg_trgm.
+ */
+@Service
+public class GeneSearchServiceImpl implements GeneSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(GeneSearchServiceImpl.class);
+
+    public static final String MATCH_EXACT = "EXACT";
+    public static final String MATCH_ALIAS = "ALIAS";
+    public static final String MATCH_PREFIX = "PREFIX";
+    public static final String MATCH_FUZZY = "FUZZY";
+    public static final String MATCH_NONE = "NONE";
+
+    private static final String DISTINCT_SYMBOLS_SQL =
+            "SELECT DISTINCT gene_symbol FROM mutations WHERE gene_symbol IS NOT NULL";
+    // Se recorre la tabla por rangos de la llave primaria para no volver a leer las filas ya actualizadas
+    private static final String NEXT_ID_RANGE_SQL = "SELECT id FROM mutations WHERE id > ? ORDER BY id LIMIT ?";
+    private static final String FIRST_ID_RANGE_SQL = "SELECT id FROM mutations ORDER BY id LIMIT ?";
+    private static final String BACKFILL_SQL = "UPDATE mutations SET gene_symbol = upper(trim(gene)) "
+            + "WHERE id >= ? AND id <= ? AND gene_symbol IS NULL AND gene IS NOT NULL";
+    private static final String CREATE_TRIGRAM_EXTENSION_SQL = "CREATE EXTENSION IF NOT EXISTS pg_trgm";
+    // CONCURRENTLY para no bloquear las escrituras en mutations mientras se construye
+    private static final String CREATE_TRIGRAM_INDEX_SQL = "CREATE INDEX CONCURRENTLY IF NOT EXISTS "
+            + "idx_mutations_gene_symbol_trgm ON mutations USING gin (gene_symbol gin_trgm_ops)";
+
+    // Términos más cortos producen demasiadas coincidencias con errores de tipeo
+    private static final int MIN_FUZZY_LENGTH = 3;
+    // Desde esta longitud se toleran dos errores; con símbolos cortos dos errores casi cualquier gen coincide
+    private static final int LONG_TERM_LENGTH = 7;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String hgncFile;
+    private final int backfillBatchSize;
+    private final Object registerLock = new Object();
+    private final Object reloadLock = new Object();
+    private volatile GeneDictionary dictionary = GeneDictionary.empty();
+    // Símbolos registrados mientras corre un reload; se suman al diccionario nuevo para no perderlos
+    private Set<String> registeredDuringReload;
+
+    public GeneSearchServiceImpl(JdbcTemplate jdbcTemplate,
+                                 @Value("${genes.dictionary.hgnc-file:}") String hgncFile,
+                                 @Value("${genes.search.backfill-batch-size:10000}") int backfillBatchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.hgncFile = hgncFile;
+        this.backfillBatchSize = backfillBatchSize;
+    }
+
+    @Override
+    public GeneResolutionDTO resolve(String query, int limit) {
+        String normalized = GeneDictionary.normalize(query);
+        if (normalized.isEmpty()) {
+            throw new IllegalArgumentException("Gene search term is empty");
+        }
+        GeneDictionary current = dictionary;
+
+        List<String> exact = current.exact(normalized);
+        if (!exact.isEmpty()) {
+            String matchType = current.isSymbol(normalized) ? MATCH_EXACT : MATCH_ALIAS;
+            return new GeneResolutionDTO(query, matchType, exact.size() > limit ? exact.subList(0, limit) : exact);
+        }
+        List<String> prefixed = current.withPrefix(normalized, limit);
+        if (!prefixed.isEmpty()) {
+            return new GeneResolutionDTO(query, MATCH_PREFIX, prefixed);
+        }
+        if (normalized.length() >= MIN_FUZZY_LENGTH) {
+            int maxEdits = normalized.length() < LONG_TERM_LENGTH ? 1 : 2;
+            List<String> similar = current.similar(normalized, maxEdits, limit).stream()
+                    .map(GeneDictionary.Match::symbol)
+                    .toList();
+            if (!similar.isEmpty()) {
+                return new GeneResolutionDTO(query, MATCH_FUZZY, similar);
+            }
+        }
+        return new GeneResolutionDTO(query, MATCH_NONE, List.of());
+    }
+
+    @Override
+    public String containsPattern(String query) {
+        String normalized = GeneDictionary.normalize(query);
+        if (normalized.isEmpty()) {
+            throw new IllegalArgumentException("Gene search term is empty");
+        }
+        StringBuilder pattern = new StringBuilder(normalized.length() + 4).append('%');
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            if (c == '%' || c == '_' || c == '\\') {
+                pattern.append('\\');
+            }
+            pattern.append(c);
+        }
+        return pattern.append('%').toString();
+    }
+
+    @Override
+    public void registerSymbols(Collection<String> genes) {
+        if (genes.isEmpty()) {
+            return;
+        }
+        synchronized (registerLock) {
+            dictionary = dictionary.withSymbols(genes);
+            if (registeredDuringReload != null) {
+                registeredDuringReload.addAll(genes);
+            }
+        }
+    }
+
+    @Override
+    public int reload() {
+        // Un reload a la vez: el registro de símbolos concurrentes es por reload
+        synchronized (reloadLock) {
+            synchronized (registerLock) {
+                registeredDuringReload = new LinkedHashSet<>();
+            }
+            try {
+                Set<String> symbols = new LinkedHashSet<>(jdbcTemplate.queryForList(DISTINCT_SYMBOLS_SQL, String.class));
+                Map<String, Set<String>> aliases = new HashMap<>();
+                if (!hgncFile.isBlank()) {
+                    try {
+                        loadHgnc(Paths.get(hgncFile), symbols, aliases);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException("Could not read HGNC file " + hgncFile, e);
+                    }
+                }
+                GeneDictionary loaded = GeneDictionary.build(symbols, aliases);
+                synchronized (registerLock) {
+                    // Lo que la ingesta registró desde que empezó la consulta puede no estar en el snapshot
+                    loaded = loaded.withSymbols(registeredDuringReload);
+                    dictionary = loaded;
+                }
+                logger.info("Gene dictionary loaded: {} symbols, {} aliases, {} entries", symbols.size(), aliases.size(), loaded.size());
+                return loaded.size();
+            } finally {
+                synchronized (registerLock) {
+                    registeredDuringReload = null;
+                }
+            }
+        }
+    }
+
+    @Override
+    public long backfillGeneSymbols() {
+        long updated = 0;
+        List<UUID> ids = jdbcTemplate.queryForList(FIRST_ID_RANGE_SQL, UUID.class, backfillBatchSize);
+        while (!ids.isEmpty()) {
+            UUID last = ids.get(ids.size() - 1);
+            updated += jdbcTemplate.update(BACKFILL_SQL, ids.get(0), last);
+            ids = jdbcTemplate.queryForList(NEXT_ID_RANGE_SQL, UUID.class, last, backfillBatchSize);
+        }
+        if (updated > 0) {
+            logger.info("Backfilled gene_symbol on {} mutations", updated);
+        }
+        return updated;
+    }
+
+    @Override
+    public boolean ensureTrigramIndex() {
+        try {
+            jdbcTemplate.execute(CREATE_TRIGRAM_EXTENSION_SQL);
+            jdbcTemplate.execute(CREATE_TRIGRAM_INDEX_SQL);
+            return true;
+        } catch (DataAccessException e) {
+            // Sin pg_trgm (u otra base) la búsqueda por subcadena sigue funcionando, pero recorre la tabla
+            logger.warn("Trigram index on mutations.gene_symbol not available: {}", e.getMostSpecificCause().getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Lee el TSV de HGNC: columnas symbol, alias_symbol, prev_symbol (separadas por '|') y status
+     */
+    private static void loadHgnc(Path file, Set<String> symbols, Map<String, Set<String>> aliases) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String header = reader.readLine();
+            if (header == null) {
+                return;
+            }
+            List<String> columns = Arrays.asList(header.split("\t", -1));
+            int symbolColumn = columns.indexOf("symbol");
+            int statusColumn = columns.indexOf("status");
+            int[] aliasColumns = {columns.indexOf("alias_symbol"), columns.indexOf("prev_symbol")};
+            if (symbolColumn < 0) {
+                throw new IOException("HGNC file has no 'symbol' column");
+            }
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split("\t", -1);
+                if (fields.length <= symbolColumn
+                        || (statusColumn >= 0 && statusColumn < fields.length && !"Approved".equals(fields[statusColumn]))) {
+                    continue;
+                }
+                String symbol = fields[symbolColumn];
+                symbols.add(symbol);
+                for (int column : aliasColumns) {
+                    if (column < 0 || column >= fields.length) {
+                        continue;
+                    }
+                    for (String alias : unquote(fields[column]).split("\\|")) {
+                        if (!alias.isBlank()) {
+                            aliases.computeIfAbsent(alias, key -> new LinkedHashSet<>()).add(symbol);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static String unquote(String value) {
+        return value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")
+                ? value.substring(1, value.length() - 1)
+                : value;
+    }
+}
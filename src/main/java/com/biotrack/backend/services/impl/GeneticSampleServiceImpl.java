@@ -1,24 +1,49 @@
 package com.biotrack.backend.services.impl;
 
 import com.biotrack.backend.models.GeneticSample;
+import com.biotrack.backend.models.Mutation;
 import com.biotrack.backend.repositories.GeneticSampleRepository;
+import com.biotrack.backend.services.BulkDeletionService;
+import com.biotrack.backend.services.GeneSearchService;
 import com.biotrack.backend.services.GeneticSampleService;
+import com.biotrack.backend.services.VariantFrequencyService;
+import com.biotrack.backend.services.VariantStoreService;
+import com.biotrack.backend.services.pagination.KeysetCursor;
+import com.biotrack.backend.services.pagination.KeysetPage;
+import com.biotrack.backend.services.pagination.KeysetPaginator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Objects;
 import java.util.UUID;
 
 @Service
 public class GeneticSampleServiceImpl implements GeneticSampleService {
 
     private final GeneticSampleRepository geneticSampleRepository;
+    private final BulkDeletionService bulkDeletionService;
+    private final VariantStoreService variantStoreService;
+    private final GeneSearchService geneSearchService;
+    private final VariantFrequencyService variantFrequencyService;
+    private final KeysetPaginator paginator;
 
     @Autowired
-    public GeneticSampleServiceImpl(GeneticSampleRepository geneticSampleRepository) {
+    public GeneticSampleServiceImpl(GeneticSampleRepository geneticSampleRepository,
+                                    BulkDeletionService bulkDeletionService,
+                                    VariantStoreService variantStoreService,
+                                    GeneSearchService geneSearchService,
+                                    VariantFrequencyService variantFrequencyService,
+                                    KeysetPaginator paginator) {
         this.geneticSampleRepository = geneticSampleRepository;
+        this.bulkDeletionService = bulkDeletionService;
+        this.variantStoreService = variantStoreService;
+        this.geneSearchService = geneSearchService;
+        this.variantFrequencyService = variantFrequencyService;
+        this.paginator = paginator;
     }
 
     @Override
@@ -27,7 +52,8 @@ public class GeneticSampleServiceImpl implements GeneticSampleService {
         geneticSample.setCreatedAt(LocalDate.now());
         
         // ✅ GUARDAR: La muestra genética (las mutaciones se guardan en cascada)
-        GeneticSample saved = geneticSampleRepository.save(geneticSample);
+        // flush para que los agregados de frecuencias, que se calculan en SQL, vean las mutaciones
+        GeneticSample saved = geneticSampleRepository.saveAndFlush(geneticSample);
         
         // ✅ ASEGURAR: Que las mutaciones apunten a la muestra guardada
         if (saved.getMutations() != null) {
@@ -36,6 +62,13 @@ public class GeneticSampleServiceImpl implements GeneticSampleService {
                     mutation.setSample(saved);
                 }
             });
+            // Se agregan al almacén columnar cuando la transacción hace commit
+            variantStoreService.recordMutations(saved.getId(), saved.getMutations());
+            geneSearchService.registerSymbols(saved.getMutations().stream()
+                    .map(Mutation::getGene)
+                    .filter(Objects::nonNull)
+                    .toList());
+            variantFrequencyService.addSamples(List.of(saved.getId()));
         }
         
         return saved;
@@ -46,6 +79,13 @@ public class GeneticSampleServiceImpl implements GeneticSampleService {
         return geneticSampleRepository.findAll();
     }
 
+    @Override
+    public KeysetPage<GeneticSample> findPage(String cursor, Integer size) {
+        KeysetPaginator.Request request = paginator.newestFirst(cursor, size);
+        return paginator.page(geneticSampleRepository.findPageBefore(request.cursor().date(), request.cursor().id(), request.limit()),
+                request, GeneticSampleServiceImpl::cursorOf);
+    }
+
     @Override
     public GeneticSample findById(UUID id) {
         return geneticSampleRepository.findById(id)
@@ -55,10 +95,8 @@ public class GeneticSampleServiceImpl implements GeneticSampleService {
     @Override
     @Transactional
     public void deleteById(UUID id) {
-        if (!geneticSampleRepository.existsById(id)) {
-            throw new RuntimeException("GeneticSample not found with id: " + id);
-        }
-        geneticSampleRepository.deleteById(id);
+        // Mutaciones, archivos de resultados y reportes se borran en bloque, sin cargarlos
+        bulkDeletionService.deleteGeneticSample(id);
     }
 
     @Override
@@ -82,13 +120,33 @@ public class GeneticSampleServiceImpl implements GeneticSampleService {
         return geneticSampleRepository.findByPatientId(patientId);
     }
 
+    @Override
+    public KeysetPage<GeneticSample> findPageByPatientId(UUID patientId, String cursor, Integer size) {
+        KeysetPaginator.Request request = paginator.newestFirst(cursor, size);
+        return paginator.page(geneticSampleRepository.findPageByPatientIdBefore(
+                        patientId, request.cursor().date(), request.cursor().id(), request.limit()),
+                request, GeneticSampleServiceImpl::cursorOf);
+    }
+
     @Override
     public List<GeneticSample> findLatest10ByMedicalEntityId(UUID medicalEntityId) {
-        return geneticSampleRepository.findTop10ByMedicalEntityIdOrderByCollectionDateDesc(medicalEntityId);
+        return geneticSampleRepository.findLatestByMedicalEntityId(medicalEntityId, PageRequest.of(0, 10));
     }
 
     @Override
     public List<GeneticSample> findByMedicalEntityId(UUID medicalEntityId) {
         return geneticSampleRepository.findByMedicalEntityId(medicalEntityId);
     }
+
+    @Override
+    public KeysetPage<GeneticSample> findPageByMedicalEntityId(UUID medicalEntityId, String cursor, Integer size) {
+        KeysetPaginator.Request request = paginator.newestFirst(cursor, size);
+        return paginator.page(geneticSampleRepository.findPageByMedicalEntityIdBefore(
+                        medicalEntityId, request.cursor().date(), request.cursor().id(), request.limit()),
+                request, GeneticSampleServiceImpl::cursorOf);
+    }
+
+    private static KeysetCursor cursorOf(GeneticSample sample) {
+        return KeysetCursor.of(sample.getCreatedAt(), sample.getId());
+    }
 }
\ No newline at end of file
@@ -4,11 +4,17 @@ import com.biotrack.backend.models.Hospital;
 import com.biotrack.backend.models.Patient;
 import com.biotrack.backend.models.Sample;
 import com.biotrack.backend.models.User;
+import com.biotrack.backend.models.enums.SampleStatus;
+import com.biotrack.backend.models.enums.SampleType;
 import com.biotrack.backend.repositories.HospitalRepository;
 import com.biotrack.backend.repositories.PatientRepository;
 import com.biotrack.backend.repositories.SampleRepository;
 import com.biotrack.backend.repositories.UserRepository;
 import com.biotrack.backend.services.HospitalService;
+import com.biotrack.backend.services.PatientSearchService;
+import com.biotrack.backend.services.pagination.KeysetCursor;
+import com.biotrack.backend.services.pagination.KeysetPage;
+import com.biotrack.backend.services.pagination.KeysetPaginator;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -27,14 +33,22 @@ public class HospitalServiceImpl implements HospitalService {
 
     private SampleRepository sampleRepository;
 
+    private final KeysetPaginator paginator;
+
+    private final PatientSearchService patientSearchService;
+
     public HospitalServiceImpl(HospitalRepository repository,
                                UserRepository userRepository,
                                PatientRepository patientRepository,
-                               SampleRepository sampleRepository) {
+                               SampleRepository sampleRepository,
+                               KeysetPaginator paginator,
+                               PatientSearchService patientSearchService) {
         this.repository = repository;
         this.userRepository = userRepository;
         this.patientRepository = patientRepository;
         this.sampleRepository = sampleRepository;
+        this.paginator = paginator;
+        this.patientSearchService = patientSearchService;
     }
 
     @Override
@@ -104,23 +118,34 @@ public class HospitalServiceImpl implements HospitalService {
     }
 
     @Override
-    public List<Patient> getActivePatientsByHospitalId(UUID hospitalId) {
-        Hospital hospital = findById(hospitalId);
-        return hospital.getActivePatients();
+    public KeysetPage<Patient> findPatientPage(UUID hospitalId, String cursor, Integer size) {
+        requireHospital(hospitalId);
+        KeysetPaginator.Request request = paginator.newestFirst(cursor, size);
+        List<Patient> rows = patientRepository.findPageByHospitalIdBefore(hospitalId, request.cursor().date(),
+                request.cursor().id(), request.limit());
+        return paginator.page(rows, request, patient -> KeysetCursor.of(patient.getCreatedAt(), patient.getId()));
     }
 
     @Override
-    public List<Sample> getSamplesByHospitalId(UUID hospitalId) {
-        Hospital hospital = findById(hospitalId);
-        List<UUID> patientIds = hospital.getActivePatients().stream()
-            .map(Patient::getId)
-            .toList();
-        return sampleRepository.findByPatientIdIn(patientIds);
+    public KeysetPage<Sample> findSamplePage(UUID hospitalId, SampleStatus status, SampleType type, String cursor, Integer size) {
+        requireHospital(hospitalId);
+        KeysetPaginator.Request request = paginator.newestFirst(cursor, size);
+        List<Sample> rows = sampleRepository.findPageByHospitalIdBefore(hospitalId, status, type, request.cursor().date(),
+                request.cursor().id(), request.limit());
+        return paginator.page(rows, request, sample -> KeysetCursor.of(sample.getCreatedAt(), sample.getId()));
     }
 
     @Override
-    public List<Patient> searchPatients(UUID hospitalId, String query) {
-        return patientRepository.searchPatientsByHospitalAndQuery(hospitalId, query);
+    public List<Patient> searchPatients(UUID hospitalId, String query, Integer limit) {
+        requireHospital(hospitalId);
+        return patientSearchService.search(hospitalId, query, limit);
+    }
+
+    // Solo comprueba que exista; no hidrata el hospital ni sus colecciones
+    private void requireHospital(UUID hospitalId) {
+        if (!repository.existsById(hospitalId)) {
+            throw new RuntimeException("Hospital not found");
+        }
     }
 
     private boolean isEmailRegistered(String email) {
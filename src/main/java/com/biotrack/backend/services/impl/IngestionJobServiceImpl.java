@@ -0,0 +1,393 @@
+package com.biotrack.backend.services.impl;
+
+import com.biotrack.backend.dto.IngestionProgressDTO;
+import com.biotrack.backend.models.IngestionJob;
+import com.biotrack.backend.models.ResultFile;
+import com.biotrack.backend.models.enums.IngestionJobStatus;
+import com.biotrack.backend.repositories.IngestionJobRepository;
+import com.biotrack.backend.repositories.ResultFileRepository;
+import com.biotrack.backend.services.IngestionJobService;
+import com.biotrack.backend.services.MutationService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ingesta de archivos de resultados en segundo plano.
+ *
+ * La subida solo registra el archivo y su job; un poller toma los jobs pendientes con
+ * FOR UPDATE SKIP LOCKED (varias instancias pueden compartir la cola) y los corre en hilos virtuales,
+ * con un semáforo que limita cuántos archivos se procesan a la vez. Cada job tiene un lease que el
+ * worker renueva; si la instancia se cae, el job se retoma cuando el lease vence. Los fallos se
+ * reintentan con backoff exponencial hasta max-attempts.
+ */
+@Service
+public class IngestionJobServiceImpl implements IngestionJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IngestionJobServiceImpl.class);
+
+    private static final String FILE_STATUS_PENDING = "PENDING";
+    private static final String FILE_STATUS_QUEUED = "QUEUED";
+    private static final String FILE_STATUS_COMPLETED = "COMPLETED";
+    private static final String FILE_STATUS_COMPLETED_WITH_ERRORS = "COMPLETED_WITH_ERRORS";
+    private static final String FILE_STATUS_FAILED = "FAILED";
+    // Tamaño de las columnas last_error y processing_error
+    private static final int MAX_ERROR_LENGTH = 1000;
+    private static final long SHUTDOWN_WAIT_SECONDS = 30;
+
+    // Un RUNNING con lease vencido quedó de un worker que ya no existe
+    private static final String CLAIM_SQL = "UPDATE ingestion_jobs SET status = 'RUNNING', attempts = attempts + 1, "
+            + "locked_until = ? WHERE id IN (SELECT id FROM ingestion_jobs "
+            + "WHERE (status = 'QUEUED' AND next_attempt_at <= ?) OR (status = 'RUNNING' AND locked_until < ?) "
+            + "ORDER BY next_attempt_at LIMIT ? FOR UPDATE SKIP LOCKED) "
+            + "RETURNING id, result_file_id, attempts";
+    private static final String RENEW_LEASE_SQL =
+            "UPDATE ingestion_jobs SET locked_until = ? WHERE id = ANY(?) AND status = 'RUNNING'";
+    private static final String COMPLETE_SQL = "UPDATE ingestion_jobs SET status = 'COMPLETED', locked_until = NULL, "
+            + "last_error = NULL, finished_at = ? WHERE id = ?";
+    private static final String RETRY_SQL = "UPDATE ingestion_jobs SET status = 'QUEUED', locked_until = NULL, "
+            + "next_attempt_at = ?, last_error = ? WHERE id = ?";
+    private static final String FAIL_SQL = "UPDATE ingestion_jobs SET status = 'FAILED', locked_until = NULL, "
+            + "finished_at = ?, last_error = ? WHERE id = ?";
+
+    private record ClaimedJob(UUID id, UUID resultFileId, int attempts) {}
+
+    private final IngestionJobRepository ingestionJobRepository;
+    private final ResultFileRepository resultFileRepository;
+    private final MutationService mutationService;
+    private final JdbcTemplate jdbcTemplate;
+    private final int maxAttempts;
+    private final long leaseMs;
+    private final long baseBackoffMs;
+    private final long maxBackoffMs;
+    private final long sseTimeoutMs;
+
+    private final Semaphore permits;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Set<UUID> running = ConcurrentHashMap.newKeySet();
+    private final Map<UUID, Set<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+    private volatile boolean stopping;
+
+    public IngestionJobServiceImpl(IngestionJobRepository ingestionJobRepository,
+                                   ResultFileRepository resultFileRepository,
+                                   MutationService mutationService,
+                                   JdbcTemplate jdbcTemplate,
+                                   @Value("${mutations.ingest.workers:2}") int workers,
+                                   @Value("${mutations.ingest.max-attempts:5}") int maxAttempts,
+                                   @Value("${mutations.ingest.lease-ms:300000}") long leaseMs,
+                                   @Value("${mutations.ingest.base-backoff-ms:5000}") long baseBackoffMs,
+                                   @Value("${mutations.ingest.max-backoff-ms:600000}") long maxBackoffMs,
+                                   @Value("${mutations.ingest.sse-timeout-ms:1800000}") long sseTimeoutMs) {
+        this.ingestionJobRepository = ingestionJobRepository;
+        this.resultFileRepository = resultFileRepository;
+        this.mutationService = mutationService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxAttempts = maxAttempts;
+        this.leaseMs = leaseMs;
+        this.baseBackoffMs = baseBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.sseTimeoutMs = sseTimeoutMs;
+        this.permits = new Semaphore(Math.max(1, workers));
+    }
+
+    @Override
+    @Transactional
+    public IngestionProgressDTO enqueue(UUID resultFileId) {
+        ResultFile resultFile = findResultFile(resultFileId);
+        LocalDateTime now = LocalDateTime.now();
+        IngestionJob job = ingestionJobRepository.findByResultFileId(resultFileId).orElse(null);
+        if (job == null) {
+            job = IngestionJob.builder()
+                    .resultFileId(resultFileId)
+                    .nextAttemptAt(now)
+                    .createdAt(now)
+                    .build();
+        } else if (job.getStatus() == IngestionJobStatus.COMPLETED || job.getStatus() == IngestionJobStatus.FAILED) {
+            job.setStatus(IngestionJobStatus.QUEUED);
+            job.setAttempts(0);
+            job.setNextAttemptAt(now);
+            job.setLastError(null);
+            job.setFinishedAt(null);
+        }
+        ingestionJobRepository.save(job);
+
+        // Un archivo ya procesado conserva su estado; el job lo detecta y termina sin volver a leerlo
+        String status = resultFile.getProcessingStatus();
+        if (FILE_STATUS_PENDING.equals(status) || FILE_STATUS_FAILED.equals(status)) {
+            resultFile.setProcessingStatus(FILE_STATUS_QUEUED);
+        }
+        return toProgress(resultFile, job);
+    }
+
+    @Override
+    public IngestionProgressDTO getProgress(UUID resultFileId) {
+        ResultFile resultFile = findResultFile(resultFileId);
+        return toProgress(resultFile, ingestionJobRepository.findByResultFileId(resultFileId).orElse(null));
+    }
+
+    @Override
+    public SseEmitter subscribe(UUID resultFileId) {
+        IngestionProgressDTO progress = getProgress(resultFileId);
+        SseEmitter emitter = new SseEmitter(sseTimeoutMs);
+        if (!send(emitter, progress)) {
+            return emitter;
+        }
+        if (isFinished(progress)) {
+            emitter.complete();
+            return emitter;
+        }
+        subscribers.compute(resultFileId, (id, emitters) -> {
+            Set<SseEmitter> current = emitters != null ? emitters : new CopyOnWriteArraySet<>();
+            current.add(emitter);
+            return current;
+        });
+        emitter.onCompletion(() -> unsubscribe(resultFileId, emitter));
+        emitter.onTimeout(() -> unsubscribe(resultFileId, emitter));
+        emitter.onError(error -> unsubscribe(resultFileId, emitter));
+        return emitter;
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${mutations.ingest.poll-interval-ms:1000}")
+    public void dispatch() {
+        if (stopping) {
+            return;
+        }
+        try {
+            renewLeases();
+            int free = permits.availablePermits();
+            if (free == 0) {
+                return;
+            }
+            LocalDateTime now = LocalDateTime.now();
+            List<ClaimedJob> claimed = jdbcTemplate.query(CLAIM_SQL,
+                    (rs, rowNum) -> new ClaimedJob(rs.getObject("id", UUID.class),
+                            rs.getObject("result_file_id", UUID.class), rs.getInt("attempts")),
+                    now.plusNanos(leaseMs * 1_000_000), now, now, free);
+            for (ClaimedJob job : claimed) {
+                // Solo este hilo toma permisos, así que los que se contaron siguen libres
+                permits.acquireUninterruptibly();
+                running.add(job.id());
+                executor.execute(() -> run(job));
+            }
+        } catch (Exception e) {
+            logger.warn("Could not dispatch ingestion jobs: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Envía el avance a los clientes suscritos y cierra los streams de las ingestas que terminaron.
+     * Lee de la base, así que funciona aunque el job corra en otra instancia.
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${mutations.ingest.poll-interval-ms:1000}")
+    public void publishProgress() {
+        for (Map.Entry<UUID, Set<SseEmitter>> entry : subscribers.entrySet()) {
+            IngestionProgressDTO progress;
+            try {
+                progress = getProgress(entry.getKey());
+            } catch (RuntimeException e) {
+                // El archivo se borró o la base no responde; el cliente puede volver a consultar
+                entry.getValue().forEach(SseEmitter::complete);
+                subscribers.remove(entry.getKey());
+                continue;
+            }
+            boolean finished = isFinished(progress);
+            for (SseEmitter emitter : entry.getValue()) {
+                if (send(emitter, progress) && finished) {
+                    emitter.complete();
+                }
+            }
+            if (finished) {
+                subscribers.remove(entry.getKey());
+            }
+        }
+    }
+
+    private void run(ClaimedJob job) {
+        try {
+            if (!resultFileRepository.existsById(job.resultFileId())) {
+                // El archivo se borró mientras esperaba en la cola
+                ingestionJobRepository.deleteById(job.id());
+                return;
+            }
+            if (job.attempts() > maxAttempts) {
+                // Solo pasa si el job se retomó por lease vencido: la instancia se cayó procesándolo
+                giveUp(job, "Ingestion abandoned after " + maxAttempts + " attempts");
+                return;
+            }
+            mutationService.processResultFile(job.resultFileId());
+            jdbcTemplate.update(COMPLETE_SQL, LocalDateTime.now(), job.id());
+        } catch (Exception e) {
+            handleFailure(job, e);
+        } finally {
+            running.remove(job.id());
+            permits.release();
+        }
+    }
+
+    private void handleFailure(ClaimedJob job, Exception failure) {
+        String error = truncate(failure.getMessage());
+        try {
+            if (job.attempts() >= maxAttempts) {
+                giveUp(job, error);
+                return;
+            }
+            long backoff = Math.min(maxBackoffMs, baseBackoffMs << Math.min(job.attempts() - 1, 20));
+            jdbcTemplate.update(RETRY_SQL, LocalDateTime.now().plusNanos(backoff * 1_000_000), error, job.id());
+            resultFileRepository.updateProcessingStatus(job.resultFileId(), FILE_STATUS_QUEUED);
+            logger.warn("Ingestion of result file {} failed (attempt {}), retrying in {} ms: {}",
+                    job.resultFileId(), job.attempts(), backoff, error);
+        } catch (Exception e) {
+            // Sin poder registrar el fallo, el lease vence y el job se retoma más tarde
+            logger.warn("Could not record failure of ingestion job {}: {}", job.id(), e.getMessage());
+        }
+    }
+
+    private void giveUp(ClaimedJob job, String error) {
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.update(FAIL_SQL, now, error, job.id());
+        resultFileRepository.markProcessingFinished(job.resultFileId(), FILE_STATUS_FAILED, now, error);
+        logger.error("Ingestion of result file {} failed after {} attempts: {}", job.resultFileId(), job.attempts(), error);
+    }
+
+    private void renewLeases() {
+        if (running.isEmpty()) {
+            return;
+        }
+        LocalDateTime lockedUntil = LocalDateTime.now().plusNanos(leaseMs * 1_000_000);
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(RENEW_LEASE_SQL);
+            ps.setObject(1, lockedUntil);
+            ps.setArray(2, connection.createArrayOf("uuid", running.toArray()));
+            return ps;
+        });
+    }
+
+    private ResultFile findResultFile(UUID resultFileId) {
+        return resultFileRepository.findById(resultFileId)
+                .orElseThrow(() -> new RuntimeException("Result file not found with id: " + resultFileId));
+    }
+
+    private static IngestionProgressDTO toProgress(ResultFile resultFile, IngestionJob job) {
+        String status = resultFile.getProcessingStatus();
+        long bytesProcessed = valueOrZero(resultFile.getBytesProcessed());
+        long rowsRead = valueOrZero(resultFile.getRowsRead());
+        Long fileSize = resultFile.getFileSize();
+
+        Integer percent = null;
+        if (FILE_STATUS_COMPLETED.equals(status) || FILE_STATUS_COMPLETED_WITH_ERRORS.equals(status)) {
+            percent = 100;
+        } else if (fileSize != null && fileSize > 0) {
+            // El 100% queda para cuando la transacción ya se confirmó
+            percent = (int) Math.min(99, bytesProcessed * 100 / fileSize);
+        }
+
+        LocalDateTime startedAt = resultFile.getProcessingStartedAt();
+        LocalDateTime finishedAt = resultFile.getProcessingFinishedAt();
+        double rowsPerSecond = 0;
+        if (startedAt != null) {
+            long elapsedMs = Duration.between(startedAt, finishedAt != null ? finishedAt : LocalDateTime.now()).toMillis();
+            rowsPerSecond = elapsedMs > 0 ? rowsRead * 1000.0 / elapsedMs : 0;
+        }
+
+        String error = resultFile.getProcessingError();
+        if (job != null && job.getLastError() != null) {
+            error = job.getLastError();
+        }
+        return new IngestionProgressDTO(
+                resultFile.getId(),
+                status,
+                job != null ? job.getStatus().name() : null,
+                job != null ? job.getAttempts() : 0,
+                bytesProcessed,
+                fileSize,
+                percent,
+                rowsRead,
+                valueOrZero(resultFile.getRowsInserted()),
+                valueOrZero(resultFile.getRowsRejected()),
+                rowsPerSecond,
+                startedAt,
+                finishedAt,
+                job != null && job.getStatus() == IngestionJobStatus.QUEUED ? job.getNextAttemptAt() : null,
+                error
+        );
+    }
+
+    private static boolean isFinished(IngestionProgressDTO progress) {
+        if (progress.jobStatus() != null) {
+            return IngestionJobStatus.COMPLETED.name().equals(progress.jobStatus())
+                    || IngestionJobStatus.FAILED.name().equals(progress.jobStatus());
+        }
+        String status = progress.processingStatus();
+        return FILE_STATUS_COMPLETED.equals(status) || FILE_STATUS_COMPLETED_WITH_ERRORS.equals(status)
+                || FILE_STATUS_FAILED.equals(status);
+    }
+
+    private boolean send(SseEmitter emitter, IngestionProgressDTO progress) {
+        try {
+            emitter.send(SseEmitter.event().name("progress").data(progress));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            // El cliente se desconectó
+            unsubscribe(progress.resultFileId(), emitter);
+            return false;
+        }
+    }
+
+    private void unsubscribe(UUID resultFileId, SseEmitter emitter) {
+        subscribers.computeIfPresent(resultFileId, (id, emitters) -> {
+            emitters.remove(emitter);
+            return emitters.isEmpty() ? null : emitters;
+        });
+    }
+
+    private static long valueOrZero(Long value) {
+        return value == null ? 0 : value;
+    }
+
+    private static String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() <= MAX_ERROR_LENGTH ? message : message.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        stopping = true;
+        subscribers.values().forEach(emitters -> emitters.forEach(SseEmitter::complete));
+        subscribers.clear();
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(SHUTDOWN_WAIT_SECONDS, TimeUnit.SECONDS)) {
+                // Los jobs interrumpidos quedan para reintento; si no alcanza a registrarse, vence su lease
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
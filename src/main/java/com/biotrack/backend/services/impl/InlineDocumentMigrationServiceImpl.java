@@ -0,0 +1,114 @@
+package com.biotrack.backend.services.impl;
+
+import com.biotrack.backend.models.InlineDocument;
+import com.biotrack.backend.repositories.InlineDocumentRepository;
+import com.biotrack.backend.services.InlineDocumentMigrationService;
+import com.biotrack.backend.services.ReportSpoolService;
+import com.biotrack.backend.services.S3Service;
+import com.biotrack.backend.services.storage.StoredObjectInfo;
+import com.biotrack.backend.utils.CompressionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Mueve a Postgres los documentos pequeños que se subieron antes de existir el nivel en línea.
+ *
+ * Trabaja directo contra el almacenamiento de objetos (sin cache ni nivel en línea): por cada lote
+ * consulta el tamaño con HEAD, descarga solo los candidatos, guarda las filas y después borra los
+ * objetos. Si el borrado falla el objeto queda huérfano pero no se vuelve a leer, porque las lecturas
+ * buscan primero en la tabla. Es idempotente: las keys que ya están en línea se saltan.
+ */
+@Service
+public class InlineDocumentMigrationServiceImpl implements InlineDocumentMigrationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InlineDocumentMigrationServiceImpl.class);
+
+    private final S3Service storageBackend;
+    private final InlineDocumentRepository inlineDocumentRepository;
+    private final ReportSpoolService reportSpoolService;
+
+    @Value("${storage.inline.max-bytes:8192}")
+    private long maxInlineBytes;
+
+    @Value("${storage.inline.prefixes:reports/,clinical-history/}")
+    private String prefixes;
+
+    @Value("${storage.inline.migration.batch-size:200}")
+    private int batchSize;
+
+    public InlineDocumentMigrationServiceImpl(@Qualifier("storageBackend") S3Service storageBackend,
+                                              InlineDocumentRepository inlineDocumentRepository,
+                                              ReportSpoolService reportSpoolService) {
+        this.storageBackend = storageBackend;
+        this.inlineDocumentRepository = inlineDocumentRepository;
+        this.reportSpoolService = reportSpoolService;
+    }
+
+    @Override
+    public int inlineSmallDocuments() {
+        if (maxInlineBytes <= 0) {
+            return 0;
+        }
+        int inlined = 0;
+        for (String prefix : Arrays.stream(prefixes.split(",")).map(String::trim).filter(p -> !p.isEmpty()).toList()) {
+            List<String> keys = storageBackend.listKeys(prefix);
+            for (int from = 0; from < keys.size(); from += batchSize) {
+                inlined += inlineBatch(keys.subList(from, Math.min(keys.size(), from + batchSize)));
+            }
+        }
+        return inlined;
+    }
+
+    private int inlineBatch(List<String> keys) {
+        Set<String> alreadyInline = new HashSet<>(inlineDocumentRepository.findExistingKeys(keys));
+        List<InlineDocument> documents = new ArrayList<>();
+        for (String keyName : keys) {
+            // Los que siguen en el spool los escribe el drenado y ya pasan por el nivel en línea
+            if (alreadyInline.contains(keyName) || reportSpoolService.isPending(keyName)) {
+                continue;
+            }
+            try {
+                // Lo guardado va en gzip, así que nunca es mayor que el original: sirve de primer filtro
+                StoredObjectInfo info = storageBackend.headObject(keyName);
+                if (info == null || info.contentLength() > maxInlineBytes) {
+                    continue;
+                }
+                byte[] bytes = storageBackend.downloadTextContent(keyName).getBytes(StandardCharsets.UTF_8);
+                if (bytes.length > maxInlineBytes) {
+                    continue;
+                }
+                documents.add(InlineDocument.builder()
+                        .storageKey(keyName)
+                        .content(CompressionUtils.gzip(bytes))
+                        .contentType(info.contentType() != null ? info.contentType() : "text/plain")
+                        .originalSize((long) bytes.length)
+                        .createdAt(LocalDateTime.now())
+                        .build());
+            } catch (Exception e) {
+                logger.warn("Could not inline {}: {}", keyName, e.getMessage());
+            }
+        }
+        if (documents.isEmpty()) {
+            return 0;
+        }
+
+        inlineDocumentRepository.saveAll(documents);
+        List<String> failed = storageBackend.deleteFiles(documents.stream().map(InlineDocument::getStorageKey).toList());
+        if (!failed.isEmpty()) {
+            logger.warn("{} inlined objects could not be deleted from storage and were left orphaned", failed.size());
+        }
+        logger.info("Inlined {} small documents", documents.size());
+        return documents.size();
+    }
+}
@@ -3,6 +3,9 @@ package com.biotrack.backend.services.impl;
 import com.biotrack.backend.models.InventoryMedicine;
 import com.biotrack.backend.repositories.InventoryMedicineRepository;
 import com.biotrack.backend.services.InventoryMedicineService;
+import com.biotrack.backend.services.pagination.KeysetCursor;
+import com.biotrack.backend.services.pagination.KeysetPage;
+import com.biotrack.backend.services.pagination.KeysetPaginator;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -12,9 +15,11 @@ import java.util.UUID;
 public class InventoryMedicineServiceImpl implements InventoryMedicineService {
 
     private final InventoryMedicineRepository repository;
+    private final KeysetPaginator paginator;
 
-    public InventoryMedicineServiceImpl(InventoryMedicineRepository repository) {
+    public InventoryMedicineServiceImpl(InventoryMedicineRepository repository, KeysetPaginator paginator) {
         this.repository = repository;
+        this.paginator = paginator;
     }
 
     @Override
@@ -55,4 +60,14 @@ public class InventoryMedicineServiceImpl implements InventoryMedicineService {
     public List<InventoryMedicine> findByHospitalId(UUID hospitalId) {
         return repository.findByHospitalId(hospitalId);
     }
+
+    @Override
+    public KeysetPage<InventoryMedicine> findPage(UUID hospitalId, String cursor, Integer size) {
+        KeysetPaginator.Request request = paginator.byId(cursor, size);
+        UUID afterId = request.cursor().id();
+        List<InventoryMedicine> rows = hospitalId == null
+                ? repository.findPageAfter(afterId, request.limit())
+                : repository.findPageByHospitalIdAfter(hospitalId, afterId, request.limit());
+        return paginator.page(rows, request, medicine -> new KeysetCursor(null, medicine.getId()));
+    }
 }
\ No newline at end of file
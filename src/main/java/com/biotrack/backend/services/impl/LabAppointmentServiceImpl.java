@@ -10,6 +10,9 @@ import com.biotrack.backend.repositories.LabAppointmentRepository;
 import com.biotrack.backend.repositories.PatientRepository;
 import com.biotrack.backend.repositories.UserRepository;
 import com.biotrack.backend.services.LabAppointmentService;
+import com.biotrack.backend.services.pagination.KeysetCursor;
+import com.biotrack.backend.services.pagination.KeysetPage;
+import com.biotrack.backend.services.pagination.KeysetPaginator;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -22,11 +25,14 @@ public class LabAppointmentServiceImpl implements LabAppointmentService {
     private final LabAppointmentRepository repository;
     private final UserRepository userRepository;
     private final PatientRepository patientRepository;
+    private final KeysetPaginator paginator;
 
-    public LabAppointmentServiceImpl(LabAppointmentRepository repository, UserRepository userRepository, PatientRepository patientRepository) {
+    public LabAppointmentServiceImpl(LabAppointmentRepository repository, UserRepository userRepository, PatientRepository patientRepository,
+                                     KeysetPaginator paginator) {
         this.repository = repository;
         this.userRepository = userRepository;
         this.patientRepository = patientRepository;
+        this.paginator = paginator;
     }
 
     @Override
@@ -111,4 +117,37 @@ public class LabAppointmentServiceImpl implements LabAppointmentService {
                         a.getNotes()
                 )).toList();
     }
+
+    @Override
+    public KeysetPage<LabAppointmentDTO> findPageByPatientId(UUID patientId, String cursor, Integer size) {
+        KeysetPaginator.Request request = paginator.newestFirst(cursor, size);
+        List<LabAppointment> rows = repository.findPageByPatientIdBefore(
+                patientId, request.cursor().timestamp(), request.cursor().id(), request.limit());
+        return paginator.page(rows, request, LabAppointmentServiceImpl::cursorOf).map(LabAppointmentServiceImpl::toDTO);
+    }
+
+    @Override
+    public KeysetPage<LabAppointmentDTO> findSolicitedPageByMedicalEntityId(UUID medicalEntityId, String cursor, Integer size) {
+        KeysetPaginator.Request request = paginator.newestFirst(cursor, size);
+        List<LabAppointment> rows = repository.findPageByMedicalEntityIdAndStatusBefore(
+                medicalEntityId, LabAppointmentStatus.SOLICITADA, request.cursor().timestamp(), request.cursor().id(), request.limit());
+        return paginator.page(rows, request, LabAppointmentServiceImpl::cursorOf).map(LabAppointmentServiceImpl::toDTO);
+    }
+
+    private static KeysetCursor cursorOf(LabAppointment appointment) {
+        return new KeysetCursor(appointment.getCreatedAt(), appointment.getId());
+    }
+
+    private static LabAppointmentDTO toDTO(LabAppointment a) {
+        return new LabAppointmentDTO(
+                a.getId(),
+                a.getMedicalEntityId(),
+                a.getDoctor() != null ? a.getDoctor().getId() : null,
+                a.getPatient().getId(),
+                a.getCreatedAt(),
+                a.getStatus(),
+                a.getSampleType(),
+                a.getNotes()
+        );
+    }
 }
\ No newline at end of file
@@ -9,14 +9,19 @@ import com.biotrack.backend.repositories.MedicalVisitRepository;
 import com.biotrack.backend.repositories.PatientRepository;
 import com.biotrack.backend.repositories.UserRepository;
 import com.biotrack.backend.services.MedicalVisitService;
+import com.biotrack.backend.services.pagination.KeysetCursor;
+import com.biotrack.backend.services.pagination.KeysetPage;
+import com.biotrack.backend.services.pagination.KeysetPaginator;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 
@@ -27,15 +32,18 @@ public class MedicalVisitServiceImpl implements MedicalVisitService {
     private final PatientRepository patientRepository;
     private final UserRepository userRepository;
     private final PatientServiceImpl patientService;
+    private final KeysetPaginator paginator;
 
     public MedicalVisitServiceImpl(MedicalVisitRepository repository,
                                    PatientRepository patientRepository,
                                    PatientServiceImpl patientService,
-                                   UserRepository userRepository) {
+                                   UserRepository userRepository,
+                                   KeysetPaginator paginator) {
         this.repository = repository;
         this.patientRepository = patientRepository;
         this.patientService = patientService;
         this.userRepository = userRepository;
+        this.paginator = paginator;
     }
 
     @Override
@@ -120,11 +128,61 @@ public class MedicalVisitServiceImpl implements MedicalVisitService {
         return repository.findByMedicalEntityId(medicalEntityId);
     }
 
+    @Override
+    public KeysetPage<MedicalVisit> findPage(String cursor, Integer size) {
+        KeysetPaginator.Request request = paginator.newestFirst(cursor, size);
+        return paginator.page(repository.findPageBefore(request.cursor().timestamp(), request.cursor().id(), request.limit()),
+                request, MedicalVisitServiceImpl::cursorOf);
+    }
+
+    @Override
+    public KeysetPage<MedicalVisit> findPageByPatientId(UUID patientId, boolean pendingOnly, String cursor, Integer size) {
+        KeysetPaginator.Request request = paginator.newestFirst(cursor, size);
+        return paginator.page(repository.findPageByPatientIdBefore(
+                        patientId, pendingOnly, request.cursor().timestamp(), request.cursor().id(), request.limit()),
+                request, MedicalVisitServiceImpl::cursorOf);
+    }
+
+    @Override
+    public KeysetPage<MedicalVisit> findPageByDoctorId(UUID doctorId, boolean pendingOnly, String cursor, Integer size) {
+        KeysetPaginator.Request request = paginator.newestFirst(cursor, size);
+        return paginator.page(repository.findPageByDoctorIdBefore(
+                        doctorId, pendingOnly, request.cursor().timestamp(), request.cursor().id(), request.limit()),
+                request, MedicalVisitServiceImpl::cursorOf);
+    }
+
+    @Override
+    public KeysetPage<MedicalVisit> findPageByMedicalEntityId(UUID medicalEntityId, String cursor, Integer size) {
+        KeysetPaginator.Request request = paginator.newestFirst(cursor, size);
+        return paginator.page(repository.findPageByMedicalEntityIdBefore(
+                        medicalEntityId, request.cursor().timestamp(), request.cursor().id(), request.limit()),
+                request, MedicalVisitServiceImpl::cursorOf);
+    }
+
+    private static KeysetCursor cursorOf(MedicalVisit visit) {
+        return new KeysetCursor(visit.getCreatedAt(), visit.getId());
+    }
+
     @Override
     public List<MedicalVisitDTO> addPatientVisitCounts(List<MedicalVisitDTO> visits) {
+        // Un solo conteo agrupado para todos los pacientes de la lista en vez de uno por visita
+        Set<UUID> patientIds = new HashSet<>();
+        for (MedicalVisitDTO visit : visits) {
+            if (visit.patientId() != null) {
+                patientIds.add(UUID.fromString(visit.patientId()));
+            }
+        }
+        Map<UUID, Long> counts = new HashMap<>();
+        if (!patientIds.isEmpty()) {
+            for (Object[] row : repository.countByPatientIdIn(patientIds)) {
+                counts.put((UUID) row[0], ((Number) row[1]).longValue());
+            }
+        }
         return visits.stream()
                 .map(visit -> {
-                    int visitsCount = patientService.medicalVisitsCount(UUID.fromString(visit.patientId()));
+                    int visitsCount = visit.patientId() == null
+                            ? 0
+                            : counts.getOrDefault(UUID.fromString(visit.patientId()), 0L).intValue();
                     return new MedicalVisitDTO(
                         visit.id(),
                         visit.patientName(),
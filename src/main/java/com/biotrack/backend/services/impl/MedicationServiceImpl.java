@@ -4,6 +4,7 @@ import com.biotrack.backend.dto.MedicationAnalysisDTO;
 import com.biotrack.backend.dto.MedicationOperationDTO;
 import com.biotrack.backend.dto.MedicationPatchDTO;
 import com.biotrack.backend.dto.MedicationResponseDTO;
+import com.biotrack.backend.dto.PharmacogenomicAlertDTO;
 import com.biotrack.backend.models.Medication;
 import com.biotrack.backend.models.Patient;
 import com.biotrack.backend.models.User;
@@ -11,6 +12,7 @@ import com.biotrack.backend.repositories.MedicationRepository;
 import com.biotrack.backend.services.MedicationService;
 import com.biotrack.backend.services.OpenAIService;
 import com.biotrack.backend.services.PatientService;
+import com.biotrack.backend.services.PharmacogenomicService;
 import com.biotrack.backend.services.S3Service;
 import com.biotrack.backend.services.UserService;
 import com.biotrack.backend.utils.MedicationMapper;
@@ -19,7 +21,9 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Service
 public class MedicationServiceImpl implements MedicationService {
@@ -29,17 +33,20 @@ public class MedicationServiceImpl implements MedicationService {
     private final UserService userService;
     private final OpenAIService openAIService; // ✅ AGREGAR
     private final S3Service s3Service; // ✅ AGREGAR
+    private final PharmacogenomicService pharmacogenomicService;
 
     public MedicationServiceImpl(MedicationRepository repository, 
                                PatientService patientService,
                                UserService userService,
                                OpenAIService openAIService, // ✅ AGREGAR
-                               S3Service s3Service) { // ✅ AGREGAR
+                               S3Service s3Service, // ✅ AGREGAR
+                               PharmacogenomicService pharmacogenomicService) {
         this.repository = repository;
         this.patientService = patientService;
         this.userService = userService;
         this.openAIService = openAIService; // ✅ AGREGAR
         this.s3Service = s3Service; // ✅ AGREGAR
+        this.pharmacogenomicService = pharmacogenomicService;
     }
 
     @Override
@@ -109,11 +116,25 @@ public class MedicationServiceImpl implements MedicationService {
     @Override
     public List<MedicationResponseDTO> getPatientMedicationsAsDTO(UUID patientId) {
         List<Medication> medications = findByPatientId(patientId);
+        // Una consulta de genes del paciente para toda la lista; cada medicamento es una búsqueda en el índice
+        Map<UUID, List<PharmacogenomicAlertDTO>> alertsByMedication = pharmacogenomicService
+                .checkMedications(patientId, medications).stream()
+                .collect(Collectors.groupingBy(PharmacogenomicAlertDTO::medicationId));
         return medications.stream()
-                .map(MedicationMapper::toResponseDTO)
+                .map(medication -> MedicationMapper.toResponseDTO(medication,
+                        alertsByMedication.getOrDefault(medication.getId(), List.of())))
                 .toList();
     }
 
+    @Override
+    public List<PharmacogenomicAlertDTO> getPharmacogenomicAlerts(UUID patientId, String substance) {
+        patientService.findById(patientId);
+        if (substance != null) {
+            return pharmacogenomicService.checkSubstance(patientId, substance);
+        }
+        return pharmacogenomicService.checkMedications(patientId, findByPatientId(patientId));
+    }
+
     // ✅ NUEVO: Procesar operación ADD
     private void processAddOperation(Patient patient, MedicationOperationDTO operation) {
         // Validar datos para ADD
@@ -185,10 +206,20 @@ public class MedicationServiceImpl implements MedicationService {
                 clinicalContext = "Clinical history could not be retrieved. Analysis based solely on medication interactions.";
             }
             
-            // 5. Generar reporte de compatibilidad con OpenAI
-            String reportContent = openAIService.generateMedicationCompatibilityReport(medications, clinicalContext);
+            // 5. Alertas gen–fármaco precalculadas; el prompt recibe los hallazgos, no las variantes
+            List<Medication> analyzed = medications.stream()
+                    .map(medication -> Medication.builder()
+                            .id(medicationId(medication.id()))
+                            .name(medication.name())
+                            .activeSubstance(medication.activeSubstance())
+                            .build())
+                    .toList();
+            List<PharmacogenomicAlertDTO> pharmacogenomicAlerts = pharmacogenomicService.checkMedications(patientId, analyzed);
+
+            // 6. Generar reporte de compatibilidad con OpenAI
+            String reportContent = openAIService.generateMedicationCompatibilityReport(medications, clinicalContext, pharmacogenomicAlerts);
             
-            // 6. OPCIONAL: Guardar en S3 para respaldo/auditoría (sin bloquear la respuesta)
+            // 7. OPCIONAL: Guardar en S3 para respaldo/auditoría (sin bloquear la respuesta)
             try {
                 String s3Key = generateCompatibilityReportS3Key(patientId);
                 s3Service.uploadTextContent(reportContent, s3Key);
@@ -199,7 +230,7 @@ public class MedicationServiceImpl implements MedicationService {
                 System.err.println("Warning: Could not backup report to S3: " + s3Exception.getMessage());
             }
             
-            // 7. Retornar directamente el contenido del reporte
+            // 8. Retornar directamente el contenido del reporte
             return reportContent;
             
         } catch (Exception e) {
@@ -207,6 +238,18 @@ public class MedicationServiceImpl implements MedicationService {
         }
     }
     
+    // El id del análisis llega como texto; si no es un UUID la alerta queda sin medicationId
+    private static UUID medicationId(String id) {
+        if (id == null || id.isBlank()) {
+            return null;
+        }
+        try {
+            return UUID.fromString(id.trim());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
     // ✅ NUEVO: Método para generar clave S3 para reportes de compatibilidad
     private String generateCompatibilityReportS3Key(UUID patientId) {
         long timestamp = System.currentTimeMillis();
@@ -1,113 +1,678 @@
 package com.biotrack.backend.services.impl;
 
+import com.biotrack.backend.dto.GeneResolutionDTO;
+import com.biotrack.backend.dto.MutationDTO;
+import com.biotrack.backend.dto.MutationIngestionErrorDTO;
+import com.biotrack.backend.dto.MutationIngestionResultDTO;
+import com.biotrack.backend.dto.VcfIngestionResultDTO;
+import com.biotrack.backend.models.DnaSample;
 import com.biotrack.backend.models.Mutation;
 import com.biotrack.backend.models.ResultFile;
-import com.biotrack.backend.models.GeneticSample; // ✅ CAMBIAR: de Sample a GeneticSample
+import com.biotrack.backend.models.Sample;
 import com.biotrack.backend.models.enums.Relevance;
 import com.biotrack.backend.repositories.MutationRepository;
+import com.biotrack.backend.repositories.ResultFileRepository;
+import com.biotrack.backend.repositories.SampleRepository;
+import com.biotrack.backend.services.GeneSearchService;
+import com.biotrack.backend.services.GeneticSampleService;
 import com.biotrack.backend.services.MutationService;
 import com.biotrack.backend.services.ResultFileService;
 import com.biotrack.backend.services.S3Service;
+import com.biotrack.backend.services.VariantFrequencyService;
+import com.biotrack.backend.services.VariantStoreService;
+import com.biotrack.backend.services.genomics.BgzfInputStream;
+import com.biotrack.backend.services.genomics.GeneDictionary;
+import com.biotrack.backend.services.genomics.VariantKey;
+import com.biotrack.backend.services.genomics.VariantStaging;
+import com.biotrack.backend.services.genomics.VcfReader;
+import com.biotrack.backend.services.pagination.KeysetCursor;
+import com.biotrack.backend.services.pagination.KeysetPage;
+import com.biotrack.backend.services.pagination.KeysetPaginator;
+import com.biotrack.backend.utils.CsvRecordReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Service
 public class MutationServiceImpl implements MutationService{
+
+    private static final Logger logger = LoggerFactory.getLogger(MutationServiceImpl.class);
+
+    // Las filas ya presentes se filtran antes con EXISTING_KEYS_SQL; ON CONFLICT cubre lo que quede
+    private static final String INSERT_MUTATION_SQL = "INSERT INTO mutations "
+            + "(id, gene, gene_symbol, chromosome, type, relevance, comment, genetic_sample_id, variant_key, result_file_id) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?) ON CONFLICT (genetic_sample_id, variant_key) DO NOTHING";
+    private static final String EXISTING_KEYS_SQL = "SELECT variant_key, result_file_id FROM mutations "
+            + "WHERE genetic_sample_id = ? AND variant_key = ANY(?)";
+    // Reutiliza las filas ya validadas de un archivo idéntico en otra muestra
+    private static final String COPY_FILE_ROWS_SQL = "INSERT INTO mutations "
+            + "(id, gene, gene_symbol, chromosome, type, relevance, comment, genetic_sample_id, variant_key, result_file_id) "
+            + "SELECT gen_random_uuid(), gene, gene_symbol, chromosome, type, relevance, comment, ?, variant_key, ? "
+            + "FROM mutations WHERE result_file_id = ? ON CONFLICT (genetic_sample_id, variant_key) DO NOTHING";
+    private static final String COUNT_FILE_ROWS_SQL = "SELECT count(*) FROM mutations WHERE result_file_id = ?";
+    private static final String SELECT_FILE_ROWS_SQL = "SELECT gene, chromosome, type, relevance FROM mutations "
+            + "WHERE result_file_id = ?";
+    // Página de búsqueda: los filtros se agregan según vengan; el orden por id lo sirve la llave primaria
+    // o idx_mutations_genetic_sample_id cuando se filtra por muestra
+    private static final String SEARCH_PAGE_SQL = "SELECT id, gene, chromosome, type, relevance, comment, genetic_sample_id "
+            + "FROM mutations WHERE id > ?";
+    private static final String[] COLUMNS = {"gene", "chromosome", "type", "relevance", "comment"};
+    private static final int MAX_COLUMN_LENGTH = 255;
+    private static final Set<String> RELEVANCES = Arrays.stream(Relevance.values())
+            .map(Enum::name)
+            .collect(Collectors.toCollection(LinkedHashSet::new));
+
+    private static final String STATUS_PROCESSING = "PROCESSING";
+    private static final String STATUS_COMPLETED = "COMPLETED";
+    private static final String STATUS_COMPLETED_WITH_ERRORS = "COMPLETED_WITH_ERRORS";
+    private static final String STATUS_FAILED = "FAILED";
+    // Tamaño de la columna processing_error
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private static final String MODE_PARSED = "PARSED";
+    private static final String MODE_REUSED = "REUSED";
+    private static final String MODE_UNCHANGED = "UNCHANGED";
+
     private final ResultFileService resultFileService;
     private final MutationRepository mutationRepository;
     private final S3Service s3Service;
+    private final ResultFileRepository resultFileRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SampleRepository sampleRepository;
+    private final GeneticSampleService geneticSampleService;
+    private final VariantStoreService variantStoreService;
+    private final GeneSearchService geneSearchService;
+    private final VariantFrequencyService variantFrequencyService;
+    private final KeysetPaginator paginator;
+
+    @Value("${mutations.ingest.batch-size:5000}")
+    private int batchSize;
+
+    @Value("${mutations.ingest.max-reported-errors:100}")
+    private int maxReportedErrors;
+
+    @Value("${genes.search.max-symbols:50}")
+    private int maxResolvedSymbols;
+
+    // 0 = un hilo por núcleo
+    @Value("${mutations.vcf.inflate-threads:0}")
+    private int inflateThreads;
 
     public MutationServiceImpl(MutationRepository mutationRepository, 
                               ResultFileService resultFileService,
-                              S3Service s3Service){
+                              S3Service s3Service,
+                              ResultFileRepository resultFileRepository,
+                              JdbcTemplate jdbcTemplate,
+                              TransactionTemplate transactionTemplate,
+                              SampleRepository sampleRepository,
+                              GeneticSampleService geneticSampleService,
+                              VariantStoreService variantStoreService,
+                              GeneSearchService geneSearchService,
+                              VariantFrequencyService variantFrequencyService,
+                              KeysetPaginator paginator){
         this.mutationRepository = mutationRepository;
         this.resultFileService = resultFileService;
         this.s3Service = s3Service;
+        this.resultFileRepository = resultFileRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.sampleRepository = sampleRepository;
+        this.geneticSampleService = geneticSampleService;
+        this.variantStoreService = variantStoreService;
+        this.geneSearchService = geneSearchService;
+        this.variantFrequencyService = variantFrequencyService;
+        this.paginator = paginator;
     }
 
     @Override
-    public List<Mutation> search(UUID sampleId, Relevance relevance, String gene) {
-        if (sampleId != null && relevance != null && gene != null)
-            return mutationRepository.findBySampleIdAndRelevanceAndGeneContainingIgnoreCase(sampleId, relevance, gene);
+    public List<Mutation> search(UUID sampleId, Relevance relevance, String gene, boolean contains) {
+        if (gene != null && !gene.isBlank())
+            return searchByGene(sampleId, relevance, gene, contains);
 
         if (sampleId != null && relevance != null)
             return mutationRepository.findBySampleIdAndRelevance(sampleId, relevance);
 
-        if (sampleId != null && gene != null)
-            return mutationRepository.findBySampleIdAndGeneContainingIgnoreCase(sampleId, gene);
-
         if (sampleId != null)
             return mutationRepository.findBySampleId(sampleId);
 
         if (relevance != null)
             return mutationRepository.findByRelevance(relevance);
 
-        if (gene != null)
-            return mutationRepository.findByGeneContainingIgnoreCase(gene);
-
         return mutationRepository.findAll();
     }
 
+    /**
+     * El término se resuelve primero en el diccionario de genes (símbolo, alias, prefijo o con errores
+     * de tipeo) y se consulta por igualdad sobre gene_symbol; solo si no resuelve a ningún símbolo, o si
+     * se pide explícitamente, se busca como subcadena con el índice de trigramas.
+     */
+    private List<Mutation> searchByGene(UUID sampleId, Relevance relevance, String gene, boolean contains) {
+        List<String> symbols = resolvedSymbols(gene, contains);
+        if (!symbols.isEmpty()) {
+            if (sampleId != null && relevance != null)
+                return mutationRepository.findBySampleIdAndRelevanceAndGeneSymbolIn(sampleId, relevance, symbols);
+            if (sampleId != null)
+                return mutationRepository.findBySampleIdAndGeneSymbolIn(sampleId, symbols);
+            return withRelevance(mutationRepository.findByGeneSymbolIn(symbols), relevance);
+        }
+
+        String pattern = geneSearchService.containsPattern(gene);
+        if (sampleId != null && relevance != null)
+            return mutationRepository.findBySampleIdAndRelevanceAndGeneSymbolLike(sampleId, relevance, pattern);
+        if (sampleId != null)
+            return mutationRepository.findBySampleIdAndGeneSymbolLike(sampleId, pattern);
+        return withRelevance(mutationRepository.findByGeneSymbolLike(pattern), relevance);
+    }
+
+    /**
+     * Igual que search (el gen se resuelve en el diccionario o se busca como subcadena), pero cada página
+     * continúa después del último id entregado y pide size + 1 filas con LIMIT.
+     */
+    @Override
+    public KeysetPage<MutationDTO> searchPage(UUID sampleId, Relevance relevance, String gene, boolean contains,
+                                              String cursor, Integer size) {
+        KeysetPaginator.Request request = paginator.byId(cursor, size);
+        StringBuilder sql = new StringBuilder(SEARCH_PAGE_SQL);
+        List<Object> args = new ArrayList<>();
+        args.add(request.cursor().id());
+        if (sampleId != null) {
+            sql.append(" AND genetic_sample_id = ?");
+            args.add(sampleId);
+        }
+        if (relevance != null) {
+            sql.append(" AND relevance = ?");
+            args.add(relevance.name());
+        }
+        if (gene != null && !gene.isBlank()) {
+            List<String> symbols = resolvedSymbols(gene, contains);
+            if (!symbols.isEmpty()) {
+                sql.append(" AND gene_symbol IN (").append(String.join(", ", Collections.nCopies(symbols.size(), "?"))).append(")");
+                args.addAll(symbols);
+            } else {
+                sql.append(" AND gene_symbol LIKE ? ESCAPE '\\'");
+                args.add(geneSearchService.containsPattern(gene));
+            }
+        }
+        sql.append(" ORDER BY id LIMIT ?");
+        args.add(request.size() + 1);
+
+        List<MutationDTO> rows = jdbcTemplate.query(sql.toString(), (rs, rowNum) -> new MutationDTO(
+                rs.getObject("id", UUID.class),
+                rs.getString("gene"),
+                rs.getString("chromosome"),
+                rs.getString("type"),
+                rs.getString("relevance") == null ? null : Relevance.valueOf(rs.getString("relevance")),
+                rs.getString("comment"),
+                rs.getObject("genetic_sample_id", UUID.class)
+        ), args.toArray());
+        return paginator.page(rows, request, mutation -> new KeysetCursor(null, mutation.id()));
+    }
+
+    /**
+     * Símbolos para buscar por igualdad. Una resolución FUZZY son solo vecinos por errores de tipeo
+     * (BRCA3 → BRCA1, BRCA2): devolver sus filas sería mostrar otro gen, así que en ese caso se busca el
+     * término tal cual como subcadena de gene_symbol.
+     */
+    private List<String> resolvedSymbols(String gene, boolean contains) {
+        if (contains) {
+            return List.of();
+        }
+        GeneResolutionDTO resolution = geneSearchService.resolve(gene, maxResolvedSymbols);
+        return GeneSearchServiceImpl.MATCH_FUZZY.equals(resolution.matchType()) ? List.of() : resolution.symbols();
+    }
+
+    private static List<Mutation> withRelevance(List<Mutation> mutations, Relevance relevance) {
+        return relevance == null
+                ? mutations
+                : mutations.stream().filter(mutation -> mutation.getRelevance() == relevance).toList();
+    }
+
+    /**
+     * Ingesta en streaming: el CSV se lee registro por registro desde el almacenamiento, cada línea se
+     * valida y las válidas se insertan por lotes con JDBC (el driver los reescribe como INSERT multi-fila).
+     * Todo el archivo entra en una transacción; el avance (bytes, filas, errores) se publica en el
+     * ResultFile en transacciones aparte para que se pueda consultar mientras corre.
+     * Después del commit las mismas filas se agregan al almacén columnar de variantes.
+     *
+     * Es idempotente: un archivo ya procesado no se vuelve a leer, cada fila lleva una llave natural que
+     * descarta las que la muestra ya tiene, y si otro archivo con el mismo SHA-256 ya se procesó sus filas
+     * se copian en SQL sin descargar ni validar de nuevo.
+     */
     @Override
-    public List<Mutation> processResultFile(UUID resultFileId) {
+    public MutationIngestionResultDTO processResultFile(UUID resultFileId) {
         ResultFile resultFile = resultFileService.findById(resultFileId);
-        // ✅ CAMBIAR: Ahora obtenemos GeneticSample en lugar de Sample
-        GeneticSample geneticSample = resultFile.getGeneticSample(); // Necesitarás actualizar ResultFile también
+        UUID geneticSampleId = resultFile.getGeneticSample().getId();
+        long startedAt = System.currentTimeMillis();
+        if (isProcessed(resultFile)) {
+            return new MutationIngestionResultDTO(resultFileId, resultFile.getProcessingStatus(),
+                    valueOrZero(resultFile.getRowsRead()), 0, valueOrZero(resultFile.getRowsRejected()), List.of(),
+                    valueOrZero(resultFile.getRowsRejected()) > 0, System.currentTimeMillis() - startedAt, MODE_UNCHANGED);
+        }
+        resultFileRepository.markProcessingStarted(resultFileId, STATUS_PROCESSING, LocalDateTime.now());
+        ResultFile source = resultFile.getContentSha256() == null
+                ? null
+                : resultFileRepository.findFirstByContentSha256AndVariantSetCompleteTrueAndIdNot(
+                        resultFile.getContentSha256(), resultFileId).orElse(null);
+
+        VariantStaging staging = variantStoreService.newStaging();
+        IngestionStats stats;
+        try {
+            stats = transactionTemplate.execute(status -> {
+                // Las frecuencias se recalculan para la muestra completa: resta lo que tenía y suma lo que queda
+                variantFrequencyService.subtractSamples(List.of(geneticSampleId));
+                IngestionStats counts = source != null
+                        ? copyRows(source, resultFileId, geneticSampleId, staging)
+                        : ingest(resultFile, geneticSampleId, staging);
+                variantFrequencyService.addSamples(List.of(geneticSampleId));
+                resultFileRepository.recordIngestion(resultFileId, counts.contentSha256, counts.read, counts.rejected,
+                        counts.rows.inserted, counts.rows.foreign == 0);
+                return counts;
+            });
+        } catch (RuntimeException e) {
+            discard(staging);
+            resultFileRepository.markProcessingFinished(resultFileId, STATUS_FAILED, LocalDateTime.now(),
+                    truncate(e.getMessage(), MAX_ERROR_LENGTH));
+            throw new RuntimeException("Error reading mutation file: " + e.getMessage(), e);
+        }
+        variantStoreService.append(staging);
+
+        String finalStatus = stats.rejected == 0 ? STATUS_COMPLETED : STATUS_COMPLETED_WITH_ERRORS;
+        resultFileRepository.markProcessingFinished(resultFileId, finalStatus, LocalDateTime.now(), null);
+        long elapsedMs = System.currentTimeMillis() - startedAt;
+        String mode = source != null ? MODE_REUSED : MODE_PARSED;
+        logger.info("Ingested result file {} ({}): {} rows read, {} inserted, {} already present, {} rejected in {} ms",
+                resultFileId, mode, stats.read, stats.rows.inserted, stats.rows.skipped, stats.rejected, elapsedMs);
 
-        List<Mutation> mutations = new ArrayList<>();
+        return new MutationIngestionResultDTO(resultFileId, finalStatus, stats.read, stats.rows.inserted, stats.rejected,
+                stats.errors, stats.rejected > stats.errors.size(), elapsedMs, mode);
+    }
 
+    private static boolean isProcessed(ResultFile resultFile) {
+        String status = resultFile.getProcessingStatus();
+        return STATUS_COMPLETED.equals(status) || STATUS_COMPLETED_WITH_ERRORS.equals(status);
+    }
+
+    private static long valueOrZero(Long value) {
+        return value == null ? 0 : value;
+    }
+
+    private IngestionStats ingest(ResultFile resultFile, UUID geneticSampleId, VariantStaging staging) {
+        IngestionStats stats = new IngestionStats();
+        List<String[]> batch = new ArrayList<>(batchSize);
+        MessageDigest digest = sha256();
+
+        // El hash se calcula mientras se lee, sin otra pasada sobre el archivo
+        try (CountingInputStream input = new CountingInputStream(
+                new DigestInputStream(s3Service.downloadFile(resultFile.getS3Key()), digest));
+             CsvRecordReader reader = new CsvRecordReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+
+            // La primera fila es el encabezado
+            List<String> fields = reader.next();
+            while ((fields = reader.next()) != null) {
+                if (fields.size() == 1 && fields.get(0).isBlank()) {
+                    continue;
+                }
+                stats.read++;
+                String error = validate(fields);
+                if (error != null) {
+                    stats.reject(reader.lineNumber(), error, maxReportedErrors);
+                    continue;
+                }
+                batch.add(new String[]{
+                        fields.get(0).trim(),
+                        fields.get(1).trim(),
+                        fields.get(2).trim(),
+                        fields.get(3).trim().toUpperCase(Locale.ROOT),
+                        fields.get(4).trim()
+                });
+                if (batch.size() == batchSize) {
+                    insertBatch(batch, geneticSampleId, resultFile.getId(), staging, stats.rows);
+                    resultFileRepository.updateProgress(resultFile.getId(), input.count(), stats.read, stats.rejected,
+                            stats.rows.inserted);
+                }
+            }
+            insertBatch(batch, geneticSampleId, resultFile.getId(), staging, stats.rows);
+            stats.contentSha256 = HexFormat.of().formatHex(digest.digest());
+            return stats;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Ingesta del VCF de una muestra de DNA: el archivo se descomprime en paralelo si viene en BGZF y se
+     * recorre con un lector sin asignaciones por línea. Las variantes que pasan los filtros y tienen gen
+     * anotado se guardan como mutaciones con los mismos lotes JDBC que el CSV; los conteos de la muestra
+     * (variantes, SNPs, indels) se actualizan en la misma transacción.
+     */
+    @Override
+    public VcfIngestionResultDTO ingestVcf(UUID dnaSampleId, UUID geneticSampleId) {
+        Sample sample = sampleRepository.findById(dnaSampleId)
+                .orElseThrow(() -> new RuntimeException("Sample not found with id: " + dnaSampleId));
+        if (!(sample instanceof DnaSample dnaSample)) {
+            throw new IllegalArgumentException("Sample " + dnaSampleId + " is not a DNA sample");
+        }
+        if (dnaSample.getVcfFileUrl() == null || dnaSample.getVcfFileUrl().isBlank()) {
+            throw new IllegalArgumentException("DNA sample " + dnaSampleId + " has no VCF file");
+        }
+        geneticSampleService.findById(geneticSampleId);
+
+        long startedAt = System.currentTimeMillis();
+        VariantStaging staging = variantStoreService.newStaging();
+        VcfStats stats;
         try {
-            String s3Key = extractS3KeyFromUrl(resultFile.getS3Url());
-            InputStream inputStream = s3Service.downloadFile(s3Key);
-            BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream));
-
-            String line;
-            boolean first = true;
-            while ((line = reader.readLine()) != null) {
-                if (first) {
-                    first = false;
+            stats = transactionTemplate.execute(status -> {
+                variantFrequencyService.subtractSamples(List.of(geneticSampleId));
+                VcfStats counts = readVcf(storedKey(dnaSample.getVcfFileKey(), dnaSample.getVcfFileUrl()),
+                        geneticSampleId, staging);
+                variantFrequencyService.addSamples(List.of(geneticSampleId));
+                dnaSample.setVariantsDetected(Math.toIntExact(counts.variants));
+                dnaSample.setSnpsDetected(Math.toIntExact(counts.snps));
+                dnaSample.setIndelsDetected(Math.toIntExact(counts.indels));
+                sampleRepository.save(dnaSample);
+                return counts;
+            });
+        } catch (RuntimeException e) {
+            discard(staging);
+            throw e;
+        }
+        variantStoreService.append(staging);
+
+        long elapsedMs = System.currentTimeMillis() - startedAt;
+        logger.info("Ingested VCF of DNA sample {}: {} records, {} variants, {} mutations in {} ms",
+                dnaSampleId, stats.records, stats.variants, stats.rows.inserted, elapsedMs);
+        return new VcfIngestionResultDTO(dnaSampleId, geneticSampleId, stats.records, stats.variants,
+                stats.snps, stats.indels, stats.rows.inserted, elapsedMs);
+    }
+
+    /**
+     * Key guardada en la muestra; solo las muestras registradas antes de guardar keys se resuelven por URL
+     */
+    private String storedKey(String s3Key, String s3Url) {
+        return s3Key != null ? s3Key : s3Service.extractKeyFromUrl(s3Url);
+    }
+
+    private VcfStats readVcf(String vcfFileKey, UUID geneticSampleId, VariantStaging staging) {
+        VcfStats stats = new VcfStats();
+        List<String[]> batch = new ArrayList<>(batchSize);
+        int threads = inflateThreads > 0 ? inflateThreads : Runtime.getRuntime().availableProcessors();
+
+        try (VcfReader reader = new VcfReader(BgzfInputStream.decompress(
+                s3Service.downloadFile(vcfFileKey), threads))) {
+            while (reader.next()) {
+                stats.records++;
+                if (!reader.isVariant() || !reader.passedFilters()) {
                     continue;
                 }
+                stats.variants++;
+                String type = reader.variantType();
+                if (VcfReader.SNV.equals(type)) {
+                    stats.snps++;
+                } else if (VcfReader.INSERTION.equals(type) || VcfReader.DELETION.equals(type)) {
+                    stats.indels++;
+                }
 
-                String[] parts = line.split(",");
-                if (parts.length < 5) continue;
+                // Sin gen no hay a qué asociar la mutación (variantes intergénicas); solo cuentan
+                String gene = reader.gene();
+                if (gene == null || gene.length() > MAX_COLUMN_LENGTH) {
+                    continue;
+                }
+                String comment = reader.position() + " " + reader.ref() + ">" + reader.alt();
+                batch.add(new String[]{
+                        gene,
+                        reader.chromosome(),
+                        type,
+                        reader.relevance().name(),
+                        comment.length() > MAX_COLUMN_LENGTH ? comment.substring(0, MAX_COLUMN_LENGTH) : comment
+                });
+                if (batch.size() == batchSize) {
+                    insertBatch(batch, geneticSampleId, null, staging, stats.rows);
+                }
+            }
+            insertBatch(batch, geneticSampleId, null, staging, stats.rows);
+            return stats;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error reading VCF file: " + e.getMessage(), e);
+        }
+    }
 
-                Mutation mutation = Mutation.builder()
-                        .gene(parts[0].trim())
-                        .chromosome(parts[1].trim())
-                        .type(parts[2].trim())
-                        .relevance(Relevance.valueOf(parts[3].trim().toUpperCase()))
-                        .comment(parts[4].trim())
-                        .sample(geneticSample) // ✅ CAMBIAR: usar geneticSample
-                        .build();
+    /**
+     * Motivo por el que la línea no se puede insertar, o null si es válida
+     */
+    private String validate(List<String> fields) {
+        if (fields.size() < 5) {
+            return "Expected 5 columns (gene, chromosome, type, relevance, comment) but found " + fields.size();
+        }
+        if (fields.get(0).isBlank()) {
+            return "Gene is empty";
+        }
+        String relevance = fields.get(3).trim().toUpperCase(Locale.ROOT);
+        if (!RELEVANCES.contains(relevance)) {
+            return "Unknown relevance '" + fields.get(3).trim() + "'; expected one of " + RELEVANCES;
+        }
+        for (int i = 0; i < 5; i++) {
+            if (fields.get(i).trim().length() > MAX_COLUMN_LENGTH) {
+                return COLUMNS[i] + " exceeds " + MAX_COLUMN_LENGTH + " characters";
+            }
+        }
+        return null;
+    }
 
-                mutations.add(mutation);
+    /**
+     * Inserta solo las filas cuya llave natural no está ya en la muestra. Con reWriteBatchedInserts el
+     * driver no informa cuántas filas insertó cada sentencia, por eso las existentes se consultan antes
+     * (una consulta por lote sobre uk_mutations_sample_variant_key); el candado de la muestra que toma
+     * el servicio de frecuencias evita que otra ingesta de la misma muestra inserte entre medio.
+     */
+    private void insertBatch(List<String[]> batch, UUID geneticSampleId, UUID resultFileId, VariantStaging staging,
+                             RowCounts counts) throws IOException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        Map<UUID, String[]> rows = new LinkedHashMap<>(batch.size() * 2);
+        for (String[] row : batch) {
+            if (rows.putIfAbsent(VariantKey.of(row[0], row[1], row[2], row[3], row[4]), row) != null) {
+                counts.skipped++;
             }
+        }
+        for (Map.Entry<UUID, UUID> existing : findExistingKeys(geneticSampleId, rows.keySet()).entrySet()) {
+            rows.remove(existing.getKey());
+            counts.skipped++;
+            // Una fila de otro origen deja incompleto el conjunto de este archivo
+            if (resultFileId != null && !resultFileId.equals(existing.getValue())) {
+                counts.foreign++;
+            }
+        }
+        batch.clear();
+        if (rows.isEmpty()) {
+            return;
+        }
 
-            reader.close();
-            inputStream.close();
-            
-            return mutationRepository.saveAll(mutations);
+        List<Map.Entry<UUID, String[]>> pending = new ArrayList<>(rows.entrySet());
+        jdbcTemplate.batchUpdate(INSERT_MUTATION_SQL, pending, pending.size(), (statement, entry) -> {
+            String[] row = entry.getValue();
+            statement.setObject(1, UUID.randomUUID());
+            statement.setString(2, row[0]);
+            statement.setString(3, GeneDictionary.normalize(row[0]));
+            statement.setString(4, row[1]);
+            statement.setString(5, row[2]);
+            statement.setString(6, row[3]);
+            statement.setString(7, row[4]);
+            statement.setObject(8, geneticSampleId);
+            statement.setObject(9, entry.getKey());
+            statement.setObject(10, resultFileId);
+        });
+        Set<String> genes = new HashSet<>();
+        for (String[] row : rows.values()) {
+            staging.add(geneticSampleId, row[0], row[1], row[2], Relevance.valueOf(row[3]));
+            genes.add(row[0]);
+        }
+        geneSearchService.registerSymbols(genes);
+        counts.inserted += rows.size();
+    }
 
-        } catch (Exception e) {
-            throw new RuntimeException("Error reading mutation file: " + e.getMessage(), e);
+    /**
+     * Llaves del lote que la muestra ya tiene, con el archivo del que vino cada una
+     */
+    private Map<UUID, UUID> findExistingKeys(UUID geneticSampleId, Collection<UUID> keys) {
+        Map<UUID, UUID> existing = new HashMap<>();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(EXISTING_KEYS_SQL);
+            statement.setObject(1, geneticSampleId);
+            statement.setArray(2, connection.createArrayOf("uuid", keys.toArray()));
+            return statement;
+        }, resultSet -> {
+            existing.put(resultSet.getObject(1, UUID.class), resultSet.getObject(2, UUID.class));
+        });
+        return existing;
+    }
+
+    /**
+     * Copia a la muestra las filas de un archivo idéntico ya procesado. Las que la muestra ya tenía las
+     * descarta ON CONFLICT; las copiadas se leen de vuelta para el almacén columnar.
+     */
+    private IngestionStats copyRows(ResultFile source, UUID resultFileId, UUID geneticSampleId, VariantStaging staging) {
+        IngestionStats stats = new IngestionStats();
+        stats.read = valueOrZero(source.getRowsRead());
+        stats.rejected = valueOrZero(source.getRowsRejected());
+        stats.contentSha256 = source.getContentSha256();
+
+        long sourceRows = jdbcTemplate.queryForObject(COUNT_FILE_ROWS_SQL, Long.class, source.getId());
+        int copied = jdbcTemplate.update(COPY_FILE_ROWS_SQL, geneticSampleId, resultFileId, source.getId());
+        stats.rows.inserted = copied;
+        stats.rows.skipped = sourceRows - copied;
+        stats.rows.foreign = sourceRows - copied;
+
+        jdbcTemplate.query(SELECT_FILE_ROWS_SQL, resultSet -> {
+            try {
+                String relevance = resultSet.getString(4);
+                staging.add(geneticSampleId, resultSet.getString(1), resultSet.getString(2), resultSet.getString(3),
+                        relevance == null ? null : Relevance.valueOf(relevance));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, resultFileId);
+        logger.info("Result file {} has the same content as {}; copied {} of {} mutations without parsing",
+                resultFileId, source.getId(), copied, sourceRows);
+        return stats;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static void discard(VariantStaging staging) {
+        try {
+            staging.close();
+        } catch (IOException e) {
+            logger.warn("Could not delete variant staging file: {}", e.getMessage());
         }
     }
 
-    private String extractS3KeyFromUrl(String s3Url) {
-        String bucketPattern = ".s3.amazonaws.com/";
-        int keyStartIndex = s3Url.indexOf(bucketPattern);
-        
-        if (keyStartIndex == -1) {
-            throw new IllegalArgumentException("Invalid S3 URL format: " + s3Url);
+    private static String truncate(String message, int maxLength) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() <= maxLength ? message : message.substring(0, maxLength);
+    }
+
+    /**
+     * Filas insertadas y descartadas por estar ya en la muestra; foreign cuenta las que venían de otro origen
+     */
+    private static class RowCounts {
+        private long inserted;
+        private long skipped;
+        private long foreign;
+    }
+
+    private static class IngestionStats {
+        private long read;
+        private long rejected;
+        private String contentSha256;
+        private final RowCounts rows = new RowCounts();
+        private final List<MutationIngestionErrorDTO> errors = new ArrayList<>();
+
+        private void reject(long line, String message, int maxReportedErrors) {
+            rejected++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new MutationIngestionErrorDTO(line, message));
+            }
+        }
+    }
+
+    private static class VcfStats {
+        private long records;
+        private long variants;
+        private long snps;
+        private long indels;
+        private final RowCounts rows = new RowCounts();
+    }
+
+    /**
+     * Cuenta los bytes leídos para estimar el avance contra el tamaño del archivo
+     */
+    private static class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        private CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+
+        private long count() {
+            return count;
         }
-        
-        return s3Url.substring(keyStartIndex + bucketPattern.length());
     }
 }
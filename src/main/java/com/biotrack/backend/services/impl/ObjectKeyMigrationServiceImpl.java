@@ -0,0 +1,157 @@
+package com.biotrack.backend.services.impl;
+
+import com.biotrack.backend.models.ClinicalHistoryRecord;
+import com.biotrack.backend.models.Report;
+import com.biotrack.backend.repositories.ClinicalHistoryRecordRepository;
+import com.biotrack.backend.repositories.ReportRepository;
+import com.biotrack.backend.services.BulkDeletionService;
+import com.biotrack.backend.services.ObjectKeyMigrationService;
+import com.biotrack.backend.services.S3Service;
+import com.biotrack.backend.services.storage.ObjectKeyStrategy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Migra reportes y resúmenes clínicos al formato de keys con prefijo de hash.
+ *
+ * Por cada lote se copian los objetos del lado de S3 y después, en una sola transacción, se
+ * reescriben keys y URLs de las filas y se encolan las keys viejas para borrarse. El borrado
+ * espera un periodo de gracia porque los clientes pueden tener URLs anteriores guardadas.
+ * Es idempotente: las filas ya migradas no vuelven a salir en la consulta.
+ */
+@Service
+public class ObjectKeyMigrationServiceImpl implements ObjectKeyMigrationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ObjectKeyMigrationServiceImpl.class);
+
+    private final ReportRepository reportRepository;
+    private final ClinicalHistoryRecordRepository clinicalHistoryRecordRepository;
+    private final S3Service s3Service;
+    private final BulkDeletionService bulkDeletionService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${storage.key-migration.batch-size:200}")
+    private int batchSize;
+
+    @Value("${storage.key-migration.delete-after-minutes:1440}")
+    private long deleteAfterMinutes;
+
+    public ObjectKeyMigrationServiceImpl(ReportRepository reportRepository,
+                                         ClinicalHistoryRecordRepository clinicalHistoryRecordRepository,
+                                         S3Service s3Service,
+                                         BulkDeletionService bulkDeletionService,
+                                         TransactionTemplate transactionTemplate) {
+        this.reportRepository = reportRepository;
+        this.clinicalHistoryRecordRepository = clinicalHistoryRecordRepository;
+        this.s3Service = s3Service;
+        this.bulkDeletionService = bulkDeletionService;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Override
+    public int migrateReports() {
+        int migrated = 0;
+        int failed = 0;
+        UUID afterId = new UUID(0L, 0L);
+
+        List<Report> batch;
+        do {
+            batch = reportRepository.findWithLegacyKeysAfter(afterId, PageRequest.of(0, batchSize));
+            List<Report> updated = new ArrayList<>();
+            List<String> oldKeys = new ArrayList<>();
+            for (Report report : batch) {
+                afterId = report.getId();
+                try {
+                    String s3Key = migrateKey(report.getS3Key(), oldKeys);
+                    String s3KeyPatient = migrateKey(report.getS3KeyPatient(), oldKeys);
+                    report.setS3Key(s3Key);
+                    report.setS3Url(s3Key == null ? report.getS3Url() : s3Service.getObjectUrl(s3Key));
+                    report.setS3KeyPatient(s3KeyPatient);
+                    report.setS3UrlPatient(s3KeyPatient == null ? report.getS3UrlPatient() : s3Service.getObjectUrl(s3KeyPatient));
+                    updated.add(report);
+                } catch (Exception e) {
+                    // La fila conserva sus keys viejas; la copia que sí se hizo se sobrescribe en el siguiente intento
+                    failed++;
+                    logger.warn("Could not migrate keys of report {}: {}", report.getId(), e.getMessage());
+                }
+            }
+            commit(() -> reportRepository.saveAll(updated), oldKeys);
+            migrated += updated.size();
+        } while (batch.size() == batchSize);
+
+        logger.info("Report key migration finished: {} migrated, {} failed", migrated, failed);
+        return migrated;
+    }
+
+    @Override
+    public int migrateClinicalHistory() {
+        int migrated = 0;
+        int failed = 0;
+        UUID afterId = new UUID(0L, 0L);
+
+        List<ClinicalHistoryRecord> batch;
+        do {
+            batch = clinicalHistoryRecordRepository.findWithLegacyKeysAfter(afterId, PageRequest.of(0, batchSize));
+            List<ClinicalHistoryRecord> updated = new ArrayList<>();
+            List<String> oldKeys = new ArrayList<>();
+            for (ClinicalHistoryRecord record : batch) {
+                afterId = record.getId();
+                try {
+                    // Aquí es el único lugar donde se obtiene una key desde la URL guardada
+                    String s3Key = migrateKey(storedKey(record.getS3Key(), record.getS3Url()), oldKeys);
+                    String s3KeyPatient = migrateKey(storedKey(record.getS3KeyPatient(), record.getS3UrlPatient()), oldKeys);
+                    record.setS3Key(s3Key);
+                    record.setS3Url(s3Key == null ? record.getS3Url() : s3Service.getObjectUrl(s3Key));
+                    record.setS3KeyPatient(s3KeyPatient);
+                    record.setS3UrlPatient(s3KeyPatient == null ? record.getS3UrlPatient() : s3Service.getObjectUrl(s3KeyPatient));
+                    updated.add(record);
+                } catch (Exception e) {
+                    failed++;
+                    logger.warn("Could not migrate keys of clinical history record {}: {}", record.getId(), e.getMessage());
+                }
+            }
+            commit(() -> clinicalHistoryRecordRepository.saveAll(updated), oldKeys);
+            migrated += updated.size();
+        } while (batch.size() == batchSize);
+
+        logger.info("Clinical history key migration finished: {} migrated, {} failed", migrated, failed);
+        return migrated;
+    }
+
+    /**
+     * Copia el objeto a su key con prefijo de hash; las keys que ya lo tienen se dejan igual.
+     */
+    private String migrateKey(String key, List<String> oldKeys) {
+        if (key == null || ObjectKeyStrategy.isHashPrefixed(key)) {
+            return key;
+        }
+        String newKey = ObjectKeyStrategy.toHashPrefixed(key);
+        s3Service.copyObject(key, newKey);
+        oldKeys.add(key);
+        return newKey;
+    }
+
+    // Sin key ni URL el registro no tiene ese documento (p. ej. aún sin versión para el paciente)
+    private String storedKey(String s3Key, String s3Url) {
+        if (s3Key != null || s3Url == null) {
+            return s3Key;
+        }
+        return s3Service.extractKeyFromUrl(s3Url);
+    }
+
+    private void commit(Runnable saveRows, List<String> oldKeys) {
+        transactionTemplate.executeWithoutResult(status -> {
+            saveRows.run();
+            bulkDeletionService.enqueueStorageDeletion(oldKeys, Duration.ofMinutes(deleteAfterMinutes));
+        });
+    }
+}
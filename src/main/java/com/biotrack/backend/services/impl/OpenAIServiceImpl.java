@@ -3,6 +3,8 @@ package com.biotrack.backend.services.impl;
 import com.biotrack.backend.models.Mutation;
 import com.biotrack.backend.models.Patient;
 import com.biotrack.backend.dto.MedicationAnalysisDTO;
+import com.biotrack.backend.dto.PharmacogenomicAlertDTO;
+import com.biotrack.backend.dto.VariantFrequencyDTO;
 import com.biotrack.backend.models.MedicalVisit;
 import com.biotrack.backend.services.OpenAIService;
 import com.fasterxml.jackson.databind.JsonNode;
@@ -18,6 +20,7 @@ import org.springframework.web.client.RestTemplate;
 
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 @Service
@@ -47,13 +50,14 @@ public class OpenAIServiceImpl implements OpenAIService {
     }
 
     @Override
-    public String generateGeneticReport(List<Mutation> mutations, String patientInfo) {
+    public String generateGeneticReport(List<Mutation> mutations, String patientInfo, List<VariantFrequencyDTO> cohortFrequencies,
+                                        List<PharmacogenomicAlertDTO> pharmacogenomicFindings) {
         if (!isConfigured()) {
             throw new RuntimeException("OpenAI service is not properly configured");
         }
 
         try {
-            String prompt = buildGeneticPrompt(mutations, patientInfo);
+            String prompt = buildGeneticPrompt(mutations, patientInfo, cohortFrequencies, pharmacogenomicFindings);
             Map<String, Object> requestBody = buildRequestBody(prompt);
 
             HttpHeaders headers = new HttpHeaders();
@@ -91,7 +95,8 @@ public class OpenAIServiceImpl implements OpenAIService {
     /**
      * Construye el prompt especializado para análisis genético - versión JSON estructurada con correlación médica trazable
      */
-    private String buildGeneticPrompt(List<Mutation> mutations, String patientInfo) {
+    private String buildGeneticPrompt(List<Mutation> mutations, String patientInfo, List<VariantFrequencyDTO> cohortFrequencies,
+                                      List<PharmacogenomicAlertDTO> pharmacogenomicFindings) {
         // Validar que no tengamos demasiadas mutaciones (límite de tokens)
         if (mutations.size() > 50) {
             throw new RuntimeException("Too many mutations for single report generation. Maximum: 50");
@@ -117,6 +122,26 @@ public class OpenAIServiceImpl implements OpenAIService {
             prompt.append(String.format("  • Clinical Relevance: %s\n", mutation.getRelevance()));
             prompt.append(String.format("  • Additional Notes: %s\n\n", mutation.getComment()));
         }
+
+        // Frecuencias precalculadas en tablas agregadas; no se consulta la tabla de mutaciones por reporte
+        if (cohortFrequencies != null && !cohortFrequencies.isEmpty()) {
+            prompt.append("INTERNAL COHORT FREQUENCY (carriers among this institution's genotyped samples, including this patient; ");
+            prompt.append("use it alongside, not instead of, published population frequencies):\n");
+            for (VariantFrequencyDTO frequency : cohortFrequencies) {
+                prompt.append(String.format(Locale.ROOT, "  • %s chr%s %s [%s]: %d of %d samples (%.2f%%), relevance LOW/MEDIUM/HIGH %d/%d/%d\n",
+                        frequency.gene(), frequency.chromosome(), frequency.type(),
+                        frequency.hospitalId() == null ? "all hospitals" : "this hospital",
+                        frequency.carriers(), frequency.cohortSamples(), frequency.carrierFrequency() * 100,
+                        frequency.lowRelevance(), frequency.mediumRelevance(), frequency.highRelevance()));
+            }
+            prompt.append("\n");
+        }
+
+        // Reglas gen–fármaco resueltas con el índice local; el modelo solo las redacta
+        prompt.append("PHARMACOGENOMIC FINDINGS (precomputed by matching the variant genes against a CPIC-based gene-drug table; ");
+        prompt.append("metabolizer phenotypes were not inferred):\n");
+        appendPharmacogenomicFindings(prompt, pharmacogenomicFindings);
+        prompt.append("\n");
         
         prompt.append("REPORT REQUIREMENTS:\n");
         prompt.append("Your response MUST be a valid JSON object with the following structure and field names. Do NOT return plain text, markdown, or any other format. Only return the JSON object.\n\n");
@@ -189,7 +214,8 @@ public class OpenAIServiceImpl implements OpenAIService {
         prompt.append("      \"therapeutic_considerations\": \"Potential treatments or interventions considering both genetic predisposition and current medical conditions\",\n");
         prompt.append("      \"lifestyle_modifications\": [\"Diet, exercise, environmental factors specifically relevant to genetic findings and current health issues\"],\n");
         prompt.append("      \"family_screening\": \"Recommendations for testing family members based on identified variants and inheritance patterns\",\n");
-        prompt.append("      \"genetic_counseling\": \"Whether genetic counseling is recommended and why, considering family implications\"\n");
+        prompt.append("      \"genetic_counseling\": \"Whether genetic counseling is recommended and why, considering family implications\",\n");
+        prompt.append("      \"pharmacogenomic_recommendations\": [\"One entry per PHARMACOGENOMIC FINDING listed above; empty if none were listed\"]\n");
         prompt.append("    },\n");
         prompt.append("    \"technical_details\": {\n");
         prompt.append("      \"methodology\": \"Brief description of genetic testing method used\",\n");
@@ -224,7 +250,8 @@ public class OpenAIServiceImpl implements OpenAIService {
         prompt.append("• Consider disease progression timelines and how they align with genetic expectations\n");
         prompt.append("• Identify gaps where genetics cannot explain observed medical findings\n");
         prompt.append("• Provide actionable clinical guidance that integrates genetic risk with current health status\n");
-        prompt.append("• Consider family implications based on inheritance patterns and medical history\n\n");
+        prompt.append("• Consider family implications based on inheritance patterns and medical history\n");
+        prompt.append("• Base pharmacogenomic_recommendations only on the PHARMACOGENOMIC FINDINGS section; do not add gene-drug pairs that are not listed\n\n");
         
         prompt.append("MEDICAL CORRELATION EVIDENCE REQUIREMENTS:\n");
         prompt.append("• Every laboratory finding correlation must be backed by specific sample IDs (idMuestra)\n");
@@ -429,13 +456,14 @@ public class OpenAIServiceImpl implements OpenAIService {
     }
 
     @Override
-    public String generateMedicationCompatibilityReport(List<MedicationAnalysisDTO> medications, String clinicalContext) {
+    public String generateMedicationCompatibilityReport(List<MedicationAnalysisDTO> medications, String clinicalContext,
+                                                        List<PharmacogenomicAlertDTO> pharmacogenomicAlerts) {
         if (!isConfigured()) {
             throw new RuntimeException("OpenAI service is not properly configured");
         }
 
         try {
-            String prompt = buildMedicationCompatibilityPrompt(medications, clinicalContext);
+            String prompt = buildMedicationCompatibilityPrompt(medications, clinicalContext, pharmacogenomicAlerts);
             
            
             //int medicationAnalysisTokens = 3500;
@@ -463,7 +491,8 @@ public class OpenAIServiceImpl implements OpenAIService {
     }
 
     // ✅ NUEVO: Método para construir prompt de compatibilidad de medicamentos
-    private String buildMedicationCompatibilityPrompt(List<MedicationAnalysisDTO> medications, String clinicalContext) {
+    private String buildMedicationCompatibilityPrompt(List<MedicationAnalysisDTO> medications, String clinicalContext,
+                                                      List<PharmacogenomicAlertDTO> pharmacogenomicAlerts) {
         StringBuilder prompt = new StringBuilder();
         
         prompt.append("You are a clinical pharmacologist and medication safety expert. ");
@@ -495,6 +524,11 @@ public class OpenAIServiceImpl implements OpenAIService {
             prompt.append(String.format("  - Prescribed By: %s\n\n", med.prescribedBy() != null ? med.prescribedBy() : "Not specified"));
         }
         
+        // Alertas del índice gen–fármaco: el modelo no recibe variantes crudas para deducir interacciones
+        prompt.append("PHARMACOGENOMIC ALERTS (precomputed from the patient's genetic variants and a CPIC-based gene-drug table):\n");
+        appendPharmacogenomicFindings(prompt, pharmacogenomicAlerts);
+        prompt.append("\n");
+
         prompt.append("ANALYSIS REQUIREMENTS:\n");
         prompt.append("Provide a comprehensive medication safety analysis in the following JSON structure.\n");
         prompt.append("Your response MUST be a valid JSON object. Do NOT return plain text, markdown, or any other format.\n\n");
@@ -581,7 +615,8 @@ public class OpenAIServiceImpl implements OpenAIService {
         prompt.append("• Prioritize patient safety above all other considerations\n");
         prompt.append("• Provide specific, actionable recommendations\n");
         prompt.append("• Consider medication adherence and practical aspects\n");
-        prompt.append("• Reference established drug interaction databases when applicable\n\n");
+        prompt.append("• Reference established drug interaction databases when applicable\n");
+        prompt.append("• Include every PHARMACOGENOMIC ALERT in contraindications or dosage_concerns; do not infer gene-drug interactions that are not listed\n\n");
         
         prompt.append("Generate the complete medication compatibility analysis using the exact JSON structure above. ");
         prompt.append("Base your analysis on the provided medications and clinical context.\n");
@@ -590,6 +625,20 @@ public class OpenAIServiceImpl implements OpenAIService {
         return prompt.toString();
     }
 
+    private void appendPharmacogenomicFindings(StringBuilder prompt, List<PharmacogenomicAlertDTO> findings) {
+        if (findings == null || findings.isEmpty()) {
+            prompt.append("  • None: no gene-drug guideline applies to the patient's recorded variants\n");
+            return;
+        }
+        for (PharmacogenomicAlertDTO finding : findings) {
+            prompt.append(String.format(Locale.ROOT, "  • %s / %s%s: %s (%s). Applies to: %s. Patient variants in gene: %d, highest relevance %s. %s\n",
+                    finding.gene(), finding.guidelineSubstance(),
+                    finding.medicationId() != null ? " [currently prescribed as '" + finding.substance() + "']" : "",
+                    finding.action(), finding.evidence(), finding.affectedPhenotypes(),
+                    finding.variantCount(), finding.variantRelevance(), finding.recommendation()));
+        }
+    }
+
     /**
      * Construye el cuerpo de la petición para OpenAI
      */
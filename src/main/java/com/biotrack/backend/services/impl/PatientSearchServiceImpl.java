@@ -0,0 +1,295 @@
+package com.biotrack.backend.services.impl;
+
+import com.biotrack.backend.models.Patient;
+import com.biotrack.backend.repositories.PatientRepository;
+import com.biotrack.backend.services.PatientSearchService;
+import com.biotrack.backend.utils.SearchText;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Búsqueda de pacientes sin recorrer la tabla.
+ *
+ * CURP, correo y teléfono van primero por igualdad sobre sus índices únicos. El resto se compara contra
+ * search_name (nombre y apellidos normalizados, sin acentos): en Postgres con pg_trgm por coincidencia de
+ * subcadena o similitud de palabra sobre un índice GIN de trigramas, ordenado por similitud; sin pg_trgm
+ * (H2 en pruebas) con un LIKE ordenado por prefijo. El resultado siempre va acotado.
+ */
+@Service
+public class PatientSearchServiceImpl implements PatientSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PatientSearchServiceImpl.class);
+
+    // Letras iniciales, fecha AAMMDD, sexo, entidad, consonantes internas, homoclave y dígito verificador
+    private static final Pattern CURP = Pattern.compile("[A-Z]{4}\\d{6}[HMX][A-Z]{5}[A-Z0-9]\\d");
+    private static final Pattern PHONE = Pattern.compile("\\+?[\\d\\s().-]{7,20}");
+    private static final Pattern NON_DIGITS = Pattern.compile("\\D");
+
+    private static final String EXACT_SQL = "SELECT id FROM patients WHERE %s = ?";
+    private static final String HOSPITAL_FILTER =
+            " AND id IN (SELECT patient_id FROM hospital_patients WHERE hospital_id = ?)";
+    // ? <% search_name es similitud de palabra: "garsia" encuentra "maria garcia lopez" (el % va doble por formatted)
+    private static final String TRIGRAM_SQL = "SELECT id FROM patients "
+            + "WHERE (search_name LIKE ? ESCAPE '\\' OR ? <%% search_name)%s "
+            + "ORDER BY word_similarity(?, search_name) DESC, similarity(search_name, ?) DESC, id LIMIT ?";
+    // El umbral por defecto de pg_trgm (0.6) deja fuera un error de tipeo en apellidos de seis letras;
+    // is_local = true lo limita a la transacción de la búsqueda
+    private static final String SET_THRESHOLD_SQL = "SELECT set_config('pg_trgm.word_similarity_threshold', ?, true)";
+    private static final String LIKE_SQL = "SELECT id FROM patients WHERE search_name LIKE ? ESCAPE '\\'%s "
+            + "ORDER BY CASE WHEN search_name LIKE ? ESCAPE '\\' THEN 0 ELSE 1 END, search_name, id LIMIT ?";
+
+    // Prefiltro por subcadena sobre search_name (índice de trigramas); el campo exacto se revisa después.
+    // Va por bloques acotados en orden (search_name, id); si un bloque no junta suficientes coincidencias
+    // se pide el siguiente a partir de la última fila vista
+    private static final String NAME_FILTER_SQL = "SELECT id, first_name, last_name, search_name FROM patients "
+            + "WHERE search_name LIKE ? ESCAPE '\\' AND search_name LIKE ? ESCAPE '\\'%s "
+            + "ORDER BY search_name, id LIMIT ?";
+    private static final String NAME_FILTER_AFTER = " AND (search_name > ? OR (search_name = ? AND id > ?))";
+
+    private static final String PENDING_SEARCH_NAMES_SQL =
+            "SELECT id, first_name, last_name FROM patients WHERE search_name IS NULL LIMIT ?";
+    private static final String UPDATE_SEARCH_NAME_SQL = "UPDATE patients SET search_name = ? WHERE id = ?";
+    private static final String DETECT_TRIGRAM_SQL = "SELECT COUNT(*) FROM pg_extension WHERE extname = 'pg_trgm'";
+    private static final String CREATE_TRIGRAM_EXTENSION_SQL = "CREATE EXTENSION IF NOT EXISTS pg_trgm";
+    // CONCURRENTLY para no bloquear las altas de pacientes mientras se construyen
+    private static final String CREATE_TRIGRAM_INDEX_SQL = "CREATE INDEX CONCURRENTLY IF NOT EXISTS "
+            + "idx_patients_search_name_trgm ON patients USING gin (search_name gin_trgm_ops)";
+    // Con menos de tres letras no hay trigramas útiles: esos términos se buscan por prefijo sobre este índice
+    private static final String CREATE_PREFIX_INDEX_SQL = "CREATE INDEX CONCURRENTLY IF NOT EXISTS "
+            + "idx_patients_search_name_prefix ON patients (search_name text_pattern_ops)";
+
+    private static final int MIN_TRIGRAM_LENGTH = 3;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PatientRepository patientRepository;
+    private final int defaultLimit;
+    private final int maxLimit;
+    private final int backfillBatchSize;
+    private final double similarityThreshold;
+    private volatile boolean trigramSearch;
+
+    public PatientSearchServiceImpl(JdbcTemplate jdbcTemplate,
+                                    PatientRepository patientRepository,
+                                    @Value("${patients.search.default-limit:20}") int defaultLimit,
+                                    @Value("${patients.search.max-limit:100}") int maxLimit,
+                                    @Value("${patients.search.backfill-batch-size:5000}") int backfillBatchSize,
+                                    @Value("${patients.search.similarity-threshold:0.5}") double similarityThreshold) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.patientRepository = patientRepository;
+        this.defaultLimit = defaultLimit;
+        this.maxLimit = maxLimit;
+        this.backfillBatchSize = backfillBatchSize;
+        this.similarityThreshold = similarityThreshold;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Patient> search(UUID hospitalId, String query, Integer limit) {
+        String term = query == null ? "" : query.trim();
+        if (term.isEmpty()) {
+            throw new IllegalArgumentException("Patient search term is empty");
+        }
+        int max = limit(limit);
+        List<UUID> ids = exactMatches(hospitalId, term);
+        if (ids.isEmpty()) {
+            ids = nameMatches(hospitalId, SearchText.normalize(term), max);
+        }
+        return load(ids.size() > max ? ids.subList(0, max) : ids);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Patient> searchByName(String firstName, String lastName, Integer limit) {
+        String first = SearchText.normalize(firstName);
+        String last = SearchText.normalize(lastName);
+        int max = limit(limit);
+        List<UUID> ids = new ArrayList<>();
+        NameRow lastSeen = null;
+        int rows;
+        do {
+            List<NameRow> block = nameFilterBlock(first, last, lastSeen, max);
+            rows = block.size();
+            for (NameRow row : block) {
+                if (ids.size() < max
+                        && SearchText.normalize(row.firstName()).contains(first)
+                        && SearchText.normalize(row.lastName()).contains(last)) {
+                    ids.add(row.id());
+                }
+                lastSeen = row;
+            }
+        } while (ids.size() < max && rows == max);
+        return load(ids);
+    }
+
+    @Override
+    public long backfillSearchNames() {
+        long updated = 0;
+        List<Object[]> pending = pendingSearchNames();
+        while (!pending.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_SEARCH_NAME_SQL, pending);
+            updated += pending.size();
+            pending = pendingSearchNames();
+        }
+        if (updated > 0) {
+            logger.info("Backfilled search_name on {} patients", updated);
+        }
+        return updated;
+    }
+
+    @Override
+    public boolean ensureTrigramIndex() {
+        try {
+            jdbcTemplate.execute(CREATE_TRIGRAM_EXTENSION_SQL);
+            jdbcTemplate.execute(CREATE_TRIGRAM_INDEX_SQL);
+            jdbcTemplate.execute(CREATE_PREFIX_INDEX_SQL);
+            trigramSearch = true;
+        } catch (DataAccessException e) {
+            // Sin pg_trgm (u otra base) la búsqueda sigue funcionando con LIKE, pero recorre la tabla
+            logger.warn("Trigram index on patients.search_name not available: {}", e.getMostSpecificCause().getMessage());
+            trigramSearch = false;
+        }
+        return trigramSearch;
+    }
+
+    @Override
+    public boolean detectTrigramSupport() {
+        try {
+            Long installed = jdbcTemplate.queryForObject(DETECT_TRIGRAM_SQL, Long.class);
+            trigramSearch = installed != null && installed > 0;
+        } catch (DataAccessException e) {
+            trigramSearch = false;
+        }
+        return trigramSearch;
+    }
+
+    /**
+     * CURP, correo o teléfono: igualdad sobre columnas con índice único. Vacío si el término no tiene esa forma
+     * o no coincide, para seguir con la búsqueda por nombre.
+     */
+    private List<UUID> exactMatches(UUID hospitalId, String term) {
+        String upper = term.toUpperCase(Locale.ROOT);
+        if (CURP.matcher(upper).matches()) {
+            return exact(hospitalId, "curp", upper);
+        }
+        if (term.indexOf('@') > 0) {
+            List<UUID> ids = exact(hospitalId, "email", term);
+            String lower = term.toLowerCase(Locale.ROOT);
+            return ids.isEmpty() && !lower.equals(term) ? exact(hospitalId, "email", lower) : ids;
+        }
+        if (PHONE.matcher(term).matches()) {
+            List<UUID> ids = exact(hospitalId, "phone_number", term);
+            String digits = NON_DIGITS.matcher(term).replaceAll("");
+            return ids.isEmpty() && !digits.equals(term) ? exact(hospitalId, "phone_number", digits) : ids;
+        }
+        return List.of();
+    }
+
+    private List<UUID> exact(UUID hospitalId, String column, String value) {
+        String sql = EXACT_SQL.formatted(column) + (hospitalId == null ? "" : HOSPITAL_FILTER);
+        return hospitalId == null
+                ? jdbcTemplate.queryForList(sql, UUID.class, value)
+                : jdbcTemplate.queryForList(sql, UUID.class, value, hospitalId);
+    }
+
+    private List<UUID> nameMatches(UUID hospitalId, String normalized, int max) {
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+        String escaped = SearchText.escapeLike(normalized);
+        String prefix = escaped + "%";
+        String hospitalFilter = hospitalId == null ? "" : HOSPITAL_FILTER;
+        List<Object> args = new ArrayList<>();
+
+        if (trigramSearch && normalized.length() >= MIN_TRIGRAM_LENGTH) {
+            args.add("%" + prefix);
+            args.add(normalized);
+            addIfPresent(args, hospitalId);
+            args.add(normalized);
+            args.add(normalized);
+            args.add(max);
+            jdbcTemplate.queryForObject(SET_THRESHOLD_SQL, String.class, String.valueOf(similarityThreshold));
+            return jdbcTemplate.queryForList(TRIGRAM_SQL.formatted(hospitalFilter), UUID.class, args.toArray());
+        }
+        // Términos cortos en Postgres: solo prefijo, que sí sirve el índice text_pattern_ops
+        args.add(trigramSearch ? prefix : "%" + prefix);
+        addIfPresent(args, hospitalId);
+        args.add(prefix);
+        args.add(max);
+        return jdbcTemplate.queryForList(LIKE_SQL.formatted(hospitalFilter), UUID.class, args.toArray());
+    }
+
+    // Conserva el orden del ranking
+    private List<Patient> load(List<UUID> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<UUID, Patient> byId = patientRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Patient::getId, Function.identity()));
+        return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+    }
+
+    private List<Object[]> pendingSearchNames() {
+        return jdbcTemplate.query(PENDING_SEARCH_NAMES_SQL,
+                (rs, rowNum) -> new Object[]{
+                        SearchText.normalize(rs.getString("first_name"), rs.getString("last_name")),
+                        rs.getObject("id", UUID.class)
+                },
+                backfillBatchSize);
+    }
+
+    private record NameRow(UUID id, String firstName, String lastName, String searchName) {
+    }
+
+    // Siguiente bloque del prefiltro después de lastSeen (desde el inicio si es null)
+    private List<NameRow> nameFilterBlock(String first, String last, NameRow lastSeen, int max) {
+        List<Object> args = new ArrayList<>(List.of(containsPattern(first), containsPattern(last)));
+        if (lastSeen != null) {
+            args.add(lastSeen.searchName());
+            args.add(lastSeen.searchName());
+            args.add(lastSeen.id());
+        }
+        args.add(max);
+        return jdbcTemplate.query(NAME_FILTER_SQL.formatted(lastSeen == null ? "" : NAME_FILTER_AFTER),
+                (rs, rowNum) -> new NameRow(
+                        rs.getObject("id", UUID.class),
+                        rs.getString("first_name"),
+                        rs.getString("last_name"),
+                        rs.getString("search_name")),
+                args.toArray());
+    }
+
+    private static String containsPattern(String normalized) {
+        return "%" + SearchText.escapeLike(normalized) + "%";
+    }
+
+    private int limit(Integer limit) {
+        if (limit == null) {
+            return defaultLimit;
+        }
+        if (limit < 1) {
+            throw new IllegalArgumentException("Search limit must be at least 1");
+        }
+        return Math.min(limit, maxLimit);
+    }
+
+    private static void addIfPresent(List<Object> args, UUID hospitalId) {
+        if (hospitalId != null) {
+            args.add(hospitalId);
+        }
+    }
+}
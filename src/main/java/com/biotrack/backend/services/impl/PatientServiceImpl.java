@@ -13,11 +13,17 @@ import com.biotrack.backend.repositories.ClinicalHistoryRecordRepository;
 import com.biotrack.backend.repositories.MedicalVisitRepository;
 import com.biotrack.backend.repositories.PatientRepository;
 import com.biotrack.backend.repositories.ReportRepository;
+import com.biotrack.backend.services.BulkDeletionService;
 import com.biotrack.backend.services.OpenAIService;
+import com.biotrack.backend.services.PatientSearchService;
 import com.biotrack.backend.services.PatientService;
+import com.biotrack.backend.services.ReportSpoolService;
 import com.biotrack.backend.services.S3Service;
 import com.biotrack.backend.services.SmsService;
-import com.biotrack.backend.services.aws.S3ServiceImpl;
+import com.biotrack.backend.services.pagination.KeysetCursor;
+import com.biotrack.backend.services.pagination.KeysetPage;
+import com.biotrack.backend.services.pagination.KeysetPaginator;
+import com.biotrack.backend.services.storage.ObjectKeyStrategy;
 
 import com.biotrack.backend.services.SmsService;
 import org.springframework.http.ResponseEntity;
@@ -44,18 +50,26 @@ public class PatientServiceImpl implements PatientService {
     private final PatientRepository patientRepository;
     private final MedicalVisitRepository medicalVisitRepository;
     private final ReportRepository reportRepository;
-    private final S3ServiceImpl s3Service;
+    private final S3Service s3Service;
     private final OpenAIServiceImpl openAIService; 
     private final ClinicalHistoryRecordRepository clinicalHistoryRecordRepository;
     private final SmsService smsService;
+    private final ReportSpoolService reportSpoolService;
+    private final PatientSearchService patientSearchService;
+    private final BulkDeletionService bulkDeletionService;
+    private final KeysetPaginator paginator;
 
     public PatientServiceImpl(PatientRepository patientRepository, 
                               MedicalVisitRepository medicalVisitRepository,
                               ReportRepository reportRepository,
-                              S3ServiceImpl s3Service,
+                              S3Service s3Service,
                               OpenAIServiceImpl openAIService,
                               ClinicalHistoryRecordRepository clinicalHistoryRecordRepository,
-                              SmsService smsService) {
+                              SmsService smsService,
+                              ReportSpoolService reportSpoolService,
+                              BulkDeletionService bulkDeletionService,
+                              KeysetPaginator paginator,
+                              PatientSearchService patientSearchService) {
         this.patientRepository = patientRepository;
         this.medicalVisitRepository = medicalVisitRepository;
         this.reportRepository = reportRepository;
@@ -63,6 +77,10 @@ public class PatientServiceImpl implements PatientService {
         this.openAIService = openAIService;
         this.clinicalHistoryRecordRepository = clinicalHistoryRecordRepository;
         this.smsService = smsService;
+        this.reportSpoolService = reportSpoolService;
+        this.bulkDeletionService = bulkDeletionService;
+        this.paginator = paginator;
+        this.patientSearchService = patientSearchService;
     }
 
     @Override
@@ -76,6 +94,13 @@ public class PatientServiceImpl implements PatientService {
         return patientRepository.findAll();
     }
 
+    @Override
+    public KeysetPage<Patient> findPage(String cursor, Integer size) {
+        KeysetPaginator.Request request = paginator.newestFirst(cursor, size);
+        List<Patient> rows = patientRepository.findPageBefore(request.cursor().date(), request.cursor().id(), request.limit());
+        return paginator.page(rows, request, patient -> KeysetCursor.of(patient.getCreatedAt(), patient.getId()));
+    }
+
     @Override
     public Patient findById(UUID id){
         return patientRepository.findById(id)
@@ -99,16 +124,9 @@ public class PatientServiceImpl implements PatientService {
     @Override
     @Transactional
     public void deleteById(UUID id){
-        Patient patient = patientRepository.findById(id)
-            .orElseThrow(() -> new RuntimeException("Patient not found"));
-
-        // Elimina la relación con hospitales
-        patient.getHospitals().forEach(hospital -> hospital.getActivePatients().remove(patient));
-        patient.getHospitals().clear();
-
-        patientRepository.save(patient); // Actualiza relaciones
-
-        patientRepository.deleteById(id); // Ahora sí elimina el paciente
+        // Muestras, reportes, historial y relación con hospitales se borran en bloque;
+        // los archivos de S3 se eliminan en segundo plano
+        bulkDeletionService.deletePatient(id);
     }
 
     @Override
@@ -135,20 +153,24 @@ public class PatientServiceImpl implements PatientService {
     // 6. Generar resumen patient-friendly con OpenAI
     String patientFriendlySummary = openAIService.generateClinicalHistorySummary(patientFriendlyPrompt);
 
-    // 7. Subir resumen técnico a S3
+    // 7. Escribir resumen técnico en el spool (se sube a S3 en segundo plano)
     String technicalS3Key = generateClinicalHistoryS3Key(patientId, false);
-    String technicalS3Url = s3Service.uploadTextContent(technicalSummary, technicalS3Key);
+    String technicalS3Url = reportSpoolService.write(technicalS3Key, technicalSummary);
 
-    // 8. Subir resumen patient-friendly a S3
+    // 8. Escribir resumen patient-friendly en el spool
     String patientFriendlyS3Key = generateClinicalHistoryS3Key(patientId, true);
-    String patientFriendlyS3Url = s3Service.uploadTextContent(patientFriendlySummary, patientFriendlyS3Key);
+    String patientFriendlyS3Url = reportSpoolService.write(patientFriendlyS3Key, patientFriendlySummary);
 
     // 9. Guardar registro en ClinicalHistoryRecord con ambas URLs
     ClinicalHistoryRecord record = ClinicalHistoryRecord.builder()
         .patient(patient)
         .s3Url(technicalS3Url)           // URL del reporte técnico
         .s3UrlPatient(patientFriendlyS3Url)  // URL del reporte patient-friendly
+        .s3Key(technicalS3Key)
+        .s3KeyPatient(patientFriendlyS3Key)
         .createdAt(LocalDateTime.now())
+        .uploadPending(reportSpoolService.isPending(technicalS3Key)
+                || reportSpoolService.isPending(patientFriendlyS3Key))
         .build();
 
     clinicalHistoryRecordRepository.save(record);
@@ -160,12 +182,12 @@ public class PatientServiceImpl implements PatientService {
 
 @Override
 public int medicalVisitsCount(UUID patientId) {
-    return medicalVisitRepository.findByPatientId(patientId).size();
+    return (int) medicalVisitRepository.countByPatientId(patientId);
 }
 
 @Override
 public int pendingMedicalVisitsCount(UUID patientId) {
-    return medicalVisitRepository.findByPatientIdAndVisitCompletedFalse(patientId).size();
+    return (int) medicalVisitRepository.countByPatientIdAndVisitCompletedFalse(patientId);
 }
 
 @Override
@@ -302,7 +324,7 @@ private String buildClinicalHistoryPrompt(Patient patient, List<MedicalVisit> vi
             prompt.append("  Collection Method: ").append(saliva.getCollectionMethod()).append("\n");
         }
         
-        String content = s3Service.downloadTextContent(report.getS3Key());
+        String content = readDocument(report.getS3Key());
         prompt.append("  Main Findings: ").append(content).append("\n\n");
     }
 
@@ -438,7 +460,7 @@ private String buildPatientFriendlyClinicalPrompt(Patient patient, List<MedicalV
         prompt.append("Study Date: ").append(sample.getCollectionDate()).append("\n");
         prompt.append("Sample Type: ").append(sample.getType()).append("\n");
         
-        String content = s3Service.downloadTextContent(report.getS3Key());
+        String content = readDocument(report.getS3Key());
         prompt.append("Study Findings: ").append(content).append("\n\n");
     }
     
@@ -451,22 +473,23 @@ private String buildPatientFriendlyClinicalPrompt(Patient patient, List<MedicalV
 }
 
 private String generateClinicalHistoryS3Key(UUID patientId, boolean isPatientFriendly) {
-    long timestamp = System.currentTimeMillis();
-    String suffix = isPatientFriendly ? "patient_friendly_summary" : "technical_summary";
-    return String.format("clinical-history/%d_%s_%s.json", timestamp, patientId.toString(), suffix);
+    String suffix = isPatientFriendly ? "patient_friendly_summary.json" : "technical_summary.json";
+    return ObjectKeyStrategy.clinicalHistoryKey(patientId, suffix);
 }
 
 @Override
-public List<Patient> searchPatients(String firstName, String lastName) {
-    // Si ambos son nulos o vacíos, retorna todos
+public List<Patient> searchPatients(String firstName, String lastName, Integer limit) {
+    // Sin filtros devuelve la primera página de los más recientes, nunca la tabla completa
     if ((firstName == null || firstName.isBlank()) && (lastName == null || lastName.isBlank())) {
-        return patientRepository.findAll();
+        return findPage(null, null).items();
     }
-    // Si solo uno es nulo, usa "" para que el filtro sea inclusivo
-    return patientRepository.findByFirstNameContainingIgnoreCaseAndLastNameContainingIgnoreCase(
-        firstName != null ? firstName : "",
-        lastName != null ? lastName : ""
-    );
+    // Cada filtro debe estar contenido en su campo, como siempre; la búsqueda por similitud es /search
+    return patientSearchService.searchByName(firstName, lastName, limit);
+}
+
+@Override
+public List<Patient> searchPatients(String query, Integer limit) {
+    return patientSearchService.search(null, query, limit);
 }
 
 @Override
@@ -475,15 +498,7 @@ public String getLatestSummaryText(UUID patientId) {
     if (record == null || record.getS3Url() == null) {
         throw new RuntimeException("No summary file found for this patient");
     }
-    // Extrae la key de S3 desde la URL
-    String s3Url = record.getS3Url();
-    String bucketPattern = ".s3.amazonaws.com/";
-    int keyStartIndex = s3Url.indexOf(bucketPattern);
-    if (keyStartIndex == -1) {
-        throw new IllegalArgumentException("Invalid S3 URL format: " + s3Url);
-    }
-    String s3Key = s3Url.substring(keyStartIndex + bucketPattern.length());
-    return s3Service.downloadTextContent(s3Key);
+    return readDocument(storedKey(record.getS3Key(), record.getS3Url()));
 }
 
 @Override
@@ -492,15 +507,22 @@ public String getLatestSummaryTextPatientFriendly(UUID patientId) {
     if (record == null || record.getS3UrlPatient() == null) {
         throw new RuntimeException("No summary file found for this patient");
     }
-    // Extrae la key de S3 desde la URL
-    String s3Url = record.getS3UrlPatient();
-    String bucketPattern = ".s3.amazonaws.com/";
-    int keyStartIndex = s3Url.indexOf(bucketPattern);
-    if (keyStartIndex == -1) {
-        throw new IllegalArgumentException("Invalid S3 URL format: " + s3Url);
-    }
-    String s3Key = s3Url.substring(keyStartIndex + bucketPattern.length());
-    return s3Service.downloadTextContent(s3Key);
+    return readDocument(storedKey(record.getS3KeyPatient(), record.getS3UrlPatient()));
+}
+
+/**
+ * Key guardada en la fila; solo las filas que la migración de keys aún no procesa se resuelven por URL
+ */
+private String storedKey(String s3Key, String s3Url) {
+    return s3Key != null ? s3Key : s3Service.extractKeyFromUrl(s3Url);
+}
+
+/**
+ * Lee un documento generado: desde el spool si aún no se sube, si no desde S3
+ */
+private String readDocument(String s3Key) {
+    return reportSpoolService.read(s3Key)
+        .orElseGet(() -> s3Service.downloadTextContent(s3Key));
 }
 
 @Override
@@ -0,0 +1,240 @@
+package com.biotrack.backend.services.impl;
+
+import com.biotrack.backend.dto.PharmacogenomicAlertDTO;
+import com.biotrack.backend.models.Medication;
+import com.biotrack.backend.models.Mutation;
+import com.biotrack.backend.models.enums.Relevance;
+import com.biotrack.backend.repositories.MutationRepository;
+import com.biotrack.backend.services.PharmacogenomicService;
+import com.biotrack.backend.services.genomics.GeneDictionary;
+import com.biotrack.backend.services.genomics.PharmacogenomicIndex;
+import com.biotrack.backend.services.genomics.PharmacogenomicIndex.Guideline;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Alertas farmacogenéticas resueltas contra una tabla gen–fármaco local en vez del modelo de lenguaje.
+ *
+ * La tabla (la incluida en el classpath o la del archivo configurado) se compila una vez en un
+ * PharmacogenomicIndex. Por paciente se hace una sola consulta agrupada de sus genes restringida a los
+ * farmacogenes del índice (IN sobre gene_symbol); después cada medicamento son búsquedas por hash.
+ *
+ * Que haya variantes en el gen no basta para evitar o ajustar un fármaco: si la variante más relevante
+ * del gen queda por debajo de pharmacogenomics.alerts.min-relevance, la alerta baja a MONITOR.
+ */
+@Service
+public class PharmacogenomicServiceImpl implements PharmacogenomicService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PharmacogenomicServiceImpl.class);
+
+    static final String BUNDLED_GUIDELINES = "pharmacogenomics/gene-drug-guidelines.tsv";
+
+    private static final List<String> ACTION_ORDER = List.of(
+            PharmacogenomicIndex.ACTION_AVOID, PharmacogenomicIndex.ACTION_ADJUST_DOSE, PharmacogenomicIndex.ACTION_MONITOR);
+    // Primero lo que hay que evitar, luego las variantes más relevantes
+    private static final Comparator<PharmacogenomicAlertDTO> BY_SEVERITY = Comparator
+            .comparingInt((PharmacogenomicAlertDTO alert) -> ACTION_ORDER.indexOf(alert.action()))
+            .thenComparing(alert -> relevanceRank(alert.variantRelevance()), Comparator.reverseOrder())
+            .thenComparing(PharmacogenomicAlertDTO::gene)
+            .thenComparing(PharmacogenomicAlertDTO::guidelineSubstance);
+
+    // Variantes del paciente en un gen: cuántas y la relevancia más alta
+    private record GeneVariants(long count, Relevance highestRelevance) {
+        GeneVariants add(long more, Relevance relevance) {
+            return new GeneVariants(count + more, relevanceRank(relevance) > relevanceRank(highestRelevance) ? relevance : highestRelevance);
+        }
+    }
+
+    private final MutationRepository mutationRepository;
+    private final PharmacogenomicIndex index;
+    private final int maxReportFindings;
+    private final Relevance minActionRelevance;
+
+    public PharmacogenomicServiceImpl(MutationRepository mutationRepository,
+                                      @Value("${pharmacogenomics.guidelines-file:}") String guidelinesFile,
+                                      @Value("${pharmacogenomics.report.max-findings:25}") int maxReportFindings,
+                                      @Value("${pharmacogenomics.alerts.min-relevance:MEDIUM}") Relevance minActionRelevance) {
+        this.mutationRepository = mutationRepository;
+        this.maxReportFindings = maxReportFindings;
+        this.minActionRelevance = minActionRelevance;
+        this.index = load(guidelinesFile);
+        logger.info("Pharmacogenomic index loaded: {} gene-drug guidelines over {} genes", index.size(), index.genes().size());
+    }
+
+    @Override
+    public List<PharmacogenomicAlertDTO> checkSubstance(UUID patientId, String activeSubstance) {
+        if (activeSubstance == null || activeSubstance.isBlank()) {
+            throw new IllegalArgumentException("Substance is required");
+        }
+        List<Guideline> guidelines = index.forSubstance(activeSubstance);
+        if (guidelines.isEmpty()) {
+            return List.of();
+        }
+        Map<String, GeneVariants> genes = patientGenes(patientId);
+        List<PharmacogenomicAlertDTO> alerts = new ArrayList<>();
+        addAlerts(alerts, null, activeSubstance, guidelines, genes);
+        alerts.sort(BY_SEVERITY);
+        return alerts;
+    }
+
+    @Override
+    public List<PharmacogenomicAlertDTO> checkMedications(UUID patientId, Collection<Medication> medications) {
+        if (medications.isEmpty()) {
+            return List.of();
+        }
+        Map<String, GeneVariants> genes = null;
+        List<PharmacogenomicAlertDTO> alerts = new ArrayList<>();
+        for (Medication medication : medications) {
+            String substance = substanceOf(medication);
+            List<Guideline> guidelines = guidelinesFor(medication);
+            if (guidelines.isEmpty()) {
+                continue;
+            }
+            // Los genes se consultan solo si algún medicamento tiene reglas
+            if (genes == null) {
+                genes = patientGenes(patientId);
+            }
+            addAlerts(alerts, medication.getId(), substance, guidelines, genes);
+        }
+        alerts.sort(BY_SEVERITY);
+        return alerts;
+    }
+
+    @Override
+    public List<PharmacogenomicAlertDTO> findingsForMutations(Collection<Mutation> mutations, Collection<Medication> currentMedications) {
+        Map<String, GeneVariants> genes = new HashMap<>();
+        for (Mutation mutation : mutations) {
+            String gene = GeneDictionary.normalize(mutation.getGene());
+            if (!index.forGene(gene).isEmpty()) {
+                genes.merge(gene, new GeneVariants(1, mutation.getRelevance()),
+                        (current, added) -> current.add(added.count(), added.highestRelevance()));
+            }
+        }
+        if (genes.isEmpty()) {
+            return List.of();
+        }
+        // Regla → medicamento actual al que aplica
+        Map<Guideline, Medication> prescribed = new HashMap<>();
+        for (Medication medication : currentMedications) {
+            for (Guideline guideline : guidelinesFor(medication)) {
+                prescribed.putIfAbsent(guideline, medication);
+            }
+        }
+        List<PharmacogenomicAlertDTO> current = new ArrayList<>();
+        List<PharmacogenomicAlertDTO> others = new ArrayList<>();
+        genes.forEach((gene, variants) -> {
+            for (Guideline guideline : index.forGene(gene)) {
+                Medication medication = prescribed.get(guideline);
+                if (medication != null) {
+                    current.add(toAlert(medication.getId(), substanceOf(medication), guideline, variants));
+                } else {
+                    others.add(toAlert(null, null, guideline, variants));
+                }
+            }
+        });
+        current.sort(BY_SEVERITY);
+        others.sort(BY_SEVERITY);
+        // Las que tocan medicamentos actuales van primero y nunca se recortan
+        List<PharmacogenomicAlertDTO> findings = new ArrayList<>(current);
+        int remaining = Math.max(0, maxReportFindings - current.size());
+        findings.addAll(others.size() > remaining ? others.subList(0, remaining) : others);
+        return findings;
+    }
+
+    @Override
+    public int guidelineCount() {
+        return index.size();
+    }
+
+    private Map<String, GeneVariants> patientGenes(UUID patientId) {
+        Map<String, GeneVariants> genes = new HashMap<>();
+        if (index.genes().isEmpty()) {
+            return genes;
+        }
+        for (Object[] row : mutationRepository.countByPatientIdAndGeneSymbolIn(patientId, index.genes())) {
+            genes.merge((String) row[0], new GeneVariants(((Number) row[2]).longValue(), (Relevance) row[1]),
+                    (current, added) -> current.add(added.count(), added.highestRelevance()));
+        }
+        return genes;
+    }
+
+    // La sustancia activa manda; si no da reglas se intenta con el nombre comercial o genérico
+    private List<Guideline> guidelinesFor(Medication medication) {
+        List<Guideline> guidelines = index.forSubstance(medication.getActiveSubstance());
+        return guidelines.isEmpty() ? index.forSubstance(medication.getName()) : guidelines;
+    }
+
+    private static String substanceOf(Medication medication) {
+        String substance = medication.getActiveSubstance();
+        return substance == null || substance.isBlank() ? medication.getName() : substance;
+    }
+
+    private void addAlerts(List<PharmacogenomicAlertDTO> alerts, UUID medicationId, String substance,
+                                  List<Guideline> guidelines, Map<String, GeneVariants> genes) {
+        for (Guideline guideline : guidelines) {
+            GeneVariants variants = genes.get(guideline.gene());
+            if (variants != null) {
+                alerts.add(toAlert(medicationId, substance, guideline, variants));
+            }
+        }
+    }
+
+    private PharmacogenomicAlertDTO toAlert(UUID medicationId, String substance, Guideline guideline, GeneVariants variants) {
+        return new PharmacogenomicAlertDTO(
+                medicationId,
+                substance,
+                guideline.substance(),
+                guideline.gene(),
+                actionFor(guideline, variants),
+                variants.highestRelevance() == null ? null : variants.highestRelevance().name(),
+                variants.count(),
+                guideline.affectedPhenotypes(),
+                guideline.recommendation(),
+                guideline.evidence()
+        );
+    }
+
+    // Variantes sin relevancia o con relevancia baja no bastan para evitar ni ajustar: solo vigilar
+    private String actionFor(Guideline guideline, GeneVariants variants) {
+        return relevanceRank(variants.highestRelevance()) < relevanceRank(minActionRelevance)
+                ? PharmacogenomicIndex.ACTION_MONITOR
+                : guideline.action();
+    }
+
+    private static int relevanceRank(Relevance relevance) {
+        return relevance == null ? -1 : relevance.ordinal();
+    }
+
+    private static int relevanceRank(String relevance) {
+        return relevance == null ? -1 : Relevance.valueOf(relevance).ordinal();
+    }
+
+    private static PharmacogenomicIndex load(String guidelinesFile) {
+        String source = guidelinesFile.isBlank() ? "classpath:" + BUNDLED_GUIDELINES : guidelinesFile;
+        try (Reader reader = guidelinesFile.isBlank()
+                ? new InputStreamReader(new ClassPathResource(BUNDLED_GUIDELINES).getInputStream(), StandardCharsets.UTF_8)
+                : Files.newBufferedReader(Paths.get(guidelinesFile), StandardCharsets.UTF_8)) {
+            return PharmacogenomicIndex.parse(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read pharmacogenomic guidelines " + source, e);
+        }
+    }
+}
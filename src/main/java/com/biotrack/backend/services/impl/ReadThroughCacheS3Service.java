@@ -0,0 +1,231 @@
+package com.biotrack.backend.services.impl;
+
+import com.biotrack.backend.services.S3Service;
+import com.biotrack.backend.services.storage.DiskLruCache;
+import com.biotrack.backend.services.storage.StoredObjectInfo;
+import com.biotrack.backend.services.storage.StoredObjectStream;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Cache de lectura delante del almacenamiento para documentos inmutables (reportes y resúmenes).
+ *
+ * Sus keys llevan timestamp e id, así que una vez escritos no cambian y se pueden servir desde
+ * disco local sin volver a S3. El resto de operaciones pasa directo al almacenamiento
+ * (nivel en Postgres para documentos pequeños y, detrás, S3 o disco).
+ */
+@Service
+@Primary
+public class ReadThroughCacheS3Service implements S3Service {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadThroughCacheS3Service.class);
+
+    private final S3Service delegate;
+    private final DiskLruCache cache;
+    private final List<String> cachedPrefixes;
+
+    public ReadThroughCacheS3Service(@Qualifier("tieredStorage") S3Service delegate,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${storage.cache.enabled:true}") boolean enabled,
+                                     @Value("${storage.cache.dir:./data/report-cache}") String cacheDir,
+                                     @Value("${storage.cache.max-bytes:1073741824}") long maxBytes,
+                                     @Value("${storage.cache.heap-max-entries:256}") int heapMaxEntries,
+                                     @Value("${storage.cache.heap-max-entry-bytes:262144}") int heapMaxEntryBytes,
+                                     @Value("${storage.cache.prefixes:reports/,clinical-history/}") String prefixes) {
+        this.delegate = delegate;
+        this.cachedPrefixes = Arrays.stream(prefixes.split(","))
+                .map(String::trim)
+                .filter(prefix -> !prefix.isEmpty())
+                .toList();
+
+        DiskLruCache diskCache = null;
+        if (enabled) {
+            try {
+                diskCache = new DiskLruCache(Paths.get(cacheDir), maxBytes, heapMaxEntries, heapMaxEntryBytes);
+            } catch (IOException e) {
+                // Sin cache se lee directo del almacenamiento
+                logger.error("Report cache unavailable at {}, reading straight from storage: {}", cacheDir, e.getMessage());
+            }
+        }
+        this.cache = diskCache;
+
+        if (cache != null) {
+            registerMetrics(meterRegistry);
+        }
+    }
+
+    @Override
+    public String downloadTextContent(String keyName) {
+        return cachedText(keyName, () -> delegate.downloadTextContent(keyName));
+    }
+
+    @Override
+    public String downloadFileAsString(String s3Url) {
+        return cachedText(delegate.extractKeyFromUrl(s3Url), () -> delegate.downloadFileAsString(s3Url));
+    }
+
+    @Override
+    public String downloadFileAsStringNotFormated(String s3Url) {
+        return cachedText(delegate.extractKeyFromUrl(s3Url), () -> delegate.downloadFileAsStringNotFormated(s3Url));
+    }
+
+    @Override
+    public String uploadTextContent(String content, String keyName) {
+        String url = delegate.uploadTextContent(content, keyName);
+        // Lo recién subido es lo más probable de leerse enseguida
+        if (isCacheable(keyName)) {
+            cache.put(keyName, content.getBytes(StandardCharsets.UTF_8));
+        }
+        return url;
+    }
+
+    @Override
+    public void deleteFile(String keyName) {
+        delegate.deleteFile(keyName);
+        if (cache != null) {
+            cache.invalidate(keyName);
+        }
+    }
+
+    @Override
+    public List<String> deleteFiles(List<String> keyNames) {
+        // Se invalida todo el lote, incluso las keys que fallaron: se reintentarán
+        if (cache != null) {
+            keyNames.forEach(cache::invalidate);
+        }
+        return delegate.deleteFiles(keyNames);
+    }
+
+    @Override
+    public String uploadFile(MultipartFile file, String keyName) {
+        return delegate.uploadFile(file, keyName);
+    }
+
+    @Override
+    public InputStream downloadFile(String keyName) {
+        return delegate.downloadFile(keyName);
+    }
+
+    @Override
+    public String generatePresignedUrl(String keyName, int expirationMinutes) {
+        return delegate.generatePresignedUrl(keyName, expirationMinutes);
+    }
+
+    @Override
+    public String uploadStreamContent(InputStream inputStream, String keyName, String contentType, long contentLength) {
+        return delegate.uploadStreamContent(inputStream, keyName, contentType, contentLength);
+    }
+
+    @Override
+    public StoredObjectInfo headObject(String keyName) {
+        return delegate.headObject(keyName);
+    }
+
+    @Override
+    public StoredObjectStream openObject(String keyName, String range, String ifRange) {
+        return delegate.openObject(keyName, range, ifRange);
+    }
+
+    @Override
+    public String getObjectUrl(String keyName) {
+        return delegate.getObjectUrl(keyName);
+    }
+
+    @Override
+    public String extractKeyFromUrl(String s3Url) {
+        return delegate.extractKeyFromUrl(s3Url);
+    }
+
+    @Override
+    public List<String> listKeys(String prefix) {
+        return delegate.listKeys(prefix);
+    }
+
+    @Override
+    public String copyObject(String sourceKey, String targetKey) {
+        return delegate.copyObject(sourceKey, targetKey);
+    }
+
+    @Override
+    public String createMultipartUpload(String keyName, String contentType) {
+        return delegate.createMultipartUpload(keyName, contentType);
+    }
+
+    @Override
+    public String uploadPart(String keyName, String uploadId, int partNumber, Path partFile) {
+        return delegate.uploadPart(keyName, uploadId, partNumber, partFile);
+    }
+
+    @Override
+    public String completeMultipartUpload(String keyName, String uploadId, List<String> partETags) {
+        return delegate.completeMultipartUpload(keyName, uploadId, partETags);
+    }
+
+    @Override
+    public void abortMultipartUpload(String keyName, String uploadId) {
+        delegate.abortMultipartUpload(keyName, uploadId);
+    }
+
+    private String cachedText(String keyName, Supplier<String> loader) {
+        if (!isCacheable(keyName)) {
+            return loader.get();
+        }
+        byte[] cached = cache.get(keyName);
+        if (cached != null) {
+            return new String(cached, StandardCharsets.UTF_8);
+        }
+        String content = loader.get();
+        cache.put(keyName, content.getBytes(StandardCharsets.UTF_8));
+        return content;
+    }
+
+    private boolean isCacheable(String keyName) {
+        if (cache == null || keyName == null) {
+            return false;
+        }
+        for (String prefix : cachedPrefixes) {
+            if (keyName.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void registerMetrics(MeterRegistry registry) {
+        counter(registry, "storage.cache.hits", "tier", "heap", stats -> stats.heapHits());
+        counter(registry, "storage.cache.hits", "tier", "disk", stats -> stats.diskHits());
+        counter(registry, "storage.cache.misses", null, null, stats -> stats.misses());
+        counter(registry, "storage.cache.evictions", null, null, stats -> stats.evictions());
+        counter(registry, "storage.cache.read.bytes", null, null, stats -> stats.bytesRead());
+        counter(registry, "storage.cache.written.bytes", null, null, stats -> stats.bytesWritten());
+        Gauge.builder("storage.cache.size.bytes", cache, c -> c.stats().totalBytes()).register(registry);
+        Gauge.builder("storage.cache.entries", cache, c -> c.stats().entries()).register(registry);
+    }
+
+    private void counter(MeterRegistry registry, String name, String tagKey, String tagValue,
+                         ToDoubleFunction<DiskLruCache.Stats> value) {
+        FunctionCounter.Builder<DiskLruCache> builder = FunctionCounter.builder(name, cache, c -> value.applyAsDouble(c.stats()));
+        if (tagKey != null) {
+            builder.tag(tagKey, tagValue);
+        }
+        builder.register(registry);
+    }
+}
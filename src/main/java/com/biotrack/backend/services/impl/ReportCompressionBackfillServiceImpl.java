@@ -0,0 +1,57 @@
+package com.biotrack.backend.services.impl;
+
+import com.biotrack.backend.services.ReportCompressionBackfillService;
+import com.biotrack.backend.services.ReportSpoolService;
+import com.biotrack.backend.services.S3Service;
+import com.biotrack.backend.services.storage.StoredObjectInfo;
+import com.biotrack.backend.utils.CompressionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Reescribe comprimidos los reportes y resúmenes que se subieron antes de guardar con gzip.
+ * Es idempotente: los objetos que ya traen Content-Encoding gzip se saltan.
+ */
+@Service
+public class ReportCompressionBackfillServiceImpl implements ReportCompressionBackfillService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportCompressionBackfillServiceImpl.class);
+
+    private final S3Service s3Service;
+    private final ReportSpoolService reportSpoolService;
+
+    public ReportCompressionBackfillServiceImpl(S3Service s3Service, ReportSpoolService reportSpoolService) {
+        this.s3Service = s3Service;
+        this.reportSpoolService = reportSpoolService;
+    }
+
+    @Override
+    public int recompress(String prefix) {
+        int rewritten = 0;
+        int skipped = 0;
+        int failed = 0;
+
+        for (String keyName : s3Service.listKeys(prefix)) {
+            try {
+                StoredObjectInfo info = s3Service.headObject(keyName);
+                // Los pendientes en el spool se suben ya comprimidos
+                if (info == null || CompressionUtils.isGzipEncoding(info.contentEncoding())
+                        || reportSpoolService.isPending(keyName)) {
+                    skipped++;
+                    continue;
+                }
+                // La descarga ya descomprime y la subida vuelve a comprimir con la metadata correcta
+                String content = s3Service.downloadTextContent(keyName);
+                s3Service.uploadTextContent(content, keyName);
+                rewritten++;
+            } catch (Exception e) {
+                failed++;
+                logger.warn("Could not recompress {}: {}", keyName, e.getMessage());
+            }
+        }
+
+        logger.info("Compression backfill of {}: {} rewritten, {} skipped, {} failed", prefix, rewritten, skipped, failed);
+        return rewritten;
+    }
+}
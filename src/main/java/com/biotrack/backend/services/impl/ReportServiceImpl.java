@@ -1,11 +1,16 @@
 package com.biotrack.backend.services.impl;
 
 import com.biotrack.backend.dto.PatientReportsDTO;
+import com.biotrack.backend.dto.PresignedUrlDTO;
 import com.biotrack.backend.dto.TechnicalGeneticReportDTO;
 import com.biotrack.backend.dto.PatientFriendlyReportResponseDTO;
 import com.biotrack.backend.dto.MedicalStudyReportResponseDTO;
 import com.biotrack.backend.dto.PatientFriendlyGeneticReportDTO;
 import com.biotrack.backend.dto.GeneticReportDTO;
+import com.biotrack.backend.dto.ReportBatchItemDTO;
+import com.biotrack.backend.dto.ReportDTO;
+import com.biotrack.backend.dto.VariantFrequencyDTO;
+import com.biotrack.backend.dto.PharmacogenomicAlertDTO;
 import com.biotrack.backend.models.BloodSample;
 import com.biotrack.backend.models.DnaSample;
 import com.biotrack.backend.models.GeneticSample;
@@ -15,21 +20,46 @@ import com.biotrack.backend.models.Report;
 import com.biotrack.backend.models.SalivaSample;
 import com.biotrack.backend.models.Sample;
 import com.biotrack.backend.models.enums.ReportStatus;
+import com.biotrack.backend.repositories.InlineDocumentRepository;
+import com.biotrack.backend.repositories.MedicationRepository;
 import com.biotrack.backend.repositories.MutationRepository;
 import com.biotrack.backend.repositories.ReportRepository;
 import com.biotrack.backend.services.*;
+import com.biotrack.backend.services.pagination.KeysetCursor;
+import com.biotrack.backend.services.pagination.KeysetPage;
+import com.biotrack.backend.services.pagination.KeysetPaginator;
+import com.biotrack.backend.services.storage.ObjectKeyStrategy;
+import com.biotrack.backend.services.storage.ParsedReportCache;
+import com.biotrack.backend.services.storage.StoredObjectStream;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import com.biotrack.backend.services.EmailService;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
@@ -44,6 +74,22 @@ public class ReportServiceImpl implements ReportService {
     private final GeneticSampleService geneticSampleService;
     private final ObjectMapper objectMapper; // Para parsear JSON
     private final EmailService emailService;
+    private final ReportSpoolService reportSpoolService;
+    // null con el perfil local-storage (sin bucket no hay URLs prefirmadas)
+    private final PresignService presignService;
+    private final ParsedReportCache parsedReportCache;
+    private final BulkDeletionService bulkDeletionService;
+    private final InlineDocumentRepository inlineDocumentRepository;
+    private final VariantFrequencyService variantFrequencyService;
+    private final PharmacogenomicService pharmacogenomicService;
+    private final MedicationRepository medicationRepository;
+    private final KeysetPaginator paginator;
+
+    @Value("${reports.batch.max-size:50}")
+    private int batchMaxSize;
+
+    @Value("${reports.batch.max-concurrency:16}")
+    private int batchMaxConcurrency;
 
     public ReportServiceImpl(
             ReportRepository reportRepository,
@@ -54,7 +100,16 @@ public class ReportServiceImpl implements ReportService {
             PatientService patientService,
             GeneticSampleService geneticSampleService,
             ObjectMapper objectMapper,
-            EmailService emailService
+            EmailService emailService,
+            ReportSpoolService reportSpoolService,
+            @Nullable PresignService presignService,
+            ParsedReportCache parsedReportCache,
+            BulkDeletionService bulkDeletionService,
+            InlineDocumentRepository inlineDocumentRepository,
+            VariantFrequencyService variantFrequencyService,
+            PharmacogenomicService pharmacogenomicService,
+            MedicationRepository medicationRepository,
+            KeysetPaginator paginator
     ) {
         this.reportRepository = reportRepository;
         this.mutationRepository = mutationRepository;
@@ -65,6 +120,15 @@ public class ReportServiceImpl implements ReportService {
         this.geneticSampleService = geneticSampleService;
         this.objectMapper = objectMapper;
         this.emailService = emailService;
+        this.reportSpoolService = reportSpoolService;
+        this.presignService = presignService;
+        this.parsedReportCache = parsedReportCache;
+        this.bulkDeletionService = bulkDeletionService;
+        this.inlineDocumentRepository = inlineDocumentRepository;
+        this.variantFrequencyService = variantFrequencyService;
+        this.pharmacogenomicService = pharmacogenomicService;
+        this.medicationRepository = medicationRepository;
+        this.paginator = paginator;
     }
 
     @Override
@@ -110,20 +174,26 @@ public class ReportServiceImpl implements ReportService {
             // 5. Construir información del paciente y contexto clínico
             String patientContext = buildPatientContext(sample);
             String patientClinicalSummary = patientService.getLatestSummaryText(sample.getPatient().getId());
+            // Frecuencia interna de cada variante (lecturas por llave de las tablas agregadas)
+            List<VariantFrequencyDTO> cohortFrequencies = variantFrequencyService.findFrequencies(mutations, sample.getMedicalEntityId());
+            // Reglas gen–fármaco de los genes de la muestra, cruzadas con los medicamentos actuales del paciente
+            List<PharmacogenomicAlertDTO> pharmacogenomicFindings = pharmacogenomicService.findingsForMutations(
+                    mutations, medicationRepository.findByPatientId(sample.getPatient().getId()));
             
             // 6. Generar AMBOS reportes con OpenAI
             // Reporte técnico genético
-            String technicalReportContent = openAIService.generateGeneticReport(mutations, patientClinicalSummary);
+            String technicalReportContent = openAIService.generateGeneticReport(
+                    mutations, patientClinicalSummary, cohortFrequencies, pharmacogenomicFindings);
             
             // Reporte genético patient-friendly
             String patientFriendlyReportContent = openAIService.generatePatientFriendlyGeneticReport(mutations, patientClinicalSummary, technicalReportContent);
 
-            // 7. Subir AMBOS reportes a S3
+            // 7. Escribir AMBOS reportes en el spool local (la subida a S3 ocurre en segundo plano)
             String technicalS3Key = generateReportS3Key(report.getId());
             String patientFriendlyS3Key = generatePatientGeneticReportS3Key(report.getId());
             
-            String technicalS3Url = s3Service.uploadTextContent(technicalReportContent, technicalS3Key);
-            String patientFriendlyS3Url = s3Service.uploadTextContent(patientFriendlyReportContent, patientFriendlyS3Key);
+            String technicalS3Url = reportSpoolService.write(technicalS3Key, technicalReportContent);
+            String patientFriendlyS3Url = reportSpoolService.write(patientFriendlyS3Key, patientFriendlyReportContent);
 
             // 8. Calcular tiempo de procesamiento
             long processingTime = System.currentTimeMillis() - startTime;
@@ -136,6 +206,8 @@ public class ReportServiceImpl implements ReportService {
             report.setFileSize((long) technicalReportContent.getBytes().length);
             report.setProcessingTimeMs(processingTime);
             report.setStatus(ReportStatus.COMPLETED);
+            report.setUploadPending(reportSpoolService.isPending(technicalS3Key)
+                    || reportSpoolService.isPending(patientFriendlyS3Key));
 
             return reportRepository.save(report);
 
@@ -184,12 +256,12 @@ public class ReportServiceImpl implements ReportService {
             String clinicalReportContent = openAIService.generateClinicalReport(fullContext);
             String patientFriendlyReportContent = openAIService.generatePatientFriendlyClinicalReport(fullContext);
 
-            // Subir AMBOS reportes a S3
+            // Escribir AMBOS reportes en el spool local (la subida a S3 ocurre en segundo plano)
             String s3Key = generateReportS3Key(report.getId());
             String s3KeyPatient = generatePatientReportS3Key(report.getId());
             
-            String s3Url = s3Service.uploadTextContent(clinicalReportContent, s3Key);
-            String s3UrlPatient = s3Service.uploadTextContent(patientFriendlyReportContent, s3KeyPatient);
+            String s3Url = reportSpoolService.write(s3Key, clinicalReportContent);
+            String s3UrlPatient = reportSpoolService.write(s3KeyPatient, patientFriendlyReportContent);
 
             long processingTime = System.currentTimeMillis() - startTime;
 
@@ -201,6 +273,8 @@ public class ReportServiceImpl implements ReportService {
             report.setFileSize((long) clinicalReportContent.getBytes().length);
             report.setProcessingTimeMs(processingTime);
             report.setStatus(ReportStatus.COMPLETED);
+            report.setUploadPending(reportSpoolService.isPending(s3Key)
+                    || reportSpoolService.isPending(s3KeyPatient));
 
             sendReportNotificationWithSpecialistRecommendation(sample, patientFriendlyReportContent);
 
@@ -266,6 +340,24 @@ public class ReportServiceImpl implements ReportService {
         return reportRepository.findAll();
     }
 
+    @Override
+    public KeysetPage<ReportDTO> findPage(ReportStatus status, String cursor, Integer size) {
+        KeysetPaginator.Request request = paginator.newestFirst(cursor, size);
+        KeysetCursor after = request.cursor();
+        List<ReportDTO> rows = status == null
+                ? reportRepository.findPageBefore(after.timestamp(), after.id(), request.limit())
+                : reportRepository.findPageByStatusBefore(status, after.timestamp(), after.id(), request.limit());
+        return paginator.page(rows, request, report -> new KeysetCursor(report.generatedAt(), report.id()));
+    }
+
+    @Override
+    public KeysetPage<ReportDTO> findPageBySampleId(UUID sampleId, String cursor, Integer size) {
+        KeysetPaginator.Request request = paginator.newestFirst(cursor, size);
+        List<ReportDTO> rows = reportRepository.findPageBySampleIdBefore(
+                sampleId, request.cursor().timestamp(), request.cursor().id(), request.limit());
+        return paginator.page(rows, request, report -> new KeysetCursor(report.generatedAt(), report.id()));
+    }
+
 
     @Override
     public Report findById(UUID reportId) {
@@ -276,28 +368,49 @@ public class ReportServiceImpl implements ReportService {
     @Override
     @Transactional
     public void deleteReport(UUID reportId) {
+        // La fila se borra ya; los archivos de S3 se eliminan en segundo plano con reintentos
+        bulkDeletionService.deleteReport(reportId);
+    }
+
+    @Override
+    public PresignedUrlDTO getReportDownloadUrl(UUID reportId, boolean isPatientFriendly) {
         Report report = findById(reportId);
-        
-        // Eliminar archivo técnico de S3 si existe
-        if (report.getS3Key() != null) {
-            try {
-                s3Service.deleteFile(report.getS3Key());
-            } catch (Exception e) {
-                System.err.println("Warning: Could not delete technical report file from S3: " + e.getMessage());
-            }
+        String s3Key = isPatientFriendly ? report.getS3KeyPatient() : report.getS3Key();
+
+        if (s3Key == null) {
+            throw new RuntimeException("Report file not found for report: " + reportId);
         }
-        
-        // Eliminar archivo del paciente de S3 si existe
-        if (report.getS3KeyPatient() != null) {
-            try {
-                s3Service.deleteFile(report.getS3KeyPatient());
-            } catch (Exception e) {
-                System.err.println("Warning: Could not delete patient report file from S3: " + e.getMessage());
-            }
+        // Mientras siga en el spool no existe en S3; el cliente debe usar fetch-from-s3
+        if (reportSpoolService.isPending(s3Key)) {
+            throw new IllegalStateException("Report " + reportId + " is still being uploaded");
         }
-        
-        // Eliminar de base de datos
-        reportRepository.delete(report);
+        // Los documentos pequeños viven en Postgres y no hay objeto en S3 que firmar; se leen por /content
+        if (inlineDocumentRepository.existsById(s3Key)) {
+            throw new IllegalStateException("Report " + reportId + " is stored inline; download it from /content");
+        }
+        if (presignService == null) {
+            throw new UnsupportedOperationException("Presigned URLs are not available with local storage");
+        }
+        return presignService.presignDownload(s3Key);
+    }
+
+    @Override
+    public StoredObjectStream openReportDocument(UUID reportId, boolean isPatientFriendly) {
+        Report report = findById(reportId);
+        String s3Key = isPatientFriendly ? report.getS3KeyPatient() : report.getS3Key();
+
+        if (s3Key == null) {
+            throw new RuntimeException("Report file not found for report: " + reportId);
+        }
+
+        // En el spool el documento está sin comprimir
+        Optional<String> spooled = reportSpoolService.read(s3Key);
+        if (spooled.isPresent()) {
+            byte[] content = spooled.get().getBytes(StandardCharsets.UTF_8);
+            return new StoredObjectStream(new ByteArrayInputStream(content), content.length,
+                    "text/plain", null, null, null, null);
+        }
+        return s3Service.openObject(s3Key, null, null);
     }
 
     @Override
@@ -382,22 +495,19 @@ public class ReportServiceImpl implements ReportService {
      * Genera el key único para el reporte en S3
      */
     private String generateReportS3Key(UUID reportId) {
-        long timestamp = System.currentTimeMillis();
-        return String.format("reports/%d_%s_genetic_report.txt", timestamp, reportId.toString());
+        return ObjectKeyStrategy.reportKey(reportId, "genetic_report.txt");
     }
 
     /**
      * Genera el key único para el reporte del paciente en S3
      */
     private String generatePatientReportS3Key(UUID reportId) {
-        long timestamp = System.currentTimeMillis();
-        return String.format("reports/%d_%s_patient_friendly_report.txt", timestamp, reportId.toString());
+        return ObjectKeyStrategy.reportKey(reportId, "patient_friendly_report.txt");
     }
 
     // ✅ NUEVO: Método para generar clave S3 para reporte genético patient-friendly
     private String generatePatientGeneticReportS3Key(UUID reportId) {
-        long timestamp = System.currentTimeMillis();
-        return String.format("reports/%d_%s_genetic_patient_friendly.json", timestamp, reportId.toString());
+        return ObjectKeyStrategy.reportKey(reportId, "genetic_patient_friendly.json");
     }
 
     @Override
@@ -494,28 +604,10 @@ public Object getReportFromS3(String s3Url, boolean isPatientFriendly) {
             throw new IllegalArgumentException("S3 URL cannot be null or empty");
         }
 
-        // 2. Descargar contenido del archivo desde S3
-        String reportContent = s3Service.downloadFileAsString(s3Url);
-
-        if (reportContent == null || reportContent.trim().isEmpty()) {
-            throw new RuntimeException("Report content is empty or could not be downloaded from S3");
-        }
-
-        // 3. Limpiar BOM, caracteres invisibles y problemas de codificación
-        String cleanedContent = cleanContentForParsing(reportContent);
-
-        // 4. Verificar si el contenido es JSON o texto plano
-        if (cleanedContent.startsWith("{")) {
-            // Es JSON - parsear según el tipo de reporte
-            if (isPatientFriendly) {
-                return objectMapper.readValue(cleanedContent, PatientFriendlyReportResponseDTO.class);
-            } else {
-                return objectMapper.readValue(cleanedContent, MedicalStudyReportResponseDTO.class);
-            }
-        } else {
-            // Es texto plano - retornar como string directamente
-            return cleanedContent;
-        }
+        // 2. Cache, spool o S3 con la key guardada; si es texto plano se retorna tal cual
+        String s3Key = storedKeyForUrl(s3Url);
+        return loadReport(s3Key, reportType(false, isPatientFriendly), true,
+                () -> s3Service.downloadTextContent(s3Key));
 
     } catch (Exception e) {
         throw new RuntimeException("Error processing report from S3: " + e.getMessage(), e);
@@ -563,25 +655,128 @@ public Object getGeneticReportFromUrl(String s3Url, boolean isPatientFriendly) {
             throw new IllegalArgumentException("S3 URL cannot be null or empty");
         }
         
-        // 2. Descargar contenido del archivo desde S3
-        String reportContent = s3Service.downloadFileAsStringNotFormated(s3Url);
+        // 2. Cache, spool o S3 con la key guardada; los reportes genéticos siempre son JSON
+        String s3Key = storedKeyForUrl(s3Url);
+        return loadReport(s3Key, reportType(true, isPatientFriendly), false,
+                () -> s3Service.downloadTextContent(s3Key));
         
-        if (reportContent == null || reportContent.trim().isEmpty()) {
-            throw new RuntimeException("Report content is empty or could not be downloaded from S3");
+    } catch (Exception e) {
+        throw new RuntimeException("Error processing genetic report from S3: " + e.getMessage(), e);
+    }
+}
+
+/**
+ * Key guardada en el reporte que publicó la URL; solo las filas que la migración de keys aún no
+ * procesa se resuelven por URL. Una URL que no es de ningún reporte no se descarga.
+ */
+private String storedKeyForUrl(String s3Url) {
+    List<String> keys = reportRepository.findStorageKeysByUrl(s3Url.trim());
+    if (keys.isEmpty()) {
+        throw new RuntimeException("Report not found for URL: " + s3Url);
+    }
+    String s3Key = keys.get(0);
+    return s3Key != null ? s3Key : s3Service.extractKeyFromUrl(s3Url.trim());
+}
+
+@Override
+public void streamReports(List<UUID> reportIds, boolean isPatientFriendly, Consumer<ReportBatchItemDTO> sink) {
+    if (reportIds == null || reportIds.isEmpty()) {
+        throw new IllegalArgumentException("At least one report id is required");
+    }
+    Set<UUID> ids = new LinkedHashSet<>(reportIds);
+    if (ids.size() > batchMaxSize) {
+        throw new IllegalArgumentException("At most " + batchMaxSize + " reports can be fetched per request");
+    }
+
+    // Una sola consulta para todas las keys
+    Map<UUID, Object[]> rows = new HashMap<>();
+    for (Object[] row : reportRepository.findStorageKeysByIdIn(ids)) {
+        rows.put((UUID) row[0], row);
+    }
+
+    // Un hilo virtual por reporte, con un semáforo que limita las descargas simultáneas
+    Semaphore permits = new Semaphore(batchMaxConcurrency);
+    ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    try {
+        CompletionService<ReportBatchItemDTO> completion = new ExecutorCompletionService<>(executor);
+        int submitted = 0;
+        for (UUID id : ids) {
+            Object[] row = rows.get(id);
+            if (row == null) {
+                sink.accept(ReportBatchItemDTO.error(id, "Report not found with id: " + id));
+                continue;
+            }
+            completion.submit(() -> {
+                permits.acquire();
+                try {
+                    return fetchBatchItem(id, row, isPatientFriendly);
+                } finally {
+                    permits.release();
+                }
+            });
+            submitted++;
         }
-        
-        // 3. Limpiar BOM, caracteres invisibles y problemas de codificación
-        String cleanedContent = cleanContentForParsing(reportContent);
-        
-        // 4. Parsear JSON según el tipo de reporte
-        if (isPatientFriendly) {
-            return objectMapper.readValue(cleanedContent, PatientFriendlyGeneticReportDTO.class);
-        } else {
-            return objectMapper.readValue(cleanedContent, TechnicalGeneticReportDTO.class);
+        // Se entregan en orden de llegada; el sink siempre corre en el hilo que llamó
+        for (int i = 0; i < submitted; i++) {
+            sink.accept(completion.take().get());
         }
-        
+    } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new RuntimeException("Report batch fetch interrupted", e);
+    } catch (ExecutionException e) {
+        throw new RuntimeException("Error fetching report batch: " + e.getCause().getMessage(), e.getCause());
+    } finally {
+        // Si el cliente se desconecta se cancelan las descargas que falten
+        executor.shutdownNow();
+    }
+}
+
+private ReportBatchItemDTO fetchBatchItem(UUID reportId, Object[] row, boolean isPatientFriendly) {
+    String s3Key = (String) (isPatientFriendly ? row[2] : row[1]);
+    if (s3Key == null) {
+        return ReportBatchItemDTO.error(reportId, "Report file not found for report: " + reportId);
+    }
+    boolean genetic = row[3] != null;
+    try {
+        Object report = loadReport(s3Key, reportType(genetic, isPatientFriendly), !genetic,
+                () -> s3Service.downloadTextContent(s3Key));
+        return ReportBatchItemDTO.ok(reportId, report);
     } catch (Exception e) {
-        throw new RuntimeException("Error processing genetic report from S3: " + e.getMessage(), e);
+        return ReportBatchItemDTO.error(reportId, e.getMessage());
+    }
+}
+
+private static Class<?> reportType(boolean genetic, boolean isPatientFriendly) {
+    if (genetic) {
+        return isPatientFriendly ? PatientFriendlyGeneticReportDTO.class : TechnicalGeneticReportDTO.class;
+    }
+    return isPatientFriendly ? PatientFriendlyReportResponseDTO.class : MedicalStudyReportResponseDTO.class;
+}
+
+/**
+ * Reporte parseado desde la cache; si no está, se lee del spool o de S3, se limpia y se parsea.
+ * Con allowPlainText los reportes que no son JSON se devuelven como texto.
+ */
+private Object loadReport(String s3Key, Class<?> reportType, boolean allowPlainText, Supplier<String> download)
+        throws JsonProcessingException {
+    Object cached = parsedReportCache.get(s3Key, reportType);
+    if (cached != null) {
+        return cached;
     }
+
+    // Leer del spool si aún no se sube; si no, descargar desde S3
+    String reportContent = reportSpoolService.read(s3Key).orElseGet(download);
+    if (reportContent == null || reportContent.trim().isEmpty()) {
+        throw new RuntimeException("Report content is empty or could not be downloaded from S3");
+    }
+
+    // Limpiar BOM, caracteres invisibles y problemas de codificación
+    String cleanedContent = cleanContentForParsing(reportContent);
+    Object parsed = !allowPlainText || cleanedContent.startsWith("{")
+            ? objectMapper.readValue(cleanedContent, reportType)
+            : cleanedContent;
+
+    parsedReportCache.put(s3Key, reportType, parsed);
+    return parsed;
+}
 }
-}
\ No newline at end of file
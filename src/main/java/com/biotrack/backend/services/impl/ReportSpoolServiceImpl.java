@@ -0,0 +1,178 @@
+package com.biotrack.backend.services.impl;
+
+import com.biotrack.backend.models.ClinicalHistoryRecord;
+import com.biotrack.backend.models.Report;
+import com.biotrack.backend.repositories.ClinicalHistoryRecordRepository;
+import com.biotrack.backend.repositories.ReportRepository;
+import com.biotrack.backend.services.ReportSpoolService;
+import com.biotrack.backend.services.S3Service;
+import com.biotrack.backend.services.storage.SpoolSegmentLog;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Spool local para reportes y resúmenes generados por IA.
+ *
+ * El documento se escribe con fsync en el spool y la generación regresa de inmediato;
+ * un proceso en segundo plano lo sube a S3 con reintentos (backoff exponencial).
+ * Mientras no se haya subido, las lecturas se sirven desde el spool.
+ */
+@Service
+public class ReportSpoolServiceImpl implements ReportSpoolService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportSpoolServiceImpl.class);
+
+    private final S3Service s3Service;
+    private final ReportRepository reportRepository;
+    private final ClinicalHistoryRecordRepository clinicalHistoryRecordRepository;
+    private final long baseBackoffMs;
+    private final long maxBackoffMs;
+    private final SpoolSegmentLog spoolLog;
+
+    private final Map<String, RetryState> retries = new ConcurrentHashMap<>();
+
+    private record RetryState(int attempts, long nextAttemptAt) {}
+
+    public ReportSpoolServiceImpl(S3Service s3Service,
+                                  ReportRepository reportRepository,
+                                  ClinicalHistoryRecordRepository clinicalHistoryRecordRepository,
+                                  @Value("${storage.spool.dir:./data/report-spool}") String spoolDir,
+                                  @Value("${storage.spool.segment-max-bytes:67108864}") long segmentMaxBytes,
+                                  @Value("${storage.spool.base-backoff-ms:2000}") long baseBackoffMs,
+                                  @Value("${storage.spool.max-backoff-ms:300000}") long maxBackoffMs) {
+        this.s3Service = s3Service;
+        this.reportRepository = reportRepository;
+        this.clinicalHistoryRecordRepository = clinicalHistoryRecordRepository;
+        this.baseBackoffMs = baseBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        SpoolSegmentLog log = null;
+        try {
+            log = new SpoolSegmentLog(Paths.get(spoolDir), segmentMaxBytes);
+        } catch (IOException e) {
+            // Sin spool se sube directo a S3 como antes
+            logger.error("Report spool unavailable at {}, falling back to synchronous uploads: {}", spoolDir, e.getMessage());
+        }
+        this.spoolLog = log;
+    }
+
+    @Override
+    public String write(String keyName, String content) {
+        if (spoolLog != null) {
+            try {
+                spoolLog.put(keyName, content.getBytes(StandardCharsets.UTF_8));
+                return s3Service.getObjectUrl(keyName);
+            } catch (IOException e) {
+                logger.error("Could not spool {}, uploading synchronously: {}", keyName, e.getMessage());
+            }
+        }
+        return s3Service.uploadTextContent(content, keyName);
+    }
+
+    @Override
+    public Optional<String> read(String keyName) {
+        if (spoolLog == null || keyName == null || !spoolLog.contains(keyName)) {
+            return Optional.empty();
+        }
+        try {
+            byte[] payload = spoolLog.read(keyName);
+            return payload == null ? Optional.empty() : Optional.of(new String(payload, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            // Probablemente se subió y se borró el segmento entre la consulta y la lectura
+            logger.debug("Spool read for {} failed, falling back to S3: {}", keyName, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public boolean isPending(String keyName) {
+        return spoolLog != null && keyName != null && spoolLog.contains(keyName);
+    }
+
+    @Override
+    public int pendingCount() {
+        return spoolLog == null ? 0 : spoolLog.size();
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${storage.spool.drain-interval-ms:5000}")
+    public void drain() {
+        if (spoolLog == null) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        for (String keyName : spoolLog.pendingKeys()) {
+            RetryState state = retries.get(keyName);
+            if (state != null && state.nextAttemptAt() > now) {
+                continue;
+            }
+            upload(keyName, state);
+        }
+
+        clearUploadedMarkers();
+    }
+
+    private void upload(String keyName, RetryState state) {
+        try {
+            byte[] payload = spoolLog.read(keyName);
+            if (payload == null) {
+                return;
+            }
+            s3Service.uploadTextContent(new String(payload, StandardCharsets.UTF_8), keyName);
+            spoolLog.ack(keyName);
+            retries.remove(keyName);
+        } catch (Exception e) {
+            int attempts = state == null ? 1 : state.attempts() + 1;
+            long backoff = Math.min(maxBackoffMs, baseBackoffMs << Math.min(attempts - 1, 20));
+            retries.put(keyName, new RetryState(attempts, System.currentTimeMillis() + backoff));
+            logger.warn("Spooled upload of {} failed (attempt {}), retrying in {} ms: {}",
+                    keyName, attempts, backoff, e.getMessage());
+        }
+    }
+
+    /**
+     * Quita la marca de subida pendiente en filas cuyos documentos ya no están en el spool.
+     * Se hace por barrido porque la fila puede confirmarse después de que el documento se sube.
+     */
+    private void clearUploadedMarkers() {
+        try {
+            for (Report report : reportRepository.findByUploadPendingTrue()) {
+                if (!isPending(report.getS3Key()) && !isPending(report.getS3KeyPatient())) {
+                    report.setUploadPending(false);
+                    reportRepository.save(report);
+                }
+            }
+            for (ClinicalHistoryRecord record : clinicalHistoryRecordRepository.findByUploadPendingTrue()) {
+                if (!isPending(record.getS3Key()) && !isPending(record.getS3KeyPatient())) {
+                    record.setUploadPending(false);
+                    clinicalHistoryRecordRepository.save(record);
+                }
+            }
+        } catch (Exception e) {
+            logger.warn("Could not clear pending-upload markers: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        if (spoolLog == null) {
+            return;
+        }
+        try {
+            spoolLog.close();
+        } catch (IOException e) {
+            logger.warn("Error closing report spool: {}", e.getMessage());
+        }
+    }
+}
@@ -1,30 +1,67 @@
 package com.biotrack.backend.services.impl;
 
+import com.biotrack.backend.dto.PresignedUploadDTO;
+import com.biotrack.backend.dto.PresignedUploadRequestDTO;
+import com.biotrack.backend.dto.PresignedUrlDTO;
+import com.biotrack.backend.dto.ResultFileUploadCompletionDTO;
+import com.biotrack.backend.models.IngestionJob;
 import com.biotrack.backend.models.ResultFile;
 import com.biotrack.backend.models.GeneticSample; // ✅ CAMBIAR: de Sample a GeneticSample
+import com.biotrack.backend.repositories.IngestionJobRepository;
 import com.biotrack.backend.repositories.ResultFileRepository;
 import com.biotrack.backend.services.ResultFileService;
 import com.biotrack.backend.services.GeneticSampleService; // ✅ CAMBIAR: de SampleService a GeneticSampleService
+import com.biotrack.backend.services.PresignService;
 import com.biotrack.backend.services.S3Service;
-import org.springframework.core.io.Resource;
+import com.biotrack.backend.services.storage.ObjectKeyStrategy;
+import com.biotrack.backend.services.storage.ResultFileDownload;
+import com.biotrack.backend.services.storage.StoredObjectInfo;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.UUID;
 
 @Service
 public class ResultFileServiceImpl implements ResultFileService {
 
+    private static final String STATUS_QUEUED = "QUEUED";
+
     private final ResultFileRepository resultFileRepository;
     private final GeneticSampleService geneticSampleService; // ✅ CAMBIAR: de SampleService a GeneticSampleService
     private final S3Service s3Service;
+    // null con el perfil local-storage (sin bucket no hay URLs prefirmadas)
+    private final PresignService presignService;
+    private final IngestionJobRepository ingestionJobRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${storage.presign.max-upload-bytes:5368709120}")
+    private long maxUploadBytes;
 
-    public ResultFileServiceImpl(ResultFileRepository repo, GeneticSampleService geneticSampleService, S3Service s3Service) {
+    @Value("${mutations.ingest.enqueue-on-upload:true}")
+    private boolean enqueueOnUpload;
+
+    public ResultFileServiceImpl(ResultFileRepository repo, GeneticSampleService geneticSampleService,
+                                 S3Service s3Service, @Nullable PresignService presignService,
+                                 IngestionJobRepository ingestionJobRepository,
+                                 TransactionTemplate transactionTemplate) {
         this.resultFileRepository = repo;
         this.geneticSampleService = geneticSampleService; // ✅ CAMBIAR
         this.s3Service = s3Service;
+        this.presignService = presignService;
+        this.ingestionJobRepository = ingestionJobRepository;
+        this.transactionTemplate = transactionTemplate;
     }
 
     @Override
@@ -43,11 +80,48 @@ public class ResultFileServiceImpl implements ResultFileService {
                 .s3Url(s3Url)
                 .fileSize(file.getSize())
                 .contentType(file.getContentType())
+                .contentSha256(sha256Hex(file))
                 .uploadedAt(LocalDateTime.now())
                 .geneticSample(geneticSample) // ✅ CAMBIAR: de sample a geneticSample
                 .build();
 
-        return resultFileRepository.save(resultFile);
+        return saveAndEnqueue(resultFile);
+    }
+
+    /**
+     * Guarda el archivo y su job de ingesta en la misma transacción: la subida regresa sin esperar
+     * a que se procese y ningún archivo queda registrado sin su job
+     */
+    private ResultFile saveAndEnqueue(ResultFile resultFile) {
+        if (!enqueueOnUpload) {
+            return resultFileRepository.save(resultFile);
+        }
+        return transactionTemplate.execute(status -> {
+            resultFile.setProcessingStatus(STATUS_QUEUED);
+            ResultFile saved = resultFileRepository.save(resultFile);
+            LocalDateTime now = LocalDateTime.now();
+            ingestionJobRepository.save(IngestionJob.builder()
+                    .resultFileId(saved.getId())
+                    .nextAttemptAt(now)
+                    .createdAt(now)
+                    .build());
+            return saved;
+        });
+    }
+
+    /**
+     * SHA-256 del archivo recibido (ya está en disco o memoria); permite reutilizar las mutaciones de un archivo idéntico
+     */
+    private static String sha256Hex(MultipartFile file) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+                in.transferTo(OutputStream.nullOutputStream());
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (IOException | NoSuchAlgorithmException e) {
+            throw new RuntimeException("Could not hash uploaded file " + file.getOriginalFilename(), e);
+        }
     }
 
     @Override
@@ -67,9 +141,9 @@ public class ResultFileServiceImpl implements ResultFileService {
     }
 
     @Override
-    public Resource downloadFile(UUID fileId) {
+    public ResultFileDownload openDownload(UUID fileId, String range, String ifRange) {
         ResultFile resultFile = findById(fileId);
-        return (Resource) s3Service.downloadFile(resultFile.getS3Key());
+        return new ResultFileDownload(resultFile, s3Service.openObject(resultFile.getS3Key(), range, ifRange));
     }
 
     @Override
@@ -80,6 +154,7 @@ public class ResultFileServiceImpl implements ResultFileService {
         s3Service.deleteFile(resultFile.getS3Key());
 
         // Eliminar de base de datos
+        ingestionJobRepository.findByResultFileId(fileId).ifPresent(ingestionJobRepository::delete);
         resultFileRepository.delete(resultFile);
     }
 
@@ -90,14 +165,92 @@ public class ResultFileServiceImpl implements ResultFileService {
         return resultFileRepository.save(resultFile);
     }
 
+    @Override
+    public PresignedUploadDTO createUploadTarget(PresignedUploadRequestDTO request) {
+        if (request.fileSize() > maxUploadBytes) {
+            throw new IllegalArgumentException("File exceeds the maximum upload size of " + maxUploadBytes + " bytes");
+        }
+        // Validar que la muestra existe antes de firmar nada
+        geneticSampleService.findById(request.geneticSampleId());
+
+        String keyName = generateS3Key(request.fileName(), request.geneticSampleId());
+        String contentType = request.contentType() != null && !request.contentType().isBlank()
+                ? request.contentType()
+                : "application/octet-stream";
+
+        PresignService presign = requirePresign();
+        return request.form()
+                ? presign.presignUploadForm(keyName, contentType, maxUploadBytes)
+                : presign.presignUpload(keyName, contentType, request.fileSize());
+    }
+
+    @Override
+    public ResultFile completeUpload(ResultFileUploadCompletionDTO completion) {
+        String keyName = completion.s3Key();
+
+        // La key debe ser una de las que firmamos para esta muestra
+        if (!keyName.startsWith("results/") || !keyName.contains("_" + completion.geneticSampleId() + "_")) {
+            throw new IllegalArgumentException("S3 key does not belong to genetic sample " + completion.geneticSampleId());
+        }
+
+        StoredObjectInfo object = s3Service.headObject(keyName);
+        if (object == null) {
+            throw new IllegalArgumentException("No uploaded object found for key: " + keyName);
+        }
+
+        return registerUploadedFile(completion.geneticSampleId(), keyName, completion.fileName(),
+                object.contentType(), object.contentLength(), null);
+    }
+
+    @Override
+    public ResultFile registerUploadedFile(UUID geneticSampleId, String keyName, String fileName,
+                                           String contentType, long fileSize, String contentSha256) {
+        // Reintentos del callback no deben duplicar el registro
+        var existing = resultFileRepository.findByS3Key(keyName);
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+
+        GeneticSample geneticSample = geneticSampleService.findById(geneticSampleId);
+
+        ResultFile resultFile = ResultFile.builder()
+                .fileName(fileName)
+                .s3Key(keyName)
+                .s3Url(s3Service.getObjectUrl(keyName))
+                .fileSize(fileSize)
+                .contentType(contentType)
+                .contentSha256(contentSha256)
+                .uploadedAt(LocalDateTime.now())
+                .geneticSample(geneticSample)
+                .build();
+
+        return saveAndEnqueue(resultFile);
+    }
+
+    @Override
+    public PresignedUrlDTO getDownloadUrl(UUID fileId) {
+        ResultFile resultFile = findById(fileId);
+        return requirePresign().presignDownload(resultFile.getS3Key());
+    }
+
+    private PresignService requirePresign() {
+        if (presignService == null) {
+            throw new UnsupportedOperationException("Presigned URLs are not available with local storage");
+        }
+        return presignService;
+    }
+
+    @Override
+    public String generateResultFileKey(String fileName, UUID geneticSampleId) {
+        return generateS3Key(fileName, geneticSampleId);
+    }
+
     /**
      * Genera un nombre único para el archivo en S3
-     * Formato: results/{timestamp}_{geneticSampleId}_{originalFileName}
+     * Formato: results/{hash}/{hash}/{timestamp}_{geneticSampleId}_{originalFileName}
      */
     private String generateS3Key(String originalFileName, UUID geneticSampleId) { // ✅ CAMBIAR: parámetro
-        long timestamp = System.currentTimeMillis();
-        String sanitizedFileName = sanitizeFileName(originalFileName);
-        return String.format("results/%d_%s_%s", timestamp, geneticSampleId.toString(), sanitizedFileName);
+        return ObjectKeyStrategy.resultFileKey(geneticSampleId, sanitizeFileName(originalFileName));
     }
 
     /**
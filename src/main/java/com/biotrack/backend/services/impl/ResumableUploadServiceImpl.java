@@ -0,0 +1,496 @@
+package com.biotrack.backend.services.impl;
+
+import com.biotrack.backend.dto.ResumableUploadDTO;
+import com.biotrack.backend.exceptions.ResourceNotFoundException;
+import com.biotrack.backend.models.ResultFile;
+import com.biotrack.backend.models.ResumableUpload;
+import com.biotrack.backend.repositories.ResumableUploadRepository;
+import com.biotrack.backend.services.GeneticSampleService;
+import com.biotrack.backend.services.ResultFileService;
+import com.biotrack.backend.services.ResumableUploadService;
+import com.biotrack.backend.services.S3Service;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Subidas reanudables estilo tus (crear, PATCH por chunks, HEAD para el offset).
+ *
+ * Los bytes de cada PATCH se copian con un buffer fijo a un archivo de parte en disco;
+ * al llegar al tamaño de parte se envía como parte del multipart upload de S3 y el archivo
+ * se vacía. El SHA-256 se calcula mientras llegan los bytes, así la memoria por subida no
+ * depende del tamaño del archivo. Si el cliente se corta, lo recibido cuenta y puede
+ * continuar desde el offset que devuelve HEAD.
+ *
+ * El estado se guarda en resumable_uploads (offset, bytes en el archivo de parte y ETags de
+ * las partes ya subidas): tras un reinicio la subida se recupera de la tabla y continúa desde
+ * el offset guardado. El SHA-256 parcial no sobrevive al reinicio; en ese caso se calcula al
+ * final leyendo el objeto completo. Las subidas que expiran abortan su multipart upload.
+ */
+@Service
+public class ResumableUploadServiceImpl implements ResumableUploadService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResumableUploadServiceImpl.class);
+
+    private static final int COPY_BUFFER_BYTES = 64 * 1024;
+    private static final int MAX_PARTS = 10_000;
+    private static final long MIN_PART_BYTES = 5L * 1024 * 1024;
+    private static final String PART_SUFFIX = ".part";
+
+    private final ResultFileService resultFileService;
+    private final GeneticSampleService geneticSampleService;
+    private final S3Service s3Service;
+    private final ResumableUploadRepository uploadRepository;
+    private final Path uploadDir;
+    private final long partSizeBytes;
+    private final long maxUploadBytes;
+    private final Duration expireAfter;
+
+    private final Map<UUID, UploadSession> sessions = new ConcurrentHashMap<>();
+
+    private static class UploadSession {
+        final UUID id;
+        final UUID geneticSampleId;
+        final String fileName;
+        final String contentType;
+        final String keyName;
+        final String multipartUploadId;
+        final long length;
+        final long partSize;
+        final Path partFile;
+        final LocalDateTime createdAt;
+        final List<String> partETags = new ArrayList<>();
+        final ReentrantLock lock = new ReentrantLock();
+
+        // null en una subida recuperada tras un reinicio
+        MessageDigest digest;
+        volatile long offset;
+        long partBytes;
+        boolean multipartCompleted;
+        volatile String contentSha256;
+        volatile UUID resultFileId;
+        volatile LocalDateTime lastActivity = LocalDateTime.now();
+
+        UploadSession(UUID id, UUID geneticSampleId, String fileName, String contentType, String keyName,
+                      String multipartUploadId, long length, long partSize, Path partFile, MessageDigest digest,
+                      LocalDateTime createdAt) {
+            this.id = id;
+            this.geneticSampleId = geneticSampleId;
+            this.fileName = fileName;
+            this.contentType = contentType;
+            this.keyName = keyName;
+            this.multipartUploadId = multipartUploadId;
+            this.length = length;
+            this.partSize = partSize;
+            this.partFile = partFile;
+            this.digest = digest;
+            this.createdAt = createdAt;
+        }
+
+        boolean isComplete() {
+            return resultFileId != null;
+        }
+    }
+
+    public ResumableUploadServiceImpl(ResultFileService resultFileService,
+                                      GeneticSampleService geneticSampleService,
+                                      S3Service s3Service,
+                                      ResumableUploadRepository uploadRepository,
+                                      @Value("${storage.resumable.dir:./data/resumable-uploads}") String uploadDir,
+                                      @Value("${storage.resumable.part-size-bytes:8388608}") long partSizeBytes,
+                                      @Value("${storage.resumable.max-upload-bytes:107374182400}") long maxUploadBytes,
+                                      @Value("${storage.resumable.expire-after-minutes:1440}") long expireAfterMinutes) {
+        this.resultFileService = resultFileService;
+        this.geneticSampleService = geneticSampleService;
+        this.s3Service = s3Service;
+        this.uploadRepository = uploadRepository;
+        this.uploadDir = Paths.get(uploadDir);
+        this.partSizeBytes = Math.max(MIN_PART_BYTES, partSizeBytes);
+        this.maxUploadBytes = maxUploadBytes;
+        this.expireAfter = Duration.ofMinutes(expireAfterMinutes);
+    }
+
+    @Override
+    public ResumableUploadDTO create(UUID geneticSampleId, String fileName, String contentType, long uploadLength) {
+        if (uploadLength <= 0) {
+            throw new IllegalArgumentException("Upload-Length must be greater than zero");
+        }
+        if (uploadLength > maxUploadBytes) {
+            throw new IllegalArgumentException("File exceeds the maximum upload size of " + maxUploadBytes + " bytes");
+        }
+        // Validar que la muestra existe antes de abrir el multipart
+        geneticSampleService.findById(geneticSampleId);
+
+        String resolvedContentType = contentType != null && !contentType.isBlank()
+                ? contentType
+                : "application/octet-stream";
+        String keyName = resultFileService.generateResultFileKey(fileName, geneticSampleId);
+
+        // S3 admite como máximo 10.000 partes; para archivos enormes se agranda la parte
+        long partSize = Math.max(partSizeBytes, (uploadLength + MAX_PARTS - 1) / MAX_PARTS);
+
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+            Files.createDirectories(uploadDir);
+        } catch (NoSuchAlgorithmException | IOException e) {
+            throw new RuntimeException("Could not prepare resumable upload for " + fileName, e);
+        }
+
+        String multipartUploadId = s3Service.createMultipartUpload(keyName, resolvedContentType);
+        UUID uploadId = UUID.randomUUID();
+        UploadSession session = new UploadSession(uploadId, geneticSampleId, fileName, resolvedContentType, keyName,
+                multipartUploadId, uploadLength, partSize, uploadDir.resolve(uploadId + PART_SUFFIX), digest,
+                LocalDateTime.now());
+        try {
+            persist(session);
+        } catch (RuntimeException e) {
+            // Sin fila nadie podría abortar este multipart después
+            abortMultipart(session);
+            throw e;
+        }
+        sessions.put(uploadId, session);
+
+        logger.info("Created resumable upload {} for {} ({} bytes, parts of {} bytes)",
+                uploadId, keyName, uploadLength, partSize);
+        return toDTO(session);
+    }
+
+    @Override
+    public ResumableUploadDTO append(UUID uploadId, long offset, InputStream chunk) {
+        UploadSession session = requireSession(uploadId);
+        if (!session.lock.tryLock()) {
+            throw new IllegalStateException("Another chunk is being written to upload " + uploadId);
+        }
+        try {
+            session.lastActivity = LocalDateTime.now();
+            if (session.isComplete()) {
+                throw new IllegalStateException("Upload " + uploadId + " is already complete");
+            }
+            if (offset != session.offset) {
+                throw new IllegalStateException("Upload-Offset " + offset + " does not match current offset " + session.offset);
+            }
+
+            try {
+                writeChunk(session, chunk);
+            } finally {
+                // Lo recibido cuenta aunque el chunk falle a medias; se guarda para reanudar tras un reinicio
+                persist(session);
+            }
+
+            if (session.offset == session.length) {
+                finish(session);
+            }
+            return toDTO(session);
+        } finally {
+            session.lock.unlock();
+        }
+    }
+
+    @Override
+    public ResumableUploadDTO getStatus(UUID uploadId) {
+        return toDTO(requireSession(uploadId));
+    }
+
+    @Override
+    public void abort(UUID uploadId) {
+        UploadSession session = requireSession(uploadId);
+        session.lock.lock();
+        try {
+            sessions.remove(uploadId);
+            discard(session);
+        } finally {
+            session.lock.unlock();
+        }
+    }
+
+    /**
+     * Aborta las subidas sin actividad para no dejar partes cobrando en S3 ni archivos en disco.
+     * Las completadas se quedan el mismo tiempo para que HEAD siga respondiendo.
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${storage.resumable.sweep-interval-ms:600000}")
+    public void expireIdleUploads() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(expireAfter);
+        // Se recorre la tabla y no solo la memoria: tras un reinicio las subidas abandonadas solo están ahí
+        for (ResumableUpload row : uploadRepository.findByLastActivityAtBefore(cutoff)) {
+            UploadSession session = sessions.computeIfAbsent(row.getId(), id -> toSession(row));
+            if (session.lastActivity.isAfter(cutoff) || !session.lock.tryLock()) {
+                continue;
+            }
+            try {
+                sessions.remove(session.id);
+                discard(session);
+                if (!session.isComplete()) {
+                    logger.info("Expired idle resumable upload {} at offset {} of {}",
+                            session.id, session.offset, session.length);
+                }
+            } finally {
+                session.lock.unlock();
+            }
+        }
+        removeOrphanPartFiles();
+    }
+
+    private void writeChunk(UploadSession session, InputStream chunk) {
+        byte[] buffer = new byte[COPY_BUFFER_BYTES];
+        try (FileChannel partChannel = FileChannel.open(session.partFile,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            // Descarta bytes de una escritura anterior que falló a medias
+            partChannel.truncate(session.partBytes);
+            partChannel.position(session.partBytes);
+
+            int read;
+            while ((read = readChunk(session, chunk, buffer)) > 0) {
+                if (session.offset + read > session.length) {
+                    throw new IllegalArgumentException("Chunk exceeds the declared Upload-Length of " + session.length + " bytes");
+                }
+                ByteBuffer data = ByteBuffer.wrap(buffer, 0, read);
+                while (data.hasRemaining()) {
+                    partChannel.write(data);
+                }
+                // Solo se cuenta (y se hashea) lo que ya quedó escrito
+                if (session.digest != null) {
+                    session.digest.update(buffer, 0, read);
+                }
+                session.partBytes += read;
+                session.offset += read;
+
+                if (session.partBytes >= session.partSize) {
+                    flushPart(session, partChannel);
+                }
+            }
+            partChannel.force(false);
+        } catch (IOException e) {
+            throw new RuntimeException("Error writing chunk of upload " + session.id, e);
+        }
+    }
+
+    /**
+     * Lee del cuerpo del PATCH; si el cliente se desconecta se trata como fin del chunk
+     * para conservar lo recibido hasta ese punto.
+     */
+    private int readChunk(UploadSession session, InputStream chunk, byte[] buffer) {
+        try {
+            return chunk.read(buffer);
+        } catch (IOException e) {
+            logger.info("Chunk of upload {} interrupted at offset {}: {}", session.id, session.offset, e.getMessage());
+            return -1;
+        }
+    }
+
+    private void flushPart(UploadSession session, FileChannel partChannel) throws IOException {
+        partChannel.force(false);
+        int partNumber = session.partETags.size() + 1;
+        String eTag = s3Service.uploadPart(session.keyName, session.multipartUploadId, partNumber, session.partFile);
+        session.partETags.add(eTag);
+        session.partBytes = 0;
+        // Se guarda antes de vaciar el archivo: si el proceso cae en medio, la parte ya cuenta como subida
+        persist(session);
+        partChannel.truncate(0);
+        partChannel.position(0);
+    }
+
+    private void finish(UploadSession session) {
+        if (!session.multipartCompleted) {
+            if (session.partBytes > 0) {
+                // La última parte puede ser menor al mínimo de S3
+                try (FileChannel partChannel = FileChannel.open(session.partFile, StandardOpenOption.WRITE)) {
+                    flushPart(session, partChannel);
+                } catch (IOException e) {
+                    throw new RuntimeException("Error uploading last part of upload " + session.id, e);
+                }
+            }
+            s3Service.completeMultipartUpload(session.keyName, session.multipartUploadId, session.partETags);
+            session.multipartCompleted = true;
+            session.contentSha256 = session.digest != null
+                    ? HexFormat.of().formatHex(session.digest.digest())
+                    : storedObjectSha256(session);
+            persist(session);
+            deletePartFile(session);
+        }
+
+        ResultFile resultFile = resultFileService.registerUploadedFile(session.geneticSampleId, session.keyName,
+                session.fileName, session.contentType, session.length, session.contentSha256);
+        session.resultFileId = resultFile.getId();
+        persist(session);
+
+        logger.info("Completed resumable upload {} as result file {} (sha256 {})",
+                session.id, resultFile.getId(), session.contentSha256);
+    }
+
+    /**
+     * Una subida recuperada tras un reinicio perdió el SHA-256 parcial; se calcula sobre el objeto ya completo.
+     */
+    private String storedObjectSha256(UploadSession session) {
+        try (InputStream stored = s3Service.downloadFile(session.keyName)) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[COPY_BUFFER_BYTES];
+            int read;
+            while ((read = stored.read(buffer)) > 0) {
+                digest.update(buffer, 0, read);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (IOException | NoSuchAlgorithmException e) {
+            throw new RuntimeException("Could not hash uploaded object " + session.keyName, e);
+        }
+    }
+
+    private void discard(UploadSession session) {
+        if (!session.multipartCompleted) {
+            abortMultipart(session);
+        }
+        deletePartFile(session);
+        uploadRepository.deleteById(session.id);
+    }
+
+    private void abortMultipart(UploadSession session) {
+        try {
+            s3Service.abortMultipartUpload(session.keyName, session.multipartUploadId);
+        } catch (Exception e) {
+            logger.warn("Could not abort multipart upload for {}: {}", session.keyName, e.getMessage());
+        }
+    }
+
+    private void deletePartFile(UploadSession session) {
+        try {
+            Files.deleteIfExists(session.partFile);
+        } catch (IOException e) {
+            logger.warn("Could not delete part file {}: {}", session.partFile, e.getMessage());
+        }
+    }
+
+    /**
+     * Archivos de parte sin fila en resumable_uploads (la subida ya expiró o se abortó).
+     * La fila se guarda al crear la subida, antes de escribir el primer byte.
+     */
+    private void removeOrphanPartFiles() {
+        if (!Files.isDirectory(uploadDir)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(uploadDir)) {
+            files.filter(path -> path.getFileName().toString().endsWith(PART_SUFFIX))
+                    .filter(path -> !hasUpload(path))
+                    .forEach(path -> {
+                        try {
+                            Files.deleteIfExists(path);
+                        } catch (IOException e) {
+                            logger.warn("Could not delete orphan part file {}: {}", path, e.getMessage());
+                        }
+                    });
+        } catch (IOException e) {
+            logger.warn("Could not clean resumable upload dir {}: {}", uploadDir, e.getMessage());
+        }
+    }
+
+    private boolean hasUpload(Path partFile) {
+        String name = partFile.getFileName().toString();
+        try {
+            UUID uploadId = UUID.fromString(name.substring(0, name.length() - PART_SUFFIX.length()));
+            return sessions.containsKey(uploadId) || uploadRepository.existsById(uploadId);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private UploadSession requireSession(UUID uploadId) {
+        // Tras un reinicio la sesión se recupera de la tabla la primera vez que se pide
+        UploadSession session = sessions.computeIfAbsent(uploadId,
+                id -> uploadRepository.findById(id).map(this::toSession).orElse(null));
+        if (session == null) {
+            throw new ResourceNotFoundException("Upload", "id", uploadId);
+        }
+        return session;
+    }
+
+    private void persist(UploadSession session) {
+        uploadRepository.save(ResumableUpload.builder()
+                .id(session.id)
+                .geneticSampleId(session.geneticSampleId)
+                .fileName(session.fileName)
+                .contentType(session.contentType)
+                .s3Key(session.keyName)
+                .multipartUploadId(session.multipartUploadId)
+                .uploadLength(session.length)
+                .partSize(session.partSize)
+                .uploadOffset(session.offset)
+                .partBytes(session.partBytes)
+                .partETags(String.join("\n", session.partETags))
+                .multipartCompleted(session.multipartCompleted)
+                .contentSha256(session.contentSha256)
+                .resultFileId(session.resultFileId)
+                .createdAt(session.createdAt)
+                .lastActivityAt(session.lastActivity)
+                .build());
+    }
+
+    private UploadSession toSession(ResumableUpload row) {
+        UploadSession session = new UploadSession(row.getId(), row.getGeneticSampleId(), row.getFileName(),
+                row.getContentType(), row.getS3Key(), row.getMultipartUploadId(), row.getUploadLength(),
+                row.getPartSize(), uploadDir.resolve(row.getId() + PART_SUFFIX), null, row.getCreatedAt());
+        if (row.getPartETags() != null && !row.getPartETags().isEmpty()) {
+            session.partETags.addAll(List.of(row.getPartETags().split("\n")));
+        }
+        session.offset = row.getUploadOffset();
+        session.partBytes = row.getPartBytes();
+        session.multipartCompleted = Boolean.TRUE.equals(row.getMultipartCompleted());
+        session.contentSha256 = row.getContentSha256();
+        session.resultFileId = row.getResultFileId();
+        session.lastActivity = row.getLastActivityAt();
+
+        // Si el archivo de parte quedó más corto que lo guardado, se reanuda desde lo que sí está en disco
+        if (!session.multipartCompleted && session.partBytes > 0) {
+            long onDisk = partFileSize(session.partFile);
+            if (onDisk < session.partBytes) {
+                session.offset -= session.partBytes - onDisk;
+                session.partBytes = onDisk;
+            }
+        }
+        logger.info("Restored resumable upload {} at offset {} of {}", session.id, session.offset, session.length);
+        return session;
+    }
+
+    private static long partFileSize(Path partFile) {
+        try {
+            return Files.exists(partFile) ? Files.size(partFile) : 0;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private ResumableUploadDTO toDTO(UploadSession session) {
+        return new ResumableUploadDTO(
+                session.id,
+                session.geneticSampleId,
+                session.fileName,
+                session.offset,
+                session.length,
+                session.isComplete(),
+                session.resultFileId,
+                session.contentSha256
+        );
+    }
+}
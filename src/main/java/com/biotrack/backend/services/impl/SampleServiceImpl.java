@@ -1,8 +1,12 @@
 package com.biotrack.backend.services.impl;
 
-import com.biotrack.backend.repositories.ReportRepository;
 import com.biotrack.backend.repositories.SampleRepository;
+import com.biotrack.backend.services.BulkDeletionService;
+import com.biotrack.backend.services.S3Service;
 import com.biotrack.backend.services.SampleService;
+import com.biotrack.backend.services.pagination.KeysetCursor;
+import com.biotrack.backend.services.pagination.KeysetPage;
+import com.biotrack.backend.services.pagination.KeysetPaginator;
 import com.biotrack.backend.models.BloodSample;
 import com.biotrack.backend.models.DnaSample;
 import com.biotrack.backend.models.SalivaSample;
@@ -19,11 +23,16 @@ import java.util.UUID;
 public class SampleServiceImpl implements SampleService {
 
     private final SampleRepository sampleRepository;
-    private final ReportRepository reportRepository;
+    private final BulkDeletionService bulkDeletionService;
+    private final KeysetPaginator paginator;
+    private final S3Service s3Service;
 
-    public SampleServiceImpl(SampleRepository sampleRepository, ReportRepository reportRepository){
+    public SampleServiceImpl(SampleRepository sampleRepository, BulkDeletionService bulkDeletionService, KeysetPaginator paginator,
+                             S3Service s3Service){
         this.sampleRepository = sampleRepository;
-        this.reportRepository = reportRepository;
+        this.bulkDeletionService = bulkDeletionService;
+        this.paginator = paginator;
+        this.s3Service = s3Service;
     }
 
     @Override
@@ -34,6 +43,7 @@ public class SampleServiceImpl implements SampleService {
         } else if (sample instanceof DnaSample) {
             DnaSample dnaSample = (DnaSample) sample;
             dnaSample.setType(SampleType.DNA);
+            storeFileKeys(dnaSample);
         } else if (sample instanceof SalivaSample) {
             SalivaSample salivaSample = (SalivaSample) sample;
             salivaSample.setType(SampleType.SALIVA);
@@ -49,6 +59,13 @@ public class SampleServiceImpl implements SampleService {
         return sampleRepository.findAll();
     }
 
+    @Override
+    public KeysetPage<Sample> findPage(String cursor, Integer size) {
+        KeysetPaginator.Request request = paginator.newestFirst(cursor, size);
+        List<Sample> rows = sampleRepository.findPageBefore(request.cursor().date(), request.cursor().id(), request.limit());
+        return paginator.page(rows, request, SampleServiceImpl::cursorOf);
+    }
+
     @Override
     public Sample findById(UUID id){
         return sampleRepository.findById(id)
@@ -58,10 +75,8 @@ public class SampleServiceImpl implements SampleService {
     @Override
     @Transactional
     public void deleteById(UUID id){
-        // Elimina primero los reportes relacionados
-        reportRepository.deleteAllBySampleId(id);
-        // Ahora elimina el sample
-        sampleRepository.deleteById(id);
+        // Borra reportes y sample en bloque; los archivos de S3 se eliminan en segundo plano
+        bulkDeletionService.deleteSample(id);
     }
 
 
@@ -142,6 +157,7 @@ public class SampleServiceImpl implements SampleService {
             dna.setFastqR2Url(updated.getFastqR2Url());
             dna.setVcfFileUrl(updated.getVcfFileUrl());
             dna.setBamFileUrl(updated.getBamFileUrl());
+            storeFileKeys(dna);
             return sampleRepository.save(dna);
         }
         if (existing instanceof SalivaSample && updatedSample instanceof SalivaSample) {
@@ -168,8 +184,34 @@ public class SampleServiceImpl implements SampleService {
         return sampleRepository.findByPatientId(patientId);
     }
 
+    @Override
+    public KeysetPage<Sample> findPageByPatientId(UUID patientId, String cursor, Integer size) {
+        KeysetPaginator.Request request = paginator.newestFirst(cursor, size);
+        List<Sample> rows = sampleRepository.findPageByPatientIdBefore(
+                patientId, request.cursor().date(), request.cursor().id(), request.limit());
+        return paginator.page(rows, request, SampleServiceImpl::cursorOf);
+    }
+
     @Override
     public List<Sample> findLatest10ByMedicalEntityId(UUID medicalEntityId) {
         return sampleRepository.findTop10ByMedicalEntityIdOrderByCollectionDateDesc(medicalEntityId);
     }
+
+    private static KeysetCursor cursorOf(Sample sample) {
+        return KeysetCursor.of(sample.getCreatedAt(), sample.getId());
+    }
+
+    /**
+     * Las URLs de FASTQ y VCF llegan del cliente; la key se resuelve una sola vez al guardarlas
+     * y la ingesta y el control de calidad leen siempre la key guardada.
+     */
+    private void storeFileKeys(DnaSample dna) {
+        dna.setFastqR1Key(keyOf(dna.getFastqR1Url()));
+        dna.setFastqR2Key(keyOf(dna.getFastqR2Url()));
+        dna.setVcfFileKey(keyOf(dna.getVcfFileUrl()));
+    }
+
+    private String keyOf(String s3Url) {
+        return s3Url == null || s3Url.isBlank() ? null : s3Service.extractKeyFromUrl(s3Url);
+    }
 }
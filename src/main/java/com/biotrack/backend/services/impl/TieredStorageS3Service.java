@@ -0,0 +1,255 @@
+package com.biotrack.backend.services.impl;
+
+import com.biotrack.backend.models.InlineDocument;
+import com.biotrack.backend.repositories.InlineDocumentRepository;
+import com.biotrack.backend.services.S3Service;
+import com.biotrack.backend.services.storage.StoredObjectInfo;
+import com.biotrack.backend.services.storage.StoredObjectStream;
+import com.biotrack.backend.utils.CompressionUtils;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Nivel de almacenamiento híbrido: los documentos de texto pequeños (reportes y resúmenes de pocos KB)
+ * se guardan comprimidos en Postgres y el resto va al almacenamiento de objetos.
+ *
+ * Se evita un PUT al escribir y un GET de decenas de ms en cada lectura. La key y la URL son las mismas
+ * que tendría el objeto en S3, así que las filas que los referencian no cambian; las lecturas buscan
+ * primero en la tabla y si no está pasan al almacenamiento.
+ */
+@Service
+@Qualifier("tieredStorage")
+public class TieredStorageS3Service implements S3Service {
+
+    private static final String TEXT_CONTENT_TYPE = "text/plain";
+
+    private final S3Service delegate;
+    private final InlineDocumentRepository inlineDocumentRepository;
+    private final long maxInlineBytes;
+    private final List<String> inlinePrefixes;
+
+    public TieredStorageS3Service(@Qualifier("storageBackend") S3Service delegate,
+                                  InlineDocumentRepository inlineDocumentRepository,
+                                  @Value("${storage.inline.max-bytes:8192}") long maxInlineBytes,
+                                  @Value("${storage.inline.prefixes:reports/,clinical-history/}") String prefixes) {
+        this.delegate = delegate;
+        this.inlineDocumentRepository = inlineDocumentRepository;
+        this.maxInlineBytes = maxInlineBytes;
+        this.inlinePrefixes = Arrays.stream(prefixes.split(","))
+                .map(String::trim)
+                .filter(prefix -> !prefix.isEmpty())
+                .toList();
+    }
+
+    @Override
+    public String uploadTextContent(String content, String keyName) {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        // Con max-bytes=0 no se guardan documentos nuevos en línea, pero se siguen leyendo los existentes
+        if (maxInlineBytes <= 0 || !isInlinePrefix(keyName) || bytes.length > maxInlineBytes) {
+            return delegate.uploadTextContent(content, keyName);
+        }
+        inlineDocumentRepository.save(InlineDocument.builder()
+                .storageKey(keyName)
+                .content(CompressionUtils.gzip(bytes))
+                .contentType(TEXT_CONTENT_TYPE)
+                .originalSize((long) bytes.length)
+                .createdAt(LocalDateTime.now())
+                .build());
+        return delegate.getObjectUrl(keyName);
+    }
+
+    @Override
+    public String downloadTextContent(String keyName) {
+        return findInline(keyName)
+                .map(TieredStorageS3Service::text)
+                .orElseGet(() -> delegate.downloadTextContent(keyName));
+    }
+
+    @Override
+    public String downloadFileAsString(String s3Url) {
+        return findInline(delegate.extractKeyFromUrl(s3Url))
+                .map(TieredStorageS3Service::text)
+                .orElseGet(() -> delegate.downloadFileAsString(s3Url));
+    }
+
+    @Override
+    public String downloadFileAsStringNotFormated(String s3Url) {
+        return findInline(delegate.extractKeyFromUrl(s3Url))
+                .map(TieredStorageS3Service::text)
+                .orElseGet(() -> delegate.downloadFileAsStringNotFormated(s3Url));
+    }
+
+    @Override
+    public InputStream downloadFile(String keyName) {
+        Optional<InlineDocument> inline = findInline(keyName);
+        if (inline.isPresent()) {
+            return new ByteArrayInputStream(CompressionUtils.gunzip(inline.get().getContent()));
+        }
+        return delegate.downloadFile(keyName);
+    }
+
+    @Override
+    public StoredObjectInfo headObject(String keyName) {
+        return findInline(keyName)
+                .map(document -> new StoredObjectInfo(keyName, document.getContent().length,
+                        document.getContentType(), CompressionUtils.GZIP, eTag(document)))
+                .orElseGet(() -> delegate.headObject(keyName));
+    }
+
+    @Override
+    public StoredObjectStream openObject(String keyName, String range, String ifRange) {
+        Optional<InlineDocument> inline = findInline(keyName);
+        if (inline.isEmpty()) {
+            return delegate.openObject(keyName, range, ifRange);
+        }
+        // Son pocos KB: se ignora Range y se manda completo (respuesta 200 válida para HTTP)
+        InlineDocument document = inline.get();
+        return new StoredObjectStream(new ByteArrayInputStream(document.getContent()), document.getContent().length,
+                document.getContentType(), CompressionUtils.GZIP, eTag(document), null,
+                document.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant());
+    }
+
+    @Override
+    public void deleteFile(String keyName) {
+        if (isInlinePrefix(keyName) && inlineDocumentRepository.existsById(keyName)) {
+            inlineDocumentRepository.deleteById(keyName);
+            return;
+        }
+        delegate.deleteFile(keyName);
+    }
+
+    @Override
+    public List<String> deleteFiles(List<String> keyNames) {
+        List<String> candidates = keyNames.stream().filter(this::isInlinePrefix).toList();
+        Set<String> inlineKeys = candidates.isEmpty()
+                ? Set.of()
+                : new HashSet<>(inlineDocumentRepository.findExistingKeys(candidates));
+        if (!inlineKeys.isEmpty()) {
+            inlineDocumentRepository.deleteAllByIdInBatch(inlineKeys);
+        }
+
+        List<String> remaining = new ArrayList<>(keyNames.size() - inlineKeys.size());
+        for (String keyName : keyNames) {
+            if (!inlineKeys.contains(keyName)) {
+                remaining.add(keyName);
+            }
+        }
+        return remaining.isEmpty() ? List.of() : delegate.deleteFiles(remaining);
+    }
+
+    @Override
+    public String copyObject(String sourceKey, String targetKey) {
+        Optional<InlineDocument> inline = findInline(sourceKey);
+        if (inline.isEmpty()) {
+            return delegate.copyObject(sourceKey, targetKey);
+        }
+        InlineDocument source = inline.get();
+        inlineDocumentRepository.save(InlineDocument.builder()
+                .storageKey(targetKey)
+                .content(source.getContent())
+                .contentType(source.getContentType())
+                .originalSize(source.getOriginalSize())
+                .createdAt(LocalDateTime.now())
+                .build());
+        return delegate.getObjectUrl(targetKey);
+    }
+
+    @Override
+    public String uploadFile(MultipartFile file, String keyName) {
+        return delegate.uploadFile(file, keyName);
+    }
+
+    @Override
+    public String generatePresignedUrl(String keyName, int expirationMinutes) {
+        return delegate.generatePresignedUrl(keyName, expirationMinutes);
+    }
+
+    @Override
+    public String uploadStreamContent(InputStream inputStream, String keyName, String contentType, long contentLength) {
+        return delegate.uploadStreamContent(inputStream, keyName, contentType, contentLength);
+    }
+
+    @Override
+    public String getObjectUrl(String keyName) {
+        return delegate.getObjectUrl(keyName);
+    }
+
+    @Override
+    public String extractKeyFromUrl(String s3Url) {
+        return delegate.extractKeyFromUrl(s3Url);
+    }
+
+    @Override
+    public List<String> listKeys(String prefix) {
+        return delegate.listKeys(prefix);
+    }
+
+    @Override
+    public String createMultipartUpload(String keyName, String contentType) {
+        return delegate.createMultipartUpload(keyName, contentType);
+    }
+
+    @Override
+    public String uploadPart(String keyName, String uploadId, int partNumber, Path partFile) {
+        return delegate.uploadPart(keyName, uploadId, partNumber, partFile);
+    }
+
+    @Override
+    public String completeMultipartUpload(String keyName, String uploadId, List<String> partETags) {
+        return delegate.completeMultipartUpload(keyName, uploadId, partETags);
+    }
+
+    @Override
+    public void abortMultipartUpload(String keyName, String uploadId) {
+        delegate.abortMultipartUpload(keyName, uploadId);
+    }
+
+    /**
+     * Solo las keys de reportes y resúmenes pueden estar en línea; el resto ni se consulta en la tabla
+     */
+    private Optional<InlineDocument> findInline(String keyName) {
+        return isInlinePrefix(keyName) ? inlineDocumentRepository.findById(keyName) : Optional.empty();
+    }
+
+    private boolean isInlinePrefix(String keyName) {
+        if (keyName == null) {
+            return false;
+        }
+        for (String prefix : inlinePrefixes) {
+            if (keyName.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String text(InlineDocument document) {
+        return new String(CompressionUtils.gunzip(document.getContent()), StandardCharsets.UTF_8);
+    }
+
+    private static String eTag(InlineDocument document) {
+        try {
+            return "\"" + HexFormat.of().formatHex(MessageDigest.getInstance("MD5").digest(document.getContent())) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 not available", e);
+        }
+    }
+}
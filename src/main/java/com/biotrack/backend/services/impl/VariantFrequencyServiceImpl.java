@@ -0,0 +1,263 @@
+package com.biotrack.backend.services.impl;
+
+import com.biotrack.backend.dto.GeneFrequencyDTO;
+import com.biotrack.backend.dto.VariantFrequencyDTO;
+import com.biotrack.backend.models.GeneFrequency;
+import com.biotrack.backend.models.Mutation;
+import com.biotrack.backend.models.VariantCohortSize;
+import com.biotrack.backend.models.VariantFrequency;
+import com.biotrack.backend.repositories.GeneFrequencyRepository;
+import com.biotrack.backend.repositories.VariantCohortSizeRepository;
+import com.biotrack.backend.repositories.VariantFrequencyRepository;
+import com.biotrack.backend.services.VariantFrequencyService;
+import com.biotrack.backend.services.genomics.GeneDictionary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Frecuencias internas de variantes mantenidas de forma incremental en tablas agregadas.
+ *
+ * Cada cambio a las mutaciones de una muestra resta el aporte que tenía la muestra antes del cambio y
+ * suma el que tiene después, con upserts agrupados sobre las mutaciones de esa muestra. Así los
+ * portadores distintos quedan exactos aunque una muestra se reprocese, y las consultas son lecturas
+ * por llave sin recorrer mutations.
+ */
+@Service
+public class VariantFrequencyServiceImpl implements VariantFrequencyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(VariantFrequencyServiceImpl.class);
+
+    private static final String COHORT_SCOPE_SQL = "CAST('" + VariantFrequency.COHORT_SCOPE + "' AS uuid)";
+    // Cada mutación cuenta una vez para la cohorte y otra para el hospital de su muestra, si tiene
+    private static final String SCOPED_MUTATIONS_SQL = "SELECT s.scope_id, m.genetic_sample_id, m.gene_symbol, "
+            + "regexp_replace(upper(trim(coalesce(m.chromosome, ''))), '^CHR', '') AS chromosome, "
+            + "upper(trim(coalesce(m.type, ''))) AS type, m.relevance "
+            + "FROM mutations m JOIN genetic_samples gs ON gs.id = m.genetic_sample_id "
+            + "CROSS JOIN LATERAL (VALUES (" + COHORT_SCOPE_SQL + "), (gs.medical_entity_id)) AS s(scope_id) "
+            + "WHERE %s AND m.gene_symbol IS NOT NULL AND m.gene_symbol <> '' AND s.scope_id IS NOT NULL";
+
+    // ORDER BY para que transacciones concurrentes tomen los candados de fila en el mismo orden
+    private static final String UPSERT_VARIANTS_SQL = "INSERT INTO variant_frequencies "
+            + "(id, scope_id, gene_symbol, chromosome, type, carriers, variants, low_count, medium_count, high_count) "
+            + "SELECT gen_random_uuid(), scope_id, gene_symbol, chromosome, type, "
+            + "%2$d * count(DISTINCT genetic_sample_id), %2$d * count(*), "
+            + "%2$d * count(*) FILTER (WHERE relevance = 'LOW'), "
+            + "%2$d * count(*) FILTER (WHERE relevance = 'MEDIUM'), "
+            + "%2$d * count(*) FILTER (WHERE relevance = 'HIGH') "
+            + "FROM (%1$s) v GROUP BY scope_id, gene_symbol, chromosome, type "
+            + "ORDER BY scope_id, gene_symbol, chromosome, type "
+            + "ON CONFLICT (scope_id, gene_symbol, chromosome, type) DO UPDATE SET "
+            + "carriers = variant_frequencies.carriers + EXCLUDED.carriers, "
+            + "variants = variant_frequencies.variants + EXCLUDED.variants, "
+            + "low_count = variant_frequencies.low_count + EXCLUDED.low_count, "
+            + "medium_count = variant_frequencies.medium_count + EXCLUDED.medium_count, "
+            + "high_count = variant_frequencies.high_count + EXCLUDED.high_count";
+
+    private static final String UPSERT_GENES_SQL = "INSERT INTO gene_frequencies (id, scope_id, gene_symbol, carriers, variants) "
+            + "SELECT gen_random_uuid(), scope_id, gene_symbol, %2$d * count(DISTINCT genetic_sample_id), %2$d * count(*) "
+            + "FROM (%1$s) v GROUP BY scope_id, gene_symbol ORDER BY scope_id, gene_symbol "
+            + "ON CONFLICT (scope_id, gene_symbol) DO UPDATE SET "
+            + "carriers = gene_frequencies.carriers + EXCLUDED.carriers, "
+            + "variants = gene_frequencies.variants + EXCLUDED.variants";
+
+    private static final String UPSERT_COHORT_SIZES_SQL = "INSERT INTO variant_cohort_sizes (scope_id, samples) "
+            + "SELECT scope_id, %2$d * count(DISTINCT genetic_sample_id) FROM (%1$s) v GROUP BY scope_id ORDER BY scope_id "
+            + "ON CONFLICT (scope_id) DO UPDATE SET samples = variant_cohort_sizes.samples + EXCLUDED.samples";
+
+    private static final String SAMPLE_FILTER = "m.genetic_sample_id = ?";
+    private static final String ALL_SAMPLES_FILTER = "m.genetic_sample_id IS NOT NULL";
+    // Serializa los cambios de una misma muestra: la resta y la suma deben ver las mismas mutaciones previas
+    private static final String LOCK_SAMPLE_SQL = "SELECT id FROM genetic_samples WHERE id = ? FOR UPDATE";
+    // Los upserts incrementales toman ROW EXCLUSIVE; rebuild espera a que terminen y los bloquea mientras corre
+    private static final String LOCK_TABLES_SQL =
+            "LOCK TABLE variant_frequencies, gene_frequencies, variant_cohort_sizes IN EXCLUSIVE MODE";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final VariantFrequencyRepository variantFrequencyRepository;
+    private final GeneFrequencyRepository geneFrequencyRepository;
+    private final VariantCohortSizeRepository variantCohortSizeRepository;
+
+    public VariantFrequencyServiceImpl(JdbcTemplate jdbcTemplate,
+                                       VariantFrequencyRepository variantFrequencyRepository,
+                                       GeneFrequencyRepository geneFrequencyRepository,
+                                       VariantCohortSizeRepository variantCohortSizeRepository) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.variantFrequencyRepository = variantFrequencyRepository;
+        this.geneFrequencyRepository = geneFrequencyRepository;
+        this.variantCohortSizeRepository = variantCohortSizeRepository;
+    }
+
+    @Override
+    @Transactional
+    public void subtractSamples(Collection<UUID> geneticSampleIds) {
+        for (UUID geneticSampleId : geneticSampleIds) {
+            jdbcTemplate.queryForList(LOCK_SAMPLE_SQL, UUID.class, geneticSampleId);
+            apply(SAMPLE_FILTER, -1, geneticSampleId);
+        }
+    }
+
+    @Override
+    @Transactional
+    public void addSamples(Collection<UUID> geneticSampleIds) {
+        for (UUID geneticSampleId : geneticSampleIds) {
+            apply(SAMPLE_FILTER, 1, geneticSampleId);
+        }
+    }
+
+    @Override
+    public VariantFrequencyDTO findFrequency(String gene, String chromosome, String type, UUID hospitalId) {
+        String symbol = GeneDictionary.normalize(gene);
+        if (symbol.isEmpty()) {
+            throw new IllegalArgumentException("Gene is required");
+        }
+        String chromosomeKey = chromosomeKey(chromosome);
+        String typeKey = typeKey(type);
+        UUID scope = scope(hospitalId);
+        VariantFrequency frequency = variantFrequencyRepository
+                .findByScopeIdAndGeneSymbolAndChromosomeAndType(scope, symbol, chromosomeKey, typeKey)
+                .orElseGet(() -> VariantFrequency.builder()
+                        .scopeId(scope)
+                        .geneSymbol(symbol)
+                        .chromosome(chromosomeKey)
+                        .type(typeKey)
+                        .build());
+        return toDTO(frequency, hospitalId, cohortSamples(scope));
+    }
+
+    @Override
+    public List<GeneFrequencyDTO> findTopGenes(UUID hospitalId, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        UUID scope = scope(hospitalId);
+        long cohortSamples = cohortSamples(scope);
+        return geneFrequencyRepository.findTopByScopeId(scope, PageRequest.of(0, limit)).stream()
+                .map(gene -> toDTO(gene, hospitalId, cohortSamples))
+                .toList();
+    }
+
+    @Override
+    public List<VariantFrequencyDTO> findFrequencies(Collection<Mutation> mutations, UUID hospitalId) {
+        Set<String> signatures = new LinkedHashSet<>();
+        Set<String> symbols = new LinkedHashSet<>();
+        for (Mutation mutation : mutations) {
+            String symbol = GeneDictionary.normalize(mutation.getGene());
+            if (!symbol.isEmpty()) {
+                symbols.add(symbol);
+                signatures.add(signature(symbol, chromosomeKey(mutation.getChromosome()), typeKey(mutation.getType())));
+            }
+        }
+        if (symbols.isEmpty()) {
+            return List.of();
+        }
+        List<VariantFrequencyDTO> frequencies = new ArrayList<>(lookup(signatures, symbols, null));
+        if (hospitalId != null) {
+            frequencies.addAll(lookup(signatures, symbols, hospitalId));
+        }
+        return frequencies;
+    }
+
+    @Override
+    @Transactional
+    public long rebuild() {
+        long startedAt = System.currentTimeMillis();
+        jdbcTemplate.execute(LOCK_TABLES_SQL);
+        jdbcTemplate.update("DELETE FROM variant_frequencies");
+        jdbcTemplate.update("DELETE FROM gene_frequencies");
+        jdbcTemplate.update("DELETE FROM variant_cohort_sizes");
+        apply(ALL_SAMPLES_FILTER, 1);
+        long samples = cohortSamples(VariantFrequency.COHORT_SCOPE);
+        logger.info("Variant frequencies rebuilt for {} genetic samples in {} ms", samples,
+                System.currentTimeMillis() - startedAt);
+        return samples;
+    }
+
+    @Override
+    public boolean rebuildIfEmpty() {
+        if (variantCohortSizeRepository.count() > 0) {
+            return false;
+        }
+        Boolean hasMutations = jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM mutations)", Boolean.class);
+        if (!Boolean.TRUE.equals(hasMutations)) {
+            return false;
+        }
+        rebuild();
+        return true;
+    }
+
+    private void apply(String filter, int sign, Object... args) {
+        String source = String.format(SCOPED_MUTATIONS_SQL, filter);
+        jdbcTemplate.update(String.format(UPSERT_VARIANTS_SQL, source, sign), args);
+        jdbcTemplate.update(String.format(UPSERT_GENES_SQL, source, sign), args);
+        jdbcTemplate.update(String.format(UPSERT_COHORT_SIZES_SQL, source, sign), args);
+    }
+
+    private List<VariantFrequencyDTO> lookup(Set<String> signatures, Set<String> symbols, UUID hospitalId) {
+        UUID scope = scope(hospitalId);
+        long cohortSamples = cohortSamples(scope);
+        Map<String, VariantFrequency> found = new HashMap<>();
+        for (VariantFrequency frequency : variantFrequencyRepository.findByScopeIdAndGeneSymbolIn(scope, symbols)) {
+            found.put(signature(frequency.getGeneSymbol(), frequency.getChromosome(), frequency.getType()), frequency);
+        }
+        List<VariantFrequencyDTO> frequencies = new ArrayList<>(signatures.size());
+        for (String signature : signatures) {
+            VariantFrequency frequency = found.get(signature);
+            if (frequency != null) {
+                frequencies.add(toDTO(frequency, hospitalId, cohortSamples));
+            }
+        }
+        return frequencies;
+    }
+
+    private long cohortSamples(UUID scope) {
+        return variantCohortSizeRepository.findById(scope).map(VariantCohortSize::getSamples).orElse(0L);
+    }
+
+    private static VariantFrequencyDTO toDTO(VariantFrequency frequency, UUID hospitalId, long cohortSamples) {
+        return new VariantFrequencyDTO(frequency.getGeneSymbol(), frequency.getChromosome(), frequency.getType(),
+                hospitalId, frequency.getCarriers(), frequency.getVariants(), cohortSamples,
+                ratio(frequency.getCarriers(), cohortSamples), ratio(frequency.getVariants(), 2 * cohortSamples),
+                frequency.getLowCount(), frequency.getMediumCount(), frequency.getHighCount());
+    }
+
+    private static GeneFrequencyDTO toDTO(GeneFrequency gene, UUID hospitalId, long cohortSamples) {
+        return new GeneFrequencyDTO(gene.getGeneSymbol(), hospitalId, gene.getCarriers(), gene.getVariants(),
+                cohortSamples, ratio(gene.getCarriers(), cohortSamples));
+    }
+
+    private static double ratio(long count, long total) {
+        return total > 0 ? Math.min(1.0, (double) count / total) : 0.0;
+    }
+
+    private static UUID scope(UUID hospitalId) {
+        return hospitalId == null ? VariantFrequency.COHORT_SCOPE : hospitalId;
+    }
+
+    private static String signature(String symbol, String chromosome, String type) {
+        return symbol + '\t' + chromosome + '\t' + type;
+    }
+
+    // Misma normalización que SCOPED_MUTATIONS_SQL
+    private static String chromosomeKey(String chromosome) {
+        String key = chromosome == null ? "" : chromosome.trim().toUpperCase(Locale.ROOT);
+        return key.startsWith("CHR") ? key.substring(3) : key;
+    }
+
+    private static String typeKey(String type) {
+        return type == null ? "" : type.trim().toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,311 @@
+package com.biotrack.backend.services.impl;
+
+import com.biotrack.backend.dto.GeneCarriersDTO;
+import com.biotrack.backend.dto.GeneVariantCountDTO;
+import com.biotrack.backend.dto.VariantStoreStatsDTO;
+import com.biotrack.backend.models.Mutation;
+import com.biotrack.backend.models.enums.Relevance;
+import com.biotrack.backend.services.VariantStoreService;
+import com.biotrack.backend.services.genomics.ColumnarVariantStore;
+import com.biotrack.backend.services.genomics.VariantStaging;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.PreparedStatement;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Mantiene el almacén columnar de variantes al día con la tabla mutations.
+ *
+ * Las ingestas escriben sus filas a un staging mientras insertan en Postgres y las publican aquí solo
+ * después del commit; los borrados de muestras se marcan también después del commit. Postgres sigue
+ * siendo la fuente de verdad: si un append falla se registra y el almacén se puede reconstruir con rebuild().
+ */
+@Service
+public class VariantStoreServiceImpl implements VariantStoreService {
+
+    private static final Logger logger = LoggerFactory.getLogger(VariantStoreServiceImpl.class);
+
+    private static final String SELECT_MUTATIONS_SQL = "SELECT genetic_sample_id, gene, chromosome, type, relevance "
+            + "FROM mutations WHERE genetic_sample_id IS NOT NULL";
+    private static final String CURRENT_DIR = "current";
+    private static final String REBUILD_DIR = "rebuild";
+    private static final String STAGING_DIR = "staging";
+    private static final int FETCH_SIZE = 10000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Path directory;
+    private final Path stagingDirectory;
+    private final int segmentRows;
+
+    // Serializa los appends con rebuild() para que ninguno caiga en el almacén que se va a reemplazar
+    private final Object writeLock = new Object();
+    private volatile ColumnarVariantStore store;
+
+    public VariantStoreServiceImpl(JdbcTemplate jdbcTemplate,
+                                   TransactionTemplate transactionTemplate,
+                                   @Value("${variants.store.dir:./data/variant-store}") String storeDir,
+                                   @Value("${variants.store.segment-rows:1048576}") int segmentRows) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.directory = Paths.get(storeDir);
+        this.stagingDirectory = directory.resolve(STAGING_DIR);
+        this.segmentRows = segmentRows;
+        ColumnarVariantStore opened = null;
+        try {
+            // Los staging que quedaron de un proceso anterior ya no se van a publicar
+            deleteRecursively(stagingDirectory);
+            Files.createDirectories(stagingDirectory);
+            opened = ColumnarVariantStore.open(directory.resolve(CURRENT_DIR), segmentRows);
+        } catch (IOException e) {
+            // Sin almacén las ingestas siguen funcionando; solo las consultas de cohorte quedan deshabilitadas
+            logger.error("Variant store unavailable at {}: {}", storeDir, e.getMessage());
+        }
+        this.store = opened;
+    }
+
+    @Override
+    public VariantStaging newStaging() {
+        try {
+            return VariantStaging.create(stagingDirectory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create variant staging file", e);
+        }
+    }
+
+    @Override
+    public void append(VariantStaging staging) {
+        try (staging) {
+            synchronized (writeLock) {
+                if (store != null) {
+                    store.append(staging);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // La ingesta ya está confirmada en Postgres; no se revierte por el almacén
+            logger.error("Could not add {} variants to the variant store, rebuild it to resync: {}",
+                    staging.rows(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void recordMutations(UUID geneticSampleId, Collection<Mutation> mutations) {
+        if (mutations == null || mutations.isEmpty()) {
+            return;
+        }
+        VariantStaging staging = newStaging();
+        try {
+            for (Mutation mutation : mutations) {
+                staging.add(geneticSampleId, mutation.getGene(), mutation.getChromosome(), mutation.getType(),
+                        mutation.getRelevance());
+            }
+        } catch (IOException e) {
+            closeQuietly(staging);
+            throw new UncheckedIOException("Could not stage mutations", e);
+        }
+        afterCommit(() -> append(staging), () -> closeQuietly(staging));
+    }
+
+    @Override
+    public void removeGeneticSamples(Collection<UUID> geneticSampleIds) {
+        if (geneticSampleIds.isEmpty()) {
+            return;
+        }
+        List<UUID> ids = List.copyOf(geneticSampleIds);
+        afterCommit(() -> {
+            synchronized (writeLock) {
+                try {
+                    if (store != null) {
+                        store.removeSamples(ids);
+                    }
+                } catch (IOException e) {
+                    logger.error("Could not mark {} genetic samples as deleted in the variant store: {}",
+                            ids.size(), e.getMessage());
+                }
+            }
+        }, () -> {});
+    }
+
+    @Override
+    public GeneCarriersDTO findCarriers(String gene, Relevance minRelevance) {
+        ColumnarVariantStore.Carriers carriers = requireStore().carriers(gene.trim(), minRelevance);
+        return new GeneCarriersDTO(gene.trim(), minRelevance, carriers.variants(), carriers.sampleIds().size(),
+                carriers.sampleIds());
+    }
+
+    @Override
+    public List<GeneVariantCountDTO> countByGene(Relevance minRelevance, String chromosome, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        String filter = chromosome == null || chromosome.isBlank() ? null : chromosome.trim();
+        return requireStore().countByGene(minRelevance, filter, limit).stream()
+                .map(count -> new GeneVariantCountDTO(count.gene(), count.variants(), count.carriers()))
+                .toList();
+    }
+
+    @Override
+    public VariantStoreStatsDTO stats() {
+        ColumnarVariantStore current = requireStore();
+        return new VariantStoreStatsDTO(current.rowCount(), current.sampleCount(), current.geneCount(),
+                current.segmentCount());
+    }
+
+    /**
+     * Lee toda la tabla mutations en un almacén nuevo y lo cambia por el actual. Los appends esperan
+     * mientras tanto, así las ingestas que hagan commit durante la lectura entran al almacén nuevo.
+     */
+    @Override
+    public VariantStoreStatsDTO rebuild() {
+        synchronized (writeLock) {
+            long startedAt = System.currentTimeMillis();
+            Path target = directory.resolve(REBUILD_DIR);
+            Path current = directory.resolve(CURRENT_DIR);
+            try {
+                deleteRecursively(target);
+                long rows;
+                try (ColumnarVariantStore fresh = ColumnarVariantStore.open(target, segmentRows)) {
+                    rows = loadMutations(fresh);
+                }
+                if (store != null) {
+                    store.close();
+                }
+                store = null;
+                deleteRecursively(current);
+                Files.move(target, current);
+                store = ColumnarVariantStore.open(current, segmentRows);
+                logger.info("Variant store rebuilt with {} variants in {} ms", rows, System.currentTimeMillis() - startedAt);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not rebuild variant store: " + e.getMessage(), e);
+            }
+        }
+        return stats();
+    }
+
+    @Override
+    public boolean rebuildIfEmpty() {
+        if (store == null || store.rowCount() > 0) {
+            return false;
+        }
+        Boolean hasMutations = jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM mutations)", Boolean.class);
+        if (!Boolean.TRUE.equals(hasMutations)) {
+            return false;
+        }
+        rebuild();
+        return true;
+    }
+
+    @PreDestroy
+    public void close() {
+        synchronized (writeLock) {
+            if (store == null) {
+                return;
+            }
+            try {
+                store.close();
+            } catch (IOException e) {
+                logger.warn("Error closing variant store: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Recorre mutations con un cursor (fetch size solo aplica dentro de una transacción en Postgres)
+     * y agrega las filas en tandas de un segmento para no acumular un staging del tamaño de la tabla
+     */
+    private long loadMutations(ColumnarVariantStore target) throws IOException {
+        VariantStaging[] staging = {newStaging()};
+        long[] rows = {0};
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(SELECT_MUTATIONS_SQL);
+                statement.setFetchSize(FETCH_SIZE);
+                return statement;
+            }, resultSet -> {
+                try {
+                    String relevance = resultSet.getString(5);
+                    staging[0].add(resultSet.getObject(1, UUID.class), resultSet.getString(2), resultSet.getString(3),
+                            resultSet.getString(4), relevance == null ? null : Relevance.valueOf(relevance));
+                    rows[0]++;
+                    if (staging[0].rows() == segmentRows) {
+                        target.append(staging[0]);
+                        staging[0].close();
+                        staging[0] = newStaging();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+            target.append(staging[0]);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            staging[0].close();
+        }
+        return rows[0];
+    }
+
+    private ColumnarVariantStore requireStore() {
+        ColumnarVariantStore current = store;
+        if (current == null) {
+            throw new IllegalStateException("Variant store is not available");
+        }
+        return current;
+    }
+
+    /**
+     * Ejecuta la acción después del commit de la transacción actual, o de inmediato si no hay una
+     */
+    private static void afterCommit(Runnable onCommit, Runnable onRollback) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            onCommit.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    onCommit.run();
+                } else {
+                    onRollback.run();
+                }
+            }
+        });
+    }
+
+    private static void closeQuietly(VariantStaging staging) {
+        try {
+            staging.close();
+        } catch (IOException e) {
+            logger.warn("Could not delete variant staging file: {}", e.getMessage());
+        }
+    }
+
+    private static void deleteRecursively(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (Stream<Path> walk = Files.walk(path)) {
+            for (Path entry : walk.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(entry);
+            }
+        }
+    }
+}
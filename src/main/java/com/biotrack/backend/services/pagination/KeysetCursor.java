@@ -0,0 +1,70 @@
+package com.biotrack.backend.services.pagination;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Posición de una página: el (timestamp de creación, id) de la última fila entregada.
+ *
+ * Se entrega al cliente como texto opaco (base64url de 29 bytes) para que no dependa del formato ni
+ * arme cursores a mano. En las tablas sin columna de creación el timestamp va null y solo cuenta el id.
+ */
+public record KeysetCursor(LocalDateTime timestamp, UUID id) {
+
+    // Posterior a cualquier fila: primera página en orden (timestamp, id) descendente
+    public static final KeysetCursor NEWEST = new KeysetCursor(LocalDateTime.of(9999, 12, 31, 23, 59, 59), new UUID(-1L, -1L));
+    // Anterior a cualquier id: primera página en orden de id ascendente
+    public static final KeysetCursor LOWEST_ID = new KeysetCursor(null, new UUID(0L, 0L));
+
+    private static final int ENCODED_BYTES = 1 + 8 + 4 + 16;
+
+    public static KeysetCursor of(LocalDate date, UUID id) {
+        return new KeysetCursor(date == null ? null : date.atStartOfDay(), id);
+    }
+
+    /**
+     * Para las columnas de tipo fecha (created_at DATE)
+     */
+    public LocalDate date() {
+        return timestamp == null ? null : timestamp.toLocalDate();
+    }
+
+    public String encode() {
+        ByteBuffer buffer = ByteBuffer.allocate(ENCODED_BYTES);
+        buffer.put((byte) (timestamp == null ? 0 : 1));
+        buffer.putLong(timestamp == null ? 0 : timestamp.toEpochSecond(ZoneOffset.UTC));
+        buffer.putInt(timestamp == null ? 0 : timestamp.getNano());
+        buffer.putLong(id.getMostSignificantBits());
+        buffer.putLong(id.getLeastSignificantBits());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    public static KeysetCursor decode(String cursor) {
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        if (bytes.length != ENCODED_BYTES || (bytes[0] != 0 && bytes[0] != 1)) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        boolean hasTimestamp = buffer.get() == 1;
+        long seconds = buffer.getLong();
+        int nanos = buffer.getInt();
+        UUID id = new UUID(buffer.getLong(), buffer.getLong());
+        if (!hasTimestamp) {
+            return new KeysetCursor(null, id);
+        }
+        try {
+            return new KeysetCursor(LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC), id);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
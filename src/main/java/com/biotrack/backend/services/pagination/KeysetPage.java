@@ -0,0 +1,30 @@
+package com.biotrack.backend.services.pagination;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Una página de resultados y el cursor de la siguiente (null si es la última)
+ */
+@Schema(description = "One page of a list, newest first; request the next one with cursor=nextCursor while hasMore is true")
+public record KeysetPage<T>(
+    @Schema(description = "Rows of this page")
+    List<T> items,
+
+    @Schema(description = "Opaque cursor of the next page; null on the last page")
+    String nextCursor
+) {
+
+    public <R> KeysetPage<R> map(Function<? super T, ? extends R> mapper) {
+        return new KeysetPage<>(items.stream().<R>map(mapper).toList(), nextCursor);
+    }
+
+    @JsonProperty("hasMore")
+    @Schema(description = "True when the list continues after this page")
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
@@ -0,0 +1,65 @@
+package com.biotrack.backend.services.pagination;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Paginación por llave (keyset): cada página continúa después de la última fila entregada con una
+ * comparación sobre el índice compuesto, así el costo no crece con la posición como con OFFSET.
+ * Se piden size + 1 filas para saber si hay otra página sin contar la tabla.
+ */
+@Component
+public class KeysetPaginator {
+
+    public record Request(KeysetCursor cursor, int size) {
+        public Pageable limit() {
+            return PageRequest.of(0, size + 1);
+        }
+    }
+
+    private final int defaultSize;
+    private final int maxSize;
+
+    public KeysetPaginator(@Value("${pagination.default-size:50}") int defaultSize,
+                           @Value("${pagination.max-size:200}") int maxSize) {
+        this.defaultSize = defaultSize;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Orden (timestamp de creación, id) descendente: lo más reciente primero
+     */
+    public Request newestFirst(String cursor, Integer size) {
+        return new Request(cursor == null || cursor.isBlank() ? KeysetCursor.NEWEST : KeysetCursor.decode(cursor), size(size));
+    }
+
+    /**
+     * Orden por id ascendente, para tablas sin columna de creación
+     */
+    public Request byId(String cursor, Integer size) {
+        return new Request(cursor == null || cursor.isBlank() ? KeysetCursor.LOWEST_ID : KeysetCursor.decode(cursor), size(size));
+    }
+
+    public <T> KeysetPage<T> page(List<T> rows, Request request, Function<T, KeysetCursor> key) {
+        if (rows.size() <= request.size()) {
+            return new KeysetPage<>(rows, null);
+        }
+        List<T> items = rows.subList(0, request.size());
+        return new KeysetPage<>(List.copyOf(items), key.apply(items.get(items.size() - 1)).encode());
+    }
+
+    private int size(Integer size) {
+        if (size == null) {
+            return defaultSize;
+        }
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1");
+        }
+        return Math.min(size, maxSize);
+    }
+}
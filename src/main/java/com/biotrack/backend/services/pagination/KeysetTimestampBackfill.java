@@ -0,0 +1,55 @@
+package com.biotrack.backend.services.pagination;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Llena la columna de orden de los listados en filas anteriores a la paginación por (created_at, id):
+ * con NULL la comparación de filas nunca es verdadera y esas filas no aparecerían en ninguna página.
+ * Se usa la fecha propia del registro cuando existe (toma de muestra, visita) y si no la actual.
+ */
+@Component
+public class KeysetTimestampBackfill {
+
+    private static final Logger logger = LoggerFactory.getLogger(KeysetTimestampBackfill.class);
+
+    private record Column(String table, String column, String fallback) {
+        String sql() {
+            return "UPDATE " + table + " SET " + column + " = " + fallback + " WHERE " + column + " IS NULL";
+        }
+    }
+
+    private static final List<Column> COLUMNS = List.of(
+            new Column("patients", "created_at", "CURRENT_DATE"),
+            new Column("sample", "created_at", "COALESCE(collection_date, CURRENT_DATE)"),
+            new Column("genetic_samples", "created_at", "COALESCE(collection_date, CURRENT_DATE)"),
+            new Column("medical_visits", "created_at", "COALESCE(visit_date, CURRENT_TIMESTAMP)"),
+            new Column("lab_appointments", "created_at", "CURRENT_TIMESTAMP"),
+            new Column("reports", "generated_at", "CURRENT_TIMESTAMP")
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public KeysetTimestampBackfill(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Devuelve cuántas filas se actualizaron en total
+     */
+    public long backfill() {
+        long updated = 0;
+        for (Column column : COLUMNS) {
+            int rows = jdbcTemplate.update(column.sql());
+            if (rows > 0) {
+                logger.info("Backfilled {}.{} on {} rows", column.table(), column.column(), rows);
+            }
+            updated += rows;
+        }
+        return updated;
+    }
+}
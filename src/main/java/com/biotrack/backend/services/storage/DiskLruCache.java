@@ -0,0 +1,235 @@
+package com.biotrack.backend.services.storage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Cache LRU en disco para objetos inmutables, con un nivel pequeño en heap para las keys más usadas.
+ *
+ * Los archivos se nombran por el SHA-256 de su contenido (objects/ab/abcdef...), así dos keys con el
+ * mismo contenido comparten archivo. Cada escritura va a un temporal y se mueve atómicamente a su
+ * lugar, por lo que nunca se lee un archivo a medias. El índice key → contenido vive en memoria y
+ * se desaloja por total de bytes; al arrancar el directorio se vacía (cache frío).
+ */
+public class DiskLruCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(DiskLruCache.class);
+
+    public record Stats(long heapHits, long diskHits, long misses, long bytesRead, long bytesWritten,
+                        long evictions, long totalBytes, int entries) {}
+
+    private record Entry(String contentHash, long size) {}
+
+    private final Path objectsDir;
+    private final Path tmpDir;
+    private final long maxBytes;
+    private final int heapMaxEntryBytes;
+
+    // Orden de acceso: el primero es el menos usado recientemente
+    private final LinkedHashMap<String, Entry> index = new LinkedHashMap<>(256, 0.75f, true);
+    private final Map<String, Integer> refCounts = new HashMap<>();
+    private final LinkedHashMap<String, byte[]> heap;
+    private long totalBytes;
+
+    private final LongAdder heapHits = new LongAdder();
+    private final LongAdder diskHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder bytesRead = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public DiskLruCache(Path directory, long maxBytes, int heapMaxEntries, int heapMaxEntryBytes) throws IOException {
+        this.objectsDir = directory.resolve("objects");
+        this.tmpDir = directory.resolve("tmp");
+        this.maxBytes = maxBytes;
+        this.heapMaxEntryBytes = heapMaxEntryBytes;
+        this.heap = new LinkedHashMap<>(Math.max(16, heapMaxEntries), 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest) {
+                return size() > heapMaxEntries;
+            }
+        };
+
+        deleteContents(directory);
+        Files.createDirectories(objectsDir);
+        Files.createDirectories(tmpDir);
+    }
+
+    public byte[] get(String key) {
+        Entry entry;
+        synchronized (this) {
+            entry = index.get(key);
+            byte[] hot = heap.get(key);
+            if (hot != null) {
+                heapHits.increment();
+                return hot;
+            }
+        }
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+
+        try {
+            byte[] data = Files.readAllBytes(objectPath(entry.contentHash()));
+            diskHits.increment();
+            bytesRead.add(data.length);
+            synchronized (this) {
+                if (index.get(key) == entry) {
+                    promote(key, data);
+                }
+            }
+            return data;
+        } catch (IOException e) {
+            // El archivo se desalojó entre la consulta al índice y la lectura
+            synchronized (this) {
+                if (index.get(key) == entry) {
+                    remove(key);
+                }
+            }
+            misses.increment();
+            return null;
+        }
+    }
+
+    public void put(String key, byte[] value) {
+        if (value.length > maxBytes) {
+            return;
+        }
+        String contentHash = sha256Hex(value);
+
+        boolean stored;
+        synchronized (this) {
+            stored = refCounts.containsKey(contentHash);
+        }
+        if (!stored && !writeAtomically(contentHash, value)) {
+            return;
+        }
+
+        synchronized (this) {
+            // Se toma la referencia nueva antes de soltar la anterior por si comparten contenido
+            if (refCounts.merge(contentHash, 1, Integer::sum) == 1) {
+                totalBytes += value.length;
+            }
+            Entry previous = index.put(key, new Entry(contentHash, value.length));
+            if (previous != null) {
+                release(previous);
+            }
+            heap.remove(key);
+            promote(key, value);
+            evictIfNeeded();
+        }
+    }
+
+    public synchronized void invalidate(String key) {
+        remove(key);
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(heapHits.sum(), diskHits.sum(), misses.sum(), bytesRead.sum(), bytesWritten.sum(),
+                evictions.sum(), totalBytes, index.size());
+    }
+
+    private boolean writeAtomically(String contentHash, byte[] value) {
+        Path target = objectPath(contentHash);
+        Path tmp = null;
+        try {
+            Files.createDirectories(target.getParent());
+            tmp = Files.createTempFile(tmpDir, contentHash, ".tmp");
+            Files.write(tmp, value);
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            bytesWritten.add(value.length);
+            return true;
+        } catch (IOException e) {
+            logger.warn("Could not write cache file {}: {}", target, e.getMessage());
+            if (tmp != null) {
+                try {
+                    Files.deleteIfExists(tmp);
+                } catch (IOException ignored) {
+                    // El temporal se limpia al próximo arranque
+                }
+            }
+            return false;
+        }
+    }
+
+    private void promote(String key, byte[] data) {
+        if (data.length <= heapMaxEntryBytes) {
+            heap.put(key, data);
+        }
+    }
+
+    private void evictIfNeeded() {
+        Iterator<Map.Entry<String, Entry>> eldest = index.entrySet().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<String, Entry> next = eldest.next();
+            eldest.remove();
+            heap.remove(next.getKey());
+            release(next.getValue());
+            evictions.increment();
+        }
+    }
+
+    private void remove(String key) {
+        Entry entry = index.remove(key);
+        heap.remove(key);
+        if (entry != null) {
+            release(entry);
+        }
+    }
+
+    /**
+     * Suelta una referencia al archivo de contenido; se borra cuando ninguna key lo usa.
+     */
+    private void release(Entry entry) {
+        Integer remaining = refCounts.computeIfPresent(entry.contentHash(), (hash, count) -> count > 1 ? count - 1 : null);
+        if (remaining == null) {
+            totalBytes -= entry.size();
+            try {
+                Files.deleteIfExists(objectPath(entry.contentHash()));
+            } catch (IOException e) {
+                logger.warn("Could not delete cache file {}: {}", entry.contentHash(), e.getMessage());
+            }
+        }
+    }
+
+    private Path objectPath(String contentHash) {
+        return objectsDir.resolve(contentHash.substring(0, 2)).resolve(contentHash);
+    }
+
+    private static String sha256Hex(byte[] value) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(value));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static void deleteContents(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                if (!path.equals(directory)) {
+                    Files.deleteIfExists(path);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.biotrack.backend.services.storage;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Nombres de keys para los objetos guardados.
+ *
+ * Después de la carpeta va un prefijo de hash ({carpeta}/ab/cd/{nombre}), así las escrituras
+ * se reparten entre particiones de S3 en vez de caer todas al final del rango por el timestamp.
+ * El nombre conserva timestamp e id para que la key siga siendo única e inmutable.
+ */
+public final class ObjectKeyStrategy {
+
+    public static final String REPORTS = "reports";
+    public static final String CLINICAL_HISTORY = "clinical-history";
+    public static final String RESULTS = "results";
+
+    private static final Pattern HASH_PREFIXED = Pattern.compile("^[^/]+/[0-9a-f]{2}/[0-9a-f]{2}/[^/]+$");
+
+    private ObjectKeyStrategy() {
+    }
+
+    public static String reportKey(UUID reportId, String suffix) {
+        return build(REPORTS, String.format("%d_%s_%s", System.currentTimeMillis(), reportId, suffix));
+    }
+
+    public static String clinicalHistoryKey(UUID patientId, String suffix) {
+        return build(CLINICAL_HISTORY, String.format("%d_%s_%s", System.currentTimeMillis(), patientId, suffix));
+    }
+
+    public static String resultFileKey(UUID geneticSampleId, String sanitizedFileName) {
+        return build(RESULTS, String.format("%d_%s_%s", System.currentTimeMillis(), geneticSampleId, sanitizedFileName));
+    }
+
+    public static boolean isHashPrefixed(String key) {
+        return key != null && HASH_PREFIXED.matcher(key).matches();
+    }
+
+    /**
+     * Key nueva para un objeto con el formato anterior ({carpeta}/{nombre}); el nombre no cambia.
+     */
+    public static String toHashPrefixed(String legacyKey) {
+        int slash = legacyKey.indexOf('/');
+        if (slash <= 0 || slash == legacyKey.length() - 1 || isHashPrefixed(legacyKey)) {
+            throw new IllegalArgumentException("Not a legacy object key: " + legacyKey);
+        }
+        return build(legacyKey.substring(0, slash), legacyKey.substring(slash + 1));
+    }
+
+    private static String build(String folder, String name) {
+        String hash = sha256Hex(name);
+        return folder + "/" + hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + name;
+    }
+
+    private static String sha256Hex(String value) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
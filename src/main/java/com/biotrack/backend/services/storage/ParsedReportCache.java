@@ -0,0 +1,169 @@
+package com.biotrack.backend.services.storage;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache de reportes ya limpiados y parseados, por s3Key y tipo de DTO.
+ *
+ * Los DTOs se guardan serializados en Smile (JSON binario) en un LRU acotado por bytes, y los
+ * más usados además como objeto en un frente pequeño. Así el contenido pasa una sola vez por
+ * la limpieza de texto y el parseo. Los reportes que no son JSON se guardan como texto ya limpio.
+ */
+@Component
+public class ParsedReportCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ParsedReportCache.class);
+
+    private static final byte KIND_TEXT = 0;
+    private static final byte KIND_SMILE = 1;
+
+    private final ObjectMapper smileMapper = new ObjectMapper(new SmileFactory()).findAndRegisterModules();
+    private final long maxBytes;
+    private final LinkedHashMap<String, Object> front;
+    private final LinkedHashMap<String, byte[]> blobs = new LinkedHashMap<>(256, 0.75f, true);
+    private long blobBytes;
+
+    private final LongAdder frontHits = new LongAdder();
+    private final LongAdder blobHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public ParsedReportCache(MeterRegistry meterRegistry,
+                             @Value("${storage.parsed-cache.max-bytes:67108864}") long maxBytes,
+                             @Value("${storage.parsed-cache.front-max-entries:128}") int frontMaxEntries) {
+        this.maxBytes = maxBytes;
+        this.front = new LinkedHashMap<>(Math.max(16, frontMaxEntries), 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Object> eldest) {
+                return size() > frontMaxEntries;
+            }
+        };
+
+        FunctionCounter.builder("storage.parsed-cache.hits", frontHits, LongAdder::sum).tag("tier", "object").register(meterRegistry);
+        FunctionCounter.builder("storage.parsed-cache.hits", blobHits, LongAdder::sum).tag("tier", "binary").register(meterRegistry);
+        FunctionCounter.builder("storage.parsed-cache.misses", misses, LongAdder::sum).register(meterRegistry);
+        Gauge.builder("storage.parsed-cache.size.bytes", this, cache -> cache.sizeBytes()).register(meterRegistry);
+    }
+
+    /**
+     * Regresa el DTO del tipo pedido, el texto limpio si el reporte no era JSON, o null si no está.
+     */
+    public Object get(String s3Key, Class<?> type) {
+        String key = cacheKey(s3Key, type);
+        byte[] blob;
+        synchronized (this) {
+            Object hot = front.get(key);
+            if (hot != null) {
+                frontHits.increment();
+                return hot;
+            }
+            blob = blobs.get(key);
+        }
+        if (blob == null) {
+            misses.increment();
+            return null;
+        }
+
+        try {
+            Object value = blob[0] == KIND_TEXT
+                    ? new String(blob, 1, blob.length - 1, StandardCharsets.UTF_8)
+                    : smileMapper.readValue(blob, 1, blob.length - 1, type);
+            blobHits.increment();
+            synchronized (this) {
+                front.put(key, value);
+            }
+            return value;
+        } catch (Exception e) {
+            // Un blob que no se puede leer (p. ej. el DTO cambió) se descarta y se vuelve a parsear
+            logger.warn("Discarding unreadable parsed report for {}: {}", s3Key, e.getMessage());
+            invalidate(s3Key, type);
+            misses.increment();
+            return null;
+        }
+    }
+
+    public void put(String s3Key, Class<?> type, Object value) {
+        if (s3Key == null || value == null) {
+            return;
+        }
+        byte[] blob;
+        try {
+            blob = value instanceof String text
+                    ? envelope(KIND_TEXT, text.getBytes(StandardCharsets.UTF_8))
+                    : envelope(KIND_SMILE, smileMapper.writeValueAsBytes(value));
+        } catch (Exception e) {
+            logger.warn("Could not serialize parsed report for {}: {}", s3Key, e.getMessage());
+            return;
+        }
+        if (blob.length > maxBytes) {
+            return;
+        }
+
+        String key = cacheKey(s3Key, type);
+        synchronized (this) {
+            byte[] previous = blobs.put(key, blob);
+            blobBytes += blob.length - (previous == null ? 0 : previous.length);
+            front.put(key, value);
+
+            var eldest = blobs.entrySet().iterator();
+            while (blobBytes > maxBytes && eldest.hasNext()) {
+                Map.Entry<String, byte[]> entry = eldest.next();
+                eldest.remove();
+                front.remove(entry.getKey());
+                blobBytes -= entry.getValue().length;
+            }
+        }
+    }
+
+    public synchronized void invalidate(String s3Key, Class<?> type) {
+        String key = cacheKey(s3Key, type);
+        front.remove(key);
+        byte[] previous = blobs.remove(key);
+        if (previous != null) {
+            blobBytes -= previous.length;
+        }
+    }
+
+    /**
+     * Quita todas las versiones parseadas (cualquier tipo de DTO) de un documento
+     */
+    public synchronized void invalidate(String s3Key) {
+        String suffix = "|" + s3Key;
+        front.keySet().removeIf(key -> key.endsWith(suffix));
+        var entries = blobs.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<String, byte[]> entry = entries.next();
+            if (entry.getKey().endsWith(suffix)) {
+                entries.remove();
+                blobBytes -= entry.getValue().length;
+            }
+        }
+    }
+
+    public synchronized long sizeBytes() {
+        return blobBytes;
+    }
+
+    private static String cacheKey(String s3Key, Class<?> type) {
+        return type.getName() + '|' + s3Key;
+    }
+
+    private static byte[] envelope(byte kind, byte[] payload) {
+        byte[] blob = Arrays.copyOf(new byte[]{kind}, payload.length + 1);
+        System.arraycopy(payload, 0, blob, 1, payload.length);
+        return blob;
+    }
+}
@@ -0,0 +1,11 @@
+package com.biotrack.backend.services.storage;
+
+import com.biotrack.backend.models.ResultFile;
+
+/**
+ * Descarga de un archivo de resultados: la fila (leída una sola vez) y el stream del objeto
+ */
+public record ResultFileDownload(
+        ResultFile resultFile,
+        StoredObjectStream object
+) {}
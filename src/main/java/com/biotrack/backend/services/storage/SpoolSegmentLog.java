@@ -0,0 +1,296 @@
+package com.biotrack.backend.services.storage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Log local append-only de documentos pendientes de subir.
+ *
+ * Cada registro se escribe como:
+ * [magic int][tipo byte][keyLen int][key][payloadLen int][payload][crc32 long]
+ *
+ * PUT guarda el contenido del documento y ACK marca que ya se subió. Cada append
+ * hace fsync antes de regresar. Al arrancar se reproducen los segmentos para
+ * reconstruir el índice en memoria y se trunca una cola incompleta (escritura cortada).
+ * Un segmento se borra cuando todos sus PUT tienen ACK; si un ACK se pierde con su
+ * segmento el documento se vuelve a subir, lo cual es idempotente (misma key, mismo contenido).
+ */
+public class SpoolSegmentLog implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(SpoolSegmentLog.class);
+
+    private static final int MAGIC = 0x42545350; // "BTSP"
+    private static final byte TYPE_PUT = 1;
+    private static final byte TYPE_ACK = 2;
+    private static final int HEADER_BYTES = 4 + 1 + 4;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    /**
+     * Ubicación del payload de un PUT dentro de un segmento
+     */
+    public record Entry(long segmentId, long payloadOffset, int payloadLength) {}
+
+    private final Path directory;
+    private final long maxSegmentBytes;
+    private final Map<String, Entry> index = new ConcurrentHashMap<>();
+    private final Map<Long, Integer> pendingPerSegment = new ConcurrentHashMap<>();
+
+    private long activeSegmentId;
+    private FileChannel activeChannel;
+
+    public SpoolSegmentLog(Path directory, long maxSegmentBytes) throws IOException {
+        this.directory = directory;
+        this.maxSegmentBytes = maxSegmentBytes;
+        Files.createDirectories(directory);
+        replay();
+    }
+
+    public synchronized void put(String key, byte[] payload) throws IOException {
+        rollIfNeeded();
+        long recordStart = activeChannel.size();
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        writeRecord(TYPE_PUT, keyBytes, payload);
+
+        long payloadOffset = recordStart + HEADER_BYTES + keyBytes.length + 4;
+        Entry previous = index.put(key, new Entry(activeSegmentId, payloadOffset, payload.length));
+        if (previous != null) {
+            releaseSegment(previous.segmentId());
+        }
+        pendingPerSegment.merge(activeSegmentId, 1, Integer::sum);
+    }
+
+    public synchronized void ack(String key) throws IOException {
+        Entry entry = index.remove(key);
+        if (entry == null) {
+            return;
+        }
+        rollIfNeeded();
+        writeRecord(TYPE_ACK, key.getBytes(StandardCharsets.UTF_8), new byte[0]);
+        releaseSegment(entry.segmentId());
+    }
+
+    public byte[] read(String key) throws IOException {
+        Entry entry = index.get(key);
+        if (entry == null) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(entry.payloadLength());
+        try (FileChannel channel = FileChannel.open(segmentPath(entry.segmentId()), StandardOpenOption.READ)) {
+            long position = entry.payloadOffset();
+            while (buffer.hasRemaining()) {
+                int read = channel.read(buffer, position);
+                if (read < 0) {
+                    throw new IOException("Unexpected end of spool segment " + entry.segmentId());
+                }
+                position += read;
+            }
+        }
+        return buffer.array();
+    }
+
+    public boolean contains(String key) {
+        return index.containsKey(key);
+    }
+
+    public List<String> pendingKeys() {
+        return new ArrayList<>(index.keySet());
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (activeChannel != null) {
+            activeChannel.close();
+            activeChannel = null;
+        }
+    }
+
+    private void writeRecord(byte type, byte[] keyBytes, byte[] payload) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + keyBytes.length + 4 + payload.length + 8);
+        buffer.putInt(MAGIC);
+        buffer.put(type);
+        buffer.putInt(keyBytes.length);
+        buffer.put(keyBytes);
+        buffer.putInt(payload.length);
+        buffer.put(payload);
+        buffer.putLong(checksum(type, keyBytes, payload));
+        buffer.flip();
+
+        while (buffer.hasRemaining()) {
+            activeChannel.write(buffer);
+        }
+        activeChannel.force(true);
+    }
+
+    private void rollIfNeeded() throws IOException {
+        if (activeChannel != null && activeChannel.size() < maxSegmentBytes) {
+            return;
+        }
+        long previousSegmentId = activeSegmentId;
+        if (activeChannel != null) {
+            activeChannel.close();
+            activeSegmentId++;
+        }
+        activeChannel = FileChannel.open(segmentPath(activeSegmentId),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        if (previousSegmentId != activeSegmentId) {
+            deleteIfDrained(previousSegmentId);
+        }
+    }
+
+    private void releaseSegment(long segmentId) {
+        Integer remaining = pendingPerSegment.computeIfPresent(segmentId, (id, count) -> count > 1 ? count - 1 : null);
+        if (remaining == null && segmentId != activeSegmentId) {
+            deleteIfDrained(segmentId);
+        }
+    }
+
+    private void deleteIfDrained(long segmentId) {
+        if (pendingPerSegment.containsKey(segmentId)) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(segmentPath(segmentId));
+        } catch (IOException e) {
+            logger.warn("Could not delete drained spool segment {}: {}", segmentId, e.getMessage());
+        }
+    }
+
+    private void replay() throws IOException {
+        List<Long> segmentIds;
+        try (Stream<Path> files = Files.list(directory)) {
+            segmentIds = files
+                    .map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted(Comparator.naturalOrder())
+                    .toList();
+        }
+
+        for (long segmentId : segmentIds) {
+            replaySegment(segmentId);
+        }
+
+        activeSegmentId = segmentIds.isEmpty() ? 0 : segmentIds.get(segmentIds.size() - 1);
+        for (long segmentId : segmentIds) {
+            if (segmentId != activeSegmentId) {
+                deleteIfDrained(segmentId);
+            }
+        }
+        rollIfNeeded();
+
+        if (!index.isEmpty()) {
+            logger.info("Recovered {} pending documents from report spool at {}", index.size(), directory);
+        }
+    }
+
+    private void replaySegment(long segmentId) throws IOException {
+        Path path = segmentPath(segmentId);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = channel.size();
+            long position = 0;
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+
+            while (position < size) {
+                long recordStart = position;
+                header.clear();
+                if (!readFully(channel, header, position) || header.getInt(0) != MAGIC) {
+                    truncate(channel, segmentId, recordStart);
+                    return;
+                }
+                byte type = header.get(4);
+                int keyLength = header.getInt(5);
+                if (keyLength < 0 || recordStart + HEADER_BYTES + keyLength + 4 > size) {
+                    truncate(channel, segmentId, recordStart);
+                    return;
+                }
+                position += HEADER_BYTES;
+
+                ByteBuffer keyBuffer = ByteBuffer.allocate(keyLength + 4);
+                readFully(channel, keyBuffer, position);
+                position += keyLength + 4;
+                int payloadLength = keyBuffer.getInt(keyLength);
+                if (payloadLength < 0 || position + payloadLength + 8 > size) {
+                    truncate(channel, segmentId, recordStart);
+                    return;
+                }
+
+                ByteBuffer payloadBuffer = ByteBuffer.allocate(payloadLength + 8);
+                readFully(channel, payloadBuffer, position);
+                long payloadOffset = position;
+                position += payloadLength + 8;
+
+                byte[] keyBytes = new byte[keyLength];
+                keyBuffer.get(0, keyBytes);
+                byte[] payload = new byte[payloadLength];
+                payloadBuffer.get(0, payload);
+                if (checksum(type, keyBytes, payload) != payloadBuffer.getLong(payloadLength)) {
+                    truncate(channel, segmentId, recordStart);
+                    return;
+                }
+
+                String key = new String(keyBytes, StandardCharsets.UTF_8);
+                if (type == TYPE_PUT) {
+                    Entry previous = index.put(key, new Entry(segmentId, payloadOffset, payloadLength));
+                    if (previous != null) {
+                        pendingPerSegment.computeIfPresent(previous.segmentId(), (id, count) -> count > 1 ? count - 1 : null);
+                    }
+                    pendingPerSegment.merge(segmentId, 1, Integer::sum);
+                } else if (type == TYPE_ACK) {
+                    Entry entry = index.remove(key);
+                    if (entry != null) {
+                        pendingPerSegment.computeIfPresent(entry.segmentId(), (id, count) -> count > 1 ? count - 1 : null);
+                    }
+                }
+            }
+        }
+    }
+
+    private void truncate(FileChannel channel, long segmentId, long position) throws IOException {
+        logger.warn("Truncating torn tail of spool segment {} at offset {}", segmentId, position);
+        channel.truncate(position);
+        channel.force(true);
+    }
+
+    private boolean readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                return false;
+            }
+            position += read;
+        }
+        return true;
+    }
+
+    private long checksum(byte type, byte[] keyBytes, byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(type);
+        crc.update(keyBytes);
+        crc.update(payload);
+        return crc.getValue();
+    }
+
+    private Path segmentPath(long segmentId) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, segmentId, SEGMENT_SUFFIX));
+    }
+}
@@ -0,0 +1,12 @@
+package com.biotrack.backend.services.storage;
+
+/**
+ * Metadatos de un objeto almacenado (sin descargar el contenido)
+ */
+public record StoredObjectInfo(
+        String key,
+        long contentLength,
+        String contentType,
+        String contentEncoding,
+        String eTag
+) {}
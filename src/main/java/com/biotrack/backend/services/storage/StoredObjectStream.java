@@ -0,0 +1,29 @@
+package com.biotrack.backend.services.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+
+/**
+ * Contenido de un objeto almacenado abierto como stream, completo o un rango de bytes.
+ * contentRange solo viene cuando se sirvió un rango (formato "bytes inicio-fin/total").
+ */
+public record StoredObjectStream(
+        InputStream body,
+        long contentLength,
+        String contentType,
+        String contentEncoding,
+        String eTag,
+        String contentRange,
+        Instant lastModified
+) implements AutoCloseable {
+
+    public boolean isPartial() {
+        return contentRange != null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        body.close();
+    }
+}
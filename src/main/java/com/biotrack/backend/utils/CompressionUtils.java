@@ -0,0 +1,97 @@
+package com.biotrack.backend.utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+public class CompressionUtils {
+
+    public static final String GZIP = "gzip";
+
+    public static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(buffer, 8192)) {
+            gzip.write(data);
+        } catch (IOException e) {
+            throw new RuntimeException("Error compressing content", e);
+        }
+        return buffer.toByteArray();
+    }
+
+    public static byte[] gunzip(byte[] data) {
+        try (InputStream gzip = new GZIPInputStream(new ByteArrayInputStream(data), 8192)) {
+            return gzip.readAllBytes();
+        } catch (IOException e) {
+            throw new RuntimeException("Error decompressing content", e);
+        }
+    }
+
+    /**
+     * Objetos viejos no traen Content-Encoding; se reconocen por la firma gzip (1f 8b)
+     */
+    public static boolean isGzip(byte[] data) {
+        return data.length >= 2 && (data[0] & 0xff) == 0x1f && (data[1] & 0xff) == 0x8b;
+    }
+
+    /**
+     * Content-Encoding de un objeto guardado: alguna de las codificaciones de la lista es gzip
+     */
+    public static boolean isGzipEncoding(String contentEncoding) {
+        if (contentEncoding == null) {
+            return false;
+        }
+        for (String token : contentEncoding.split(",")) {
+            if (isGzipToken(token.trim())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Accept-Encoding del cliente: gzip (o x-gzip) con q > 0; si no aparece, lo decide el comodín.
+     * "gzip;q=0" o "*;q=0" sin gzip explícito cuentan como rechazo, y un q ilegible también.
+     */
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzipQuality = null;
+        Double wildcardQuality = null;
+        for (String entry : acceptEncoding.split(",")) {
+            String[] parts = entry.split(";");
+            String coding = parts[0].trim();
+            double quality = quality(parts);
+            if (isGzipToken(coding)) {
+                // Si gzip y x-gzip vienen con q distintos gana el mayor
+                gzipQuality = gzipQuality == null ? quality : Math.max(gzipQuality, quality);
+            } else if (coding.equals("*")) {
+                wildcardQuality = quality;
+            }
+        }
+        Double effective = gzipQuality != null ? gzipQuality : wildcardQuality;
+        return effective != null && effective > 0;
+    }
+
+    private static boolean isGzipToken(String coding) {
+        return coding.equalsIgnoreCase(GZIP) || coding.equalsIgnoreCase("x-gzip");
+    }
+
+    private static double quality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String param = parts[i].trim();
+            int eq = param.indexOf('=');
+            if (eq > 0 && param.substring(0, eq).trim().equalsIgnoreCase("q")) {
+                try {
+                    return Double.parseDouble(param.substring(eq + 1).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
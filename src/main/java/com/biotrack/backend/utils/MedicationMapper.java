@@ -1,11 +1,18 @@
 package com.biotrack.backend.utils;
 
 import com.biotrack.backend.dto.MedicationResponseDTO;
+import com.biotrack.backend.dto.PharmacogenomicAlertDTO;
 import com.biotrack.backend.models.Medication;
 
+import java.util.List;
+
 public class MedicationMapper {
     
     public static MedicationResponseDTO toResponseDTO(Medication medication) {
+        return toResponseDTO(medication, List.of());
+    }
+
+    public static MedicationResponseDTO toResponseDTO(Medication medication, List<PharmacogenomicAlertDTO> pharmacogenomicAlerts) {
         return new MedicationResponseDTO(
                 medication.getId(),
                 medication.getName(),
@@ -19,7 +26,8 @@ public class MedicationMapper {
                 medication.getPrescribedBy() != null ? medication.getPrescribedBy().getId() : null,
                 medication.getPrescribedBy() != null ? 
                     medication.getPrescribedBy().getName() : null,
-                medication.getPatient().getId()
+                medication.getPatient().getId(),
+                pharmacogenomicAlerts
         );
     }
 }
\ No newline at end of file
@@ -13,6 +13,7 @@ public class ResultFileMapper {
                 resultFile.getS3Url(),
                 resultFile.getFileSize(),
                 resultFile.getContentType(),
+                resultFile.getContentSha256(),
                 resultFile.getProcessingStatus(),
                 resultFile.getUploadedAt(),
                 resultFile.getGeneticSample().getId() // ✅ CAMBIAR: usar geneticSample
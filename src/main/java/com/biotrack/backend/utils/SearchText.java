@@ -0,0 +1,44 @@
+package com.biotrack.backend.utils;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Forma normalizada de nombres para búsqueda: minúsculas, sin acentos ni diéresis (ñ queda como n) y con
+ * la puntuación convertida en espacios simples. "José-María  Núñez" → "jose maria nunez".
+ */
+public final class SearchText {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^a-z0-9]+");
+
+    private SearchText() {
+    }
+
+    public static String normalize(String... parts) {
+        StringBuilder joined = new StringBuilder();
+        for (String part : parts) {
+            if (part != null && !part.isBlank()) {
+                joined.append(part).append(' ');
+            }
+        }
+        String folded = MARKS.matcher(Normalizer.normalize(joined, Normalizer.Form.NFD)).replaceAll("");
+        return SEPARATORS.matcher(folded.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    /**
+     * Escapa el término para usarlo dentro de un LIKE con ESCAPE '\'
+     */
+    public static String escapeLike(String term) {
+        StringBuilder escaped = new StringBuilder(term.length() + 2);
+        for (int i = 0; i < term.length(); i++) {
+            char c = term.charAt(i);
+            if (c == '%' || c == '_' || c == '\\') {
+                escaped.append('\\');
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+}
@@ -1,9 +1,13 @@
 package com.biotrack.backend.controllers;
 
 import com.biotrack.backend.config.TestConfig;
+import com.biotrack.backend.models.BloodSample;
 import com.biotrack.backend.models.Hospital;
+import com.biotrack.backend.models.enums.SampleStatus;
+import com.biotrack.backend.models.enums.SampleType;
 import com.biotrack.backend.services.HospitalService;
 import com.biotrack.backend.services.UserService;
+import com.biotrack.backend.services.pagination.KeysetPage;
 import com.biotrack.backend.utils.TestDataFactory;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -181,6 +185,33 @@ class HospitalControllerTest {
         verify(hospitalService, times(1)).deleteById(testHospitalId);
     }
 
+    @Test
+    @WithMockUser(roles = "MEDIC")
+    void getSamplesByHospital_WithFilters_ShouldReturnPageFromService() throws Exception {
+        // Given
+        BloodSample sample = BloodSample.builder()
+                .id(UUID.randomUUID())
+                .patient(TestDataFactory.createTestPatient())
+                .type(SampleType.BLOOD)
+                .status(SampleStatus.COMPLETED)
+                .build();
+        when(hospitalService.findSamplePage(testHospitalId, SampleStatus.COMPLETED, SampleType.BLOOD, null, 1))
+                .thenReturn(new KeysetPage<>(List.of(sample), "next"));
+
+        // When & Then
+        mockMvc.perform(get("/api/hospitals/{hospitalId}/samples", testHospitalId)
+                        .param("status", "COMPLETED")
+                        .param("type", "BLOOD")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].patientName").value("John Doe"))
+                .andExpect(jsonPath("$.nextCursor").value("next"))
+                .andExpect(jsonPath("$.hasMore").value(true))
+                .andExpect(header().string(KeysetPageResponses.NEXT_CURSOR_HEADER, "next"));
+
+        verify(hospitalService, times(1)).findSamplePage(testHospitalId, SampleStatus.COMPLETED, SampleType.BLOOD, null, 1);
+    }
+
     @Test
     @WithMockUser(roles = "MEDIC")
     void getHospitalById_WithNonExistentId_ShouldReturnNotFound() throws Exception {
@@ -3,6 +3,7 @@ package com.biotrack.backend.controllers;
 import com.biotrack.backend.config.TestConfig;
 import com.biotrack.backend.models.Patient;
 import com.biotrack.backend.services.PatientService;
+import com.biotrack.backend.services.pagination.KeysetPage;
 import com.biotrack.backend.utils.TestDataFactory;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -20,6 +21,7 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.UUID;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasSize;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
@@ -88,16 +90,61 @@ class PatientControllerTest {
     void getAllPatients_ShouldReturnPatientList() throws Exception {
         // Given
         List<Patient> patients = Arrays.asList(testPatient);
-        when(patientService.findAll()).thenReturn(patients);
+        when(patientService.findPage(null, null)).thenReturn(new KeysetPage<>(patients, null));
 
         // When & Then
         mockMvc.perform(get("/api/patients")
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$", hasSize(1)))
-                .andExpect(jsonPath("$[0].firstName").value("John"));
+                .andExpect(header().doesNotExist(KeysetPageResponses.NEXT_CURSOR_HEADER))
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].firstName").value("John"))
+                .andExpect(jsonPath("$.hasMore").value(false));
+
+        verify(patientService, times(1)).findPage(null, null);
+    }
+
+    @Test
+    @WithMockUser(roles = "MEDIC")
+    void getAllPatients_WithMorePages_ShouldReturnNextCursorHeaders() throws Exception {
+        // Given
+        when(patientService.findPage("abc", 1)).thenReturn(new KeysetPage<>(List.of(testPatient), "next"));
+
+        // When & Then
+        mockMvc.perform(get("/api/patients")
+                        .param("cursor", "abc")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(KeysetPageResponses.NEXT_CURSOR_HEADER, "next"))
+                .andExpect(header().string("Link", containsString("cursor=next")))
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.nextCursor").value("next"))
+                .andExpect(jsonPath("$.hasMore").value(true));
+    }
+
+    @Test
+    @WithMockUser(roles = "MEDIC")
+    void getAllPatients_WithFields_ShouldTrimRowsAndKeepPaging() throws Exception {
+        // Given
+        when(patientService.findPage(null, null)).thenReturn(new KeysetPage<>(List.of(testPatient), "next"));
+
+        // When & Then
+        mockMvc.perform(get("/api/patients").param("fields", "firstName"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].firstName").value("John"))
+                .andExpect(jsonPath("$.items[0].lastName").doesNotExist())
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+    }
+
+    @Test
+    @WithMockUser(roles = "MEDIC")
+    void getAllPatients_InvalidCursor_ShouldReturnBadRequest() throws Exception {
+        // Given
+        when(patientService.findPage("bad", null)).thenThrow(new IllegalArgumentException("Invalid cursor"));
 
-        verify(patientService, times(1)).findAll();
+        // When & Then
+        mockMvc.perform(get("/api/patients").param("cursor", "bad"))
+                .andExpect(status().isBadRequest());
     }
 
     @Test
@@ -116,6 +163,22 @@ class PatientControllerTest {
         verify(patientService, times(1)).findById(testPatientId);
     }
 
+    @Test
+    @WithMockUser(roles = "MEDIC")
+    void getPatientById_WithFields_ShouldReturnOnlyRequestedFields() throws Exception {
+        // Given
+        when(patientService.findById(testPatientId)).thenReturn(testPatient);
+
+        // When & Then
+        mockMvc.perform(get("/api/patients/{id}", testPatientId).param("fields", "id,firstName"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(testPatientId.toString()))
+                .andExpect(jsonPath("$.firstName").value("John"))
+                .andExpect(jsonPath("$.email").doesNotExist());
+
+        verify(patientService, times(1)).findById(testPatientId);
+    }
+
     @Test
     @WithMockUser(roles = "MEDIC")
     void updatePatient_ShouldReturnUpdatedPatient() throws Exception {
@@ -169,7 +232,7 @@ class PatientControllerTest {
     void searchPatients_ShouldReturnMatchingPatients() throws Exception {
         // Given
         List<Patient> searchResults = Arrays.asList(testPatient);
-        when(patientService.searchPatients("John", "Doe")).thenReturn(searchResults);
+        when(patientService.searchPatients("John", "Doe", null)).thenReturn(searchResults);
 
         // When & Then
         mockMvc.perform(get("/api/patients/getPatientsByName")
@@ -181,7 +244,34 @@ class PatientControllerTest {
                 .andExpect(jsonPath("$[0].firstName").value("John"))
                 .andExpect(jsonPath("$[0].lastName").value("Doe"));
 
-        verify(patientService, times(1)).searchPatients("John", "Doe");
+        verify(patientService, times(1)).searchPatients("John", "Doe", null);
+    }
+
+    @Test
+    @WithMockUser(roles = "MEDIC")
+    void search_ShouldReturnRankedPatients() throws Exception {
+        // Given
+        when(patientService.searchPatients("jon do", 5)).thenReturn(List.of(testPatient));
+
+        // When & Then
+        mockMvc.perform(get("/api/patients/search")
+                .param("query", "jon do")
+                .param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].firstName").value("John"));
+
+        verify(patientService, times(1)).searchPatients("jon do", 5);
+    }
+
+    @Test
+    @WithMockUser(roles = "MEDIC")
+    void search_WithBlankQuery_ShouldReturnBadRequest() throws Exception {
+        // Given
+        when(patientService.searchPatients(" ", (Integer) null)).thenThrow(new IllegalArgumentException("Patient search term is empty"));
+
+        // When & Then
+        mockMvc.perform(get("/api/patients/search").param("query", " "))
+                .andExpect(status().isBadRequest());
     }
 
     @Test
@@ -0,0 +1,110 @@
+package com.biotrack.backend.integration;
+
+import com.biotrack.backend.models.GeneticSample;
+import com.biotrack.backend.models.Mutation;
+import com.biotrack.backend.models.enums.Relevance;
+import com.biotrack.backend.models.enums.SampleStatus;
+import com.biotrack.backend.models.enums.SampleType;
+import com.biotrack.backend.repositories.GeneticSampleRepository;
+import com.biotrack.backend.repositories.MutationRepository;
+import com.biotrack.backend.services.BulkDeletionService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compara el borrado en cascada de JPA contra el borrado en bloque para una muestra con 10k mutaciones.
+ */
+@SpringBootTest
+@Testcontainers
+@ActiveProfiles("test")
+@Transactional
+class BulkDeletionIntegrationTest {
+
+    private static final int MUTATIONS = 10_000;
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("biotrack_test")
+            .withUsername("test")
+            .withPassword("test");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "create-drop");
+        registry.add("spring.jpa.properties.hibernate.jdbc.batch_size", () -> "500");
+    }
+
+    @Autowired
+    private GeneticSampleRepository geneticSampleRepository;
+
+    @Autowired
+    private MutationRepository mutationRepository;
+
+    @Autowired
+    private BulkDeletionService bulkDeletionService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void deleteGeneticSample_WithTenThousandMutations_RemovesEverythingInBulk() {
+        UUID cascadeId = createSampleWithMutations();
+        UUID bulkId = createSampleWithMutations();
+
+        // Camino anterior: JPA carga cada mutación y emite un DELETE por fila; el masivo debe dejar lo mismo
+        geneticSampleRepository.delete(geneticSampleRepository.findById(cascadeId).orElseThrow());
+        entityManager.flush();
+        entityManager.clear();
+
+        bulkDeletionService.deleteGeneticSample(bulkId);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(geneticSampleRepository.existsById(bulkId)).isFalse();
+        assertThat(mutationRepository.findBySampleId(bulkId)).isEmpty();
+        assertThat(mutationRepository.findBySampleId(cascadeId)).isEmpty();
+    }
+
+    private UUID createSampleWithMutations() {
+        GeneticSample sample = geneticSampleRepository.save(GeneticSample.builder()
+                .type(SampleType.DNA)
+                .status(SampleStatus.COMPLETED)
+                .collectionDate(LocalDate.now())
+                .createdAt(LocalDate.now())
+                .build());
+
+        List<Mutation> mutations = new ArrayList<>(MUTATIONS);
+        for (int i = 0; i < MUTATIONS; i++) {
+            mutations.add(Mutation.builder()
+                    .gene("GENE" + i)
+                    .chromosome("chr" + (i % 22 + 1))
+                    .type("SNV")
+                    .relevance(Relevance.values()[i % Relevance.values().length])
+                    .sample(sample)
+                    .build());
+        }
+        mutationRepository.saveAll(mutations);
+        entityManager.flush();
+        entityManager.clear();
+        return sample.getId();
+    }
+}
@@ -0,0 +1,132 @@
+package com.biotrack.backend.integration;
+
+import com.biotrack.backend.dto.GeneResolutionDTO;
+import com.biotrack.backend.models.GeneticSample;
+import com.biotrack.backend.models.enums.SampleStatus;
+import com.biotrack.backend.models.enums.SampleType;
+import com.biotrack.backend.repositories.GeneticSampleRepository;
+import com.biotrack.backend.services.GeneSearchService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compara la búsqueda anterior (LOWER(gene) LIKE '%...%') contra la resolución por diccionario y el
+ * IN sobre gene_symbol. Con muchas filas tarda en preparar los datos, por eso solo corre con
+ * -Dbenchmark.genes.rows=10000000 (o el número de filas que se quiera).
+ */
+@SpringBootTest
+@Testcontainers
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark.genes.rows", matches = "\\d+")
+class GeneSearchBenchmarkIntegrationTest {
+
+    private static final String[] KNOWN_GENES = {"BRCA1", "BRCA2", "TP53", "EGFR", "KRAS", "CYP2D6", "APOE", "MTHFR"};
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("biotrack_test")
+            .withUsername("test")
+            .withPassword("test");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) throws Exception {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "create-drop");
+        registry.add("genes.search.backfill-on-startup", () -> "false");
+        registry.add("genes.search.trigram-index.create-on-startup", () -> "false");
+        registry.add("variants.store.rebuild-if-empty", () -> "false");
+        String storeDir = Files.createTempDirectory("variant-store").toString();
+        registry.add("variants.store.dir", () -> storeDir);
+    }
+
+    @Autowired
+    private GeneticSampleRepository geneticSampleRepository;
+
+    @Autowired
+    private GeneSearchService geneSearchService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void geneSearch_OnLargeFixture_MatchesLegacyQueryWithIndexedLookup() {
+        long rows = Long.parseLong(System.getProperty("benchmark.genes.rows"));
+        createFixture(rows);
+
+        // Camino anterior: recorre toda la tabla aplicando LOWER() a cada fila
+        long start = System.nanoTime();
+        Set<UUID> legacy = ids("SELECT id FROM mutations WHERE LOWER(gene) LIKE LOWER('%BRCA1%')");
+        long legacyMs = (System.nanoTime() - start) / 1_000_000;
+
+        start = System.nanoTime();
+        geneSearchService.reload();
+        long reloadMs = (System.nanoTime() - start) / 1_000_000;
+
+        start = System.nanoTime();
+        GeneResolutionDTO resolution = geneSearchService.resolve("brca1", 50);
+        Set<UUID> indexed = ids("SELECT id FROM mutations WHERE gene_symbol IN ("
+                + String.join(",", resolution.symbols().stream().map(symbol -> "'" + symbol + "'").toList()) + ")");
+        long indexedMs = (System.nanoTime() - start) / 1_000_000;
+
+        start = System.nanoTime();
+        GeneResolutionDTO fuzzy = geneSearchService.resolve("BRAC1", 50);
+        long fuzzyMicros = (System.nanoTime() - start) / 1_000;
+
+        geneSearchService.ensureTrigramIndex();
+        jdbcTemplate.execute("ANALYZE mutations");
+        start = System.nanoTime();
+        Set<UUID> trigram = ids("SELECT id FROM mutations WHERE gene_symbol LIKE '%RCA1%'");
+        long trigramMs = (System.nanoTime() - start) / 1_000_000;
+
+        System.out.printf("Gene search over %d mutations: legacy LIKE %d ms, dictionary load %d ms, "
+                        + "resolve + IN %d ms, fuzzy resolve %d us, trigram LIKE %d ms%n",
+                rows, legacyMs, reloadMs, indexedMs, fuzzyMicros, trigramMs);
+
+        assertThat(resolution.symbols()).containsExactly("BRCA1");
+        assertThat(fuzzy.symbols()).contains("BRCA1");
+        assertThat(indexed).isEqualTo(legacy);
+        assertThat(trigram).isEqualTo(legacy);
+    }
+
+    private void createFixture(long rows) {
+        GeneticSample sample = geneticSampleRepository.save(GeneticSample.builder()
+                .type(SampleType.DNA)
+                .status(SampleStatus.COMPLETED)
+                .collectionDate(LocalDate.now())
+                .createdAt(LocalDate.now())
+                .build());
+
+        // Se genera del lado del servidor; con 10M filas insertar desde Java dominaría el tiempo del test
+        String known = "ARRAY['" + String.join("','", KNOWN_GENES) + "']";
+        jdbcTemplate.update("INSERT INTO mutations (id, gene, gene_symbol, chromosome, type, relevance, genetic_sample_id) "
+                + "SELECT gen_random_uuid(), g, upper(g), 'chr' || (s % 22 + 1), 'SNV', "
+                + "(ARRAY['LOW','MEDIUM','HIGH'])[s % 3 + 1], ? "
+                + "FROM (SELECT s, CASE WHEN s % 100 = 0 THEN (" + known + ")[s / 100 % " + KNOWN_GENES.length + " + 1] "
+                + "ELSE 'G' || (s % 20000) END AS g FROM generate_series(1, ?) AS s) AS fixture",
+                sample.getId(), rows);
+        jdbcTemplate.execute("ANALYZE mutations");
+    }
+
+    private Set<UUID> ids(String sql) {
+        return new HashSet<>(jdbcTemplate.queryForList(sql, UUID.class));
+    }
+}
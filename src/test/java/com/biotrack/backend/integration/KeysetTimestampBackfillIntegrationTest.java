@@ -0,0 +1,84 @@
+package com.biotrack.backend.integration;
+
+import com.biotrack.backend.models.Patient;
+import com.biotrack.backend.repositories.PatientRepository;
+import com.biotrack.backend.services.PatientService;
+import com.biotrack.backend.services.pagination.KeysetTimestampBackfill;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.nio.file.Files;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Filas con created_at nulo (anteriores a la paginación) quedan fuera de los listados hasta el backfill.
+ */
+@SpringBootTest
+@Testcontainers
+@ActiveProfiles("test")
+class KeysetTimestampBackfillIntegrationTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("biotrack_test")
+            .withUsername("test")
+            .withPassword("test");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) throws Exception {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "create-drop");
+        registry.add("pagination.backfill-on-startup", () -> "false");
+        String storeDir = Files.createTempDirectory("variant-store").toString();
+        registry.add("variants.store.dir", () -> storeDir);
+    }
+
+    @Autowired
+    private KeysetTimestampBackfill backfill;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        patientRepository.deleteAll();
+    }
+
+    @Test
+    void backfill_ShouldBringLegacyRowsBackIntoPages() {
+        Patient legacy = patientRepository.save(Patient.builder()
+                .firstName("Ana")
+                .lastName("Legacy")
+                .email("ana.legacy@example.com")
+                .password("password123")
+                .phoneNumber("5552000001")
+                .curp("LEGA900101MDFXGC01")
+                .build());
+        jdbcTemplate.update("UPDATE patients SET created_at = NULL WHERE id = ?", legacy.getId());
+        assertThat(patientService.findPage(null, null).items()).isEmpty();
+
+        assertThat(backfill.backfill()).isEqualTo(1);
+
+        assertThat(patientService.findPage(null, null).items()).extracting(Patient::getId).containsExactly(legacy.getId());
+        // Sin filas pendientes no hay nada que actualizar
+        assertThat(backfill.backfill()).isZero();
+    }
+}
@@ -0,0 +1,196 @@
+package com.biotrack.backend.integration;
+
+import com.biotrack.backend.dto.MutationIngestionErrorDTO;
+import com.biotrack.backend.dto.MutationIngestionResultDTO;
+import com.biotrack.backend.models.GeneticSample;
+import com.biotrack.backend.models.ResultFile;
+import com.biotrack.backend.models.enums.SampleStatus;
+import com.biotrack.backend.models.enums.SampleType;
+import com.biotrack.backend.repositories.ResultFileRepository;
+import com.biotrack.backend.services.GeneticSampleService;
+import com.biotrack.backend.services.MutationService;
+import com.biotrack.backend.services.S3Service;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Ingesta de un CSV de mutaciones contra Postgres: validación por fila, lotes JDBC con ON CONFLICT,
+ * columnas de progreso y estado final del archivo. Sin @Transactional: la ingesta abre sus propias
+ * transacciones y el progreso se escribe en transacciones aparte.
+ */
+@SpringBootTest
+@Testcontainers
+@ActiveProfiles("test")
+class MutationIngestionIntegrationTest {
+
+    private static final String HEADER = "gene,chromosome,type,relevance,comment\n";
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("biotrack_test")
+            .withUsername("test")
+            .withPassword("test");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) throws Exception {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "create-drop");
+        // Lotes de dos filas para cruzar los límites de lote con archivos pequeños
+        registry.add("mutations.ingest.batch-size", () -> "2");
+        registry.add("mutations.ingest.max-reported-errors", () -> "2");
+        String storeDir = Files.createTempDirectory("variant-store").toString();
+        registry.add("variants.store.dir", () -> storeDir);
+    }
+
+    @MockBean
+    private S3Service s3Service;
+
+    @Autowired
+    private MutationService mutationService;
+
+    @Autowired
+    private GeneticSampleService geneticSampleService;
+
+    @Autowired
+    private ResultFileRepository resultFileRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void processResultFile_ShouldRejectMalformedRowsAndRecordProgress() {
+        String content = HEADER
+                + "BRCA1,17,SNV,HIGH,first\n"
+                + "TP53,17,SNV,low,second\n"
+                + ",17,SNV,HIGH,no gene\n"
+                + "BRCA2,13,SNV,SEVERE,bad relevance\n"
+                + "EGFR,7,SNV,MEDIUM\n"
+                + "KRAS,12,SNV,MEDIUM,third\n"
+                // Repetida: cae en el segundo lote y la descarta la llave natural
+                + "BRCA1,17,SNV,HIGH,first\n";
+        ResultFile file = resultFile(content);
+
+        MutationIngestionResultDTO result = mutationService.processResultFile(file.getId());
+
+        assertThat(result.processingStatus()).isEqualTo("COMPLETED_WITH_ERRORS");
+        assertThat(result.mode()).isEqualTo("PARSED");
+        assertThat(result.rowsRead()).isEqualTo(7);
+        assertThat(result.rowsRejected()).isEqualTo(3);
+        assertThat(result.rowsInserted()).isEqualTo(3);
+        // Solo se listan los primeros max-reported-errors rechazos; la línea 1 es el encabezado
+        assertThat(result.errors()).extracting(MutationIngestionErrorDTO::line).containsExactly(4L, 5L);
+        assertThat(result.errors().get(0).message()).isEqualTo("Gene is empty");
+        assertThat(result.errors().get(1).message()).startsWith("Unknown relevance 'SEVERE'");
+        assertThat(result.errorsTruncated()).isTrue();
+
+        ResultFile stored = resultFileRepository.findById(file.getId()).orElseThrow();
+        assertThat(stored.getProcessingStatus()).isEqualTo("COMPLETED_WITH_ERRORS");
+        assertThat(stored.getRowsRead()).isEqualTo(7);
+        assertThat(stored.getRowsRejected()).isEqualTo(3);
+        assertThat(stored.getRowsInserted()).isEqualTo(3);
+        assertThat(stored.getBytesProcessed()).isPositive().isLessThanOrEqualTo(content.length());
+        assertThat(stored.getProcessingStartedAt()).isNotNull();
+        assertThat(stored.getProcessingFinishedAt()).isAfterOrEqualTo(stored.getProcessingStartedAt());
+        assertThat(stored.getProcessingError()).isNull();
+        assertThat(stored.getContentSha256()).hasSize(64);
+
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT gene || ':' || relevance FROM mutations WHERE result_file_id = ? ORDER BY gene",
+                String.class, file.getId()))
+                .containsExactly("BRCA1:HIGH", "KRAS:MEDIUM", "TP53:LOW");
+    }
+
+    @Test
+    void processResultFile_ShouldInsertEveryRowAcrossBatchBoundaries() {
+        // Lotes exactos (4 filas) y con resto (5 filas): el último insertBatch recibe un lote vacío o parcial
+        for (int rows = 4; rows <= 5; rows++) {
+            StringBuilder content = new StringBuilder(HEADER);
+            for (int i = 0; i < rows; i++) {
+                content.append("GENE").append(i).append(",1,SNV,LOW,row ").append(i).append('\n');
+            }
+            ResultFile file = resultFile(content.toString());
+
+            MutationIngestionResultDTO result = mutationService.processResultFile(file.getId());
+
+            assertThat(result.processingStatus()).isEqualTo("COMPLETED");
+            assertThat(result.rowsInserted()).isEqualTo(rows);
+            assertThat(result.errors()).isEmpty();
+            assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM mutations WHERE result_file_id = ?",
+                    Long.class, file.getId())).isEqualTo(rows);
+        }
+    }
+
+    @Test
+    void processResultFile_AlreadyProcessed_ShouldNotReadTheFileAgain() {
+        ResultFile file = resultFile(HEADER + "BRCA1,17,SNV,HIGH,first\n");
+        mutationService.processResultFile(file.getId());
+
+        MutationIngestionResultDTO again = mutationService.processResultFile(file.getId());
+
+        assertThat(again.mode()).isEqualTo("UNCHANGED");
+        assertThat(again.rowsInserted()).isZero();
+        verify(s3Service, times(1)).downloadFile(file.getS3Key());
+    }
+
+    @Test
+    void processResultFile_WhenDownloadFails_ShouldMarkFileFailed() {
+        ResultFile file = resultFile(null);
+        when(s3Service.downloadFile(file.getS3Key())).thenThrow(new RuntimeException("Stored object not found"));
+
+        assertThatThrownBy(() -> mutationService.processResultFile(file.getId()))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("Stored object not found");
+
+        ResultFile stored = resultFileRepository.findById(file.getId()).orElseThrow();
+        assertThat(stored.getProcessingStatus()).isEqualTo("FAILED");
+        assertThat(stored.getProcessingError()).contains("Stored object not found");
+        assertThat(stored.getProcessingFinishedAt()).isNotNull();
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM mutations WHERE result_file_id = ?",
+                Long.class, file.getId())).isZero();
+    }
+
+    private ResultFile resultFile(String content) {
+        GeneticSample sample = geneticSampleService.create(GeneticSample.builder()
+                .type(SampleType.DNA)
+                .status(SampleStatus.COMPLETED)
+                .collectionDate(LocalDate.now())
+                .mutations(new ArrayList<>())
+                .build());
+        String key = "results/" + UUID.randomUUID() + "_mutations.csv";
+        ResultFile file = resultFileRepository.save(ResultFile.builder()
+                .fileName("mutations.csv")
+                .s3Key(key)
+                .s3Url("https://test-bucket.s3.amazonaws.com/" + key)
+                .contentType("text/csv")
+                .uploadedAt(LocalDateTime.now())
+                .geneticSample(sample)
+                .build());
+        if (content != null) {
+            when(s3Service.downloadFile(key))
+                    .thenAnswer(invocation -> new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+        }
+        return file;
+    }
+}
@@ -0,0 +1,168 @@
+package com.biotrack.backend.integration;
+
+import com.biotrack.backend.models.Hospital;
+import com.biotrack.backend.models.Patient;
+import com.biotrack.backend.repositories.HospitalRepository;
+import com.biotrack.backend.repositories.PatientRepository;
+import com.biotrack.backend.services.PatientSearchService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Búsqueda de pacientes contra Postgres con pg_trgm. Sin @Transactional: los índices se crean con
+ * CREATE INDEX CONCURRENTLY, que no corre dentro de una transacción.
+ */
+@SpringBootTest
+@Testcontainers
+@ActiveProfiles("test")
+class PatientSearchIntegrationTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("biotrack_test")
+            .withUsername("test")
+            .withPassword("test");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) throws Exception {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "create-drop");
+        // La preparación la hace cada prueba; así no compite con el arranque en segundo plano
+        registry.add("patients.search.backfill-on-startup", () -> "false");
+        registry.add("patients.search.trigram-index.create-on-startup", () -> "false");
+        String storeDir = Files.createTempDirectory("variant-store").toString();
+        registry.add("variants.store.dir", () -> storeDir);
+    }
+
+    @Autowired
+    private PatientSearchService patientSearchService;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private HospitalRepository hospitalRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Patient jose;
+    private Patient maria;
+
+    @BeforeEach
+    void setUp() {
+        jose = patientRepository.save(patient("José María", "Núñez García", "jose@example.com", "5551000001", "NUGJ900101HDFXRS01"));
+        maria = patientRepository.save(patient("María", "López", "maria@example.com", "5551000002", "LOPM900101MDFXPR02"));
+        patientRepository.save(patient("Juan", "Pérez", "juan@example.com", "5551000003", "PERJ900101HDFXRN03"));
+        assertThat(patientSearchService.ensureTrigramIndex()).isTrue();
+    }
+
+    @AfterEach
+    void tearDown() {
+        hospitalRepository.deleteAll();
+        patientRepository.deleteAll();
+    }
+
+    @Test
+    void search_ShouldIgnoreAccentsAndTolerateTypos() {
+        assertThat(patientSearchService.search(null, "nunez", null)).extracting(Patient::getId).containsExactly(jose.getId());
+        assertThat(patientSearchService.search(null, "garsia", null)).extracting(Patient::getId).first().isEqualTo(jose.getId());
+        // "maria" aparece en los dos nombres; la coincidencia de palabra completa empata y desempata la similitud
+        assertThat(patientSearchService.search(null, "MARÍA", null)).extracting(Patient::getId)
+                .containsExactly(maria.getId(), jose.getId());
+        assertThat(patientSearchService.search(null, "maria", 1)).hasSize(1);
+    }
+
+    @Test
+    void search_ShortTermShouldMatchByPrefix() {
+        assertThat(patientSearchService.search(null, "ma", null)).extracting(Patient::getId).containsExactly(maria.getId());
+    }
+
+    @Test
+    void search_ShouldUseExactPathsForCurpEmailAndPhone() {
+        assertThat(patientSearchService.search(null, "nugj900101hdfxrs01", null)).extracting(Patient::getId).containsExactly(jose.getId());
+        assertThat(patientSearchService.search(null, "MARIA@example.com", null)).extracting(Patient::getId).containsExactly(maria.getId());
+        assertThat(patientSearchService.search(null, "555-100-0001", null)).extracting(Patient::getId).containsExactly(jose.getId());
+    }
+
+    @Test
+    void search_ShouldBeScopedToHospital() {
+        Hospital hospital = hospitalRepository.save(Hospital.builder()
+                .name("Hospital Central")
+                .activePatients(new ArrayList<>(List.of(jose)))
+                .build());
+
+        assertThat(patientSearchService.search(hospital.getId(), "garcia", null)).extracting(Patient::getId).containsExactly(jose.getId());
+        assertThat(patientSearchService.search(hospital.getId(), "lopez", null)).isEmpty();
+        assertThat(patientSearchService.search(hospital.getId(), "maria@example.com", null)).isEmpty();
+    }
+
+    @Test
+    void searchByName_ShouldRequireEachFilterInItsOwnField() {
+        assertThat(patientSearchService.searchByName("maria", null, null)).extracting(Patient::getId)
+                .containsExactly(jose.getId(), maria.getId());
+        assertThat(patientSearchService.searchByName("MARÍA", "lop", null)).extracting(Patient::getId).containsExactly(maria.getId());
+        // "lopez" es apellido, no nombre; y sin tolerancia a errores de tipeo
+        assertThat(patientSearchService.searchByName("lopez", null, null)).isEmpty();
+        assertThat(patientSearchService.searchByName(null, "garsia", null)).isEmpty();
+    }
+
+    @Test
+    void searchByName_ShouldBeBoundedByLimitAndSkipPrefilteredMisses() {
+        // "ana maria ruiz" pasa el prefiltro y va primero, pero "maria" está en su apellido
+        patientRepository.save(patient("Ana", "María Ruiz", "ana@example.com", "5551000004", "RUIA900101MDFXZN04"));
+
+        assertThat(patientSearchService.searchByName("maria", null, 1)).extracting(Patient::getId).containsExactly(jose.getId());
+        assertThat(patientSearchService.searchByName("maria", null, null)).extracting(Patient::getId)
+                .containsExactly(jose.getId(), maria.getId());
+    }
+
+    @Test
+    void searchByName_ShouldMatchRowsOnceBackfilled() {
+        jdbcTemplate.update("UPDATE patients SET search_name = NULL WHERE id = ?", maria.getId());
+        // Sin search_name la fila no pasa el prefiltro por índice; el backfill del arranque la completa
+        assertThat(patientSearchService.searchByName("maria", "lopez", null)).isEmpty();
+
+        patientSearchService.backfillSearchNames();
+
+        assertThat(patientSearchService.searchByName("maria", "lopez", null)).extracting(Patient::getId).containsExactly(maria.getId());
+    }
+
+    @Test
+    void backfill_ShouldFillMissingSearchNames() {
+        jdbcTemplate.update("UPDATE patients SET search_name = NULL");
+
+        assertThat(patientSearchService.backfillSearchNames()).isEqualTo(3);
+        assertThat(jdbcTemplate.queryForList("SELECT search_name FROM patients ORDER BY search_name", String.class))
+                .containsExactly("jose maria nunez garcia", "juan perez", "maria lopez");
+    }
+
+    private static Patient patient(String firstName, String lastName, String email, String phone, String curp) {
+        return Patient.builder()
+                .firstName(firstName)
+                .lastName(lastName)
+                .email(email)
+                .password("password123")
+                .phoneNumber(phone)
+                .curp(curp)
+                .build();
+    }
+}
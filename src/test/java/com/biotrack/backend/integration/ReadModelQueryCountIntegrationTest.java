@@ -0,0 +1,249 @@
+package com.biotrack.backend.integration;
+
+import com.biotrack.backend.dto.MedicalVisitDTO;
+import com.biotrack.backend.dto.ReportDTO;
+import com.biotrack.backend.dto.Samples.SampleDetailDTO;
+import com.biotrack.backend.models.BloodSample;
+import com.biotrack.backend.models.GeneticSample;
+import com.biotrack.backend.models.LabAppointment;
+import com.biotrack.backend.models.MedicalVisit;
+import com.biotrack.backend.models.Mutation;
+import com.biotrack.backend.models.Patient;
+import com.biotrack.backend.models.Report;
+import com.biotrack.backend.models.User;
+import com.biotrack.backend.models.enums.LabAppointmentStatus;
+import com.biotrack.backend.models.enums.MedicalVisitType;
+import com.biotrack.backend.models.enums.Relevance;
+import com.biotrack.backend.models.enums.ReportStatus;
+import com.biotrack.backend.models.enums.Role;
+import com.biotrack.backend.models.enums.SampleStatus;
+import com.biotrack.backend.models.enums.SampleType;
+import com.biotrack.backend.services.GeneticSampleService;
+import com.biotrack.backend.services.LabAppointmentService;
+import com.biotrack.backend.services.MedicalVisitService;
+import com.biotrack.backend.services.ReportService;
+import com.biotrack.backend.services.SampleService;
+import com.biotrack.backend.services.pagination.KeysetPage;
+import com.biotrack.backend.utils.GeneticSampleMapper;
+import com.biotrack.backend.utils.MedicalVisitMapper;
+import com.biotrack.backend.utils.SampleMapper;
+import com.biotrack.backend.utils.TestDataFactory;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Cuenta las sentencias SQL de cada listado: mapear una página no debe disparar un SELECT por fila.
+ */
+@SpringBootTest
+@Testcontainers
+@ActiveProfiles("test")
+@Transactional
+class ReadModelQueryCountIntegrationTest {
+
+    private static final UUID HOSPITAL = UUID.fromString("00000000-0000-0000-0000-0000000000b2");
+    private static final int ROWS = 3;
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("biotrack_test")
+            .withUsername("test")
+            .withPassword("test");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) throws Exception {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "create-drop");
+        registry.add("spring.jpa.properties.hibernate.generate_statistics", () -> "true");
+        String storeDir = Files.createTempDirectory("variant-store").toString();
+        registry.add("variants.store.dir", () -> storeDir);
+    }
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private SampleService sampleService;
+
+    @Autowired
+    private MedicalVisitService medicalVisitService;
+
+    @Autowired
+    private LabAppointmentService labAppointmentService;
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private GeneticSampleService geneticSampleService;
+
+    private Statistics statistics;
+    private User doctor;
+    private final List<Patient> patients = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        doctor = TestDataFactory.createTestUser("Dr. Count", "count@example.com", Role.MEDIC);
+        doctor.setId(null);
+        entityManager.persist(doctor);
+        for (int i = 0; i < ROWS; i++) {
+            Patient patient = TestDataFactory.createTestPatient("Patient" + i, "Count", "patient" + i + "@count.com");
+            patient.setId(null);
+            patient.setPhoneNumber("55500000" + i);
+            patient.setCurp("CURP00000" + i);
+            entityManager.persist(patient);
+            patients.add(patient);
+        }
+    }
+
+    @Test
+    void samplePage_ShouldLoadPatientAndRegistrarInTheSameStatement() {
+        for (Patient patient : patients) {
+            entityManager.persist(BloodSample.builder()
+                    .patient(patient)
+                    .registeredBy(doctor)
+                    .type(SampleType.BLOOD)
+                    .status(SampleStatus.COMPLETED)
+                    .collectionDate(LocalDate.now())
+                    .medicalEntityId(HOSPITAL)
+                    .build());
+        }
+        startCounting();
+
+        List<SampleDetailDTO> page = sampleService.findPage(null, null).map(SampleMapper::toDetailDTO).items();
+
+        assertThat(page).hasSize(ROWS).allSatisfy(sample -> assertThat(sample.patientName()).endsWith("Count"));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void visitPages_ShouldNotQueryPerRow() {
+        for (Patient patient : patients) {
+            entityManager.persist(MedicalVisit.builder()
+                    .patient(patient)
+                    .doctor(doctor)
+                    .visitDate(LocalDateTime.now())
+                    .createdAt(LocalDateTime.now())
+                    .medicalEntityId(HOSPITAL)
+                    .type(MedicalVisitType.CONSULTATION)
+                    .build());
+        }
+        startCounting();
+
+        List<MedicalVisitDTO> byHospital = medicalVisitService.findPageByMedicalEntityId(HOSPITAL, null, null)
+                .map(MedicalVisitMapper::toBasicDTO).items();
+        assertThat(byHospital).hasSize(ROWS).allSatisfy(visit -> assertThat(visit.doctorName()).isEqualTo("Dr. Count"));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+        // La página del doctor agrega los conteos por paciente con una sola consulta agrupada
+        startCounting();
+        KeysetPage<MedicalVisitDTO> byDoctor = medicalVisitService.findPageByDoctorId(doctor.getId(), false, null, null)
+                .map(MedicalVisitMapper::toBasicDTO);
+        List<MedicalVisitDTO> counted = medicalVisitService.addPatientVisitCounts(byDoctor.items());
+        assertThat(counted).hasSize(ROWS).allSatisfy(visit -> assertThat(visit.patientVisitsCount()).isEqualTo(1));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void labAppointmentPage_ShouldLoadPatientAndDoctorInTheSameStatement() {
+        Patient patient = patients.get(0);
+        for (int i = 0; i < ROWS; i++) {
+            entityManager.persist(LabAppointment.builder()
+                    .patient(patient)
+                    .doctor(doctor)
+                    .medicalEntityId(HOSPITAL)
+                    .createdAt(LocalDateTime.now().minusMinutes(i))
+                    .status(LabAppointmentStatus.SOLICITADA)
+                    .sampleType(SampleType.BLOOD)
+                    .build());
+        }
+        startCounting();
+
+        assertThat(labAppointmentService.findPageByPatientId(patient.getId(), null, null).items()).hasSize(ROWS);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void reportPage_ShouldProjectStraightToDTOs() {
+        BloodSample sample = BloodSample.builder()
+                .patient(patients.get(0))
+                .registeredBy(doctor)
+                .type(SampleType.BLOOD)
+                .status(SampleStatus.COMPLETED)
+                .build();
+        entityManager.persist(sample);
+        for (int i = 0; i < ROWS; i++) {
+            entityManager.persist(Report.builder()
+                    .sample(sample)
+                    .generatedAt(LocalDateTime.now().minusMinutes(i))
+                    .status(ReportStatus.COMPLETED)
+                    .build());
+        }
+        // Un estudio sin muestra también debe aparecer
+        entityManager.persist(Report.builder().generatedAt(LocalDateTime.now()).status(ReportStatus.COMPLETED).build());
+        startCounting();
+
+        List<ReportDTO> page = reportService.findPage(ReportStatus.COMPLETED, null, null).items();
+
+        assertThat(page).hasSize(ROWS + 1);
+        assertThat(page).filteredOn(report -> sample.getId().equals(report.sampleId())).hasSize(ROWS);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void geneticSamplePage_ShouldLoadMutationsOfTheWholePageInOneBatch() {
+        for (Patient patient : patients) {
+            GeneticSample sample = GeneticSample.builder()
+                    .patient(patient)
+                    .registeredBy(doctor)
+                    .type(SampleType.DNA)
+                    .status(SampleStatus.COMPLETED)
+                    .medicalEntityId(HOSPITAL)
+                    .mutations(new ArrayList<>())
+                    .build();
+            sample.addMutation(Mutation.builder().gene("BRCA1").chromosome("17").type("SNV").relevance(Relevance.HIGH).build());
+            entityManager.persist(sample);
+        }
+        startCounting();
+
+        var page = geneticSampleService.findPageByMedicalEntityId(HOSPITAL, null, null).map(GeneticSampleMapper::toDTO).items();
+
+        assertThat(page).hasSize(ROWS).allSatisfy(sample -> assertThat(sample.mutations()).hasSize(1));
+        // Muestras + un solo lote con las mutaciones de toda la página
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    // Todo lo creado queda en la base y fuera del contexto de persistencia, para contar solo el listado
+    private void startCounting() {
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+    }
+}
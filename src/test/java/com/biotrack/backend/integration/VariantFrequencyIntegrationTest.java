@@ -0,0 +1,121 @@
+package com.biotrack.backend.integration;
+
+import com.biotrack.backend.dto.VariantFrequencyDTO;
+import com.biotrack.backend.models.GeneticSample;
+import com.biotrack.backend.models.Mutation;
+import com.biotrack.backend.models.enums.Relevance;
+import com.biotrack.backend.models.enums.SampleStatus;
+import com.biotrack.backend.models.enums.SampleType;
+import com.biotrack.backend.services.BulkDeletionService;
+import com.biotrack.backend.services.GeneticSampleService;
+import com.biotrack.backend.services.VariantFrequencyService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifica que las tablas de frecuencias sigan a las mutaciones al crear y borrar muestras.
+ */
+@SpringBootTest
+@Testcontainers
+@ActiveProfiles("test")
+@Transactional
+class VariantFrequencyIntegrationTest {
+
+    private static final UUID HOSPITAL = UUID.fromString("00000000-0000-0000-0000-0000000000a1");
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("biotrack_test")
+            .withUsername("test")
+            .withPassword("test");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) throws Exception {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "create-drop");
+        String storeDir = Files.createTempDirectory("variant-store").toString();
+        registry.add("variants.store.dir", () -> storeDir);
+    }
+
+    @Autowired
+    private GeneticSampleService geneticSampleService;
+
+    @Autowired
+    private BulkDeletionService bulkDeletionService;
+
+    @Autowired
+    private VariantFrequencyService variantFrequencyService;
+
+    @Test
+    void frequencies_ShouldFollowSampleCreationAndDeletion() {
+        UUID first = createSample(HOSPITAL, "BRCA1", "chr17", "SNV", Relevance.HIGH, "BRCA1", "17", "SNV", Relevance.HIGH);
+        createSample(HOSPITAL, "brca1", "17", "snv", Relevance.MEDIUM, "TP53", "17", "SNV", Relevance.LOW);
+        createSample(null, "TP53", "17", "SNV", Relevance.LOW);
+
+        // Dos filas de la primera muestra cuentan como un solo portador; chr17/17 y SNV/snv son la misma firma
+        VariantFrequencyDTO cohort = variantFrequencyService.findFrequency("BRCA1", "17", "SNV", null);
+        assertThat(cohort.carriers()).isEqualTo(2);
+        assertThat(cohort.variants()).isEqualTo(3);
+        assertThat(cohort.cohortSamples()).isEqualTo(3);
+        assertThat(cohort.highRelevance()).isEqualTo(2);
+        assertThat(cohort.mediumRelevance()).isEqualTo(1);
+
+        VariantFrequencyDTO hospital = variantFrequencyService.findFrequency("BRCA1", "chr17", "SNV", HOSPITAL);
+        assertThat(hospital.cohortSamples()).isEqualTo(2);
+        assertThat(hospital.carrierFrequency()).isEqualTo(1.0);
+
+        assertThat(variantFrequencyService.findTopGenes(null, 10))
+                .extracting(gene -> gene.gene() + ":" + gene.carriers())
+                .containsExactly("BRCA1:2", "TP53:2");
+
+        bulkDeletionService.deleteGeneticSample(first);
+
+        VariantFrequencyDTO afterDelete = variantFrequencyService.findFrequency("BRCA1", "17", "SNV", null);
+        assertThat(afterDelete.carriers()).isEqualTo(1);
+        assertThat(afterDelete.variants()).isEqualTo(1);
+        assertThat(afterDelete.cohortSamples()).isEqualTo(2);
+
+        // El recálculo completo debe dar lo mismo que los incrementos
+        variantFrequencyService.rebuild();
+        assertThat(variantFrequencyService.findFrequency("BRCA1", "17", "SNV", null)).isEqualTo(afterDelete);
+    }
+
+    private UUID createSample(UUID hospitalId, Object... mutationFields) {
+        GeneticSample sample = GeneticSample.builder()
+                .type(SampleType.DNA)
+                .status(SampleStatus.COMPLETED)
+                .collectionDate(LocalDate.now())
+                .medicalEntityId(hospitalId)
+                .mutations(new ArrayList<>())
+                .build();
+        List<Mutation> mutations = sample.getMutations();
+        for (int i = 0; i < mutationFields.length; i += 4) {
+            mutations.add(Mutation.builder()
+                    .gene((String) mutationFields[i])
+                    .chromosome((String) mutationFields[i + 1])
+                    .type((String) mutationFields[i + 2])
+                    .relevance((Relevance) mutationFields[i + 3])
+                    .sample(sample)
+                    .build());
+        }
+        return geneticSampleService.create(sample).getId();
+    }
+}
@@ -27,6 +27,12 @@ class PatientServiceImplTest {
     @Mock
     private PatientRepository patientRepository;
 
+    @Mock
+    private PatientSearchService patientSearchService;
+
+    @Mock
+    private BulkDeletionService bulkDeletionService;
+
     @InjectMocks
     private PatientServiceImpl patientService;
 
@@ -132,30 +138,26 @@ class PatientServiceImplTest {
     @Test
     void deleteById_ShouldDeletePatient_WhenPatientExists() {
         // Given
-        testPatient.setHospitals(Arrays.asList()); // Lista vacía de hospitales
-        when(patientRepository.findById(testPatientId)).thenReturn(Optional.of(testPatient));
-        doNothing().when(patientRepository).deleteById(testPatientId);
+        doNothing().when(bulkDeletionService).deletePatient(testPatientId);
 
         // When
         patientService.deleteById(testPatientId);
 
-        // Then
-        verify(patientRepository).findById(testPatientId);
-        verify(patientRepository).save(testPatient); // Para actualizar relaciones
-        verify(patientRepository).deleteById(testPatientId);
+        // Then - el borrado en cascada lo hace BulkDeletionService en bloque
+        verify(bulkDeletionService).deletePatient(testPatientId);
+        verify(patientRepository, never()).findById(testPatientId);
     }
 
     @Test
     void deleteById_ShouldThrowException_WhenPatientNotFound() {
         // Given
-        when(patientRepository.findById(testPatientId)).thenReturn(Optional.empty());
+        doThrow(new RuntimeException("Patient not found")).when(bulkDeletionService).deletePatient(testPatientId);
 
         // When & Then
         assertThatThrownBy(() -> patientService.deleteById(testPatientId))
                 .isInstanceOf(RuntimeException.class)
                 .hasMessageContaining("not found");
 
-        verify(patientRepository).findById(testPatientId);
         verify(patientRepository, never()).deleteById(testPatientId);
     }
 
@@ -165,15 +167,15 @@ class PatientServiceImplTest {
         String firstName = "John";
         String lastName = "Doe";
         List<Patient> matchingPatients = Arrays.asList(testPatient);
-        when(patientRepository.findByFirstNameContainingIgnoreCaseAndLastNameContainingIgnoreCase(firstName, lastName))
-                .thenReturn(matchingPatients);
+        when(patientSearchService.searchByName(firstName, lastName, null)).thenReturn(matchingPatients);
 
         // When
-        List<Patient> result = patientService.searchPatients(firstName, lastName);
+        List<Patient> result = patientService.searchPatients(firstName, lastName, null);
 
         // Then
         assertThat(result).hasSize(1);
         assertThat(result).contains(testPatient);
-        verify(patientRepository).findByFirstNameContainingIgnoreCaseAndLastNameContainingIgnoreCase(firstName, lastName);
+        verify(patientSearchService).searchByName(firstName, lastName, null);
+        verify(patientRepository, never()).findAll();
     }
 }
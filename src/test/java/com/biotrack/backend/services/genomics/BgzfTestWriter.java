@@ -0,0 +1,83 @@
+package com.biotrack.backend.services.genomics;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Escritor BGZF mínimo para generar archivos de prueba como los de bgzip
+ */
+class BgzfTestWriter extends OutputStream {
+
+    private static final int BLOCK_DATA_SIZE = 65280;
+    private static final byte[] EOF_BLOCK = {
+            0x1f, (byte) 0x8b, 8, 4, 0, 0, 0, 0, 0, (byte) 0xff, 6, 0, 'B', 'C', 2, 0, 0x1b, 0, 3, 0, 0, 0, 0, 0, 0, 0, 0, 0
+    };
+
+    private final OutputStream out;
+    private final byte[] block = new byte[BLOCK_DATA_SIZE];
+    private final byte[] compressed = new byte[BLOCK_DATA_SIZE + 1024];
+    private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    private int size;
+
+    BgzfTestWriter(OutputStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        block[size++] = (byte) b;
+        if (size == BLOCK_DATA_SIZE) {
+            flushBlock();
+        }
+    }
+
+    @Override
+    public void write(byte[] data, int offset, int length) throws IOException {
+        while (length > 0) {
+            int count = Math.min(length, BLOCK_DATA_SIZE - size);
+            System.arraycopy(data, offset, block, size, count);
+            size += count;
+            offset += count;
+            length -= count;
+            if (size == BLOCK_DATA_SIZE) {
+                flushBlock();
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (size > 0) {
+            flushBlock();
+        }
+        out.write(EOF_BLOCK);
+        out.close();
+        deflater.end();
+    }
+
+    private void flushBlock() throws IOException {
+        deflater.reset();
+        deflater.setInput(block, 0, size);
+        deflater.finish();
+        int length = deflater.deflate(compressed);
+        CRC32 crc = new CRC32();
+        crc.update(block, 0, size);
+
+        int blockSize = 18 + length + 8 - 1;
+        out.write(new byte[]{0x1f, (byte) 0x8b, 8, 4, 0, 0, 0, 0, 0, (byte) 0xff, 6, 0, 'B', 'C', 2, 0,
+                (byte) blockSize, (byte) (blockSize >> 8)});
+        out.write(compressed, 0, length);
+        writeInt((int) crc.getValue());
+        writeInt(size);
+        size = 0;
+    }
+
+    private void writeInt(int value) throws IOException {
+        out.write(value);
+        out.write(value >> 8);
+        out.write(value >> 16);
+        out.write(value >> 24);
+    }
+}
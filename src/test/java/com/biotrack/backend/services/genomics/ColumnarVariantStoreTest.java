@@ -0,0 +1,88 @@
+package com.biotrack.backend.services.genomics;
+
+import com.biotrack.backend.models.enums.Relevance;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ColumnarVariantStoreTest {
+
+    private static final UUID SAMPLE_A = UUID.fromString("00000000-0000-0000-0000-00000000000a");
+    private static final UUID SAMPLE_B = UUID.fromString("00000000-0000-0000-0000-00000000000b");
+    private static final UUID SAMPLE_C = UUID.fromString("00000000-0000-0000-0000-00000000000c");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void carriers_ShouldReturnSamplesWithVariantsAtMinimumRelevance() throws IOException {
+        try (ColumnarVariantStore store = ColumnarVariantStore.open(directory.resolve("store"), 4)) {
+            append(store);
+
+            ColumnarVariantStore.Carriers pathogenic = store.carriers("BRCA1", Relevance.HIGH);
+            assertThat(pathogenic.sampleIds()).containsExactly(SAMPLE_A, SAMPLE_C);
+            assertThat(pathogenic.variants()).isEqualTo(3);
+
+            assertThat(store.carriers("BRCA1", Relevance.LOW).sampleIds()).containsExactly(SAMPLE_A, SAMPLE_B, SAMPLE_C);
+            assertThat(store.carriers("UNKNOWN", Relevance.LOW).sampleIds()).isEmpty();
+            // 6 filas con segmentos de 4 → 2 segmentos
+            assertThat(store.segmentCount()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void countByGene_ShouldCountVariantsAndDistinctCarriers() throws IOException {
+        try (ColumnarVariantStore store = ColumnarVariantStore.open(directory.resolve("store"), 4)) {
+            append(store);
+
+            assertThat(store.countByGene(Relevance.LOW, null, 10)).containsExactly(
+                    new ColumnarVariantStore.GeneCount("BRCA1", 4, 3),
+                    new ColumnarVariantStore.GeneCount("TP53", 2, 2));
+            assertThat(store.countByGene(Relevance.LOW, "17", 10)).containsExactly(
+                    new ColumnarVariantStore.GeneCount("BRCA1", 4, 3),
+                    new ColumnarVariantStore.GeneCount("TP53", 1, 1));
+            assertThat(store.countByGene(Relevance.LOW, null, 1)).hasSize(1);
+        }
+    }
+
+    @Test
+    void open_ShouldReloadPublishedRowsAndRemovedSamples() throws IOException {
+        Path path = directory.resolve("store");
+        try (ColumnarVariantStore store = ColumnarVariantStore.open(path, 4)) {
+            append(store);
+            store.removeSamples(List.of(SAMPLE_A));
+        }
+
+        try (ColumnarVariantStore reopened = ColumnarVariantStore.open(path, 4)) {
+            assertThat(reopened.rowCount()).isEqualTo(6);
+            assertThat(reopened.sampleCount()).isEqualTo(2);
+            assertThat(reopened.carriers("BRCA1", Relevance.HIGH).sampleIds()).containsExactly(SAMPLE_C);
+
+            // Los appends siguen en el último segmento sin pisar lo publicado
+            try (VariantStaging staging = VariantStaging.create(directory)) {
+                staging.add(SAMPLE_B, "BRCA1", "17", VcfReader.SNV, Relevance.HIGH);
+                reopened.append(staging);
+            }
+            assertThat(reopened.carriers("BRCA1", Relevance.HIGH).sampleIds()).containsExactly(SAMPLE_B, SAMPLE_C);
+            assertThat(reopened.rowCount()).isEqualTo(7);
+        }
+    }
+
+    private void append(ColumnarVariantStore store) throws IOException {
+        try (VariantStaging staging = VariantStaging.create(directory)) {
+            staging.add(SAMPLE_A, "BRCA1", "17", VcfReader.SNV, Relevance.HIGH);
+            staging.add(SAMPLE_A, "BRCA1", "17", VcfReader.DELETION, Relevance.HIGH);
+            staging.add(SAMPLE_A, "TP53", "17", VcfReader.SNV, Relevance.MEDIUM);
+            staging.add(SAMPLE_B, "BRCA1", "17", VcfReader.SNV, Relevance.LOW);
+            staging.add(SAMPLE_B, "TP53", "7", VcfReader.SNV, Relevance.LOW);
+            staging.add(SAMPLE_C, "BRCA1", "17", VcfReader.INSERTION, Relevance.HIGH);
+            assertThat(store.append(staging)).isEqualTo(6);
+        }
+    }
+}
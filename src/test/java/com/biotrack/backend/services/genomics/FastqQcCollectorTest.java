@@ -0,0 +1,110 @@
+package com.biotrack.backend.services.genomics;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.*;
+
+class FastqQcCollectorTest {
+
+    // I = Q40, # = Q2, ! = Q0
+    private static final String FASTQ = """
+            @read1 1:N:0
+            ACGTN
+            +
+            IIII#
+            @read2
+            GGCC
+            +read2
+            !!!!
+
+            @read3
+            ACGTN
+            +
+            IIII#
+            """;
+
+    @Test
+    void consume_ShouldComputeCountsQualityAndGc() throws IOException {
+        FastqQcCollector collector = new FastqQcCollector(10);
+        // Buffer chico para forzar que los registros queden partidos entre lecturas
+        collector.consume(stream(FASTQ), 8);
+
+        assertThat(collector.reads()).isEqualTo(3);
+        assertThat(collector.bases()).isEqualTo(14);
+        assertThat(collector.minLength()).isEqualTo(4);
+        assertThat(collector.maxLength()).isEqualTo(5);
+        // G+C = 2 + 4 + 2 sobre 12 bases definidas
+        assertThat(collector.gcFraction()).isCloseTo(8.0 / 12, within(1e-9));
+        assertThat(collector.nFraction()).isCloseTo(2.0 / 14, within(1e-9));
+        assertThat(collector.fractionAtLeast(30)).isCloseTo(8.0 / 14, within(1e-9));
+        assertThat(collector.meanQuality()).isCloseTo((8 * 40 + 2 * 2) / 14.0, within(1e-9));
+        // Posición 5 solo la cubren las dos lecturas de longitud 5
+        assertThat(collector.meanQualityByPosition()).containsExactly(80.0 / 3, 80.0 / 3, 80.0 / 3, 80.0 / 3, 2.0);
+        assertThat(collector.lengthHistogram()[4]).isEqualTo(1);
+        assertThat(collector.lengthHistogram()[5]).isEqualTo(2);
+        // read1 y read3 tienen la misma secuencia
+        assertThat(collector.estimatedDistinctReads()).isEqualTo(2);
+    }
+
+    @Test
+    void duplicateFraction_ShouldEstimateRepeatedSequences() throws IOException {
+        Random random = new Random(7);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        char[] bases = {'A', 'C', 'G', 'T'};
+        for (int i = 0; i < 50_000; i++) {
+            char[] sequence = new char[100];
+            for (int j = 0; j < sequence.length; j++) {
+                sequence[j] = bases[random.nextInt(4)];
+            }
+            String record = "@r\n" + new String(sequence) + "\n+\n" + "I".repeat(100) + "\n";
+            // Una de cada cinco secuencias aparece dos veces → 10 000 duplicados de 60 000 lecturas
+            int copies = i % 5 == 0 ? 2 : 1;
+            for (int c = 0; c < copies; c++) {
+                out.writeBytes(record.getBytes(StandardCharsets.US_ASCII));
+            }
+        }
+        FastqQcCollector collector = new FastqQcCollector(150);
+        collector.consume(new ByteArrayInputStream(out.toByteArray()));
+
+        assertThat(collector.reads()).isEqualTo(60_000);
+        assertThat(collector.duplicateFraction()).isCloseTo(10_000.0 / 60_000, within(0.02));
+    }
+
+    @Test
+    void merge_ShouldCombinePairedFiles() throws IOException {
+        FastqQcCollector r1 = new FastqQcCollector(10);
+        r1.consume(stream(FASTQ));
+        FastqQcCollector r2 = new FastqQcCollector(10);
+        r2.consume(stream("@m\nTTTTTTT\n+\nIIIIIII\n"));
+
+        r1.merge(r2);
+
+        assertThat(r1.reads()).isEqualTo(4);
+        assertThat(r1.maxLength()).isEqualTo(7);
+        assertThat(r1.meanQualityByPosition()).hasSize(7);
+        assertThat(r1.estimatedDistinctReads()).isEqualTo(3);
+    }
+
+    @Test
+    void consume_MalformedRecord_ShouldReportLine() {
+        FastqQcCollector collector = new FastqQcCollector(10);
+
+        assertThatThrownBy(() -> collector.consume(stream("@a\nACGT\n+\nIII\n")))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("line 4");
+        assertThatThrownBy(() -> collector.consume(stream("ACGT\n")))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("'@'");
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.US_ASCII));
+    }
+}
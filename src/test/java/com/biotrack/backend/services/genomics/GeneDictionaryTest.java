@@ -0,0 +1,59 @@
+package com.biotrack.backend.services.genomics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+class GeneDictionaryTest {
+
+    private final GeneDictionary dictionary = GeneDictionary.build(
+            List.of("BRCA1", "BRCA2", "TP53", "CYP2D6", "EGFR", "ERBB2"),
+            Map.of("HER2", List.of("ERBB2"),
+                    "P53", List.of("TP53"),
+                    "ERBB", List.of("EGFR")));
+
+    @Test
+    void exact_ShouldResolveSymbolsAndAliases() {
+        assertThat(dictionary.exact("BRCA1")).containsExactly("BRCA1");
+        assertThat(dictionary.exact("HER2")).containsExactly("ERBB2");
+        assertThat(dictionary.isSymbol("HER2")).isFalse();
+        assertThat(dictionary.exact("BRCA")).isEmpty();
+    }
+
+    @Test
+    void withPrefix_ShouldReturnSymbolsInRange() {
+        assertThat(dictionary.withPrefix("BRC", 10)).containsExactly("BRCA1", "BRCA2");
+        // El alias ERBB apunta a EGFR y va antes que ERBB2
+        assertThat(dictionary.withPrefix("ERB", 10)).containsExactly("EGFR", "ERBB2");
+        assertThat(dictionary.withPrefix("BRC", 1)).hasSize(1);
+        assertThat(dictionary.withPrefix("ZZZ", 10)).isEmpty();
+    }
+
+    @Test
+    void similar_ShouldTolerateTyposAndTranspositions() {
+        assertThat(dictionary.similar("BRAC1", 1, 10))
+                .containsExactly(new GeneDictionary.Match("BRCA1", 1));
+        assertThat(dictionary.similar("TP35", 1, 10))
+                .extracting(GeneDictionary.Match::symbol)
+                .containsExactly("TP53");
+        assertThat(dictionary.similar("CYP2D", 1, 10))
+                .extracting(GeneDictionary.Match::symbol)
+                .containsExactly("CYP2D6");
+        assertThat(dictionary.similar("BRCA3", 1, 10))
+                .extracting(GeneDictionary.Match::symbol)
+                .containsExactly("BRCA1", "BRCA2");
+        assertThat(dictionary.similar("XXXXX", 1, 10)).isEmpty();
+    }
+
+    @Test
+    void withSymbols_ShouldKeepAliasesAndAddNewSymbols() {
+        GeneDictionary extended = dictionary.withSymbols(List.of(" kras ", "BRCA1"));
+
+        assertThat(extended.exact("KRAS")).containsExactly("KRAS");
+        assertThat(extended.exact("HER2")).containsExactly("ERBB2");
+        assertThat(extended.withSymbols(List.of("KRAS"))).isSameAs(extended);
+    }
+}
@@ -0,0 +1,67 @@
+package com.biotrack.backend.services.genomics;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.*;
+
+class PharmacogenomicIndexTest {
+
+    private static final String TABLE = """
+            # comentario
+            gene\tsubstances\taction\taffected_phenotypes\trecommendation\tevidence
+            CYP2C19\tclopidogrel\tAVOID\tPoor metabolizer\tUse prasugrel\tCPIC A
+            CYP2D6\tcodeine|codeína\tAVOID\tUltrarapid metabolizer\tAvoid codeine\tCPIC A
+            CYP2C9\twarfarin|warfarina\tADJUST_DOSE\tDecreased function\tLower dose\tCPIC A
+            vkorc1\twarfarin|warfarina\tadjust_dose\t-1639G>A\tLower dose\tCPIC A
+            """;
+
+    @Test
+    void parse_ShouldIndexByGeneAndSubstance() throws IOException {
+        PharmacogenomicIndex index = PharmacogenomicIndex.parse(new StringReader(TABLE));
+
+        assertThat(index.size()).isEqualTo(4);
+        assertThat(index.genes()).containsExactlyInAnyOrder("CYP2C19", "CYP2D6", "CYP2C9", "VKORC1");
+        assertThat(index.forGene(" vkorc1 ")).extracting(PharmacogenomicIndex.Guideline::action).containsExactly("ADJUST_DOSE");
+        assertThat(index.forSubstance("Warfarina")).extracting(PharmacogenomicIndex.Guideline::gene)
+                .containsExactly("CYP2C9", "VKORC1");
+    }
+
+    @Test
+    void forSubstance_ShouldMatchSynonymsSaltsAndCombinations() throws IOException {
+        PharmacogenomicIndex index = PharmacogenomicIndex.parse(new StringReader(TABLE));
+
+        // Sin acentos y sin importar mayúsculas
+        assertThat(index.forSubstance("CODEÍNA")).extracting(PharmacogenomicIndex.Guideline::substance).containsExactly("codeine");
+        // Sal: se busca palabra por palabra
+        assertThat(index.forSubstance("Clopidogrel bisulfato")).extracting(PharmacogenomicIndex.Guideline::gene).containsExactly("CYP2C19");
+        // Combinación: cada componente por separado
+        assertThat(index.forSubstance("Paracetamol + Codeína 30 mg")).extracting(PharmacogenomicIndex.Guideline::gene).containsExactly("CYP2D6");
+        assertThat(index.forSubstance("paracetamol")).isEmpty();
+        assertThat(index.forSubstance(null)).isEmpty();
+    }
+
+    @Test
+    void parse_InvalidAction_ShouldReportLine() {
+        assertThatThrownBy(() -> PharmacogenomicIndex.parse(new StringReader("CYP2D6\tcodeine\tMAYBE\tx\ty\tz\n")))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("Line 1");
+    }
+
+    @Test
+    void bundledTable_ShouldParse() throws IOException {
+        try (Reader reader = new InputStreamReader(
+                getClass().getClassLoader().getResourceAsStream("pharmacogenomics/gene-drug-guidelines.tsv"), StandardCharsets.UTF_8)) {
+            PharmacogenomicIndex index = PharmacogenomicIndex.parse(reader);
+
+            assertThat(index.forSubstance("clopidogrel")).extracting(PharmacogenomicIndex.Guideline::gene).contains("CYP2C19");
+            assertThat(index.forSubstance("Azatioprina")).extracting(PharmacogenomicIndex.Guideline::gene)
+                    .containsExactlyInAnyOrder("TPMT", "NUDT15");
+        }
+    }
+}
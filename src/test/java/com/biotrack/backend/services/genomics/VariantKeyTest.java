@@ -0,0 +1,28 @@
+package com.biotrack.backend.services.genomics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+class VariantKeyTest {
+
+    @Test
+    void of_ShouldIgnoreCaseAndSurroundingSpaces() {
+        assertThat(VariantKey.of(" brca1 ", "chr17", "snv", "high", " c.68_69delAG "))
+                .isEqualTo(VariantKey.of("BRCA1", "CHR17", "SNV", "HIGH", "c.68_69delAG"));
+    }
+
+    @Test
+    void of_ShouldDistinguishEveryField() {
+        var key = VariantKey.of("BRCA1", "17", "SNV", "HIGH", "c.68_69delAG");
+
+        assertThat(VariantKey.of("BRCA2", "17", "SNV", "HIGH", "c.68_69delAG")).isNotEqualTo(key);
+        assertThat(VariantKey.of("BRCA1", "13", "SNV", "HIGH", "c.68_69delAG")).isNotEqualTo(key);
+        assertThat(VariantKey.of("BRCA1", "17", "DELETION", "HIGH", "c.68_69delAG")).isNotEqualTo(key);
+        assertThat(VariantKey.of("BRCA1", "17", "SNV", "LOW", "c.68_69delAG")).isNotEqualTo(key);
+        assertThat(VariantKey.of("BRCA1", "17", "SNV", "HIGH", "c.68_69delag")).isNotEqualTo(key);
+        // El separador evita que un campo se corra al siguiente
+        assertThat(VariantKey.of("BRCA1", "17", "SNV", "HIGH", null))
+                .isNotEqualTo(VariantKey.of("BRCA1", "1", "7SNV", "HIGH", null));
+    }
+}
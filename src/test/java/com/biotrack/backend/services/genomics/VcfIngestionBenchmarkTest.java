@@ -0,0 +1,108 @@
+package com.biotrack.backend.services.genomics;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Mide el rendimiento de la ingesta de VCF sobre un archivo sintético en BGZF.
+ * No corre en el build normal: mvn test -Dtest=VcfIngestionBenchmarkTest -Dbenchmark.vcf.mb=4096
+ */
+@EnabledIfSystemProperty(named = "benchmark.vcf.mb", matches = "\\d+")
+class VcfIngestionBenchmarkTest {
+
+    private static final String[] CHROMOSOMES = {"1", "2", "3", "7", "12", "13", "17", "X"};
+    private static final String[] GENES = {"BRCA1", "BRCA2", "TP53", "EGFR", "KRAS", "CYP2D6", "APOE", "MTHFR"};
+    private static final String[] IMPACTS = {"HIGH", "MODERATE", "LOW", "MODIFIER"};
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void benchmark() throws IOException {
+        long targetBytes = Long.getLong("benchmark.vcf.mb") * 1024 * 1024;
+        Path vcf = tempDir.resolve("synthetic.vcf.gz");
+        long uncompressed = writeSyntheticVcf(vcf, targetBytes);
+        long compressed = Files.size(vcf);
+        System.out.printf("Synthetic VCF: %,d MB uncompressed, %,d MB BGZF%n", uncompressed >> 20, compressed >> 20);
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int threads : new int[]{1, cores}) {
+            long start = System.nanoTime();
+            long bytes;
+            try (InputStream input = BgzfInputStream.decompress(Files.newInputStream(vcf), threads)) {
+                bytes = input.transferTo(OutputStream.nullOutputStream());
+            }
+            report("inflate", threads, bytes, System.nanoTime() - start);
+            assertThat(bytes).isEqualTo(uncompressed);
+        }
+
+        for (int threads : new int[]{1, cores}) {
+            long start = System.nanoTime();
+            long records = 0;
+            long withGene = 0;
+            try (VcfReader reader = new VcfReader(BgzfInputStream.decompress(Files.newInputStream(vcf), threads))) {
+                while (reader.next()) {
+                    records++;
+                    if (reader.passedFilters() && reader.isVariant() && reader.gene() != null) {
+                        reader.variantType();
+                        reader.relevance();
+                        reader.chromosome();
+                        withGene++;
+                    }
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+            report("inflate+parse", threads, uncompressed, elapsed);
+            System.out.printf("  %,d records (%,.0f records/s), %,d annotated%n", records, records / (elapsed / 1e9), withGene);
+        }
+    }
+
+    private static void report(String phase, int threads, long bytes, long nanos) {
+        System.out.printf("%-14s threads=%-3d %8.1f MB/s (%.2f s)%n", phase, threads, (bytes / 1048576.0) / (nanos / 1e9), nanos / 1e9);
+    }
+
+    private static long writeSyntheticVcf(Path target, long targetBytes) throws IOException {
+        Random random = new Random(42);
+        long written = 0;
+        try (OutputStream out = new BgzfTestWriter(new BufferedOutputStream(Files.newOutputStream(target), 1 << 20))) {
+            byte[] header = "##fileformat=VCFv4.2\n#CHROM\tPOS\tID\tREF\tALT\tQUAL\tFILTER\tINFO\tFORMAT\tS1\n"
+                    .getBytes(StandardCharsets.US_ASCII);
+            out.write(header);
+            written += header.length;
+            StringBuilder line = new StringBuilder(256);
+            long position = 10_000;
+            while (written < targetBytes) {
+                position += 1 + random.nextInt(300);
+                String gene = GENES[random.nextInt(GENES.length)];
+                line.setLength(0);
+                line.append(CHROMOSOMES[random.nextInt(CHROMOSOMES.length)]).append('\t').append(position)
+                        .append("\trs").append(random.nextInt(1_000_000_000)).append('\t')
+                        .append(random.nextInt(10) == 0 ? "AT\tA" : "A\tG").append('\t')
+                        .append(20 + random.nextInt(60)).append('\t')
+                        .append(random.nextInt(20) == 0 ? "LowQual" : "PASS")
+                        .append("\tDP=").append(10 + random.nextInt(90))
+                        .append(";ANN=G|missense_variant|").append(IMPACTS[random.nextInt(IMPACTS.length)])
+                        .append('|').append(gene).append("|ENSG0000").append(random.nextInt(99999))
+                        .append("|transcript|NM_").append(random.nextInt(999999)).append("|protein_coding")
+                        .append("\tGT:AD:DP\t0/1:").append(random.nextInt(50)).append(',').append(random.nextInt(50))
+                        .append(':').append(random.nextInt(100)).append('\n');
+                byte[] bytes = line.toString().getBytes(StandardCharsets.US_ASCII);
+                out.write(bytes);
+                written += bytes.length;
+            }
+        }
+        return written;
+    }
+}
@@ -0,0 +1,72 @@
+package com.biotrack.backend.services.genomics;
+
+import com.biotrack.backend.models.enums.Relevance;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.*;
+
+class VcfReaderTest {
+
+    private static final String VCF = """
+            ##fileformat=VCFv4.2
+            #CHROM\tPOS\tID\tREF\tALT\tQUAL\tFILTER\tINFO\tFORMAT\tS1
+            17\t43045712\trs1\tA\tG\t50\tPASS\tDP=30;ANN=G|missense_variant|MODERATE|BRCA1|ENSG1\tGT\t0/1
+            7\t55181378\t.\tC\tCTT\t40\t.\tGENEINFO=EGFR:1956|X:2\tGT\t1/1
+            13\t32340000\t.\tAGT\tA\t10\tLowQual\tANN=A|frameshift_variant|HIGH|BRCA2|x
+            1\t1000\t.\tT\t.\t.\tPASS\tDP=4
+            """;
+
+    @Test
+    void next_ShouldParseFixedColumnsAndAnnotations() throws IOException {
+        try (VcfReader reader = new VcfReader(new ByteArrayInputStream(VCF.getBytes(StandardCharsets.UTF_8)), 64)) {
+            assertThat(reader.next()).isTrue();
+            assertThat(reader.chromosome()).isEqualTo("17");
+            assertThat(reader.position()).isEqualTo(43045712L);
+            assertThat(reader.variantType()).isEqualTo(VcfReader.SNV);
+            assertThat(reader.gene()).isEqualTo("BRCA1");
+            assertThat(reader.relevance()).isEqualTo(Relevance.MEDIUM);
+            assertThat(reader.passedFilters()).isTrue();
+
+            assertThat(reader.next()).isTrue();
+            assertThat(reader.variantType()).isEqualTo(VcfReader.INSERTION);
+            assertThat(reader.gene()).isEqualTo("EGFR");
+            assertThat(reader.relevance()).isEqualTo(Relevance.LOW);
+
+            assertThat(reader.next()).isTrue();
+            assertThat(reader.variantType()).isEqualTo(VcfReader.DELETION);
+            assertThat(reader.relevance()).isEqualTo(Relevance.HIGH);
+            assertThat(reader.passedFilters()).isFalse();
+
+            assertThat(reader.next()).isTrue();
+            assertThat(reader.isVariant()).isFalse();
+            assertThat(reader.gene()).isNull();
+            assertThat(reader.lineNumber()).isEqualTo(6);
+
+            assertThat(reader.next()).isFalse();
+        }
+    }
+
+    @Test
+    void decompress_Bgzf_ShouldMatchOriginalAcrossBlocks() throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 20_000; i++) {
+            content.append("1\t").append(i + 1).append("\t.\tA\tT\t.\tPASS\tGENE=G").append(i % 50).append('\n');
+        }
+        byte[] original = content.toString().getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (BgzfTestWriter writer = new BgzfTestWriter(compressed)) {
+            writer.write(original);
+        }
+
+        try (InputStream input = BgzfInputStream.decompress(new ByteArrayInputStream(compressed.toByteArray()), 4)) {
+            assertThat(input).isInstanceOf(BgzfInputStream.class);
+            assertThat(input.readAllBytes()).isEqualTo(original);
+        }
+    }
+}
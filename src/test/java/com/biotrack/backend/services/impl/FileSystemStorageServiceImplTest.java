@@ -0,0 +1,131 @@
+package com.biotrack.backend.services.impl;
+
+import com.biotrack.backend.exceptions.RangeNotSatisfiableException;
+import com.biotrack.backend.services.storage.StoredObjectInfo;
+import com.biotrack.backend.services.storage.StoredObjectStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class FileSystemStorageServiceImplTest {
+
+    @TempDir
+    Path root;
+
+    private FileSystemStorageServiceImpl storage;
+
+    @BeforeEach
+    void setUp() {
+        storage = new FileSystemStorageServiceImpl(root.toString());
+    }
+
+    @Test
+    void uploadTextContent_ShouldRoundTripThroughUrl() {
+        String url = storage.uploadTextContent("{\"gene\":\"BRCA1\"}", "reports/1_abc_genetic_report.json");
+
+        assertThat(url).startsWith("file:");
+        assertThat(storage.extractKeyFromUrl(url)).isEqualTo("reports/1_abc_genetic_report.json");
+        assertThat(storage.downloadFileAsString(url)).isEqualTo("{\"gene\":\"BRCA1\"}");
+        assertThat(storage.headObject("reports/1_abc_genetic_report.json").contentEncoding()).isEqualTo("gzip");
+    }
+
+    @Test
+    void extractKeyFromUrl_ShouldAcceptLegacyS3Urls() {
+        assertThat(storage.extractKeyFromUrl("https://bucket.s3.amazonaws.com/clinical-history/1_x_technical.json"))
+                .isEqualTo("clinical-history/1_x_technical.json");
+    }
+
+    @Test
+    void openObject_ShouldServeRequestedRange() throws Exception {
+        upload("results/1_sample.vcf", "0123456789");
+
+        try (StoredObjectStream object = storage.openObject("results/1_sample.vcf", "bytes=2-5", null)) {
+            assertThat(new String(object.body().readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("2345");
+            assertThat(object.contentRange()).isEqualTo("bytes 2-5/10");
+        }
+        try (StoredObjectStream object = storage.openObject("results/1_sample.vcf", "bytes=-3", null)) {
+            assertThat(new String(object.body().readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("789");
+        }
+    }
+
+    @Test
+    void openObject_TransferTo_ShouldCopyOnlyTheRequestedBytes() throws Exception {
+        upload("results/1_sample.vcf", "0123456789");
+
+        try (StoredObjectStream object = storage.openObject("results/1_sample.vcf", "bytes=2-5", null)) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            assertThat(object.body().transferTo(out)).isEqualTo(4);
+            assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo("2345");
+            // Ya no queda nada por leer del rango
+            assertThat(object.body().read()).isEqualTo(-1);
+        }
+        try (StoredObjectStream object = storage.openObject("results/1_sample.vcf", null, null)) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            assertThat(object.body().read()).isEqualTo('0');
+            object.body().transferTo(out);
+            assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo("123456789");
+        }
+    }
+
+    @Test
+    void openObject_WhenIfRangeDoesNotMatch_ShouldServeWholeObject() throws Exception {
+        upload("results/1_sample.vcf", "0123456789");
+
+        try (StoredObjectStream object = storage.openObject("results/1_sample.vcf", "bytes=2-5", "\"stale\"")) {
+            assertThat(object.isPartial()).isFalse();
+            assertThat(object.contentLength()).isEqualTo(10);
+        }
+    }
+
+    @Test
+    void openObject_WhenRangeStartsPastEnd_ShouldThrow() {
+        upload("results/1_sample.vcf", "0123456789");
+
+        assertThatThrownBy(() -> storage.openObject("results/1_sample.vcf", "bytes=20-", null))
+                .isInstanceOf(RangeNotSatisfiableException.class);
+    }
+
+    @Test
+    void completeMultipartUpload_ShouldConcatenatePartsInOrder() throws Exception {
+        String uploadId = storage.createMultipartUpload("results/1_reads.fastq", "text/plain");
+        Path first = Files.writeString(root.resolve("first.part"), "@read1\n");
+        Path second = Files.writeString(root.resolve("second.part"), "ACGT\n");
+
+        String firstETag = storage.uploadPart("results/1_reads.fastq", uploadId, 1, first);
+        String secondETag = storage.uploadPart("results/1_reads.fastq", uploadId, 2, second);
+        storage.completeMultipartUpload("results/1_reads.fastq", uploadId, List.of(firstETag, secondETag));
+
+        assertThat(new String(storage.downloadFile("results/1_reads.fastq").readAllBytes(), StandardCharsets.UTF_8))
+                .isEqualTo("@read1\nACGT\n");
+    }
+
+    @Test
+    void deleteFiles_ShouldRemoveObjectsAndIgnoreMissingKeys() {
+        upload("results/1_a.txt", "a");
+        upload("results/1_b.txt", "b");
+        upload("reports/1_c.json", "c");
+
+        assertThat(storage.listKeys("results/")).containsExactly("results/1_a.txt", "results/1_b.txt");
+
+        List<String> failed = storage.deleteFiles(List.of("results/1_a.txt", "results/missing.txt"));
+
+        assertThat(failed).isEmpty();
+        StoredObjectInfo deleted = storage.headObject("results/1_a.txt");
+        assertThat(deleted).isNull();
+        assertThat(storage.listKeys("results/")).containsExactly("results/1_b.txt");
+    }
+
+    private void upload(String key, String content) {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        storage.uploadStreamContent(new ByteArrayInputStream(bytes), key, "text/plain", bytes.length);
+    }
+}
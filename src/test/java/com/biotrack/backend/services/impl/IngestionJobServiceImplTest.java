@@ -0,0 +1,117 @@
+package com.biotrack.backend.services.impl;
+
+import com.biotrack.backend.dto.IngestionProgressDTO;
+import com.biotrack.backend.models.IngestionJob;
+import com.biotrack.backend.models.ResultFile;
+import com.biotrack.backend.models.enums.IngestionJobStatus;
+import com.biotrack.backend.repositories.IngestionJobRepository;
+import com.biotrack.backend.repositories.ResultFileRepository;
+import com.biotrack.backend.services.MutationService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IngestionJobServiceImplTest {
+
+    private static final UUID FILE_ID = UUID.fromString("00000000-0000-0000-0000-0000000000f1");
+
+    @Mock
+    private IngestionJobRepository ingestionJobRepository;
+
+    @Mock
+    private ResultFileRepository resultFileRepository;
+
+    @Mock
+    private MutationService mutationService;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private IngestionJobServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        service = new IngestionJobServiceImpl(ingestionJobRepository, resultFileRepository, mutationService,
+                jdbcTemplate, 2, 5, 300_000, 5_000, 600_000, 60_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void getProgress_WhileProcessing_ShouldReportPercentAndThroughput() {
+        LocalDateTime startedAt = LocalDateTime.now().minusSeconds(10);
+        ResultFile resultFile = ResultFile.builder()
+                .id(FILE_ID)
+                .fileSize(1000L)
+                .bytesProcessed(250L)
+                .rowsRead(50_000L)
+                .rowsInserted(49_990L)
+                .rowsRejected(10L)
+                .processingStatus("PROCESSING")
+                .processingStartedAt(startedAt)
+                .build();
+        when(resultFileRepository.findById(FILE_ID)).thenReturn(Optional.of(resultFile));
+        when(ingestionJobRepository.findByResultFileId(FILE_ID)).thenReturn(Optional.of(IngestionJob.builder()
+                .resultFileId(FILE_ID)
+                .status(IngestionJobStatus.RUNNING)
+                .attempts(1)
+                .build()));
+
+        IngestionProgressDTO progress = service.getProgress(FILE_ID);
+
+        assertThat(progress.jobStatus()).isEqualTo("RUNNING");
+        assertThat(progress.percent()).isEqualTo(25);
+        assertThat(progress.rowsInserted()).isEqualTo(49_990L);
+        assertThat(progress.rowsRejected()).isEqualTo(10L);
+        // ~5000 filas/s; holgura por el tiempo que pasa entre armar el archivo y calcular
+        assertThat(progress.rowsPerSecond()).isBetween(4_000.0, 5_001.0);
+    }
+
+    @Test
+    void enqueue_FailedJob_ShouldQueueItAgain() {
+        ResultFile resultFile = ResultFile.builder().id(FILE_ID).processingStatus("FAILED").build();
+        IngestionJob job = IngestionJob.builder()
+                .resultFileId(FILE_ID)
+                .status(IngestionJobStatus.FAILED)
+                .attempts(5)
+                .lastError("S3 timeout")
+                .build();
+        when(resultFileRepository.findById(FILE_ID)).thenReturn(Optional.of(resultFile));
+        when(ingestionJobRepository.findByResultFileId(FILE_ID)).thenReturn(Optional.of(job));
+
+        IngestionProgressDTO progress = service.enqueue(FILE_ID);
+
+        verify(ingestionJobRepository).save(job);
+        assertThat(job.getStatus()).isEqualTo(IngestionJobStatus.QUEUED);
+        assertThat(job.getAttempts()).isZero();
+        assertThat(job.getLastError()).isNull();
+        assertThat(resultFile.getProcessingStatus()).isEqualTo("QUEUED");
+        assertThat(progress.jobStatus()).isEqualTo("QUEUED");
+    }
+
+    @Test
+    void enqueue_UnknownFile_ShouldThrowNotFound() {
+        when(resultFileRepository.findById(FILE_ID)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> service.enqueue(FILE_ID))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("not found");
+        verify(ingestionJobRepository, never()).save(any());
+    }
+}
@@ -0,0 +1,148 @@
+package com.biotrack.backend.services.impl;
+
+import com.biotrack.backend.models.ClinicalHistoryRecord;
+import com.biotrack.backend.models.Report;
+import com.biotrack.backend.repositories.ClinicalHistoryRecordRepository;
+import com.biotrack.backend.repositories.ReportRepository;
+import com.biotrack.backend.services.BulkDeletionService;
+import com.biotrack.backend.services.S3Service;
+import com.biotrack.backend.services.storage.ObjectKeyStrategy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ObjectKeyMigrationServiceImplTest {
+
+    private static final String BUCKET_URL = "https://bucket.s3.amazonaws.com/";
+    private static final String TECHNICAL_KEY = "clinical-history/1_patient_technical.json";
+    private static final String REPORT_KEY = "reports/1_report_genetic_report.json";
+
+    @Mock
+    private ReportRepository reportRepository;
+
+    @Mock
+    private ClinicalHistoryRecordRepository clinicalHistoryRecordRepository;
+
+    @Mock
+    private S3Service s3Service;
+
+    @Mock
+    private BulkDeletionService bulkDeletionService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private ObjectKeyMigrationServiceImpl migrationService;
+
+    @BeforeEach
+    void setUp() {
+        migrationService = new ObjectKeyMigrationServiceImpl(reportRepository, clinicalHistoryRecordRepository,
+                s3Service, bulkDeletionService, transactionTemplate);
+        ReflectionTestUtils.setField(migrationService, "batchSize", 10);
+        ReflectionTestUtils.setField(migrationService, "deleteAfterMinutes", 60L);
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        lenient().when(s3Service.getObjectUrl(anyString())).thenAnswer(invocation -> BUCKET_URL + invocation.getArgument(0));
+    }
+
+    @Test
+    void migrateClinicalHistory_WithoutPatientDocument_ShouldMigrateOnlyTheTechnicalOne() {
+        // Registro anterior a las keys: solo URL técnica y ninguna versión para el paciente
+        ClinicalHistoryRecord record = ClinicalHistoryRecord.builder()
+                .id(UUID.randomUUID())
+                .s3Url(BUCKET_URL + TECHNICAL_KEY)
+                .build();
+        when(clinicalHistoryRecordRepository.findWithLegacyKeysAfter(any(), any())).thenReturn(List.of(record));
+        when(s3Service.extractKeyFromUrl(BUCKET_URL + TECHNICAL_KEY)).thenReturn(TECHNICAL_KEY);
+
+        assertThat(migrationService.migrateClinicalHistory()).isEqualTo(1);
+
+        String newKey = ObjectKeyStrategy.toHashPrefixed(TECHNICAL_KEY);
+        assertThat(record.getS3Key()).isEqualTo(newKey);
+        assertThat(record.getS3Url()).isEqualTo(BUCKET_URL + newKey);
+        assertThat(record.getS3KeyPatient()).isNull();
+        assertThat(record.getS3UrlPatient()).isNull();
+        verify(s3Service).copyObject(TECHNICAL_KEY, newKey);
+        verify(s3Service, never()).extractKeyFromUrl(isNull());
+        verify(s3Service, never()).getObjectUrl(isNull());
+        verify(clinicalHistoryRecordRepository).saveAll(List.of(record));
+        verify(bulkDeletionService).enqueueStorageDeletion(List.of(TECHNICAL_KEY), Duration.ofMinutes(60));
+    }
+
+    @Test
+    void migrateClinicalHistory_AlreadyHashPrefixedKey_ShouldNotCopyIt() {
+        String migratedKey = ObjectKeyStrategy.toHashPrefixed(TECHNICAL_KEY);
+        String patientKey = "clinical-history/1_patient_patient_friendly.json";
+        ClinicalHistoryRecord record = ClinicalHistoryRecord.builder()
+                .id(UUID.randomUUID())
+                .s3Key(migratedKey)
+                .s3Url(BUCKET_URL + migratedKey)
+                .s3KeyPatient(patientKey)
+                .s3UrlPatient(BUCKET_URL + patientKey)
+                .build();
+        when(clinicalHistoryRecordRepository.findWithLegacyKeysAfter(any(), any())).thenReturn(List.of(record));
+
+        migrationService.migrateClinicalHistory();
+
+        verify(s3Service, never()).copyObject(eq(migratedKey), anyString());
+        verify(s3Service).copyObject(patientKey, ObjectKeyStrategy.toHashPrefixed(patientKey));
+        assertThat(record.getS3Key()).isEqualTo(migratedKey);
+        assertThat(record.getS3KeyPatient()).isEqualTo(ObjectKeyStrategy.toHashPrefixed(patientKey));
+        verify(bulkDeletionService).enqueueStorageDeletion(List.of(patientKey), Duration.ofMinutes(60));
+    }
+
+    @Test
+    void migrateClinicalHistory_WhenCopyFails_ShouldKeepOldKeysAndContinue() {
+        ClinicalHistoryRecord broken = ClinicalHistoryRecord.builder()
+                .id(UUID.randomUUID())
+                .s3Key("clinical-history/broken.json")
+                .build();
+        ClinicalHistoryRecord ok = ClinicalHistoryRecord.builder()
+                .id(UUID.randomUUID())
+                .s3Key(TECHNICAL_KEY)
+                .build();
+        when(clinicalHistoryRecordRepository.findWithLegacyKeysAfter(any(), any())).thenReturn(List.of(broken, ok));
+        doThrow(new RuntimeException("NoSuchKey")).when(s3Service).copyObject(eq("clinical-history/broken.json"), anyString());
+
+        assertThat(migrationService.migrateClinicalHistory()).isEqualTo(1);
+
+        assertThat(broken.getS3Key()).isEqualTo("clinical-history/broken.json");
+        verify(clinicalHistoryRecordRepository).saveAll(List.of(ok));
+    }
+
+    @Test
+    void migrateReports_ShouldRewriteKeysAndUrlsInBatches() {
+        ReflectionTestUtils.setField(migrationService, "batchSize", 1);
+        Report first = Report.builder().id(new UUID(0L, 1L)).s3Key(REPORT_KEY).s3Url(BUCKET_URL + REPORT_KEY).build();
+        Report second = Report.builder().id(new UUID(0L, 2L)).s3KeyPatient("reports/2_report_patient.txt").build();
+        when(reportRepository.findWithLegacyKeysAfter(any(), any()))
+                .thenReturn(List.of(first), List.of(second), List.of());
+
+        assertThat(migrationService.migrateReports()).isEqualTo(2);
+
+        assertThat(first.getS3Url()).isEqualTo(BUCKET_URL + ObjectKeyStrategy.toHashPrefixed(REPORT_KEY));
+        assertThat(second.getS3Key()).isNull();
+        assertThat(second.getS3KeyPatient()).isEqualTo(ObjectKeyStrategy.toHashPrefixed("reports/2_report_patient.txt"));
+        // Cada lote continúa después del último id entregado
+        verify(reportRepository).findWithLegacyKeysAfter(eq(new UUID(0L, 0L)), any());
+        verify(reportRepository).findWithLegacyKeysAfter(eq(first.getId()), any());
+        verify(reportRepository).findWithLegacyKeysAfter(eq(second.getId()), any());
+    }
+}
@@ -3,6 +3,8 @@ package com.biotrack.backend.services.impl;
 import com.biotrack.backend.models.Patient;
 import com.biotrack.backend.models.enums.Gender;
 import com.biotrack.backend.repositories.PatientRepository;
+import com.biotrack.backend.services.BulkDeletionService;
+import com.biotrack.backend.services.PatientSearchService;
 import com.biotrack.backend.services.impl.PatientServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -33,6 +35,12 @@ class PatientServiceImplTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private PatientSearchService patientSearchService;
+
+    @Mock
+    private BulkDeletionService bulkDeletionService;
+
     @InjectMocks
     private PatientServiceImpl patientService;
 
@@ -202,29 +210,26 @@ class PatientServiceImplTest {
     @Test
     void deleteById_WithExistingPatient_ShouldDeleteSuccessfully() {
         // Given
-        when(patientRepository.existsById(testPatientId)).thenReturn(true);
-        doNothing().when(patientRepository).deleteById(testPatientId);
+        doNothing().when(bulkDeletionService).deletePatient(testPatientId);
 
         // When
         patientService.deleteById(testPatientId);
 
         // Then
-        verify(patientRepository, times(1)).existsById(testPatientId);
-        verify(patientRepository, times(1)).deleteById(testPatientId);
+        verify(bulkDeletionService, times(1)).deletePatient(testPatientId);
     }
 
     @Test
     void deleteById_WithNonExistingPatient_ShouldThrowException() {
         // Given
         UUID nonExistentId = UUID.randomUUID();
-        when(patientRepository.existsById(nonExistentId)).thenReturn(false);
+        doThrow(new RuntimeException("Patient not found")).when(bulkDeletionService).deletePatient(nonExistentId);
 
         // When & Then
         assertThatThrownBy(() -> patientService.deleteById(nonExistentId))
                 .isInstanceOf(RuntimeException.class)
                 .hasMessageContaining("Patient not found");
-        
-        verify(patientRepository, times(1)).existsById(nonExistentId);
+
         verify(patientRepository, never()).deleteById(nonExistentId);
     }
 
@@ -234,11 +239,10 @@ class PatientServiceImplTest {
         String firstName = "John";
         String lastName = "Doe";
         List<Patient> expectedPatients = Arrays.asList(testPatient);
-        when(patientRepository.findByFirstNameContainingIgnoreCaseAndLastNameContainingIgnoreCase(firstName, lastName))
-                .thenReturn(expectedPatients);
+        when(patientSearchService.searchByName("John", "Doe", null)).thenReturn(expectedPatients);
 
         // When
-        List<Patient> result = patientService.searchPatients(firstName, lastName);
+        List<Patient> result = patientService.searchPatients(firstName, lastName, null);
 
         // Then
         assertThat(result).isNotNull();
@@ -246,8 +250,7 @@ class PatientServiceImplTest {
         assertThat(result.get(0).getFirstName()).isEqualTo("John");
         assertThat(result.get(0).getLastName()).isEqualTo("Doe");
         
-        verify(patientRepository, times(1))
-                .findByFirstNameContainingIgnoreCaseAndLastNameContainingIgnoreCase(firstName, lastName);
+        verify(patientSearchService, times(1)).searchByName("John", "Doe", null);
     }
 
     @Test
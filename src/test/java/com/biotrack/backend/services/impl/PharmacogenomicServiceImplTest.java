@@ -0,0 +1,149 @@
+package com.biotrack.backend.services.impl;
+
+import com.biotrack.backend.dto.PharmacogenomicAlertDTO;
+import com.biotrack.backend.models.Medication;
+import com.biotrack.backend.models.Mutation;
+import com.biotrack.backend.models.enums.Relevance;
+import com.biotrack.backend.repositories.MutationRepository;
+import com.biotrack.backend.services.genomics.PharmacogenomicIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PharmacogenomicServiceImplTest {
+
+    private static final UUID PATIENT_ID = UUID.fromString("00000000-0000-0000-0000-0000000000a1");
+
+    @Mock
+    private MutationRepository mutationRepository;
+
+    private PharmacogenomicServiceImpl pharmacogenomicService;
+
+    @BeforeEach
+    void setUp() {
+        pharmacogenomicService = new PharmacogenomicServiceImpl(mutationRepository, "", 25, Relevance.MEDIUM);
+    }
+
+    @Test
+    void checkSubstance_WithRelevantVariant_ShouldKeepGuidelineAction() {
+        when(mutationRepository.countByPatientIdAndGeneSymbolIn(eq(PATIENT_ID), anyCollection()))
+                .thenReturn(List.<Object[]>of(new Object[]{"CYP2C19", Relevance.HIGH, 1L}));
+
+        List<PharmacogenomicAlertDTO> alerts = pharmacogenomicService.checkSubstance(PATIENT_ID, "Clopidogrel bisulfato");
+
+        assertThat(alerts).singleElement().satisfies(alert -> {
+            assertThat(alert.gene()).isEqualTo("CYP2C19");
+            assertThat(alert.action()).isEqualTo(PharmacogenomicIndex.ACTION_AVOID);
+            assertThat(alert.variantRelevance()).isEqualTo("HIGH");
+        });
+    }
+
+    @Test
+    void checkSubstance_WithOnlyLowVariants_ShouldDowngradeToMonitor() {
+        when(mutationRepository.countByPatientIdAndGeneSymbolIn(eq(PATIENT_ID), anyCollection()))
+                .thenReturn(List.<Object[]>of(new Object[]{"CYP2C19", Relevance.LOW, 3L}));
+
+        List<PharmacogenomicAlertDTO> alerts = pharmacogenomicService.checkSubstance(PATIENT_ID, "clopidogrel");
+
+        assertThat(alerts).singleElement().satisfies(alert -> {
+            assertThat(alert.action()).isEqualTo(PharmacogenomicIndex.ACTION_MONITOR);
+            assertThat(alert.variantRelevance()).isEqualTo("LOW");
+            assertThat(alert.variantCount()).isEqualTo(3);
+        });
+    }
+
+    @Test
+    void checkSubstance_MixedRelevance_ShouldUseHighestAndAddCounts() {
+        when(mutationRepository.countByPatientIdAndGeneSymbolIn(eq(PATIENT_ID), anyCollection()))
+                .thenReturn(List.<Object[]>of(
+                        new Object[]{"CYP2C9", Relevance.LOW, 2L},
+                        new Object[]{"CYP2C9", Relevance.MEDIUM, 1L}));
+
+        List<PharmacogenomicAlertDTO> alerts = pharmacogenomicService.checkSubstance(PATIENT_ID, "Warfarina");
+
+        assertThat(alerts).filteredOn(alert -> alert.gene().equals("CYP2C9")).singleElement().satisfies(alert -> {
+            assertThat(alert.action()).isEqualTo(PharmacogenomicIndex.ACTION_ADJUST_DOSE);
+            assertThat(alert.variantRelevance()).isEqualTo("MEDIUM");
+            assertThat(alert.variantCount()).isEqualTo(3);
+        });
+    }
+
+    @Test
+    void checkSubstance_WithoutGuidelines_ShouldNotQueryMutations() {
+        assertThat(pharmacogenomicService.checkSubstance(PATIENT_ID, "paracetamol")).isEmpty();
+
+        verifyNoInteractions(mutationRepository);
+    }
+
+    @Test
+    void checkSubstance_BlankSubstance_ShouldThrow() {
+        assertThatThrownBy(() -> pharmacogenomicService.checkSubstance(PATIENT_ID, " "))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void checkMedications_ShouldSortAvoidBeforeMonitor() {
+        when(mutationRepository.countByPatientIdAndGeneSymbolIn(eq(PATIENT_ID), anyCollection()))
+                .thenReturn(List.<Object[]>of(
+                        new Object[]{"CYP2C19", Relevance.LOW, 1L},
+                        new Object[]{"CYP2D6", Relevance.HIGH, 1L}));
+        Medication clopidogrel = medication("Plavix", "clopidogrel");
+        Medication codeine = medication("Tylenol 3", "Paracetamol + Codeína");
+
+        List<PharmacogenomicAlertDTO> alerts = pharmacogenomicService.checkMedications(PATIENT_ID, List.of(clopidogrel, codeine));
+
+        assertThat(alerts).extracting(PharmacogenomicAlertDTO::medicationId, PharmacogenomicAlertDTO::action)
+                .containsExactly(
+                        tuple(codeine.getId(), PharmacogenomicIndex.ACTION_AVOID),
+                        tuple(clopidogrel.getId(), PharmacogenomicIndex.ACTION_MONITOR));
+        verify(mutationRepository, times(1)).countByPatientIdAndGeneSymbolIn(eq(PATIENT_ID), anyCollection());
+    }
+
+    @Test
+    void findingsForMutations_ShouldApplyConfiguredMinimumRelevance() {
+        List<Mutation> mutations = List.of(Mutation.builder().gene("cyp2c19").relevance(Relevance.LOW).build());
+        Medication clopidogrel = medication("Plavix", "clopidogrel");
+
+        List<PharmacogenomicAlertDTO> findings = pharmacogenomicService.findingsForMutations(mutations, List.of(clopidogrel));
+
+        // La del medicamento actual va primero y también baja a MONITOR
+        assertThat(findings.get(0).medicationId()).isEqualTo(clopidogrel.getId());
+        assertThat(findings).extracting(PharmacogenomicAlertDTO::action).containsOnly(PharmacogenomicIndex.ACTION_MONITOR);
+
+        PharmacogenomicServiceImpl permissive = new PharmacogenomicServiceImpl(mutationRepository, "", 25, Relevance.LOW);
+        assertThat(permissive.findingsForMutations(mutations, List.of(clopidogrel)).get(0).action())
+                .isEqualTo(PharmacogenomicIndex.ACTION_AVOID);
+    }
+
+    @Test
+    void findingsForMutations_ShouldCapOtherFindingsButKeepCurrentMedications() {
+        PharmacogenomicServiceImpl capped = new PharmacogenomicServiceImpl(mutationRepository, "", 1, Relevance.MEDIUM);
+        List<Mutation> mutations = List.of(
+                Mutation.builder().gene("CYP2C19").relevance(Relevance.HIGH).build(),
+                Mutation.builder().gene("CYP2D6").relevance(Relevance.HIGH).build());
+        Medication clopidogrel = medication("Plavix", "clopidogrel");
+        Medication codeine = medication("Codeína", "codeine");
+
+        List<PharmacogenomicAlertDTO> findings = capped.findingsForMutations(mutations, List.of(clopidogrel, codeine));
+
+        assertThat(findings).hasSize(2).allSatisfy(finding -> assertThat(finding.medicationId()).isNotNull());
+    }
+
+    private static Medication medication(String name, String activeSubstance) {
+        return Medication.builder()
+                .id(UUID.randomUUID())
+                .name(name)
+                .activeSubstance(activeSubstance)
+                .build();
+    }
+}
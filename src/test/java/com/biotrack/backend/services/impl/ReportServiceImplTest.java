@@ -0,0 +1,152 @@
+package com.biotrack.backend.services.impl;
+
+import com.biotrack.backend.dto.ReportBatchItemDTO;
+import com.biotrack.backend.models.Report;
+import com.biotrack.backend.repositories.InlineDocumentRepository;
+import com.biotrack.backend.repositories.MedicationRepository;
+import com.biotrack.backend.repositories.MutationRepository;
+import com.biotrack.backend.repositories.ReportRepository;
+import com.biotrack.backend.services.*;
+import com.biotrack.backend.services.pagination.KeysetPaginator;
+import com.biotrack.backend.services.storage.ParsedReportCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReportServiceImplTest {
+
+    private static final UUID SLOW_ID = new UUID(0L, 1L);
+    private static final UUID FAST_ID = new UUID(0L, 2L);
+    private static final UUID MISSING_ID = new UUID(0L, 3L);
+    private static final String SLOW_KEY = "reports/aa/01/1_report.txt";
+    private static final String FAST_KEY = "reports/bb/02/2_report.txt";
+
+    @Mock
+    private ReportRepository reportRepository;
+
+    @Mock
+    private S3Service s3Service;
+
+    @Mock
+    private ReportSpoolService reportSpoolService;
+
+    @Mock
+    private ParsedReportCache parsedReportCache;
+
+    private ReportServiceImpl reportService;
+
+    @BeforeEach
+    void setUp() {
+        reportService = new ReportServiceImpl(reportRepository, mock(MutationRepository.class), mock(SampleService.class),
+                mock(OpenAIService.class), s3Service, mock(PatientService.class), mock(GeneticSampleService.class),
+                new ObjectMapper(), mock(EmailService.class), reportSpoolService, mock(PresignService.class),
+                parsedReportCache, mock(BulkDeletionService.class), mock(InlineDocumentRepository.class),
+                mock(VariantFrequencyService.class), mock(PharmacogenomicService.class),
+                mock(MedicationRepository.class), mock(KeysetPaginator.class));
+        ReflectionTestUtils.setField(reportService, "batchMaxSize", 10);
+        ReflectionTestUtils.setField(reportService, "batchMaxConcurrency", 4);
+        // Estudios médicos (sin muestra genética): el contenido de texto se entrega tal cual
+        lenient().when(reportRepository.findStorageKeysByIdIn(anyCollection())).thenReturn(List.of(
+                new Object[]{SLOW_ID, SLOW_KEY, null, null},
+                new Object[]{FAST_ID, FAST_KEY, null, null}));
+    }
+
+    @Test
+    void streamReports_ShouldDeliverEachItemAsSoonAsItIsReadyOnTheCallingThread() {
+        CountDownLatch fastDelivered = new CountDownLatch(1);
+        // El primer reporte pedido no termina hasta que el segundo ya llegó al sink
+        when(reportSpoolService.read(SLOW_KEY)).thenAnswer(invocation -> {
+            assertThat(fastDelivered.await(5, TimeUnit.SECONDS)).isTrue();
+            return Optional.of("slow report");
+        });
+        when(reportSpoolService.read(FAST_KEY)).thenReturn(Optional.of("fast report"));
+        Thread caller = Thread.currentThread();
+        List<ReportBatchItemDTO> items = new ArrayList<>();
+
+        reportService.streamReports(List.of(SLOW_ID, MISSING_ID, FAST_ID), false, item -> {
+            assertThat(Thread.currentThread()).isSameAs(caller);
+            items.add(item);
+            if (FAST_ID.equals(item.reportId())) {
+                fastDelivered.countDown();
+            }
+        });
+
+        assertThat(items).extracting(ReportBatchItemDTO::reportId, ReportBatchItemDTO::status, ReportBatchItemDTO::report)
+                .containsExactly(
+                        tuple(MISSING_ID, "ERROR", null),
+                        tuple(FAST_ID, "OK", "fast report"),
+                        tuple(SLOW_ID, "OK", "slow report"));
+        verify(reportRepository, times(1)).findStorageKeysByIdIn(anyCollection());
+        verifyNoInteractions(s3Service);
+    }
+
+    @Test
+    void streamReports_WhenSinkFails_ShouldCancelPendingDownloads() throws Exception {
+        CountDownLatch slowStarted = new CountDownLatch(1);
+        CountDownLatch slowCancelled = new CountDownLatch(1);
+        when(reportSpoolService.read(SLOW_KEY)).thenAnswer(invocation -> {
+            slowStarted.countDown();
+            try {
+                new CountDownLatch(1).await();
+            } catch (InterruptedException e) {
+                slowCancelled.countDown();
+                throw e;
+            }
+            return Optional.empty();
+        });
+        // El segundo reporte espera a que la descarga del primero ya esté en curso
+        when(reportSpoolService.read(FAST_KEY)).thenAnswer(invocation -> {
+            assertThat(slowStarted.await(5, TimeUnit.SECONDS)).isTrue();
+            return Optional.of("fast report");
+        });
+
+        // El cliente se desconecta al escribir la primera línea
+        assertThatThrownBy(() -> reportService.streamReports(List.of(SLOW_ID, FAST_ID), false, item -> {
+            throw new UncheckedIOException(new IOException("Broken pipe"));
+        })).isInstanceOf(UncheckedIOException.class);
+
+        assertThat(slowCancelled.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void streamReports_TooManyIds_ShouldThrowBeforeQuerying() {
+        ReflectionTestUtils.setField(reportService, "batchMaxSize", 1);
+
+        assertThatThrownBy(() -> reportService.streamReports(List.of(SLOW_ID, FAST_ID), false, item -> { }))
+                .isInstanceOf(IllegalArgumentException.class);
+        verify(reportRepository, never()).findStorageKeysByIdIn(anyCollection());
+    }
+
+    @Test
+    void getReportDownloadUrl_WithoutPresignService_ShouldBeUnsupported() {
+        // Perfil local-storage: no hay bean de PresignService
+        ReportServiceImpl localService = new ReportServiceImpl(reportRepository, mock(MutationRepository.class),
+                mock(SampleService.class), mock(OpenAIService.class), s3Service, mock(PatientService.class),
+                mock(GeneticSampleService.class), new ObjectMapper(), mock(EmailService.class), reportSpoolService,
+                null, parsedReportCache, mock(BulkDeletionService.class), mock(InlineDocumentRepository.class),
+                mock(VariantFrequencyService.class), mock(PharmacogenomicService.class),
+                mock(MedicationRepository.class), mock(KeysetPaginator.class));
+        when(reportRepository.findById(SLOW_ID)).thenReturn(Optional.of(Report.builder().id(SLOW_ID).s3Key(SLOW_KEY).build()));
+
+        assertThatThrownBy(() -> localService.getReportDownloadUrl(SLOW_ID, false))
+                .isInstanceOf(UnsupportedOperationException.class);
+    }
+}
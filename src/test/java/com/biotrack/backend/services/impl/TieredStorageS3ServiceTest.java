@@ -0,0 +1,106 @@
+package com.biotrack.backend.services.impl;
+
+import com.biotrack.backend.models.InlineDocument;
+import com.biotrack.backend.repositories.InlineDocumentRepository;
+import com.biotrack.backend.services.S3Service;
+import com.biotrack.backend.utils.CompressionUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TieredStorageS3ServiceTest {
+
+    private static final String SMALL_KEY = "reports/ab/cd/1_id_patient_friendly_report.txt";
+
+    @Mock
+    private S3Service backend;
+
+    @Mock
+    private InlineDocumentRepository inlineDocumentRepository;
+
+    private TieredStorageS3Service storage;
+
+    @BeforeEach
+    void setUp() {
+        storage = new TieredStorageS3Service(backend, inlineDocumentRepository, 1024, "reports/,clinical-history/");
+    }
+
+    @Test
+    void uploadTextContent_SmallDocument_ShouldBeStoredInline() {
+        when(backend.getObjectUrl(SMALL_KEY)).thenReturn("https://bucket.s3.amazonaws.com/" + SMALL_KEY);
+
+        String url = storage.uploadTextContent("{\"summary\":\"ok\"}", SMALL_KEY);
+
+        ArgumentCaptor<InlineDocument> saved = ArgumentCaptor.forClass(InlineDocument.class);
+        verify(inlineDocumentRepository).save(saved.capture());
+        assertThat(saved.getValue().getStorageKey()).isEqualTo(SMALL_KEY);
+        assertThat(new String(CompressionUtils.gunzip(saved.getValue().getContent()), StandardCharsets.UTF_8))
+                .isEqualTo("{\"summary\":\"ok\"}");
+        assertThat(url).isEqualTo("https://bucket.s3.amazonaws.com/" + SMALL_KEY);
+        verify(backend, never()).uploadTextContent(anyString(), anyString());
+    }
+
+    @Test
+    void uploadTextContent_LargeDocument_ShouldGoToBackend() {
+        String content = "x".repeat(2048);
+
+        storage.uploadTextContent(content, SMALL_KEY);
+
+        verify(backend).uploadTextContent(content, SMALL_KEY);
+        verifyNoInteractions(inlineDocumentRepository);
+    }
+
+    @Test
+    void downloadTextContent_ShouldPreferInlineCopy() {
+        when(inlineDocumentRepository.findById(SMALL_KEY)).thenReturn(Optional.of(inline(SMALL_KEY, "hola")));
+
+        assertThat(storage.downloadTextContent(SMALL_KEY)).isEqualTo("hola");
+        verify(backend, never()).downloadTextContent(anyString());
+    }
+
+    @Test
+    void downloadTextContent_OtherPrefix_ShouldNotQueryTable() {
+        when(backend.downloadTextContent("result-files/a.vcf")).thenReturn("data");
+
+        assertThat(storage.downloadTextContent("result-files/a.vcf")).isEqualTo("data");
+        verifyNoInteractions(inlineDocumentRepository);
+    }
+
+    @Test
+    void deleteFiles_ShouldSplitInlineAndStoredKeys() {
+        String storedKey = "reports/12/34/2_id_genetic_report.txt";
+        when(inlineDocumentRepository.findExistingKeys(anyList())).thenReturn(List.of(SMALL_KEY));
+        when(backend.deleteFiles(List.of(storedKey))).thenReturn(List.of());
+
+        List<String> failed = storage.deleteFiles(List.of(SMALL_KEY, storedKey));
+
+        assertThat(failed).isEmpty();
+        verify(inlineDocumentRepository).deleteAllByIdInBatch(Set.of(SMALL_KEY));
+        verify(backend).deleteFiles(List.of(storedKey));
+    }
+
+    private InlineDocument inline(String key, String content) {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        return InlineDocument.builder()
+                .storageKey(key)
+                .content(CompressionUtils.gzip(bytes))
+                .contentType("text/plain")
+                .originalSize((long) bytes.length)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+}
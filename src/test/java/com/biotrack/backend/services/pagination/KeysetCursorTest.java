@@ -0,0 +1,44 @@
+package com.biotrack.backend.services.pagination;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+
+class KeysetCursorTest {
+
+    @Test
+    void encode_ShouldRoundTripTimestampAndId() {
+        KeysetCursor cursor = new KeysetCursor(LocalDateTime.of(2024, 5, 17, 10, 30, 15, 123_456_789), UUID.randomUUID());
+
+        assertThat(KeysetCursor.decode(cursor.encode())).isEqualTo(cursor);
+        assertThat(KeysetCursor.decode(KeysetCursor.NEWEST.encode())).isEqualTo(KeysetCursor.NEWEST);
+        assertThat(KeysetCursor.decode(KeysetCursor.LOWEST_ID.encode())).isEqualTo(KeysetCursor.LOWEST_ID);
+        assertThat(KeysetCursor.of(LocalDate.of(2024, 5, 17), cursor.id()).date()).isEqualTo(LocalDate.of(2024, 5, 17));
+    }
+
+    @Test
+    void decode_Garbage_ShouldThrowIllegalArgument() {
+        assertThatThrownBy(() -> KeysetCursor.decode("not a cursor!")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> KeysetCursor.decode("AAAA")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void page_ShouldTrimExtraRowAndCapSize() {
+        KeysetPaginator paginator = new KeysetPaginator(2, 3);
+        List<UUID> ids = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+
+        KeysetPaginator.Request request = paginator.byId(null, null);
+        KeysetPage<UUID> page = paginator.page(ids, request, id -> new KeysetCursor(null, id));
+
+        assertThat(page.items()).containsExactly(ids.get(0), ids.get(1));
+        assertThat(KeysetCursor.decode(page.nextCursor()).id()).isEqualTo(ids.get(1));
+        assertThat(paginator.page(ids.subList(0, 2), request, id -> new KeysetCursor(null, id)).hasNext()).isFalse();
+        assertThat(paginator.byId(null, 500).size()).isEqualTo(3);
+        assertThatThrownBy(() -> paginator.byId(null, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
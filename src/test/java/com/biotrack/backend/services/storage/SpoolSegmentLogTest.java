@@ -0,0 +1,119 @@
+package com.biotrack.backend.services.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+
+class SpoolSegmentLogTest {
+
+    private static final String FIRST_KEY = "reports/ab/cd/1_first.txt";
+    private static final String SECOND_KEY = "reports/ef/01/2_second.txt";
+    private static final byte[] FIRST = "first document".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] SECOND = "second document, a bit longer".getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replay_WithRecordCutMidway_ShouldTruncateTailAndKeepEarlierRecords() throws IOException {
+        try (SpoolSegmentLog log = new SpoolSegmentLog(directory, 1 << 20)) {
+            log.put(FIRST_KEY, FIRST);
+            log.put(SECOND_KEY, SECOND);
+        }
+        Path segment = onlySegment();
+        long firstRecordEnd = recordBytes(FIRST_KEY, FIRST);
+        // Escritura cortada a la mitad del payload del segundo registro
+        cut(segment, firstRecordEnd + 9 + SECOND_KEY.length() + 4 + SECOND.length / 2);
+
+        try (SpoolSegmentLog log = new SpoolSegmentLog(directory, 1 << 20)) {
+            assertThat(log.pendingKeys()).containsExactly(FIRST_KEY);
+            assertThat(log.read(FIRST_KEY)).isEqualTo(FIRST);
+            assertThat(log.contains(SECOND_KEY)).isFalse();
+            assertThat(Files.size(segment)).isEqualTo(firstRecordEnd);
+
+            // Lo que se escriba después de recuperar queda detrás del último registro válido
+            log.put(SECOND_KEY, SECOND);
+        }
+        try (SpoolSegmentLog log = new SpoolSegmentLog(directory, 1 << 20)) {
+            assertThat(log.pendingKeys()).containsExactlyInAnyOrder(FIRST_KEY, SECOND_KEY);
+            assertThat(log.read(SECOND_KEY)).isEqualTo(SECOND);
+        }
+    }
+
+    @Test
+    void replay_WithHeaderCutMidway_ShouldTruncateTail() throws IOException {
+        try (SpoolSegmentLog log = new SpoolSegmentLog(directory, 1 << 20)) {
+            log.put(FIRST_KEY, FIRST);
+            log.put(SECOND_KEY, SECOND);
+        }
+        Path segment = onlySegment();
+        long firstRecordEnd = recordBytes(FIRST_KEY, FIRST);
+        cut(segment, firstRecordEnd + 3);
+
+        try (SpoolSegmentLog log = new SpoolSegmentLog(directory, 1 << 20)) {
+            assertThat(log.pendingKeys()).containsExactly(FIRST_KEY);
+            assertThat(Files.size(segment)).isEqualTo(firstRecordEnd);
+        }
+    }
+
+    @Test
+    void replay_WithCorruptedChecksum_ShouldDropTheRecord() throws IOException {
+        try (SpoolSegmentLog log = new SpoolSegmentLog(directory, 1 << 20)) {
+            log.put(FIRST_KEY, FIRST);
+            log.put(SECOND_KEY, SECOND);
+        }
+        Path segment = onlySegment();
+        long secondPayload = recordBytes(FIRST_KEY, FIRST) + 9 + SECOND_KEY.length() + 4;
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{'X'}), secondPayload);
+        }
+
+        try (SpoolSegmentLog log = new SpoolSegmentLog(directory, 1 << 20)) {
+            assertThat(log.pendingKeys()).containsExactly(FIRST_KEY);
+        }
+    }
+
+    @Test
+    void replay_ShouldForgetAcknowledgedDocuments() throws IOException {
+        try (SpoolSegmentLog log = new SpoolSegmentLog(directory, 1 << 20)) {
+            log.put(FIRST_KEY, FIRST);
+            log.put(SECOND_KEY, SECOND);
+            log.ack(FIRST_KEY);
+        }
+
+        try (SpoolSegmentLog log = new SpoolSegmentLog(directory, 1 << 20)) {
+            assertThat(log.pendingKeys()).containsExactly(SECOND_KEY);
+            assertThat(log.read(FIRST_KEY)).isNull();
+        }
+    }
+
+    // [magic int][tipo byte][keyLen int][key][payloadLen int][payload][crc32 long]
+    private static long recordBytes(String key, byte[] payload) {
+        return 9 + key.getBytes(StandardCharsets.UTF_8).length + 4 + payload.length + 8;
+    }
+
+    private static void cut(Path segment, long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(size);
+        }
+    }
+
+    private Path onlySegment() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> segments = files.filter(path -> path.getFileName().toString().endsWith(".log")).toList();
+            assertThat(segments).hasSize(1);
+            return segments.get(0);
+        }
+    }
+}
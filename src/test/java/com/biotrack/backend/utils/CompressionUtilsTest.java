@@ -0,0 +1,53 @@
+package com.biotrack.backend.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompressionUtilsTest {
+
+    @Test
+    void acceptsGzip_ShouldHonourTokensAndQualityValues() {
+        assertThat(CompressionUtils.acceptsGzip("gzip")).isTrue();
+        assertThat(CompressionUtils.acceptsGzip("br, GZIP;q=0.5, deflate")).isTrue();
+        assertThat(CompressionUtils.acceptsGzip("x-gzip")).isTrue();
+        assertThat(CompressionUtils.acceptsGzip("*")).isTrue();
+        // q=0 es un rechazo explícito, también escrito con decimales
+        assertThat(CompressionUtils.acceptsGzip("gzip;q=0")).isFalse();
+        assertThat(CompressionUtils.acceptsGzip("gzip ; q=0.000, br")).isFalse();
+        assertThat(CompressionUtils.acceptsGzip("*;q=0")).isFalse();
+        // gzip explícito gana sobre el comodín, en ambos sentidos
+        assertThat(CompressionUtils.acceptsGzip("gzip;q=0, *")).isFalse();
+        assertThat(CompressionUtils.acceptsGzip("*;q=0, gzip;q=0.1")).isTrue();
+    }
+
+    @Test
+    void acceptsGzip_ShouldNotMatchOtherCodingsOrBadValues() {
+        assertThat(CompressionUtils.acceptsGzip(null)).isFalse();
+        assertThat(CompressionUtils.acceptsGzip("")).isFalse();
+        assertThat(CompressionUtils.acceptsGzip("identity")).isFalse();
+        assertThat(CompressionUtils.acceptsGzip("br, deflate")).isFalse();
+        assertThat(CompressionUtils.acceptsGzip("not-gzip")).isFalse();
+        assertThat(CompressionUtils.acceptsGzip("gzip;q=abc")).isFalse();
+    }
+
+    @Test
+    void isGzipEncoding_ShouldMatchStoredContentEncoding() {
+        assertThat(CompressionUtils.isGzipEncoding("gzip")).isTrue();
+        assertThat(CompressionUtils.isGzipEncoding("GZIP")).isTrue();
+        assertThat(CompressionUtils.isGzipEncoding("identity")).isFalse();
+        assertThat(CompressionUtils.isGzipEncoding(null)).isFalse();
+    }
+
+    @Test
+    void gzip_ShouldRoundTrip() {
+        byte[] data = "reporte técnico".repeat(50).getBytes(StandardCharsets.UTF_8);
+
+        byte[] compressed = CompressionUtils.gzip(data);
+
+        assertThat(CompressionUtils.isGzip(compressed)).isTrue();
+        assertThat(CompressionUtils.gunzip(compressed)).isEqualTo(data);
+    }
+}
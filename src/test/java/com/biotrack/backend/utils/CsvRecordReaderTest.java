@@ -0,0 +1,40 @@
+package com.biotrack.backend.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class CsvRecordReaderTest {
+
+    @Test
+    void next_ShouldSplitPlainFields() throws IOException {
+        CsvRecordReader reader = new CsvRecordReader(new StringReader("gene,chr\nBRCA1,17\n"));
+
+        assertThat(reader.next()).containsExactly("gene", "chr");
+        assertThat(reader.next()).containsExactly("BRCA1", "17");
+        assertThat(reader.lineNumber()).isEqualTo(2);
+        assertThat(reader.next()).isNull();
+    }
+
+    @Test
+    void next_ShouldHandleQuotedCommasQuotesAndNewlines() throws IOException {
+        CsvRecordReader reader = new CsvRecordReader(new StringReader(
+                "TP53,\"17,p13\",\"say \"\"hi\"\"\",\"two\r\nlines\"\r\nEGFR,7,,last"));
+
+        assertThat(reader.next()).containsExactly("TP53", "17,p13", "say \"hi\"", "two\r\nlines");
+        assertThat(reader.next()).containsExactly("EGFR", "7", "", "last");
+        assertThat(reader.lineNumber()).isEqualTo(3);
+        assertThat(reader.next()).isNull();
+    }
+
+    @Test
+    void next_UnterminatedQuote_ShouldFail() {
+        CsvRecordReader reader = new CsvRecordReader(new StringReader("\"open,field\n"));
+
+        assertThatThrownBy(reader::next).isInstanceOf(IOException.class);
+    }
+}
@@ -0,0 +1,20 @@
+package com.biotrack.backend.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchTextTest {
+
+    @Test
+    void normalize_ShouldFoldAccentsCaseAndPunctuation() {
+        assertThat(SearchText.normalize("José-María", "  Núñez Güemes ")).isEqualTo("jose maria nunez guemes");
+        assertThat(SearchText.normalize("O'Brien", null, "")).isEqualTo("o brien");
+        assertThat(SearchText.normalize((String) null)).isEmpty();
+    }
+
+    @Test
+    void escapeLike_ShouldEscapeWildcards() {
+        assertThat(SearchText.escapeLike("a_b%c\\")).isEqualTo("a\\_b\\%c\\\\");
+    }
+}